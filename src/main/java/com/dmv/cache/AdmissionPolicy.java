@@ -0,0 +1,34 @@
+package com.dmv.cache;
+
+/**
+ * Decides whether a value found in a lower cache tier earns a place in a faster one
+ * Every lookup is reported through {@link #recordAccess(String)} so frequency-based
+ * policies can tell hot keys from one-off scans.
+ */
+public interface AdmissionPolicy {
+
+    /**
+     * Admits everything, the behaviour before admission filtering existed
+     */
+    AdmissionPolicy ALWAYS = new AdmissionPolicy() {
+        @Override
+        public void recordAccess(String key) {
+        }
+
+        @Override
+        public boolean admit(String key) {
+            return true;
+        }
+
+        @Override
+        public String getName() {
+            return "always";
+        }
+    };
+
+    void recordAccess(String key);
+
+    boolean admit(String key);
+
+    String getName();
+}
@@ -0,0 +1,86 @@
+package com.dmv.cache;
+
+import java.util.Objects;
+
+/**
+ * Structured cache key for external data lookups
+ * Carries the collection, key path and value separately so entries can be tracked and
+ * invalidated per collection, while rendering to the same string form the cache layers store.
+ */
+public final class CacheKey {
+
+    public enum Type {
+        LOOKUP,     // collection:key=value
+        EXISTS,     // collection:EXISTS:key
+        COLLECTION  // COLLECTION:collection
+    }
+
+    private final Type type;
+    private final String collection;
+    private final String keyPath;
+    private final Object value;
+    private final String rendered;
+
+    private CacheKey(Type type, String collection, String keyPath, Object value, String rendered) {
+        this.type = type;
+        this.collection = collection;
+        this.keyPath = keyPath;
+        this.value = value;
+        this.rendered = rendered;
+    }
+
+    public static CacheKey lookup(String collection, String keyPath, Object value) {
+        String rendered = value == null
+            ? collection + ":" + keyPath
+            : collection + ":" + keyPath + "=" + value;
+        return new CacheKey(Type.LOOKUP, collection, keyPath, value, rendered);
+    }
+
+    public static CacheKey exists(String collection, String keyPath) {
+        return new CacheKey(Type.EXISTS, collection, keyPath, null, collection + ":EXISTS:" + keyPath);
+    }
+
+    public static CacheKey collection(String collection) {
+        return new CacheKey(Type.COLLECTION, collection, null, null, "COLLECTION:" + collection);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public String getKeyPath() {
+        return keyPath;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheKey)) return false;
+        CacheKey other = (CacheKey) o;
+        return type == other.type
+            && collection.equals(other.collection)
+            && Objects.equals(keyPath, other.keyPath)
+            && Objects.equals(value, other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return rendered.hashCode();
+    }
+
+    /**
+     * String form used as the key in every cache layer
+     */
+    @Override
+    public String toString() {
+        return rendered;
+    }
+}
@@ -1,5 +1,8 @@
 package com.dmv.cache;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -16,6 +19,20 @@ public interface CacheLayer<K, V> {
      */
     Optional<V> get(K key);
     
+    /**
+     * Retrieve a batch of values
+     * Layers with per-call overhead should override this to fetch in a single round trip.
+     * @param keys Cache keys to look up
+     * @return Values of the keys that were found; missing keys are absent from the map
+     */
+    default Map<K, V> getAll(Collection<K> keys) {
+        Map<K, V> found = new HashMap<>();
+        for (K key : keys) {
+            get(key).ifPresent(value -> found.put(key, value));
+        }
+        return found;
+    }
+    
     /**
      * Store value in cache
      * @param key Cache key
@@ -23,12 +40,32 @@ public interface CacheLayer<K, V> {
      */
     void put(K key, V value);
     
+    /**
+     * Store a batch of values
+     * Layers with per-call overhead should override this to write in a single round trip.
+     * @param values Values by cache key
+     */
+    default void putAll(Map<K, V> values) {
+        values.forEach(this::put);
+    }
+    
     /**
      * Remove specific key from cache
      * @param key Cache key to remove
      */
     void invalidate(K key);
     
+    /**
+     * Remove a batch of keys from cache
+     * Layers with per-call overhead should override this to evict in a single round trip.
+     * @param keys Cache keys to remove
+     */
+    default void invalidateAll(Collection<K> keys) {
+        for (K key : keys) {
+            invalidate(key);
+        }
+    }
+    
     /**
      * Clear all entries from cache
      */
@@ -40,6 +77,12 @@ public interface CacheLayer<K, V> {
      */
     CacheStats getStats();
     
+    /**
+     * Get the live metrics recorder backing this layer
+     * @return Cache metrics
+     */
+    CacheMetrics getMetrics();
+    
     /**
      * Get cache name/identifier
      * @return Cache name
@@ -1,87 +1,115 @@
 package com.dmv.cache;
 
+import com.dmv.metrics.LatencyHistogram;
+
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Detailed cache metrics tracking for performance analysis
+ * Counters are striped (LongAdder) and timings are recorded in nanoseconds into
+ * per-operation latency histograms, so the hit path never allocates or contends on a single word.
  */
 public class CacheMetrics {
-    
+
     private final String cacheName;
     private final String cacheType;
-    private final AtomicLong hitCount = new AtomicLong(0);
-    private final AtomicLong missCount = new AtomicLong(0);
-    private final AtomicLong evictionCount = new AtomicLong(0);
-    private final AtomicLong totalGetTime = new AtomicLong(0);
-    private final AtomicLong totalPutTime = new AtomicLong(0);
-    private final AtomicLong getOperationCount = new AtomicLong(0);
-    private final AtomicLong putOperationCount = new AtomicLong(0);
-    private final AtomicReference<LocalDateTime> lastAccessed = new AtomicReference<>(LocalDateTime.now());
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder totalGetTimeNanos = new LongAdder();
+    private final LongAdder totalPutTimeNanos = new LongAdder();
+    private final LongAdder getOperationCount = new LongAdder();
+    private final LongAdder putOperationCount = new LongAdder();
+    private final LatencyHistogram getLatency = new LatencyHistogram();
+    private final LatencyHistogram putLatency = new LatencyHistogram();
+    private volatile long lastAccessedMillis = System.currentTimeMillis();
     private final LocalDateTime createdAt = LocalDateTime.now();
-    
+
     public CacheMetrics(String cacheName, String cacheType) {
         this.cacheName = cacheName;
         this.cacheType = cacheType;
     }
-    
-    public void recordHit(long operationTimeMs) {
-        hitCount.incrementAndGet();
-        totalGetTime.addAndGet(operationTimeMs);
-        getOperationCount.incrementAndGet();
-        lastAccessed.set(LocalDateTime.now());
+
+    public void recordHit(long operationTimeNanos) {
+        hitCount.increment();
+        recordGet(operationTimeNanos);
     }
-    
-    public void recordMiss(long operationTimeMs) {
-        missCount.incrementAndGet();
-        totalGetTime.addAndGet(operationTimeMs);
-        getOperationCount.incrementAndGet();
-        lastAccessed.set(LocalDateTime.now());
+
+    public void recordMiss(long operationTimeNanos) {
+        missCount.increment();
+        recordGet(operationTimeNanos);
     }
-    
-    public void recordPut(long operationTimeMs) {
-        totalPutTime.addAndGet(operationTimeMs);
-        putOperationCount.incrementAndGet();
-        lastAccessed.set(LocalDateTime.now());
+
+    public void recordPut(long operationTimeNanos) {
+        totalPutTimeNanos.add(operationTimeNanos);
+        putOperationCount.increment();
+        putLatency.recordValue(operationTimeNanos);
+        touch();
     }
-    
+
     public void recordEviction() {
-        evictionCount.incrementAndGet();
+        evictionCount.increment();
     }
-    
+
     public void reset() {
-        hitCount.set(0);
-        missCount.set(0);
-        evictionCount.set(0);
-        totalGetTime.set(0);
-        totalPutTime.set(0);
-        getOperationCount.set(0);
-        putOperationCount.set(0);
-        lastAccessed.set(LocalDateTime.now());
+        hitCount.reset();
+        missCount.reset();
+        evictionCount.reset();
+        totalGetTimeNanos.reset();
+        totalPutTimeNanos.reset();
+        getOperationCount.reset();
+        putOperationCount.reset();
+        getLatency.reset();
+        putLatency.reset();
+        lastAccessedMillis = System.currentTimeMillis();
     }
-    
+
     public CacheStats getStats(long currentSize, long maxSize) {
-        long hits = hitCount.get();
-        long misses = missCount.get();
-        long evictions = evictionCount.get();
-        long avgGetTime = getOperationCount.get() > 0 ? 
-            totalGetTime.get() / getOperationCount.get() : 0;
-        long avgPutTime = putOperationCount.get() > 0 ? 
-            totalPutTime.get() / putOperationCount.get() : 0;
-        
+        long hits = hitCount.sum();
+        long misses = missCount.sum();
+        long evictions = evictionCount.sum();
+        long gets = getOperationCount.sum();
+        long puts = putOperationCount.sum();
+        long avgGetTimeMs = gets > 0 ? totalGetTimeNanos.sum() / gets / 1_000_000 : 0;
+        long avgPutTimeMs = puts > 0 ? totalPutTimeNanos.sum() / puts / 1_000_000 : 0;
+
         return new CacheStats(
             cacheName, hits, misses, evictions, currentSize, maxSize,
-            avgGetTime, avgPutTime, lastAccessed.get(), createdAt, cacheType
+            avgGetTimeMs, avgPutTimeMs, getLastAccessed(), createdAt, cacheType,
+            getLatency.summarize(), putLatency.summarize()
         );
     }
-    
+
     // Getters for individual metrics
-    public long getHitCount() { return hitCount.get(); }
-    public long getMissCount() { return missCount.get(); }
-    public long getEvictionCount() { return evictionCount.get(); }
+    public long getHitCount() { return hitCount.sum(); }
+    public long getMissCount() { return missCount.sum(); }
+    public long getEvictionCount() { return evictionCount.sum(); }
+    public long getPutCount() { return putOperationCount.sum(); }
     public String getCacheName() { return cacheName; }
     public String getCacheType() { return cacheType; }
-    public LocalDateTime getLastAccessed() { return lastAccessed.get(); }
+    public LatencyHistogram getGetLatencyHistogram() { return getLatency; }
+    public LatencyHistogram getPutLatencyHistogram() { return putLatency; }
     public LocalDateTime getCreatedAt() { return createdAt; }
-}
\ No newline at end of file
+
+    public LocalDateTime getLastAccessed() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(lastAccessedMillis), ZoneId.systemDefault());
+    }
+
+    private void recordGet(long operationTimeNanos) {
+        totalGetTimeNanos.add(operationTimeNanos);
+        getOperationCount.increment();
+        getLatency.recordValue(operationTimeNanos);
+        touch();
+    }
+
+    // Only write the shared timestamp when it actually changes to keep the cache line quiet
+    private void touch() {
+        long now = System.currentTimeMillis();
+        if (now != lastAccessedMillis) {
+            lastAccessedMillis = now;
+        }
+    }
+}
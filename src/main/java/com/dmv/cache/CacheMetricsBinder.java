@@ -0,0 +1,68 @@
+package com.dmv.cache;
+
+import com.dmv.metrics.LatencyHistogram;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes every cache layer's counters and latency percentiles to Micrometer
+ * Meters read the striped counters and histograms lazily at scrape time, so nothing is
+ * added to the cache hit path.
+ */
+@Component
+public class CacheMetricsBinder implements MeterBinder {
+
+    private static final double[] PERCENTILES = {50.0, 99.0, 99.9};
+
+    private final List<CacheLayer<?, ?>> cacheLayers;
+
+    public CacheMetricsBinder(List<CacheLayer<?, ?>> cacheLayers) {
+        this.cacheLayers = cacheLayers;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CacheLayer<?, ?> layer : cacheLayers) {
+            CacheMetrics metrics = layer.getMetrics();
+            String layerTag = metrics.getCacheType();
+
+            FunctionCounter.builder("dmv.cache.hits", metrics, CacheMetrics::getHitCount)
+                .tag("layer", layerTag)
+                .description("Cache hits")
+                .register(registry);
+            FunctionCounter.builder("dmv.cache.misses", metrics, CacheMetrics::getMissCount)
+                .tag("layer", layerTag)
+                .description("Cache misses")
+                .register(registry);
+            FunctionCounter.builder("dmv.cache.puts", metrics, CacheMetrics::getPutCount)
+                .tag("layer", layerTag)
+                .description("Cache puts")
+                .register(registry);
+            FunctionCounter.builder("dmv.cache.evictions", metrics, CacheMetrics::getEvictionCount)
+                .tag("layer", layerTag)
+                .description("Cache evictions")
+                .register(registry);
+
+            registerPercentiles(registry, "dmv.cache.get.latency", layerTag, metrics.getGetLatencyHistogram());
+            registerPercentiles(registry, "dmv.cache.put.latency", layerTag, metrics.getPutLatencyHistogram());
+        }
+    }
+
+    private void registerPercentiles(MeterRegistry registry, String name, String layerTag, LatencyHistogram histogram) {
+        for (double percentile : PERCENTILES) {
+            TimeGauge.builder(name, histogram, TimeUnit.NANOSECONDS, h -> h.getValueAtPercentile(percentile))
+                .tag("layer", layerTag)
+                .tag("quantile", String.valueOf(percentile / 100.0))
+                .register(registry);
+        }
+        TimeGauge.builder(name + ".max", histogram, TimeUnit.NANOSECONDS, LatencyHistogram::getMaxValue)
+            .tag("layer", layerTag)
+            .register(registry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.dmv.cache;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports OUT_OF_SERVICE until the cache snapshot has been restored
+ * Included in the readiness group so traffic is held back while caches are still warming.
+ */
+@Component
+public class CacheRestoreHealthIndicator implements HealthIndicator {
+
+    private final CacheSnapshotService snapshotService;
+
+    public CacheRestoreHealthIndicator(CacheSnapshotService snapshotService) {
+        this.snapshotService = snapshotService;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = snapshotService.isRestoreComplete() ? Health.up() : Health.outOfService();
+        return builder
+            .withDetail("snapshotsEnabled", snapshotService.isEnabled())
+            .withDetail("restoredEntries", snapshotService.getRestoredEntries())
+            .withDetail("skippedEntries", snapshotService.getSkippedEntries())
+            .build();
+    }
+}
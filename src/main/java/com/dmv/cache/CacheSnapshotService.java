@@ -0,0 +1,330 @@
+package com.dmv.cache;
+
+import com.dmv.storage.JsonFileStorageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persists the hot first-tier cache entries to a gzipped JSON file and restores them at boot
+ * A snapshot is written periodically and on graceful shutdown. On startup it is restored on a
+ * background thread; entries whose collection file changed since the snapshot, or that are older
+ * than the cache TTL, are skipped. A collection whose storage generation moves while it is being
+ * restored has its restored entries taken out again, so a concurrent file-change eviction wins.
+ */
+@Component
+public class CacheSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheSnapshotService.class);
+    private static final int FORMAT_VERSION = 1;
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+    private final MemoryCacheLayer memoryCache;
+    private final OffHeapCacheLayer offHeapCache;
+    private final CollectionKeyIndex keyIndex;
+    private final JsonFileStorageService jsonStorage;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path snapshotPath;
+    private final Duration interval;
+    private final long ttlMillis;
+    private final ScheduledExecutorService snapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean restoreComplete = false;
+    private volatile int restoredEntries = 0;
+    private volatile int skippedEntries = 0;
+
+    public CacheSnapshotService(MemoryCacheLayer memoryCache,
+                                OffHeapCacheLayer offHeapCache,
+                                CollectionKeyIndex keyIndex,
+                                JsonFileStorageService jsonStorage,
+                                ObjectMapper objectMapper,
+                                @Value("${dmv.cache.snapshot.enabled:true}") boolean enabled,
+                                @Value("${dmv.cache.snapshot.path:cache/external-data-snapshot.json.gz}") String snapshotPath,
+                                @Value("${dmv.cache.snapshot.interval:5m}") Duration interval,
+                                @Value("${dmv.cache.expire-after-write:30m}") Duration expireAfterWrite) {
+        this.memoryCache = memoryCache;
+        this.offHeapCache = offHeapCache;
+        this.keyIndex = keyIndex;
+        this.jsonStorage = jsonStorage;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.interval = interval;
+        this.ttlMillis = expireAfterWrite.toMillis();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            restoreComplete = true;
+            logger.info("Cache snapshots disabled [CACHE_OPERATION: SNAPSHOT]");
+            return;
+        }
+        snapshotExecutor.execute(this::restore);
+        snapshotExecutor.scheduleAtFixedRate(this::snapshotQuietly,
+            interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Cache snapshots enabled: {} every {} [CACHE_OPERATION: SNAPSHOT]",
+                   snapshotPath.toAbsolutePath(), interval);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotExecutor.shutdownNow();
+        try {
+            // A periodic snapshot still running would share the temp file with the final one
+            if (!snapshotExecutor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Snapshot thread did not stop, skipping final snapshot [CACHE_OPERATION: SNAPSHOT]");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (enabled && restoreComplete) {
+            snapshotQuietly();
+        }
+    }
+
+    /**
+     * Write the current first-tier contents to the snapshot file
+     * @return Number of entries written
+     */
+    public int snapshot() throws IOException {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setVersion(FORMAT_VERSION);
+        snapshot.setCreatedAt(System.currentTimeMillis());
+
+        for (String collection : keyIndex.getTrackedCollections()) {
+            long modifiedAt = jsonStorage.getCollectionModificationTime(collection);
+            if (modifiedAt == 0) {
+                continue;
+            }
+            snapshot.getCollectionModifiedAt().put(collection, modifiedAt);
+
+            for (CollectionKeyIndex.TrackedKey tracked : keyIndex.trackedKeys(collection)) {
+                CacheKey key = tracked.getKey();
+                Optional<Object> value = peek(key);
+                if (value.isPresent() && !(value.get() instanceof List)) {
+                    continue;
+                }
+                if (value.isPresent()) {
+                    SnapshotEntry entry = new SnapshotEntry();
+                    entry.setType(key.getType());
+                    entry.setCollection(collection);
+                    entry.setKeyPath(key.getKeyPath());
+                    entry.setValue(key.getValue());
+                    entry.setWrittenAt(tracked.getWrittenAt());
+                    entry.setRows(castRows(value.get()));
+                    snapshot.getEntries().add(entry);
+                }
+            }
+        }
+
+        Path parent = snapshotPath.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        // Write aside and move into place so a crash mid-write never leaves a truncated snapshot
+        Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+            objectMapper.writeValue(out, snapshot);
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        logger.info("Wrote cache snapshot with {} entries to {} [CACHE_OPERATION: SNAPSHOT]",
+                   snapshot.getEntries().size(), snapshotPath);
+        return snapshot.getEntries().size();
+    }
+
+    /**
+     * Load the snapshot file back into the first-tier caches
+     * Always marks the restore as complete, even when there is nothing to restore.
+     */
+    public void restore() {
+        int restored = 0;
+        int skipped = 0;
+        try {
+            if (!Files.exists(snapshotPath)) {
+                logger.info("No cache snapshot found at {} [CACHE_OPERATION: RESTORE]", snapshotPath);
+                return;
+            }
+
+            Snapshot snapshot;
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshotPath))) {
+                snapshot = objectMapper.readValue(in, Snapshot.class);
+            }
+            if (snapshot.getVersion() != FORMAT_VERSION) {
+                logger.warn("Ignoring cache snapshot with unsupported version {} [CACHE_OPERATION: RESTORE]",
+                           snapshot.getVersion());
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            Map<String, Long> currentModifiedAt = new HashMap<>();
+            Map<String, Long> checkedGenerations = new HashMap<>();
+            Map<String, List<CacheKey>> restoredKeys = new HashMap<>();
+            Set<String> changedDuringRestore = new HashSet<>();
+            for (SnapshotEntry entry : snapshot.getEntries()) {
+                String collection = entry.getCollection();
+                // Read before the modification time so any change after the check moves it
+                long generation = checkedGenerations.computeIfAbsent(collection, jsonStorage::getCollectionGeneration);
+                long current = currentModifiedAt.computeIfAbsent(collection, jsonStorage::getCollectionModificationTime);
+                Long recorded = snapshot.getCollectionModifiedAt().get(collection);
+
+                if (recorded == null || current != recorded || now - entry.getWrittenAt() >= ttlMillis
+                        || changedDuringRestore.contains(collection)) {
+                    skipped++;
+                    continue;
+                }
+
+                CacheKey key = toCacheKey(entry);
+                layerFor(key).put(key.toString(), CompactRecords.compact(entry.getRows()));
+                keyIndex.register(key, entry.getWrittenAt());
+                restoredKeys.computeIfAbsent(collection, name -> new ArrayList<>()).add(key);
+                restored++;
+
+                // The watcher moves the generation before it evicts, so a change it already evicted shows here
+                if (jsonStorage.getCollectionGeneration(collection) != generation) {
+                    changedDuringRestore.add(collection);
+                    for (CacheKey stale : restoredKeys.remove(collection)) {
+                        layerFor(stale).invalidate(stale.toString());
+                        restored--;
+                        skipped++;
+                    }
+                }
+            }
+
+            logger.info("Restored {} cache entries from snapshot, skipped {} stale [CACHE_OPERATION: RESTORE]",
+                       restored, skipped);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to restore cache snapshot from {}, starting cold [CACHE_OPERATION: RESTORE]",
+                       snapshotPath, e);
+        } finally {
+            restoredEntries = restored;
+            skippedEntries = skipped;
+            restoreComplete = true;
+        }
+    }
+
+    public boolean isRestoreComplete() {
+        return restoreComplete;
+    }
+
+    public int getRestoredEntries() {
+        return restoredEntries;
+    }
+
+    public int getSkippedEntries() {
+        return skippedEntries;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to write cache snapshot to {} [CACHE_OPERATION: SNAPSHOT]", snapshotPath, e);
+        }
+    }
+
+    // Full collections live off-heap when that layer is enabled, everything else in memory
+    private CacheLayer<String, Object> layerFor(CacheKey key) {
+        boolean offHeap = key.getType() == CacheKey.Type.COLLECTION && offHeapCache != null && offHeapCache.isEnabled();
+        return offHeap ? offHeapCache : memoryCache;
+    }
+
+    private Optional<Object> peek(CacheKey key) {
+        boolean offHeap = key.getType() == CacheKey.Type.COLLECTION && offHeapCache != null && offHeapCache.isEnabled();
+        return offHeap ? offHeapCache.peek(key.toString()) : memoryCache.peek(key.toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> castRows(Object value) {
+        return (List<Map<String, Object>>) value;
+    }
+
+    private static CacheKey toCacheKey(SnapshotEntry entry) {
+        switch (entry.getType()) {
+            case LOOKUP:
+                return CacheKey.lookup(entry.getCollection(), entry.getKeyPath(), entry.getValue());
+            case EXISTS:
+                return CacheKey.exists(entry.getCollection(), entry.getKeyPath());
+            default:
+                return CacheKey.collection(entry.getCollection());
+        }
+    }
+
+    /**
+     * On-disk snapshot format
+     */
+    public static class Snapshot {
+        private int version;
+        private long createdAt;
+        private Map<String, Long> collectionModifiedAt = new HashMap<>();
+        private List<SnapshotEntry> entries = new ArrayList<>();
+
+        public int getVersion() { return version; }
+        public void setVersion(int version) { this.version = version; }
+        public long getCreatedAt() { return createdAt; }
+        public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+        public Map<String, Long> getCollectionModifiedAt() { return collectionModifiedAt; }
+        public void setCollectionModifiedAt(Map<String, Long> collectionModifiedAt) { this.collectionModifiedAt = collectionModifiedAt; }
+        public List<SnapshotEntry> getEntries() { return entries; }
+        public void setEntries(List<SnapshotEntry> entries) { this.entries = entries; }
+    }
+
+    public static class SnapshotEntry {
+        private CacheKey.Type type;
+        private String collection;
+        private String keyPath;
+        private Object value;
+        private long writtenAt;
+        private List<Map<String, Object>> rows;
+
+        public CacheKey.Type getType() { return type; }
+        public void setType(CacheKey.Type type) { this.type = type; }
+        public String getCollection() { return collection; }
+        public void setCollection(String collection) { this.collection = collection; }
+        public String getKeyPath() { return keyPath; }
+        public void setKeyPath(String keyPath) { this.keyPath = keyPath; }
+        public Object getValue() { return value; }
+        public void setValue(Object value) { this.value = value; }
+        public long getWrittenAt() { return writtenAt; }
+        public void setWrittenAt(long writtenAt) { this.writtenAt = writtenAt; }
+        public List<Map<String, Object>> getRows() { return rows; }
+        public void setRows(List<Map<String, Object>> rows) { this.rows = rows; }
+    }
+}
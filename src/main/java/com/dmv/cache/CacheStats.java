@@ -1,7 +1,8 @@
 package com.dmv.cache;
 
+import com.dmv.metrics.LatencySummary;
+
 import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Enhanced cache statistics data class with detailed metrics
@@ -19,7 +20,9 @@ public class CacheStats {
     private final long averagePutTime; // in milliseconds
     private final LocalDateTime lastAccessed;
     private final LocalDateTime createdAt;
-    private final String cacheType; // "MEMORY", "NETWORK", "STORAGE"
+    private final String cacheType; // "MEMORY", "OFF_HEAP", "NETWORK", "STORAGE"
+    private final LatencySummary getLatency; // nanosecond distribution, null when not tracked
+    private final LatencySummary putLatency;
 
     public CacheStats(String cacheName, long hitCount, long missCount, 
                      long evictionCount, long size, long maxSize) {
@@ -32,6 +35,15 @@ public class CacheStats {
                      long averageGetTime, long averagePutTime,
                      LocalDateTime lastAccessed, LocalDateTime createdAt,
                      String cacheType) {
+        this(cacheName, hitCount, missCount, evictionCount, size, maxSize,
+             averageGetTime, averagePutTime, lastAccessed, createdAt, cacheType, null, null);
+    }
+
+    public CacheStats(String cacheName, long hitCount, long missCount, 
+                     long evictionCount, long size, long maxSize,
+                     long averageGetTime, long averagePutTime,
+                     LocalDateTime lastAccessed, LocalDateTime createdAt,
+                     String cacheType, LatencySummary getLatency, LatencySummary putLatency) {
         this.cacheName = cacheName;
         this.hitCount = hitCount;
         this.missCount = missCount;
@@ -45,6 +57,8 @@ public class CacheStats {
         this.lastAccessed = lastAccessed;
         this.createdAt = createdAt;
         this.cacheType = cacheType;
+        this.getLatency = getLatency;
+        this.putLatency = putLatency;
     }
 
     // Getters
@@ -96,6 +110,21 @@ public class CacheStats {
         return cacheType;
     }
 
+    public LatencySummary getGetLatency() {
+        return getLatency;
+    }
+
+    public LatencySummary getPutLatency() {
+        return putLatency;
+    }
+
+    /**
+     * Average get time in fractional milliseconds, using the nanosecond histogram when available
+     */
+    public double getAverageGetTimeMillis() {
+        return getLatency != null ? getLatency.getMeanNanos() / 1_000_000.0 : averageGetTime;
+    }
+
     public long getTotalRequests() {
         return hitCount + missCount;
     }
@@ -111,10 +140,9 @@ public class CacheStats {
                 ", size=" + size +
                 ", maxSize=" + maxSize +
                 ", evictionCount=" + evictionCount +
-                ", avgGetTime=" + averageGetTime + "ms" +
+                ", avgGetTime=" + String.format("%.3f", getAverageGetTimeMillis()) + "ms" +
                 ", avgPutTime=" + averagePutTime + "ms" +
                 ", lastAccessed=" + lastAccessed +
                 '}';
     }
 }
-}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.dmv.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Tracks which cache keys belong to which collection, and when each key was last written
+ * Lets a single collection be invalidated in O(entries) without clearing the other collections,
+ * and gives refresh-ahead and snapshotting the structured key and age of every cached entry.
+ */
+@Component
+public class CollectionKeyIndex {
+
+    private final ConcurrentHashMap<String, Map<String, TrackedKey>> keysByCollection = new ConcurrentHashMap<>();
+
+    /**
+     * Record that a key has been written to the caches (now)
+     */
+    public void register(CacheKey key) {
+        register(key, System.currentTimeMillis());
+    }
+
+    /**
+     * Record that a key was written to the caches at the given epoch millis
+     */
+    public void register(CacheKey key, long writtenAt) {
+        keysByCollection
+            .computeIfAbsent(key.getCollection(), c -> new ConcurrentHashMap<>())
+            .put(key.toString(), new TrackedKey(key, writtenAt));
+    }
+
+    /**
+     * Remove and return every key tracked for a collection
+     * @param collection Collection name
+     * @return Cache keys that were registered for the collection
+     */
+    public Set<String> drain(String collection) {
+        Map<String, TrackedKey> keys = keysByCollection.remove(collection);
+        return keys != null ? keys.keySet() : Collections.emptySet();
+    }
+
+    /**
+     * Remove and return the keys of a collection that match a predicate; the others stay tracked
+     * @param collection Collection name
+     * @param affected Which tracked keys to remove
+     * @return Cache keys that were removed
+     */
+    public Set<String> drainMatching(String collection, Predicate<CacheKey> affected) {
+        Map<String, TrackedKey> keys = keysByCollection.get(collection);
+        if (keys == null) {
+            return Collections.emptySet();
+        }
+        Set<String> drained = new HashSet<>();
+        keys.forEach((rendered, tracked) -> {
+            if (affected.test(tracked.getKey()) && keys.remove(rendered, tracked)) {
+                drained.add(rendered);
+            }
+        });
+        return drained;
+    }
+
+    /**
+     * Get the keys currently tracked for a collection (read-only view)
+     */
+    public Set<String> keysFor(String collection) {
+        Map<String, TrackedKey> keys = keysByCollection.get(collection);
+        return keys != null ? Collections.unmodifiableSet(keys.keySet()) : Collections.emptySet();
+    }
+
+    /**
+     * Get the structured keys and write times tracked for a collection (read-only view)
+     */
+    public Collection<TrackedKey> trackedKeys(String collection) {
+        Map<String, TrackedKey> keys = keysByCollection.get(collection);
+        return keys != null ? Collections.unmodifiableCollection(keys.values()) : Collections.emptyList();
+    }
+
+    /**
+     * Get the epoch millis at which a key was last written, or -1 if it is not tracked
+     */
+    public long getWrittenAt(CacheKey key) {
+        Map<String, TrackedKey> keys = keysByCollection.get(key.getCollection());
+        if (keys == null) {
+            return -1L;
+        }
+        TrackedKey tracked = keys.get(key.toString());
+        return tracked != null ? tracked.getWrittenAt() : -1L;
+    }
+
+    public Set<String> getTrackedCollections() {
+        return Collections.unmodifiableSet(keysByCollection.keySet());
+    }
+
+    public void clear() {
+        keysByCollection.clear();
+    }
+
+    /**
+     * A cache key together with the time it was last written
+     */
+    public static final class TrackedKey {
+        private final CacheKey key;
+        private final long writtenAt;
+
+        private TrackedKey(CacheKey key, long writtenAt) {
+            this.key = key;
+            this.writtenAt = writtenAt;
+        }
+
+        public CacheKey getKey() {
+            return key;
+        }
+
+        public long getWrittenAt() {
+            return writtenAt;
+        }
+    }
+}
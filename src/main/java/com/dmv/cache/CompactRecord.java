@@ -0,0 +1,96 @@
+package com.dmv.cache;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable row backed by a shared {@link KeyDictionary} and a plain value array
+ * Behaves as a read-only {@code Map<String, Object>} so helper and DRL code that reads
+ * fields by name keeps working, while every mutator throws UnsupportedOperationException.
+ */
+public final class CompactRecord extends AbstractMap<String, Object> {
+
+    private final KeyDictionary dictionary;
+    private final Object[] values;
+
+    CompactRecord(KeyDictionary dictionary, Object[] values) {
+        this.dictionary = dictionary;
+        this.values = values;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = dictionary.indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return dictionary.indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (next >= values.length) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = next++;
+                        return new SimpleImmutableEntry<>(dictionary.keyAt(index), values[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    KeyDictionary getDictionary() {
+        return dictionary;
+    }
+
+    // AbstractMap would route these through the entry set; fail fast with a clear message instead
+    @Override
+    public Object put(String key, Object value) {
+        throw new UnsupportedOperationException("Cached reference records are read-only");
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw new UnsupportedOperationException("Cached reference records are read-only");
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> map) {
+        throw new UnsupportedOperationException("Cached reference records are read-only");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Cached reference records are read-only");
+    }
+}
@@ -0,0 +1,74 @@
+package com.dmv.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts Jackson-produced rows into immutable compact records before they are cached
+ * Nested objects become compact records too, nested arrays become unmodifiable lists, and
+ * repeated string and number values within one conversion share a single instance.
+ */
+public final class CompactRecords {
+
+    private CompactRecords() {
+    }
+
+    /**
+     * Convert rows to an unmodifiable list of compact records (already compacted input is returned as is)
+     */
+    public static List<Map<String, Object>> compact(List<Map<String, Object>> rows) {
+        if (isCompacted(rows)) {
+            return rows;
+        }
+        Map<Object, Object> canonical = new HashMap<>();
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            result.add(compactMap(row, canonical));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static boolean isCompacted(List<Map<String, Object>> rows) {
+        for (Map<String, Object> row : rows) {
+            if (!(row instanceof CompactRecord)) {
+                return false;
+            }
+        }
+        return !rows.isEmpty();
+    }
+
+    private static CompactRecord compactMap(Map<?, ?> map, Map<Object, Object> canonical) {
+        if (map instanceof CompactRecord) {
+            return (CompactRecord) map;
+        }
+        List<String> keys = new ArrayList<>(map.size());
+        Object[] values = new Object[map.size()];
+        int i = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            keys.add(String.valueOf(entry.getKey()));
+            values[i++] = compactValue(entry.getValue(), canonical);
+        }
+        return new CompactRecord(KeyDictionary.of(keys), values);
+    }
+
+    private static Object compactValue(Object value, Map<Object, Object> canonical) {
+        if (value instanceof Map) {
+            return compactMap((Map<?, ?>) value, canonical);
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(compactValue(element, canonical));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        if (value instanceof String || value instanceof Number) {
+            return canonical.computeIfAbsent(value, v -> v);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,75 @@
+package com.dmv.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ordered set of field names shared by every compact record with the same shape
+ * Dictionaries are canonicalized, so all rows of a collection (and all nested objects of the
+ * same shape) point at one instance instead of each carrying its own hash table of keys.
+ */
+public final class KeyDictionary {
+
+    // Reference data has a handful of shapes; stop pooling if something pathological shows up
+    private static final int MAX_POOLED_SHAPES = 4096;
+    private static final ConcurrentHashMap<List<String>, KeyDictionary> POOL = new ConcurrentHashMap<>();
+
+    private final String[] keys;
+    private final Map<String, Integer> indexByKey;
+
+    private KeyDictionary(String[] keys) {
+        this.keys = keys;
+        this.indexByKey = new HashMap<>(keys.length * 2);
+        for (int i = 0; i < keys.length; i++) {
+            indexByKey.put(keys[i], i);
+        }
+    }
+
+    /**
+     * Get the canonical dictionary for the given ordered keys
+     */
+    public static KeyDictionary of(List<String> keys) {
+        KeyDictionary pooled = POOL.get(keys);
+        if (pooled != null) {
+            return pooled;
+        }
+        String[] interned = new String[keys.size()];
+        for (int i = 0; i < interned.length; i++) {
+            interned[i] = keys.get(i).intern();
+        }
+        KeyDictionary created = new KeyDictionary(interned);
+        if (POOL.size() >= MAX_POOLED_SHAPES) {
+            return created;
+        }
+        KeyDictionary existing = POOL.putIfAbsent(List.of(interned), created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Position of a key, or -1 if this shape does not contain it
+     */
+    public int indexOf(Object key) {
+        Integer index = indexByKey.get(key);
+        return index != null ? index : -1;
+    }
+
+    public String keyAt(int index) {
+        return keys[index];
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    static int pooledShapes() {
+        return POOL.size();
+    }
+
+    @Override
+    public String toString() {
+        return "KeyDictionary" + Arrays.toString(keys);
+    }
+}
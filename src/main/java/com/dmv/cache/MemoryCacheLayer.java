@@ -7,6 +7,9 @@ import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -34,40 +37,64 @@ public class MemoryCacheLayer implements CacheLayer<String, Object> {
 
     @Override
     public Optional<Object> get(String key) {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         try {
             Cache.ValueWrapper wrapper = cache.get(key);
-            long operationTime = System.currentTimeMillis() - startTime;
+            long operationTime = System.nanoTime() - startTime;
             
             if (wrapper != null) {
                 metrics.recordHit(operationTime);
-                logger.debug("Memory cache HIT for key: {} ({}ms) [CACHE_LAYER: MEMORY]", key, operationTime);
+                logger.debug("Memory cache HIT for key: {} ({}ns) [CACHE_LAYER: MEMORY]", key, operationTime);
                 return Optional.of(wrapper.get());
             } else {
                 metrics.recordMiss(operationTime);
-                logger.debug("Memory cache MISS for key: {} ({}ms) [CACHE_LAYER: MEMORY]", key, operationTime);
+                logger.debug("Memory cache MISS for key: {} ({}ns) [CACHE_LAYER: MEMORY]", key, operationTime);
                 return Optional.empty();
             }
         } catch (Exception e) {
-            long operationTime = System.currentTimeMillis() - startTime;
+            long operationTime = System.nanoTime() - startTime;
             metrics.recordMiss(operationTime);
-            logger.error("Error retrieving from memory cache for key: {} ({}ms) [CACHE_LAYER: MEMORY]", key, operationTime, e);
+            logger.error("Error retrieving from memory cache for key: {} ({}ns) [CACHE_LAYER: MEMORY]", key, operationTime, e);
             return Optional.empty();
         }
     }
 
+    @Override
+    public Map<String, Object> getAll(Collection<String> keys) {
+        Map<String, Object> found = new HashMap<>();
+        for (String key : keys) {
+            long startTime = System.nanoTime();
+            try {
+                Cache.ValueWrapper wrapper = cache.get(key);
+                long operationTime = System.nanoTime() - startTime;
+                if (wrapper != null) {
+                    metrics.recordHit(operationTime);
+                    found.put(key, wrapper.get());
+                } else {
+                    metrics.recordMiss(operationTime);
+                }
+            } catch (Exception e) {
+                metrics.recordMiss(System.nanoTime() - startTime);
+                logger.error("Error retrieving from memory cache for key: {} [CACHE_LAYER: MEMORY]", key, e);
+            }
+        }
+        // One summary line instead of a HIT / MISS line per key
+        logger.debug("Memory cache bulk get: {} of {} keys hit [CACHE_LAYER: MEMORY]", found.size(), keys.size());
+        return found;
+    }
+
     @Override
     public void put(String key, Object value) {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         try {
             cache.put(key, value);
-            long operationTime = System.currentTimeMillis() - startTime;
+            long operationTime = System.nanoTime() - startTime;
             metrics.recordPut(operationTime);
-            logger.debug("Stored in memory cache - key: {}, value type: {} ({}ms) [CACHE_LAYER: MEMORY]", 
+            logger.debug("Stored in memory cache - key: {}, value type: {} ({}ns) [CACHE_LAYER: MEMORY]", 
                         key, value != null ? value.getClass().getSimpleName() : "null", operationTime);
         } catch (Exception e) {
-            long operationTime = System.currentTimeMillis() - startTime;
-            logger.error("Error storing in memory cache for key: {} ({}ms) [CACHE_LAYER: MEMORY]", key, operationTime, e);
+            long operationTime = System.nanoTime() - startTime;
+            logger.error("Error storing in memory cache for key: {} ({}ns) [CACHE_LAYER: MEMORY]", key, operationTime, e);
         }
     }
 
@@ -93,6 +120,14 @@ public class MemoryCacheLayer implements CacheLayer<String, Object> {
         }
     }
 
+    /**
+     * Read a value without recording a hit or miss (used by snapshotting)
+     */
+    public Optional<Object> peek(String key) {
+        Cache.ValueWrapper wrapper = cache.get(key);
+        return wrapper != null ? Optional.ofNullable(wrapper.get()) : Optional.empty();
+    }
+
     @Override
     public CacheStats getStats() {
         return metrics.getStats(0, 1000); // size not easily available, max size from config
@@ -101,6 +136,7 @@ public class MemoryCacheLayer implements CacheLayer<String, Object> {
     /**
      * Get detailed cache metrics for testing and monitoring
      */
+    @Override
     public CacheMetrics getMetrics() {
         return metrics;
     }
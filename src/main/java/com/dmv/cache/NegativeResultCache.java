@@ -0,0 +1,92 @@
+package com.dmv.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Remembers lookups that matched nothing, with its own short TTL and bounded capacity
+ * Keeps unknown codes out of the regular cache layers and stops repeated bad input
+ * from reaching the network layer or storage.
+ */
+@Component
+public class NegativeResultCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(NegativeResultCache.class);
+
+    private final Cache<CacheKey, Boolean> negatives;
+    private final LongAdder hits = new LongAdder();
+
+    public NegativeResultCache(@Value("${dmv.cache.negative.ttl:2m}") Duration ttl,
+                               @Value("${dmv.cache.negative.max-entries:5000}") long maxEntries) {
+        this.negatives = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxEntries)
+            .build();
+        logger.info("Negative result cache initialized (ttl: {}, maxEntries: {})", ttl, maxEntries);
+    }
+
+    /**
+     * Whether the key is known to match nothing
+     */
+    public boolean isNegative(CacheKey key) {
+        if (negatives.getIfPresent(key) != null) {
+            hits.increment();
+            logger.debug("Negative cache HIT for key: {} [CACHE_LAYER: NEGATIVE]", key);
+            return true;
+        }
+        return false;
+    }
+
+    public void recordNegative(CacheKey key) {
+        negatives.put(key, Boolean.TRUE);
+        logger.debug("Stored negative result for key: {} [CACHE_LAYER: NEGATIVE]", key);
+    }
+
+    /**
+     * Forget every negative result for a collection
+     */
+    public void invalidateCollection(String collection) {
+        negatives.asMap().keySet().removeIf(key -> key.getCollection().equals(collection));
+    }
+
+    /**
+     * Forget the negative results of a collection that match a predicate
+     */
+    public void invalidateMatching(String collection, Predicate<CacheKey> affected) {
+        negatives.asMap().keySet().removeIf(key -> key.getCollection().equals(collection) && affected.test(key));
+    }
+
+    public void invalidateAll() {
+        negatives.invalidateAll();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long size() {
+        return negatives.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("dmv.cache.negative.hits", hits, LongAdder::sum)
+            .description("Lookups answered by the negative result cache")
+            .register(registry);
+        Gauge.builder("dmv.cache.negative.size", this, NegativeResultCache::size)
+            .description("Negative results currently cached")
+            .register(registry);
+    }
+}
@@ -1,107 +1,275 @@
 package com.dmv.cache;
 
+import com.dmv.cache.remote.CircuitBreaker;
+import com.dmv.cache.remote.RemoteCacheClient;
+import com.dmv.cache.remote.RemoteCacheException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Network cache layer implementation with simulated network latency
- * This is the second cache layer with larger capacity but slower access
+ * Network cache layer: the second cache tier with larger capacity but slower access
+ * In "remote" mode values are serialized and exchanged with an out-of-process cache through
+ * {@link RemoteCacheClient}; failures (including an open circuit) are reported as misses so
+ * lookups fall through to storage. Writes do not wait for the remote reply: a single put is sent
+ * and completes in the background, and a batch is pipelined and awaited as one. An invalidation
+ * first waits for in-flight puts of its keys, so it cannot be overtaken. A failed remote invalidation is not dropped: its keys read
+ * as misses and the delete (or clear) is replayed once the circuit is closed again. In
+ * "simulated" mode an in-process cache with configurable artificial latency stands in for the
+ * network.
  */
 @Component
 public class NetworkCacheLayer implements CacheLayer<String, Object> {
     
     private static final Logger logger = LoggerFactory.getLogger(NetworkCacheLayer.class);
     private static final String CACHE_NAME = "networkCache";
+    private static final String CACHE_TYPE = "NETWORK";
+    // Beyond this many keys awaiting a replayed delete, the whole remote cache is cleared instead
+    private static final int MAX_PENDING_INVALIDATIONS = 10_000;
     
     private final Cache cache;
-    private final Random random = new Random();
     private final CacheMetrics metrics;
+    private final RemoteCacheClient remoteClient;
+    private final ObjectMapper objectMapper;
     
-    // Network simulation parameters
-    private final long baseLatencyMs = 50; // Base network latency
-    private final long varianceMs = 30;    // Latency variance
-    private final boolean simulationEnabled = true;
-    private static final String CACHE_TYPE = "NETWORK";
+    // Network simulation parameters (simulated mode only)
+    private final long baseLatencyMs;
+    private final long varianceMs;
+    private volatile boolean simulationEnabled = true;
+
+    // Keys whose remote delete failed, with the failure sequence so a replay never drops a newer failure
+    private final Map<String, Long> pendingInvalidations = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationFailures = new AtomicLong();
+    // Failed clears (or overflowing pending keys) since the last successful clear
+    private final AtomicLong pendingClears = new AtomicLong();
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    // Puts sent but not yet acknowledged, awaited by invalidations of the same keys
+    private final Map<String, CompletableFuture<Void>> inFlightPuts = new ConcurrentHashMap<>();
 
     public NetworkCacheLayer(CacheManager cacheManager) {
+        this(cacheManager, null, null, Duration.ofMillis(50), Duration.ofMillis(30));
+    }
+
+    @Autowired
+    public NetworkCacheLayer(CacheManager cacheManager,
+                             ObjectProvider<RemoteCacheClient> remoteClient,
+                             ObjectProvider<ObjectMapper> objectMapper,
+                             @Value("${dmv.cache.network.simulated.base-latency:50ms}") Duration baseLatency,
+                             @Value("${dmv.cache.network.simulated.latency-variance:30ms}") Duration latencyVariance) {
         this.cache = cacheManager.getCache(CACHE_NAME);
         if (this.cache == null) {
             throw new IllegalStateException("Network cache '" + CACHE_NAME + "' not found in cache manager");
         }
+        this.remoteClient = remoteClient != null ? remoteClient.getIfAvailable() : null;
+        this.objectMapper = objectMapper != null ? objectMapper.getIfAvailable(ObjectMapper::new) : new ObjectMapper();
+        this.baseLatencyMs = baseLatency.toMillis();
+        this.varianceMs = latencyVariance.toMillis();
         this.metrics = new CacheMetrics(CACHE_NAME, CACHE_TYPE);
-        logger.info("Network cache layer initialized: {} (simulation: {}) with enhanced metrics", CACHE_NAME, simulationEnabled);
+        logger.info("Network cache layer initialized: {} (mode: {}, simulation: {}) with enhanced metrics",
+                   CACHE_NAME, getMode(), simulationEnabled);
     }
 
     @Override
     public Optional<Object> get(String key) {
-        long startTime = System.currentTimeMillis();
-        simulateNetworkLatency();
+        long startTime = System.nanoTime();
         
         try {
-            Cache.ValueWrapper wrapper = cache.get(key);
-            long operationTime = System.currentTimeMillis() - startTime;
+            Optional<Object> value = remoteClient != null ? remoteGet(key) : simulatedGet(key);
+            long operationTime = System.nanoTime() - startTime;
             
-            if (wrapper != null) {
+            if (value.isPresent()) {
                 metrics.recordHit(operationTime);
-                logger.debug("Network cache HIT for key: {} ({}ms) [CACHE_LAYER: NETWORK]", key, operationTime);
-                return Optional.of(wrapper.get());
+                logger.debug("Network cache HIT for key: {} ({}ns) [CACHE_LAYER: NETWORK]", key, operationTime);
             } else {
                 metrics.recordMiss(operationTime);
-                logger.debug("Network cache MISS for key: {} ({}ms) [CACHE_LAYER: NETWORK]", key, operationTime);
-                return Optional.empty();
+                logger.debug("Network cache MISS for key: {} ({}ns) [CACHE_LAYER: NETWORK]", key, operationTime);
             }
+            return value;
+        } catch (RemoteCacheException e) {
+            long operationTime = System.nanoTime() - startTime;
+            metrics.recordMiss(operationTime);
+            logRemoteFailure("retrieving", key, e);
+            return Optional.empty();
         } catch (Exception e) {
-            long operationTime = System.currentTimeMillis() - startTime;
+            long operationTime = System.nanoTime() - startTime;
             metrics.recordMiss(operationTime);
-            logger.error("Error retrieving from network cache for key: {} ({}ms) [CACHE_LAYER: NETWORK]", key, operationTime, e);
+            logger.error("Error retrieving from network cache for key: {} ({}ns) [CACHE_LAYER: NETWORK]", key, operationTime, e);
             return Optional.empty();
         }
     }
 
+    @Override
+    public Map<String, Object> getAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return new HashMap<>();
+        }
+        long startTime = System.nanoTime();
+        
+        try {
+            // One round trip (or one simulated latency) for the whole batch
+            Map<String, Object> found = remoteClient != null ? remoteGetAll(keys) : simulatedGetAll(keys);
+            long operationTime = System.nanoTime() - startTime;
+            for (String key : keys) {
+                if (found.containsKey(key)) {
+                    metrics.recordHit(operationTime / keys.size());
+                } else {
+                    metrics.recordMiss(operationTime / keys.size());
+                }
+            }
+            logger.debug("Network cache bulk get: {} of {} keys hit ({}ns) [CACHE_LAYER: NETWORK]",
+                        found.size(), keys.size(), operationTime);
+            return found;
+        } catch (RemoteCacheException e) {
+            long operationTime = System.nanoTime() - startTime;
+            for (int i = 0; i < keys.size(); i++) {
+                metrics.recordMiss(operationTime / keys.size());
+            }
+            logRemoteFailure("retrieving", keys.size() + " keys", e);
+            return new HashMap<>();
+        } catch (Exception e) {
+            logger.error("Error retrieving batch from network cache [CACHE_LAYER: NETWORK]", e);
+            return new HashMap<>();
+        }
+    }
+
+    @Override
+    public void putAll(Map<String, Object> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        try {
+            if (remoteClient != null) {
+                // Every put is on the wire before the first reply is awaited
+                Map<String, byte[]> serialized = new HashMap<>();
+                for (Map.Entry<String, Object> entry : values.entrySet()) {
+                    serialized.put(entry.getKey(), objectMapper.writeValueAsBytes(entry.getValue()));
+                }
+                awaitInFlightPuts(values.keySet());
+                remoteClient.putAll(serialized);
+                pendingInvalidations.keySet().removeAll(values.keySet());
+            } else {
+                simulateNetworkLatency();
+                values.forEach(cache::put);
+            }
+            long operationTime = System.nanoTime() - startTime;
+            for (int i = 0; i < values.size(); i++) {
+                metrics.recordPut(operationTime / values.size());
+            }
+            logger.debug("Stored {} keys in network cache ({}ns) [CACHE_LAYER: NETWORK]", values.size(), operationTime);
+        } catch (RemoteCacheException e) {
+            logRemoteFailure("storing", values.size() + " keys", e);
+        } catch (Exception e) {
+            logger.error("Error storing batch in network cache [CACHE_LAYER: NETWORK]", e);
+        }
+    }
+
     @Override
     public void put(String key, Object value) {
-        long startTime = System.currentTimeMillis();
-        simulateNetworkLatency();
+        long startTime = System.nanoTime();
         
         try {
+            if (remoteClient != null) {
+                // Metrics and failures are recorded when the reply arrives
+                remotePut(key, objectMapper.writeValueAsBytes(value), startTime);
+                return;
+            }
+            simulateNetworkLatency();
             cache.put(key, value);
-            long operationTime = System.currentTimeMillis() - startTime;
+            long operationTime = System.nanoTime() - startTime;
             metrics.recordPut(operationTime);
-            logger.debug("Stored in network cache - key: {}, value type: {} ({}ms) [CACHE_LAYER: NETWORK]", 
+            logger.debug("Stored in network cache - key: {}, value type: {} ({}ns) [CACHE_LAYER: NETWORK]", 
                         key, value != null ? value.getClass().getSimpleName() : "null", operationTime);
+        } catch (RemoteCacheException e) {
+            logRemoteFailure("storing", key, e);
         } catch (Exception e) {
-            long operationTime = System.currentTimeMillis() - startTime;
-            logger.error("Error storing in network cache for key: {} ({}ms) [CACHE_LAYER: NETWORK]", key, operationTime, e);
+            long operationTime = System.nanoTime() - startTime;
+            logger.error("Error storing in network cache for key: {} ({}ns) [CACHE_LAYER: NETWORK]", key, operationTime, e);
         }
     }
 
     @Override
     public void invalidate(String key) {
-        simulateNetworkLatency();
-        
         try {
-            cache.evict(key);
+            if (remoteClient != null) {
+                awaitInFlightPuts(List.of(key));
+                remoteClient.delete(key);
+                pendingInvalidations.remove(key);
+            } else {
+                simulateNetworkLatency();
+                cache.evict(key);
+            }
             metrics.recordEviction();
             logger.debug("Evicted from network cache - key: {} [CACHE_LAYER: NETWORK]", key);
+        } catch (RemoteCacheException e) {
+            recordFailedInvalidation(List.of(key), e);
         } catch (Exception e) {
             logger.error("Error evicting from network cache for key: {} [CACHE_LAYER: NETWORK]", key, e);
         }
     }
 
+    @Override
+    public void invalidateAll(Collection<String> keys) {
+        try {
+            // One round trip for the whole batch
+            if (remoteClient != null) {
+                awaitInFlightPuts(keys);
+                remoteClient.deleteAll(keys);
+                pendingInvalidations.keySet().removeAll(keys);
+            } else {
+                simulateNetworkLatency();
+                for (String key : keys) {
+                    cache.evict(key);
+                }
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                metrics.recordEviction();
+            }
+            logger.debug("Evicted {} keys from network cache [CACHE_LAYER: NETWORK]", keys.size());
+        } catch (RemoteCacheException e) {
+            recordFailedInvalidation(keys, e);
+        } catch (Exception e) {
+            logger.error("Error evicting batch from network cache [CACHE_LAYER: NETWORK]", e);
+        }
+    }
+
     @Override
     public void invalidateAll() {
-        simulateNetworkLatency();
-        
         try {
-            cache.clear();
+            if (remoteClient != null) {
+                long clears = pendingClears.get();
+                awaitInFlightPuts(List.copyOf(inFlightPuts.keySet()));
+                remoteClient.clear();
+                clearedPending(clears);
+            } else {
+                simulateNetworkLatency();
+                cache.clear();
+            }
             metrics.reset();
             logger.info("Cleared all entries from network cache [CACHE_LAYER: NETWORK]");
+        } catch (RemoteCacheException e) {
+            pendingClears.incrementAndGet();
+            logRemoteFailure("clearing", "*", e);
         } catch (Exception e) {
             logger.error("Error clearing network cache [CACHE_LAYER: NETWORK]", e);
         }
@@ -115,6 +283,7 @@ public class NetworkCacheLayer implements CacheLayer<String, Object> {
     /**
      * Get detailed cache metrics for testing and monitoring
      */
+    @Override
     public CacheMetrics getMetrics() {
         return metrics;
     }
@@ -124,32 +293,202 @@ public class NetworkCacheLayer implements CacheLayer<String, Object> {
         return CACHE_NAME;
     }
 
-    private long lastLatency = 0;
+    /**
+     * "remote" when backed by an out-of-process cache, otherwise "simulated"
+     */
+    public String getMode() {
+        return remoteClient != null ? "remote" : "simulated";
+    }
+
+    /**
+     * Circuit breaker state of the remote tier, or null in simulated mode
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return remoteClient != null ? remoteClient.getCircuitState() : null;
+    }
+
+    /**
+     * Keys whose remote invalidation failed and awaits replay, or -1 if a full clear is pending
+     */
+    public int getPendingInvalidations() {
+        return pendingClears.get() > 0 ? -1 : pendingInvalidations.size();
+    }
+
+    /**
+     * Enable or disable network latency simulation (simulated mode only)
+     * @param enabled true to enable simulation, false to disable
+     */
+    public void setSimulationEnabled(boolean enabled) {
+        this.simulationEnabled = enabled;
+        logger.info("Network cache simulation {}", enabled ? "enabled" : "disabled");
+    }
+
+    public boolean isSimulationEnabled() {
+        return simulationEnabled;
+    }
+
+    private Optional<Object> simulatedGet(String key) {
+        simulateNetworkLatency();
+        Cache.ValueWrapper wrapper = cache.get(key);
+        return wrapper != null ? Optional.ofNullable(wrapper.get()) : Optional.empty();
+    }
+
+    private Map<String, Object> simulatedGetAll(Collection<String> keys) {
+        simulateNetworkLatency();
+        Map<String, Object> found = new HashMap<>();
+        for (String key : keys) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                found.put(key, wrapper.get());
+            }
+        }
+        return found;
+    }
+
+    private Map<String, Object> remoteGetAll(Collection<String> keys) throws IOException {
+        replayPendingInvalidations();
+        Map<String, Object> found = new HashMap<>();
+        if (pendingClears.get() > 0) {
+            return found;
+        }
+        List<String> current = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            if (!pendingInvalidations.containsKey(key)) {
+                current.add(key);
+            }
+        }
+        if (current.isEmpty()) {
+            return found;
+        }
+        for (Map.Entry<String, byte[]> entry : remoteClient.getAll(current).entrySet()) {
+            found.put(entry.getKey(), deserialize(entry.getValue()));
+        }
+        return found;
+    }
+
+    private Optional<Object> remoteGet(String key) throws IOException {
+        replayPendingInvalidations();
+        if (isPendingInvalidation(key)) {
+            return Optional.empty();
+        }
+        Optional<byte[]> bytes = remoteClient.get(key);
+        if (bytes.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(deserialize(bytes.get()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object deserialize(byte[] bytes) throws IOException {
+        Object value = objectMapper.readValue(bytes, Object.class);
+        if (value instanceof List) {
+            value = CompactRecords.compact((List<Map<String, Object>>) value);
+        }
+        return value;
+    }
+
+    private void remotePut(String key, byte[] bytes, long startTime) {
+        CompletableFuture<Void> sent = remoteClient.putAsync(key, bytes).whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                // The stale remote value is overwritten, so its delete no longer needs replaying
+                pendingInvalidations.remove(key);
+                metrics.recordPut(System.nanoTime() - startTime);
+                logger.debug("Stored in network cache - key: {} [CACHE_LAYER: NETWORK]", key);
+            } else if (failure instanceof RemoteCacheException remoteFailure) {
+                logRemoteFailure("storing", key, remoteFailure);
+            } else {
+                logger.error("Error storing in network cache for key: {} [CACHE_LAYER: NETWORK]", key, failure);
+            }
+        });
+        // Chain onto any earlier put of the key so an invalidation waits for both
+        CompletableFuture<Void> tracked = inFlightPuts.merge(key, sent,
+            (earlier, later) -> CompletableFuture.allOf(earlier, later).exceptionally(failure -> null));
+        tracked.whenComplete((ignored, failure) -> inFlightPuts.remove(key, tracked));
+    }
+
+    private void awaitInFlightPuts(Collection<String> keys) {
+        if (inFlightPuts.isEmpty()) {
+            return;
+        }
+        for (String key : keys) {
+            CompletableFuture<Void> put = inFlightPuts.get(key);
+            if (put != null) {
+                // Bounded by the client's request timeout; a failed put needs no ordering
+                put.exceptionally(failure -> null).join();
+            }
+        }
+    }
+
+    private boolean isPendingInvalidation(String key) {
+        return pendingClears.get() > 0 || pendingInvalidations.containsKey(key);
+    }
+
+    private void recordFailedInvalidation(Collection<String> keys, RemoteCacheException e) {
+        if (pendingInvalidations.size() + keys.size() > MAX_PENDING_INVALIDATIONS) {
+            pendingClears.incrementAndGet();
+        } else {
+            long failure = invalidationFailures.incrementAndGet();
+            for (String key : keys) {
+                pendingInvalidations.put(key, failure);
+            }
+        }
+        logger.warn("Remote invalidation of {} keys failed, replaying once the remote cache recovers ({}) [CACHE_LAYER: NETWORK]",
+                   keys.size(), e.getMessage());
+    }
+
+    // Called before remote reads; one caller at a time replays, and only through a closed circuit
+    private void replayPendingInvalidations() {
+        if (pendingInvalidations.isEmpty() && pendingClears.get() == 0) {
+            return;
+        }
+        if (remoteClient.getCircuitState() != CircuitBreaker.State.CLOSED || !replaying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long clears = pendingClears.get();
+            if (clears > 0) {
+                remoteClient.clear();
+                clearedPending(clears);
+                logger.info("Replayed failed remote cache clear [CACHE_LAYER: NETWORK]");
+                return;
+            }
+            Map<String, Long> replayed = new HashMap<>(pendingInvalidations);
+            remoteClient.deleteAll(replayed.keySet());
+            replayed.forEach(pendingInvalidations::remove);
+            logger.info("Replayed {} failed remote invalidations [CACHE_LAYER: NETWORK]", replayed.size());
+        } catch (RemoteCacheException e) {
+            logRemoteFailure("replaying invalidations for", pendingInvalidations.size() + " keys", e);
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    // A successful clear supersedes every delete that failed before it
+    private void clearedPending(long clearsBefore) {
+        pendingInvalidations.clear();
+        pendingClears.compareAndSet(clearsBefore, 0);
+    }
+
+    private void logRemoteFailure(String operation, String key, RemoteCacheException e) {
+        if (remoteClient.getCircuitState() == CircuitBreaker.State.OPEN) {
+            logger.debug("Remote cache unavailable while {} key: {} ({}) [CACHE_LAYER: NETWORK]", operation, key, e.getMessage());
+        } else {
+            logger.warn("Remote cache failure while {} key: {} ({}) [CACHE_LAYER: NETWORK]", operation, key, e.getMessage());
+        }
+    }
 
     private void simulateNetworkLatency() {
-        if (!simulationEnabled) {
+        if (!simulationEnabled || baseLatencyMs + varianceMs <= 0) {
             return;
         }
         
         try {
             // Calculate random latency within variance
-            lastLatency = baseLatencyMs + random.nextInt((int) varianceMs);
-            Thread.sleep(lastLatency);
+            long latency = baseLatencyMs + (varianceMs > 0 ? ThreadLocalRandom.current().nextLong(varianceMs) : 0);
+            Thread.sleep(latency);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             logger.warn("Network latency simulation interrupted", e);
         }
     }
-
-    private long getLastLatency() {
-        return lastLatency;
-    }
-
-    /**
-     * Enable or disable network simulation
-     * @param enabled true to enable simulation, false to disable
-     */
-    public void setSimulationEnabled(boolean enabled) {
-        logger.info("Network cache simulation {}", enabled ? "enabled" : "disabled");
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,252 @@
+package com.dmv.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Off-heap cache layer for large collection values
+ * Values are serialized into direct buffers so they do not inflate the old generation,
+ * and are only deserialized when a caller actually reads from the returned list.
+ * Sits between the memory cache layer and the network cache layer.
+ */
+@Component
+public class OffHeapCacheLayer implements CacheLayer<String, Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapCacheLayer.class);
+    private static final String CACHE_NAME = "offHeapCache";
+    private static final String CACHE_TYPE = "OFF_HEAP";
+
+    private final ObjectMapper objectMapper;
+    private final CacheMetrics metrics;
+    private final boolean enabled;
+    private final long maxBytes;
+
+    // Access-ordered so the eldest entry is always the least recently used one
+    private final LinkedHashMap<String, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes = 0;
+
+    public OffHeapCacheLayer(ObjectMapper objectMapper,
+                             @Value("${dmv.cache.off-heap.enabled:true}") boolean enabled,
+                             @Value("${dmv.cache.off-heap.max-bytes:67108864}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.metrics = new CacheMetrics(CACHE_NAME, CACHE_TYPE);
+        logger.info("Off-heap cache layer initialized: {} (enabled: {}, maxBytes: {})", CACHE_NAME, enabled, maxBytes);
+    }
+
+    @Override
+    public Optional<Object> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        long startTime = System.nanoTime();
+        ByteBuffer buffer;
+        synchronized (entries) {
+            buffer = entries.get(key);
+        }
+        long operationTime = System.nanoTime() - startTime;
+
+        if (buffer != null) {
+            metrics.recordHit(operationTime);
+            logger.debug("Off-heap cache HIT for key: {} ({} bytes) [CACHE_LAYER: OFF_HEAP]", key, buffer.capacity());
+            return Optional.of(new LazyRowList(buffer.asReadOnlyBuffer(), objectMapper));
+        }
+
+        metrics.recordMiss(operationTime);
+        logger.debug("Off-heap cache MISS for key: {} [CACHE_LAYER: OFF_HEAP]", key);
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        if (!enabled) {
+            return;
+        }
+        if (!(value instanceof List)) {
+            logger.debug("Skipping off-heap storage for non-list value - key: {} [CACHE_LAYER: OFF_HEAP]", key);
+            return;
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            byte[] serialized = objectMapper.writeValueAsBytes(value);
+            if (serialized.length > maxBytes) {
+                logger.warn("Value for key: {} ({} bytes) exceeds off-heap capacity ({} bytes) [CACHE_LAYER: OFF_HEAP]",
+                           key, serialized.length, maxBytes);
+                return;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(serialized.length);
+            buffer.put(serialized).flip();
+
+            synchronized (entries) {
+                ByteBuffer previous = entries.remove(key);
+                if (previous != null) {
+                    usedBytes -= previous.capacity();
+                }
+                evictUntilFits(buffer.capacity());
+                entries.put(key, buffer);
+                usedBytes += buffer.capacity();
+            }
+
+            long operationTime = System.nanoTime() - startTime;
+            metrics.recordPut(operationTime);
+            logger.debug("Stored in off-heap cache - key: {}, {} bytes ({}ns) [CACHE_LAYER: OFF_HEAP]",
+                        key, serialized.length, operationTime);
+        } catch (IOException e) {
+            logger.error("Error serializing value for off-heap cache key: {} [CACHE_LAYER: OFF_HEAP]", key, e);
+        }
+    }
+
+    @Override
+    public void invalidate(String key) {
+        synchronized (entries) {
+            ByteBuffer removed = entries.remove(key);
+            if (removed != null) {
+                usedBytes -= removed.capacity();
+                metrics.recordEviction();
+            }
+        }
+        logger.debug("Evicted from off-heap cache - key: {} [CACHE_LAYER: OFF_HEAP]", key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            usedBytes = 0;
+        }
+        metrics.reset();
+        logger.info("Cleared all entries from off-heap cache [CACHE_LAYER: OFF_HEAP]");
+    }
+
+    /**
+     * Read a value without recording a hit or miss (used by snapshotting)
+     */
+    public Optional<Object> peek(String key) {
+        ByteBuffer buffer;
+        synchronized (entries) {
+            buffer = entries.get(key);
+        }
+        return buffer != null
+            ? Optional.of(new LazyRowList(buffer.asReadOnlyBuffer(), objectMapper))
+            : Optional.empty();
+    }
+
+    @Override
+    public CacheStats getStats() {
+        synchronized (entries) {
+            return metrics.getStats(entries.size(), 0);
+        }
+    }
+
+    /**
+     * Get detailed cache metrics for testing and monitoring
+     */
+    @Override
+    public CacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public String getName() {
+        return CACHE_NAME;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Bytes of direct memory currently held by cached values
+     */
+    public long getUsedBytes() {
+        synchronized (entries) {
+            return usedBytes;
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    // Caller must hold the entries lock
+    private void evictUntilFits(long requiredBytes) {
+        Iterator<Map.Entry<String, ByteBuffer>> iterator = entries.entrySet().iterator();
+        while (usedBytes + requiredBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, ByteBuffer> eldest = iterator.next();
+            usedBytes -= eldest.getValue().capacity();
+            iterator.remove();
+            metrics.recordEviction();
+            logger.debug("Evicted least recently used off-heap entry: {} [CACHE_LAYER: OFF_HEAP]", eldest.getKey());
+        }
+    }
+
+    /**
+     * Read-only list view over a serialized collection that deserializes on first access
+     * Rows are materialized as compact records, like every other cached value.
+     */
+    static final class LazyRowList extends AbstractList<Map<String, Object>> {
+
+        private static final TypeReference<List<Map<String, Object>>> ROWS_TYPE = new TypeReference<>() {};
+
+        private final ByteBuffer buffer;
+        private final ObjectMapper objectMapper;
+        private volatile List<Map<String, Object>> rows;
+
+        LazyRowList(ByteBuffer buffer, ObjectMapper objectMapper) {
+            this.buffer = buffer;
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            return rows().get(index);
+        }
+
+        @Override
+        public int size() {
+            return rows().size();
+        }
+
+        boolean isMaterialized() {
+            return rows != null;
+        }
+
+        private List<Map<String, Object>> rows() {
+            List<Map<String, Object>> result = rows;
+            if (result == null) {
+                synchronized (this) {
+                    result = rows;
+                    if (result == null) {
+                        try {
+                            result = CompactRecords.compact(objectMapper.readValue(
+                                new ByteBufferBackedInputStream(buffer.duplicate()), ROWS_TYPE));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException("Failed to deserialize off-heap cache value", e);
+                        }
+                        rows = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
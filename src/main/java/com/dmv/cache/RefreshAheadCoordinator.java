@@ -0,0 +1,214 @@
+package com.dmv.cache;
+
+import com.dmv.config.CacheRefreshProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Refresh-ahead and stale-while-revalidate support for external data caches
+ * Entries older than a configurable fraction of the cache TTL are reloaded on a background
+ * thread while callers keep the current value, and the last good value of each key is kept
+ * for a grace period so it can be served if the loader fails.
+ */
+@Component
+public class RefreshAheadCoordinator implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadCoordinator.class);
+
+    private final CacheRefreshProperties properties;
+    private final CollectionKeyIndex keyIndex;
+    private final long ttlMillis;
+    private final ExecutorService refreshExecutor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Cache<String, StaleEntry> staleValues;
+
+    private final LongAdder backgroundRefreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder staleServes = new LongAdder();
+
+    public RefreshAheadCoordinator(CacheRefreshProperties properties,
+                                   CollectionKeyIndex keyIndex,
+                                   @Value("${dmv.cache.expire-after-write:30m}") Duration expireAfterWrite) {
+        this.properties = properties;
+        this.keyIndex = keyIndex;
+        this.ttlMillis = expireAfterWrite.toMillis();
+        this.refreshExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getThreads()), daemonThreads());
+        this.staleValues = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfter(new StaleExpiry())
+            .build();
+        logger.info("Refresh-ahead coordinator initialized (ttl: {}ms, threads: {})", ttlMillis, properties.getThreads());
+    }
+
+    /**
+     * Whether a cached key is close enough to expiry that it should be reloaded in the background
+     */
+    public boolean shouldRefresh(CacheKey key) {
+        CacheRefreshProperties.Policy policy = properties.policyFor(key.getCollection());
+        if (!policy.isRefreshAhead()) {
+            return false;
+        }
+        long writtenAt = keyIndex.getWrittenAt(key);
+        if (writtenAt < 0) {
+            return false;
+        }
+        long age = System.currentTimeMillis() - writtenAt;
+        return age >= (long) (ttlMillis * policy.getRefreshAheadRatio());
+    }
+
+    /**
+     * Run a reload on the refresh pool unless one is already running for the same key
+     * @return true if a refresh was scheduled
+     */
+    public boolean refreshInBackground(CacheKey key, Runnable reload) {
+        String keyString = key.toString();
+        if (!inFlight.add(keyString)) {
+            return false;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    reload.run();
+                    backgroundRefreshes.increment();
+                    logger.debug("Background refresh completed for key: {} [CACHE_OPERATION: REFRESH_AHEAD]", keyString);
+                } catch (RuntimeException e) {
+                    refreshFailures.increment();
+                    logger.warn("Background refresh failed for key: {}, keeping current value [CACHE_OPERATION: REFRESH_AHEAD]",
+                               keyString, e);
+                } finally {
+                    inFlight.remove(keyString);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(keyString);
+            return false;
+        }
+    }
+
+    /**
+     * Keep the last good value of a key so it can be served if a later reload fails
+     */
+    public void rememberForStaleServe(CacheKey key, Object value) {
+        if (properties.policyFor(key.getCollection()).isServeStaleOnError()) {
+            staleValues.put(key.toString(), new StaleEntry(key.getCollection(), value));
+        }
+    }
+
+    /**
+     * Get the last good value of a key after a failed load, counting it as a stale serve
+     */
+    public Optional<Object> staleValue(CacheKey key) {
+        if (!properties.policyFor(key.getCollection()).isServeStaleOnError()) {
+            return Optional.empty();
+        }
+        StaleEntry entry = staleValues.getIfPresent(key.toString());
+        if (entry == null) {
+            return Optional.empty();
+        }
+        staleServes.increment();
+        logger.warn("Serving stale value for key: {} [CACHE_OPERATION: STALE_SERVE]", key);
+        return Optional.of(entry.value);
+    }
+
+    /**
+     * Drop remembered values, e.g. after an explicit invalidation
+     */
+    public void discard(Collection<String> keys) {
+        staleValues.invalidateAll(keys);
+    }
+
+    public void discardAll() {
+        staleValues.invalidateAll();
+    }
+
+    public long getBackgroundRefreshCount() {
+        return backgroundRefreshes.sum();
+    }
+
+    public long getRefreshFailureCount() {
+        return refreshFailures.sum();
+    }
+
+    public long getStaleServeCount() {
+        return staleServes.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("dmv.cache.refresh.background", backgroundRefreshes, LongAdder::sum)
+            .description("Entries reloaded ahead of expiry")
+            .register(registry);
+        FunctionCounter.builder("dmv.cache.refresh.failures", refreshFailures, LongAdder::sum)
+            .description("Background reloads that failed")
+            .register(registry);
+        FunctionCounter.builder("dmv.cache.stale.serves", staleServes, LongAdder::sum)
+            .description("Stale values served after a failed load")
+            .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class StaleEntry {
+        private final String collection;
+        private final Object value;
+
+        private StaleEntry(String collection, Object value) {
+            this.collection = collection;
+            this.value = value;
+        }
+    }
+
+    // A stale value outlives the cached one by the collection's maxStale
+    private final class StaleExpiry implements Expiry<String, StaleEntry> {
+        @Override
+        public long expireAfterCreate(String key, StaleEntry entry, long currentTime) {
+            Duration maxStale = properties.policyFor(entry.collection).getMaxStale();
+            return TimeUnit.MILLISECONDS.toNanos(ttlMillis) + maxStale.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, StaleEntry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, StaleEntry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
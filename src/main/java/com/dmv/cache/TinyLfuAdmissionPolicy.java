@@ -0,0 +1,57 @@
+package com.dmv.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TinyLFU-style admission: a key is promoted only once it has been seen often enough recently
+ * Frequencies come from an aging count-min sketch, so a single sweep over rarely used keys
+ * cannot push hot entries out of the faster tier.
+ */
+public class TinyLfuAdmissionPolicy implements AdmissionPolicy {
+
+    private final FrequencySketch sketch;
+    private final int minFrequency;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param expectedEntries Approximate capacity of the tier being protected (sizes the sketch)
+     * @param minFrequency Recent accesses a key needs before it is admitted
+     */
+    public TinyLfuAdmissionPolicy(int expectedEntries, int minFrequency) {
+        this.sketch = new FrequencySketch(expectedEntries);
+        this.minFrequency = minFrequency;
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        sketch.increment(key);
+    }
+
+    @Override
+    public boolean admit(String key) {
+        if (sketch.frequency(key) >= minFrequency) {
+            admitted.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    @Override
+    public String getName() {
+        return "tinylfu";
+    }
+
+    public int estimateFrequency(String key) {
+        return sketch.frequency(key);
+    }
+
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
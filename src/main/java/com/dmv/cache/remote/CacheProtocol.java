@@ -0,0 +1,175 @@
+package com.dmv.cache.remote;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format shared by the embedded cache server and the remote cache client
+ * <pre>
+ * request:  int frameLength | long requestId | byte opcode | int keyLength | key (UTF-8) | int valueLength | value
+ * response: int frameLength | long requestId | byte status | int valueLength | value
+ * </pre>
+ * A value length of -1 means no value. Responses carry the request id so a connection can have
+ * many requests in flight (pipelining).
+ */
+final class CacheProtocol {
+
+    static final byte OP_GET = 1;
+    static final byte OP_PUT = 2;
+    static final byte OP_DELETE = 3;
+    static final byte OP_DELETE_MANY = 4;
+    static final byte OP_CLEAR = 5;
+    static final byte OP_PING = 6;
+    static final byte OP_GET_MANY = 7;
+
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_NOT_FOUND = 1;
+    static final byte STATUS_ERROR = 2;
+
+    // Keys are short; anything bigger than this is a corrupt stream, not a request
+    static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private CacheProtocol() {
+    }
+
+    static final class Request {
+        final long requestId;
+        final byte opcode;
+        final String key;
+        final byte[] value;
+
+        Request(long requestId, byte opcode, String key, byte[] value) {
+            this.requestId = requestId;
+            this.opcode = opcode;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    static final class Response {
+        final long requestId;
+        final byte status;
+        final byte[] value;
+
+        Response(long requestId, byte status, byte[] value) {
+            this.requestId = requestId;
+            this.status = status;
+            this.value = value;
+        }
+    }
+
+    static void writeRequest(DataOutputStream out, Request request) throws IOException {
+        byte[] key = request.key.getBytes(StandardCharsets.UTF_8);
+        int valueLength = request.value != null ? request.value.length : 0;
+        out.writeInt(8 + 1 + 4 + key.length + 4 + valueLength);
+        out.writeLong(request.requestId);
+        out.writeByte(request.opcode);
+        out.writeInt(key.length);
+        out.write(key);
+        writeValue(out, request.value);
+    }
+
+    static Request readRequest(DataInputStream in) throws IOException {
+        checkFrameLength(in.readInt());
+        long requestId = in.readLong();
+        byte opcode = in.readByte();
+        byte[] key = new byte[in.readInt()];
+        in.readFully(key);
+        return new Request(requestId, opcode, new String(key, StandardCharsets.UTF_8), readValue(in));
+    }
+
+    static void writeResponse(DataOutputStream out, Response response) throws IOException {
+        int valueLength = response.value != null ? response.value.length : 0;
+        out.writeInt(8 + 1 + 4 + valueLength);
+        out.writeLong(response.requestId);
+        out.writeByte(response.status);
+        writeValue(out, response.value);
+    }
+
+    static Response readResponse(DataInputStream in) throws IOException {
+        checkFrameLength(in.readInt());
+        long requestId = in.readLong();
+        byte status = in.readByte();
+        return new Response(requestId, status, readValue(in));
+    }
+
+    /**
+     * Encode a batch of keys as a single value (int count, then length-prefixed UTF-8 keys)
+     */
+    static byte[] encodeKeys(Iterable<String> keys, int count) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(count);
+        for (String key : keys) {
+            byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(encoded.length);
+            out.write(encoded);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static String[] decodeKeys(byte[] value) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+        String[] keys = new String[in.readInt()];
+        for (int i = 0; i < keys.length; i++) {
+            byte[] key = new byte[in.readInt()];
+            in.readFully(key);
+            keys[i] = new String(key, StandardCharsets.UTF_8);
+        }
+        return keys;
+    }
+
+    /**
+     * Encode the values answering a key batch, in key order (int count, then values; -1 length for a miss)
+     */
+    static byte[] encodeValues(byte[][] values) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(values.length);
+        for (byte[] value : values) {
+            writeValue(out, value);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static byte[][] decodeValues(byte[] encoded) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        byte[][] values = new byte[in.readInt()][];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readValue(in);
+        }
+        return values;
+    }
+
+    private static void writeValue(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static byte[] readValue(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        checkFrameLength(length);
+        byte[] value = new byte[length];
+        in.readFully(value);
+        return value;
+    }
+
+    private static void checkFrameLength(int length) throws IOException {
+        if (length < 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+    }
+}
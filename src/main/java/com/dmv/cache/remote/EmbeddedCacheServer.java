@@ -0,0 +1,172 @@
+package com.dmv.cache.remote;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lightweight cache server speaking {@link CacheProtocol} on a loopback socket
+ * Started in-process for tests and development so the remote cache tier exercises a real
+ * socket, framing and serialization path without an external dependency.
+ * Each connection is served by its own thread; responses are flushed once the pipelined
+ * requests already buffered on that connection have been answered.
+ */
+public class EmbeddedCacheServer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedCacheServer.class);
+
+    private final Cache<String, byte[]> store;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connectionExecutor;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+
+    public EmbeddedCacheServer(int port, long maxEntries, Duration expireAfterWrite) throws IOException {
+        this.store = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(expireAfterWrite)
+            .build();
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        AtomicInteger counter = new AtomicInteger();
+        this.connectionExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "embedded-cache-server-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        connectionExecutor.execute(this::acceptLoop);
+        logger.info("Embedded cache server listening on {}:{} (maxEntries: {})",
+                   serverSocket.getInetAddress().getHostAddress(), getPort(), maxEntries);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public String getHost() {
+        return serverSocket.getInetAddress().getHostAddress();
+    }
+
+    public long size() {
+        return store.estimatedSize();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.debug("Error closing embedded cache server socket", e);
+        }
+        for (Socket socket : connections) {
+            closeQuietly(socket);
+        }
+        connectionExecutor.shutdownNow();
+        logger.info("Embedded cache server stopped");
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                connectionExecutor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    logger.warn("Embedded cache server failed to accept a connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (running) {
+                CacheProtocol.Request request = CacheProtocol.readRequest(in);
+                CacheProtocol.writeResponse(out, handle(request));
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (EOFException | SocketException e) {
+            // Client closed the connection
+        } catch (IOException e) {
+            logger.warn("Embedded cache server connection error", e);
+        } finally {
+            connections.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private CacheProtocol.Response handle(CacheProtocol.Request request) {
+        try {
+            switch (request.opcode) {
+                case CacheProtocol.OP_GET: {
+                    byte[] value = store.getIfPresent(request.key);
+                    return value != null
+                        ? new CacheProtocol.Response(request.requestId, CacheProtocol.STATUS_OK, value)
+                        : new CacheProtocol.Response(request.requestId, CacheProtocol.STATUS_NOT_FOUND, null);
+                }
+                case CacheProtocol.OP_GET_MANY: {
+                    String[] keys = CacheProtocol.decodeKeys(request.value);
+                    byte[][] values = new byte[keys.length][];
+                    for (int i = 0; i < keys.length; i++) {
+                        values[i] = store.getIfPresent(keys[i]);
+                    }
+                    return new CacheProtocol.Response(request.requestId, CacheProtocol.STATUS_OK,
+                        CacheProtocol.encodeValues(values));
+                }
+                case CacheProtocol.OP_PUT:
+                    store.put(request.key, request.value != null ? request.value : new byte[0]);
+                    break;
+                case CacheProtocol.OP_DELETE:
+                    store.invalidate(request.key);
+                    break;
+                case CacheProtocol.OP_DELETE_MANY:
+                    for (String key : CacheProtocol.decodeKeys(request.value)) {
+                        store.invalidate(key);
+                    }
+                    break;
+                case CacheProtocol.OP_CLEAR:
+                    store.invalidateAll();
+                    break;
+                case CacheProtocol.OP_PING:
+                    break;
+                default:
+                    return new CacheProtocol.Response(request.requestId, CacheProtocol.STATUS_ERROR, null);
+            }
+            return new CacheProtocol.Response(request.requestId, CacheProtocol.STATUS_OK, null);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Embedded cache server failed to handle opcode {}", request.opcode, e);
+            return new CacheProtocol.Response(request.requestId, CacheProtocol.STATUS_ERROR, null);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.dmv.cache.remote;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client for the remote cache tier
+ * Keeps a fixed pool of connections, each able to carry many pipelined requests matched to
+ * responses by request id. Every call has a timeout, and failures feed a circuit breaker so an
+ * unhealthy remote tier is skipped quickly instead of stalling every lookup. Batched writes are
+ * sent back to back and awaited together, and {@link #putAsync} leaves the wait to the caller.
+ */
+public class RemoteCacheClient implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteCacheClient.class);
+
+    private final String host;
+    private final int port;
+    private final int connectTimeoutMillis;
+    private final long requestTimeoutNanos;
+    private final CircuitBreaker circuitBreaker;
+    private final Connection[] pool;
+    private final AtomicInteger nextConnection = new AtomicInteger();
+    private final AtomicLong nextRequestId = new AtomicLong();
+
+    public RemoteCacheClient(String host, int port, int poolSize,
+                             Duration connectTimeout, Duration requestTimeout,
+                             CircuitBreaker circuitBreaker) {
+        this.host = host;
+        this.port = port;
+        this.connectTimeoutMillis = (int) connectTimeout.toMillis();
+        this.requestTimeoutNanos = requestTimeout.toNanos();
+        this.circuitBreaker = circuitBreaker;
+        this.pool = new Connection[Math.max(1, poolSize)];
+        logger.info("Remote cache client for {}:{} (pool: {}, timeout: {})", host, port, pool.length, requestTimeout);
+    }
+
+    public Optional<byte[]> get(String key) {
+        CacheProtocol.Response response = call(CacheProtocol.OP_GET, key, null);
+        return response.status == CacheProtocol.STATUS_OK ? Optional.ofNullable(response.value) : Optional.empty();
+    }
+
+    /**
+     * Fetch a batch of keys in a single round trip
+     * @return Values of the keys that were found
+     */
+    public Map<String, byte[]> getAll(Collection<String> keys) {
+        List<String> ordered = new ArrayList<>(keys);
+        try {
+            CacheProtocol.Response response = call(CacheProtocol.OP_GET_MANY, "",
+                CacheProtocol.encodeKeys(ordered, ordered.size()));
+            byte[][] values = CacheProtocol.decodeValues(response.value);
+            Map<String, byte[]> found = new HashMap<>();
+            for (int i = 0; i < values.length && i < ordered.size(); i++) {
+                if (values[i] != null) {
+                    found.put(ordered.get(i), values[i]);
+                }
+            }
+            return found;
+        } catch (IOException e) {
+            throw new RemoteCacheException("Failed to encode or decode key batch", e);
+        }
+    }
+
+    public void put(String key, byte[] value) {
+        call(CacheProtocol.OP_PUT, key, value);
+    }
+
+    /**
+     * Store a batch of values, pipelining every put before awaiting any reply
+     * The whole batch shares one request timeout and counts as one call for the circuit breaker.
+     */
+    public void putAll(Map<String, byte[]> values) {
+        if (!circuitBreaker.allowRequest()) {
+            throw new RemoteCacheException("Remote cache circuit is open");
+        }
+        List<InFlight> sent = new ArrayList<>(values.size());
+        try {
+            values.forEach((key, value) -> sent.add(dispatch(CacheProtocol.OP_PUT, key, value)));
+            long deadline = System.nanoTime() + requestTimeoutNanos;
+            for (InFlight request : sent) {
+                checkStatus(await(request, deadline), CacheProtocol.OP_PUT);
+            }
+            circuitBreaker.recordSuccess();
+        } catch (RemoteCacheException e) {
+            sent.forEach(InFlight::abandon);
+            circuitBreaker.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Send a put without waiting for its reply
+     * The request is written before this returns, so a later request on the same connection is
+     * served after it. The future fails with a {@link RemoteCacheException} on rejection, timeout
+     * or open circuit; completion runs on the connection's reader thread and must not block.
+     */
+    public CompletableFuture<Void> putAsync(String key, byte[] value) {
+        if (!circuitBreaker.allowRequest()) {
+            return CompletableFuture.failedFuture(new RemoteCacheException("Remote cache circuit is open"));
+        }
+        InFlight request;
+        try {
+            request = dispatch(CacheProtocol.OP_PUT, key, value);
+        } catch (RemoteCacheException e) {
+            circuitBreaker.recordFailure();
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Void> stored = new CompletableFuture<>();
+        request.future.orTimeout(requestTimeoutNanos, TimeUnit.NANOSECONDS).whenComplete((response, failure) -> {
+            if (failure == null && response.status != CacheProtocol.STATUS_ERROR) {
+                circuitBreaker.recordSuccess();
+                stored.complete(null);
+                return;
+            }
+            circuitBreaker.recordFailure();
+            if (failure instanceof TimeoutException) {
+                request.abandon();
+                stored.completeExceptionally(new RemoteCacheException("Remote cache request timed out for key: " + key, failure));
+            } else if (failure != null) {
+                stored.completeExceptionally(failure instanceof RemoteCacheException ? failure
+                    : new RemoteCacheException("Remote cache request failed for key: " + key, failure));
+            } else {
+                stored.completeExceptionally(new RemoteCacheException("Remote cache rejected opcode " + CacheProtocol.OP_PUT));
+            }
+        });
+        return stored;
+    }
+
+    public void delete(String key) {
+        call(CacheProtocol.OP_DELETE, key, null);
+    }
+
+    /**
+     * Delete a batch of keys in a single round trip
+     */
+    public void deleteAll(Collection<String> keys) {
+        try {
+            call(CacheProtocol.OP_DELETE_MANY, "", CacheProtocol.encodeKeys(keys, keys.size()));
+        } catch (IOException e) {
+            throw new RemoteCacheException("Failed to encode key batch", e);
+        }
+    }
+
+    public void clear() {
+        call(CacheProtocol.OP_CLEAR, "", null);
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    @Override
+    public void close() {
+        synchronized (pool) {
+            for (int i = 0; i < pool.length; i++) {
+                if (pool[i] != null) {
+                    pool[i].close(new RemoteCacheException("Client closed"));
+                    pool[i] = null;
+                }
+            }
+        }
+    }
+
+    private CacheProtocol.Response call(byte opcode, String key, byte[] value) {
+        if (!circuitBreaker.allowRequest()) {
+            throw new RemoteCacheException("Remote cache circuit is open");
+        }
+        try {
+            CacheProtocol.Response response = checkStatus(
+                await(dispatch(opcode, key, value), System.nanoTime() + requestTimeoutNanos), opcode);
+            circuitBreaker.recordSuccess();
+            return response;
+        } catch (RemoteCacheException e) {
+            circuitBreaker.recordFailure();
+            throw e;
+        }
+    }
+
+    private static CacheProtocol.Response checkStatus(CacheProtocol.Response response, byte opcode) {
+        if (response.status == CacheProtocol.STATUS_ERROR) {
+            throw new RemoteCacheException("Remote cache rejected opcode " + opcode);
+        }
+        return response;
+    }
+
+    private InFlight dispatch(byte opcode, String key, byte[] value) {
+        Connection connection = acquire();
+        long requestId = nextRequestId.incrementAndGet();
+        CompletableFuture<CacheProtocol.Response> future = connection.send(
+            new CacheProtocol.Request(requestId, opcode, key, value));
+        return new InFlight(connection, requestId, key, future);
+    }
+
+    private static CacheProtocol.Response await(InFlight request, long deadlineNanos) {
+        try {
+            return request.future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            request.abandon();
+            throw new RemoteCacheException("Remote cache request timed out for key: " + request.key, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.abandon();
+            throw new RemoteCacheException("Interrupted waiting for remote cache", e);
+        } catch (ExecutionException e) {
+            throw new RemoteCacheException("Remote cache request failed for key: " + request.key, e.getCause());
+        }
+    }
+
+    // Round-robin over the pool, replacing connections that have died
+    private Connection acquire() {
+        int slot = Math.floorMod(nextConnection.getAndIncrement(), pool.length);
+        Connection connection = pool[slot];
+        if (connection != null && connection.isOpen()) {
+            return connection;
+        }
+        synchronized (pool) {
+            connection = pool[slot];
+            if (connection == null || !connection.isOpen()) {
+                connection = connect();
+                pool[slot] = connection;
+            }
+            return connection;
+        }
+    }
+
+    private Connection connect() {
+        try {
+            Socket socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+            logger.debug("Opened remote cache connection to {}:{}", host, port);
+            return new Connection(socket);
+        } catch (IOException e) {
+            throw new RemoteCacheException("Cannot connect to remote cache at " + host + ":" + port, e);
+        }
+    }
+
+    /**
+     * A request written to a connection and not yet answered
+     */
+    private record InFlight(Connection connection, long requestId, String key,
+                            CompletableFuture<CacheProtocol.Response> future) {
+
+        void abandon() {
+            connection.abandon(requestId);
+        }
+    }
+
+    /**
+     * One socket with a dedicated reader thread completing pending requests by id
+     */
+    private static final class Connection {
+
+        private final Socket socket;
+        private final DataOutputStream out;
+        private final DataInputStream in;
+        private final Map<Long, CompletableFuture<CacheProtocol.Response>> pending = new ConcurrentHashMap<>();
+        private volatile boolean open = true;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            Thread reader = new Thread(this::readLoop, "remote-cache-reader-" + socket.getLocalPort());
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        boolean isOpen() {
+            return open;
+        }
+
+        CompletableFuture<CacheProtocol.Response> send(CacheProtocol.Request request) {
+            CompletableFuture<CacheProtocol.Response> future = new CompletableFuture<>();
+            pending.put(request.requestId, future);
+            try {
+                synchronized (out) {
+                    CacheProtocol.writeRequest(out, request);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                RemoteCacheException failure = new RemoteCacheException("Failed to write to remote cache", e);
+                close(failure);
+            }
+            return future;
+        }
+
+        void abandon(long requestId) {
+            pending.remove(requestId);
+        }
+
+        private void readLoop() {
+            try {
+                while (open) {
+                    CacheProtocol.Response response = CacheProtocol.readResponse(in);
+                    CompletableFuture<CacheProtocol.Response> future = pending.remove(response.requestId);
+                    if (future != null) {
+                        future.complete(response);
+                    }
+                }
+            } catch (IOException e) {
+                close(new RemoteCacheException("Remote cache connection lost", e));
+            }
+        }
+
+        void close(RemoteCacheException cause) {
+            open = false;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+            pending.values().forEach(future -> future.completeExceptionally(cause));
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.dmv.cache.remote;
+
+/**
+ * Raised when the remote cache tier cannot serve a request (I/O error, timeout or open circuit)
+ */
+public class RemoteCacheException extends RuntimeException {
+
+    public RemoteCacheException(String message) {
+        super(message);
+    }
+
+    public RemoteCacheException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Out-of-process cache tier: a small binary protocol, an embedded cache server for tests
+ * and development, and a pooled, pipelining client guarded by a circuit breaker.
+ */
+package com.dmv.cache.remote;
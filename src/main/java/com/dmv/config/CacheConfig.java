@@ -1,6 +1,9 @@
 package com.dmv.config;
 
+import com.dmv.cache.AdmissionPolicy;
+import com.dmv.cache.TinyLfuAdmissionPolicy;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -16,13 +19,13 @@ public class CacheConfig {
 
     @Bean
     @Primary
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(@Value("${dmv.cache.expire-after-write:30m}") Duration expireAfterWrite) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
         
         // Configure Caffeine cache with reasonable defaults
         cacheManager.setCaffeine(Caffeine.newBuilder()
             .maximumSize(10000)
-            .expireAfterWrite(Duration.ofMinutes(30))
+            .expireAfterWrite(expireAfterWrite)
             .recordStats());
         
         // Set cache names
@@ -30,4 +33,33 @@ public class CacheConfig {
         
         return cacheManager;
     }
+
+    /**
+     * Admission filter for promotions into the memory cache layer
+     */
+    @Bean
+    public AdmissionPolicy memoryAdmissionPolicy(@Value("${dmv.cache.admission.memory.policy:tinylfu}") String policy,
+                                                 @Value("${dmv.cache.admission.memory.min-frequency:2}") int minFrequency) {
+        return admissionPolicy(policy, 10000, minFrequency);
+    }
+
+    /**
+     * Admission filter for full collections entering the off-heap cache layer
+     */
+    @Bean
+    public AdmissionPolicy offHeapAdmissionPolicy(@Value("${dmv.cache.admission.off-heap.policy:always}") String policy,
+                                                  @Value("${dmv.cache.admission.off-heap.min-frequency:2}") int minFrequency) {
+        return admissionPolicy(policy, 1024, minFrequency);
+    }
+
+    private AdmissionPolicy admissionPolicy(String policy, int expectedEntries, int minFrequency) {
+        switch (policy) {
+            case "always":
+                return AdmissionPolicy.ALWAYS;
+            case "tinylfu":
+                return new TinyLfuAdmissionPolicy(expectedEntries, minFrequency);
+            default:
+                throw new IllegalArgumentException("Unknown cache admission policy: " + policy);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.dmv.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Refresh-ahead and stale-serving policy for external data caches
+ * A collection listed under {@code collections} uses its own policy, every other collection uses {@code defaults}.
+ */
+@Component
+@ConfigurationProperties(prefix = "dmv.cache.refresh")
+public class CacheRefreshProperties {
+
+    private int threads = 2;
+    private Policy defaults = new Policy();
+    private Map<String, Policy> collections = new HashMap<>();
+
+    public Policy policyFor(String collection) {
+        return collections.getOrDefault(collection, defaults);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public Policy getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Policy defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Policy> getCollections() {
+        return collections;
+    }
+
+    public void setCollections(Map<String, Policy> collections) {
+        this.collections = collections;
+    }
+
+    public static class Policy {
+
+        // Reload in the background once an entry is older than refreshAheadRatio * TTL
+        private boolean refreshAhead = false;
+        private double refreshAheadRatio = 0.8;
+
+        // Serve the last good value for up to maxStale past expiry when the loader fails
+        private boolean serveStaleOnError = false;
+        private Duration maxStale = Duration.ofMinutes(10);
+
+        public boolean isRefreshAhead() {
+            return refreshAhead;
+        }
+
+        public void setRefreshAhead(boolean refreshAhead) {
+            this.refreshAhead = refreshAhead;
+        }
+
+        public double getRefreshAheadRatio() {
+            return refreshAheadRatio;
+        }
+
+        public void setRefreshAheadRatio(double refreshAheadRatio) {
+            this.refreshAheadRatio = refreshAheadRatio;
+        }
+
+        public boolean isServeStaleOnError() {
+            return serveStaleOnError;
+        }
+
+        public void setServeStaleOnError(boolean serveStaleOnError) {
+            this.serveStaleOnError = serveStaleOnError;
+        }
+
+        public Duration getMaxStale() {
+            return maxStale;
+        }
+
+        public void setMaxStale(Duration maxStale) {
+            this.maxStale = maxStale;
+        }
+    }
+}
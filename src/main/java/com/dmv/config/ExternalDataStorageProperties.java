@@ -0,0 +1,117 @@
+package com.dmv.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where external data collections live and how they are loaded, indexed and held
+ * Key paths are written as {@code collection:keyPath}; several paths of a composite primary key
+ * are joined by '+'.
+ */
+@Component
+@ConfigurationProperties(prefix = "dmv.external-data")
+public class ExternalDataStorageProperties {
+
+    private String directory = "src/main/resources/data";
+
+    // Indexed eagerly when a collection loads; other key paths are indexed on first lookup
+    private List<String> indexedKeys = new ArrayList<>();
+
+    // Record identity for reload diffs
+    private List<String> primaryKeys = new ArrayList<>();
+
+    // Larger collections (all source files together) are scanned by lookups instead of loaded into a snapshot;
+    // 0 or less disables streaming
+    private long streamingThresholdBytes = 64L * 1024 * 1024;
+
+    private ColumnarSnapshot columnarSnapshot = new ColumnarSnapshot();
+    private Load load = new Load();
+
+    /**
+     * Defaults for every setting except the data directory
+     */
+    public static ExternalDataStorageProperties forDirectory(String directory) {
+        ExternalDataStorageProperties properties = new ExternalDataStorageProperties();
+        properties.setDirectory(directory);
+        return properties;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public List<String> getIndexedKeys() {
+        return indexedKeys;
+    }
+
+    public void setIndexedKeys(List<String> indexedKeys) {
+        this.indexedKeys = indexedKeys;
+    }
+
+    public List<String> getPrimaryKeys() {
+        return primaryKeys;
+    }
+
+    public void setPrimaryKeys(List<String> primaryKeys) {
+        this.primaryKeys = primaryKeys;
+    }
+
+    public long getStreamingThresholdBytes() {
+        return streamingThresholdBytes;
+    }
+
+    public void setStreamingThresholdBytes(long streamingThresholdBytes) {
+        this.streamingThresholdBytes = streamingThresholdBytes;
+    }
+
+    public ColumnarSnapshot getColumnarSnapshot() {
+        return columnarSnapshot;
+    }
+
+    public void setColumnarSnapshot(ColumnarSnapshot columnarSnapshot) {
+        this.columnarSnapshot = columnarSnapshot;
+    }
+
+    public Load getLoad() {
+        return load;
+    }
+
+    public void setLoad(Load load) {
+        this.load = load;
+    }
+
+    public static class ColumnarSnapshot {
+
+        // Compiled, memory-mapped collections; empty keeps parsed JSON snapshots on the heap
+        private String directory = "";
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    public static class Load {
+
+        // Threads parsing shards and NDJSON line ranges; 0 or less uses every core
+        private int parallelism = 0;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+}
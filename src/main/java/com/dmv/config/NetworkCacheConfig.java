@@ -0,0 +1,51 @@
+package com.dmv.config;
+
+import com.dmv.cache.remote.CircuitBreaker;
+import com.dmv.cache.remote.EmbeddedCacheServer;
+import com.dmv.cache.remote.RemoteCacheClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Remote cache tier wiring, active when dmv.cache.network.mode is "remote"
+ * In "simulated" mode (the default) no beans are created and NetworkCacheLayer falls back
+ * to its in-process cache with artificial latency.
+ */
+@Configuration
+public class NetworkCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression("'${dmv.cache.network.mode:simulated}' == 'remote' && ${dmv.cache.network.remote.embedded-server:true}")
+    public EmbeddedCacheServer embeddedCacheServer(
+            @Value("${dmv.cache.network.remote.port:0}") int port,
+            @Value("${dmv.cache.network.remote.server-max-entries:50000}") long maxEntries,
+            @Value("${dmv.cache.expire-after-write:30m}") Duration expireAfterWrite) throws IOException {
+        return new EmbeddedCacheServer(port, maxEntries, expireAfterWrite);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "dmv.cache.network.mode", havingValue = "remote")
+    public RemoteCacheClient remoteCacheClient(
+            ObjectProvider<EmbeddedCacheServer> embeddedServer,
+            @Value("${dmv.cache.network.remote.host:127.0.0.1}") String host,
+            @Value("${dmv.cache.network.remote.port:0}") int port,
+            @Value("${dmv.cache.network.remote.pool-size:4}") int poolSize,
+            @Value("${dmv.cache.network.remote.connect-timeout:250ms}") Duration connectTimeout,
+            @Value("${dmv.cache.network.remote.request-timeout:100ms}") Duration requestTimeout,
+            @Value("${dmv.cache.network.remote.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${dmv.cache.network.remote.circuit-breaker.open-duration:10s}") Duration openDuration) {
+        // An embedded server may be bound to an ephemeral port, so ask it where it is listening
+        EmbeddedCacheServer server = embeddedServer.getIfAvailable();
+        String targetHost = server != null ? server.getHost() : host;
+        int targetPort = server != null ? server.getPort() : port;
+        return new RemoteCacheClient(targetHost, targetPort, poolSize, connectTimeout, requestTimeout,
+                                     new CircuitBreaker(failureThreshold, openDuration));
+    }
+}
@@ -1,7 +1,11 @@
 package com.dmv.controller;
 
 import com.dmv.model.CacheStatistics;
+import com.dmv.query.ExternalDataQueryService;
+import com.dmv.query.Query;
+import com.dmv.query.QueryPlan;
 import com.dmv.service.ExternalDataService;
+import com.dmv.storage.JsonFileStorageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,10 +26,15 @@ public class ExternalDataController {
     private static final Logger logger = LoggerFactory.getLogger(ExternalDataController.class);
     
     private final ExternalDataService externalDataService;
+    private final ExternalDataQueryService queryService;
+    private final JsonFileStorageService jsonStorage;
 
     @Autowired
-    public ExternalDataController(ExternalDataService externalDataService) {
+    public ExternalDataController(ExternalDataService externalDataService, ExternalDataQueryService queryService,
+                                  JsonFileStorageService jsonStorage) {
         this.externalDataService = externalDataService;
+        this.queryService = queryService;
+        this.jsonStorage = jsonStorage;
     }
 
     /**
@@ -75,6 +84,55 @@ public class ExternalDataController {
         return ResponseEntity.ok(data);
     }
 
+    /**
+     * Run a compound query (see {@link Query#fromMap} for the body format)
+     */
+    @PostMapping("/collections/{collection}/query")
+    public ResponseEntity<List<Map<String, Object>>> queryCollection(
+            @PathVariable String collection,
+            @RequestBody(required = false) Map<String, Object> body) {
+        
+        Query query = Query.fromMap(collection, body);
+        logger.info("Querying collection: {}", query);
+        return ResponseEntity.ok(queryService.query(query));
+    }
+
+    /**
+     * Show the plan a compound query would use without running it
+     */
+    @PostMapping("/collections/{collection}/query/explain")
+    public ResponseEntity<Map<String, Object>> explainQuery(
+            @PathVariable String collection,
+            @RequestBody(required = false) Map<String, Object> body) {
+        
+        QueryPlan plan = queryService.explain(Query.fromMap(collection, body));
+        return ResponseEntity.ok(Map.of(
+            "query", plan.getQuery().normalized(),
+            "access", plan.getAccess(),
+            "plan", plan.explain().lines().toList()
+        ));
+    }
+
+    /**
+     * Parse throughput of the last load of a collection
+     */
+    @GetMapping("/collections/{collection}/load-stats")
+    public ResponseEntity<Map<String, Object>> getLoadStats(@PathVariable String collection) {
+        return jsonStorage.getLoadStats(collection)
+            .map(stats -> ResponseEntity.ok(Map.<String, Object>of(
+                "collection", stats.collection(),
+                "files", stats.files(),
+                "chunks", stats.chunks(),
+                "rows", stats.rows(),
+                "bytes", stats.bytes(),
+                "elapsedMs", stats.elapsedNanos() / 1_000_000.0,
+                "parallelism", stats.parallelism(),
+                "megabytesPerSecond", stats.megabytesPerSecond(),
+                "rowsPerSecond", stats.rowsPerSecond(),
+                "rowsPerSecondPerCore", stats.rowsPerSecondPerCore())))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     /**
      * Get cache statistics
      */
@@ -129,7 +187,9 @@ public class ExternalDataController {
             "collections", collections,
             "cacheHitRatio", stats.getOverallHitRatio(),
             "totalCacheHits", stats.getTotalHitCount(),
-            "totalCacheMisses", stats.getTotalMissCount()
+            "totalCacheMisses", stats.getTotalMissCount(),
+            "heapUsedBytes", stats.getHeapUsedBytes(),
+            "offHeapUsedBytes", stats.getOffHeapUsedBytes()
         );
         
         return ResponseEntity.ok(health);
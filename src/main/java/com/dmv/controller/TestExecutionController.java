@@ -100,6 +100,55 @@ public class TestExecutionController {
         }
     }
 
+    /**
+     * Stop a running load simulation
+     */
+    @PostMapping("/simulate/{runId}/stop")
+    public ResponseEntity<Map<String, Object>> stopSimulation(@PathVariable String runId) {
+        logger.info("Stopping load simulation: {}", runId);
+        
+        if (!testExecutionService.stopSimulation(runId)) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("runId", runId);
+        response.put("message", "Load simulation stopping");
+        response.put("timestamp", LocalDateTime.now());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stop all running load simulations
+     */
+    @PostMapping("/simulate/stop")
+    public ResponseEntity<Map<String, Object>> stopAllSimulations() {
+        logger.info("Stopping all load simulations");
+        
+        int stopped = testExecutionService.stopAllSimulations();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("stopped", stopped);
+        response.put("timestamp", LocalDateTime.now());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get running load simulations
+     */
+    @GetMapping("/simulate/active")
+    public ResponseEntity<Map<String, Object>> getActiveSimulations() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("activeSimulations", testExecutionService.getActiveSimulations());
+        response.put("timestamp", LocalDateTime.now());
+        
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Generate test report
      */
@@ -0,0 +1,18 @@
+package com.dmv.exception;
+
+/**
+ * Thrown when a collection exists in external data storage but cannot be read or parsed
+ */
+public class ExternalDataLoadException extends RuntimeException {
+
+    private final String collection;
+
+    public ExternalDataLoadException(String collection, Throwable cause) {
+        super("Failed to load external data collection: " + collection, cause);
+        this.collection = collection;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+}
@@ -0,0 +1,102 @@
+package com.dmv.load;
+
+import com.dmv.model.LoadTestConfig;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arrival times of an open-loop run, fixed in advance of and independent from response times
+ * The rate starts at the configured requests per second and is shaped by the arrival profile:
+ * <ul>
+ *   <li>{@code constant} - evenly spaced arrivals at the base rate</li>
+ *   <li>{@code poisson} - the base rate on average, with exponentially distributed gaps</li>
+ *   <li>{@code step} - the rate grows by the step rate every step period</li>
+ *   <li>{@code spike} - the spike rate for the spike window, the base rate around it</li>
+ * </ul>
+ */
+final class ArrivalSchedule {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    enum Profile { CONSTANT, POISSON, STEP, SPIKE }
+
+    private final Profile profile;
+    private final double baseRate;
+    private final double stepRate;
+    private final double stepNanos;
+    private final double spikeRate;
+    private final double spikeStartNanos;
+    private final double spikeEndNanos;
+    private final SplittableRandom random;
+    private double nextOffsetNanos;
+
+    ArrivalSchedule(LoadTestConfig config, SplittableRandom random) {
+        this.profile = profile(config.getArrivalProfile());
+        if (config.getRequestsPerSecond() <= 0) {
+            throw new IllegalArgumentException("Open-loop runs need a positive requestsPerSecond");
+        }
+        if (profile == Profile.STEP && config.getStepSeconds() <= 0) {
+            throw new IllegalArgumentException("Step profile needs a positive stepSeconds");
+        }
+        this.baseRate = config.getRequestsPerSecond();
+        this.stepRate = config.getStepRatePerSecond();
+        this.stepNanos = config.getStepSeconds() * NANOS_PER_SECOND;
+        this.spikeRate = config.getSpikeRatePerSecond() > 0 ? config.getSpikeRatePerSecond() : baseRate;
+        this.spikeStartNanos = config.getSpikeStartSeconds() * NANOS_PER_SECOND;
+        this.spikeEndNanos = spikeStartNanos + config.getSpikeDurationSeconds() * NANOS_PER_SECOND;
+        this.random = random;
+    }
+
+    /**
+     * Parse a profile name, case-insensitively; null or blank means constant
+     */
+    static Profile profile(String name) {
+        if (name == null || name.isBlank()) {
+            return Profile.CONSTANT;
+        }
+        try {
+            return Profile.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown arrival profile: " + name);
+        }
+    }
+
+    /**
+     * Offset from the start of the run of the next arrival, in nanoseconds
+     */
+    long next() {
+        long offset = (long) nextOffsetNanos;
+        double rate = rateAt(nextOffsetNanos);
+        if (rate <= 0) {
+            // A step profile stepping down to nothing sends no more requests
+            nextOffsetNanos = Double.POSITIVE_INFINITY;
+            return offset;
+        }
+        double gapSeconds = profile == Profile.POISSON
+            ? -Math.log(1.0 - random.nextDouble()) / rate
+            : 1.0 / rate;
+        double gapNanos = gapSeconds * NANOS_PER_SECOND;
+        if (profile == Profile.SPIKE && nextOffsetNanos < spikeStartNanos && nextOffsetNanos + gapNanos > spikeStartNanos) {
+            // A slow base rate must not step over the start of the spike
+            gapNanos = spikeStartNanos - nextOffsetNanos;
+        }
+        nextOffsetNanos += gapNanos;
+        return offset;
+    }
+
+    /**
+     * Intended arrivals per second at an offset into the run
+     */
+    double rateAt(double offsetNanos) {
+        switch (profile) {
+            case STEP:
+                return baseRate + stepRate * Math.floor(offsetNanos / stepNanos);
+            case SPIKE:
+                return offsetNanos >= spikeStartNanos && offsetNanos < spikeEndNanos ? spikeRate : baseRate;
+            default:
+                return baseRate;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.dmv.load;
+
+import com.dmv.metrics.LatencyHistogram;
+import com.dmv.model.LatencyDistribution;
+import com.dmv.model.SimulationInterval;
+import com.dmv.model.SimulationResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the outcome of every execution of a load run
+ * Service time, from the actual send to completion, goes into one histogram. When the run
+ * follows a send schedule, response time from the intended send goes into a second one: an
+ * execution held back behind a slow one then counts the time it waited to be sent, instead of
+ * the stall hiding itself by delaying the samples that would have shown it (coordinated
+ * omission). Sends and completions are also counted per second of the run, which gives the
+ * backlog of outstanding requests at the end of every second.
+ */
+final class LoadRecorder {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long startNanos;
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final LatencyHistogram responseTime;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder successes = new LongAdder();
+    private final Map<Integer, Interval> intervals = new ConcurrentHashMap<>();
+
+    /**
+     * @param scheduled Whether sends follow a schedule, so that response time can be corrected
+     */
+    LoadRecorder(long startNanos, boolean scheduled) {
+        this.startNanos = startNanos;
+        this.responseTime = scheduled ? new LatencyHistogram() : null;
+    }
+
+    /**
+     * Record one execution; all times are {@link System#nanoTime()} values
+     * @param intendedNanos When the schedule meant to send it; ignored for unscheduled runs
+     */
+    void record(long intendedNanos, long sentNanos, long completedNanos, boolean success) {
+        long service = completedNanos - sentNanos;
+        serviceTime.recordValue(service);
+        if (responseTime != null) {
+            responseTime.recordValue(completedNanos - Math.min(intendedNanos, sentNanos));
+        }
+        executions.increment();
+        if (success) {
+            successes.increment();
+        }
+        int second = (int) ((completedNanos - startNanos) / NANOS_PER_SECOND);
+        intervals.computeIfAbsent(second, s -> new Interval()).record(service, success);
+    }
+
+    /**
+     * Record that a request was sent, or for open-loop runs that it arrived
+     */
+    void arrived(long arrivalNanos) {
+        int second = (int) ((arrivalNanos - startNanos) / NANOS_PER_SECOND);
+        intervals.computeIfAbsent(second, s -> new Interval()).arrivals.increment();
+    }
+
+    long executions() {
+        return executions.sum();
+    }
+
+    /**
+     * Fill in totals, latency distributions and the per-second time series
+     */
+    void complete(SimulationResult result, long endNanos) {
+        long elapsedNanos = endNanos - startNanos;
+        long total = executions.sum();
+        long succeeded = successes.sum();
+        result.setTotalExecutionTimeMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.setTotalExecutions((int) total);
+        result.setSuccessfulExecutions((int) succeeded);
+        result.setFailedExecutions((int) (total - succeeded));
+        result.setAverageResponseTimeMs(serviceTime.getMean() / TimeUnit.MILLISECONDS.toNanos(1));
+        result.setThroughputPerSecond(elapsedNanos > 0 ? (double) total * NANOS_PER_SECOND / elapsedNanos : 0);
+        result.setLatency(new LatencyDistribution(serviceTime.summarize()));
+        if (responseTime != null) {
+            result.setCorrectedLatency(new LatencyDistribution(responseTime.summarize()));
+        }
+
+        // Seconds without a completion are reported too; a stall shows up as a gap of zeros
+        int lastSecond = (int) ((elapsedNanos - 1) / NANOS_PER_SECOND);
+        for (int second : intervals.keySet()) {
+            lastSecond = Math.max(lastSecond, second);
+        }
+        List<SimulationInterval> timeSeries = new ArrayList<>(lastSecond + 1);
+        long backlog = 0;
+        for (int second = 0; second <= lastSecond; second++) {
+            Interval interval = intervals.getOrDefault(second, Interval.EMPTY);
+            backlog += interval.arrivals.sum() - interval.count.sum();
+            timeSeries.add(interval.toModel(second, backlog));
+        }
+        result.setTimeSeries(timeSeries);
+    }
+
+    private static final class Interval {
+
+        static final Interval EMPTY = new Interval();
+
+        private final LongAdder arrivals = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long serviceNanos, boolean success) {
+            count.increment();
+            if (success) {
+                successes.increment();
+            }
+            latencyNanos.add(serviceNanos);
+            maxLatencyNanos.accumulate(serviceNanos);
+        }
+
+        SimulationInterval toModel(int second, long backlog) {
+            long executions = count.sum();
+            double meanMicros = executions > 0 ? latencyNanos.sum() / 1000.0 / executions : 0;
+            return new SimulationInterval(second, (int) arrivals.sum(), (int) executions, (int) successes.sum(),
+                (int) backlog, meanMicros, maxLatencyNanos.get() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.dmv.load;
+
+import com.dmv.model.LoadTestConfig;
+import com.dmv.model.SimulationResult;
+import com.dmv.model.TestResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Supplier;
+
+/**
+ * One load run, closed-loop by default or open-loop on request
+ * Closed-loop: every simulated user runs evaluations back to back on its own thread. Users
+ * start one by one across the ramp-up period and, in the last ramp-down seconds of the run,
+ * stop one by one in reverse order, so the number of active users rises and falls linearly.
+ * In a timed run a positive requests-per-second rate paces all users together through a shared
+ * {@link TokenBucket}; each user then has its own share of that rate as a send schedule, against
+ * which response times are corrected for coordinated omission. With no duration each user runs
+ * {@link LoadTestConfig#getExecutionsPerUser()} executions back to back instead.
+ * Open-loop: requests arrive on an {@link ArrivalSchedule} whatever the response times and
+ * queue for a pool of concurrent-users workers, so a node that cannot keep up builds a backlog
+ * instead of slowing the load down. Ramps do not apply; the arrival profile shapes the load.
+ * {@link #stop()} ends the run cooperatively: in-flight evaluations finish, queued requests are
+ * abandoned, and waits for a start time, a token or an arrival return at once.
+ */
+public final class LoadSimulation {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadSimulation.class);
+    // Far enough ahead to never be reached, near enough that nanoTime arithmetic cannot overflow
+    private static final long NO_DEADLINE = TimeUnit.DAYS.toNanos(365);
+    private static final long DRAIN_POLL_MILLIS = 50;
+
+    private final String runId;
+    private final LoadTestConfig config;
+    private final Supplier<TestResult> execution;
+    private final CountDownLatch stopSignal = new CountDownLatch(1);
+    private final AtomicInteger activeUsers = new AtomicInteger();
+    private final LongAccumulator peakActiveUsers = new LongAccumulator(Math::max, 0);
+    private final ArrivalSchedule arrivals;
+
+    /**
+     * @param execution One evaluation; called concurrently from every user thread
+     * @throws IllegalArgumentException If the configuration cannot be run
+     */
+    public LoadSimulation(String runId, LoadTestConfig config, Supplier<TestResult> execution) {
+        if (config.getConcurrentUsers() < 1) {
+            throw new IllegalArgumentException("At least one concurrent user is required");
+        }
+        if (config.isOpenLoop() && config.getDurationSeconds() <= 0) {
+            throw new IllegalArgumentException("Open-loop runs need a positive durationSeconds");
+        }
+        this.runId = runId;
+        this.config = config;
+        this.execution = execution;
+        this.arrivals = config.isOpenLoop() ? new ArrivalSchedule(config, new SplittableRandom()) : null;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public int getActiveUsers() {
+        return activeUsers.get();
+    }
+
+    public boolean isStopped() {
+        return stopSignal.getCount() == 0;
+    }
+
+    /**
+     * Ask every user to finish its current evaluation and exit
+     */
+    public void stop() {
+        stopSignal.countDown();
+    }
+
+    /**
+     * Run to completion (or until stopped) on the user or worker threads, blocking the caller
+     */
+    public SimulationResult run() throws InterruptedException {
+        SimulationResult result = new SimulationResult();
+        result.setConfig(config);
+        result.setRunId(runId);
+        result.setStartTime(LocalDateTime.now());
+        if (arrivals != null) {
+            runOpenLoop(result);
+        } else {
+            runClosedLoop(result);
+        }
+        result.setEndTime(LocalDateTime.now());
+        result.setStopped(isStopped());
+        result.addPerformanceMetric("concurrentUsers", config.getConcurrentUsers());
+        result.addPerformanceMetric("peakActiveUsers", peakActiveUsers.get());
+        logger.info("Load run {} finished{}: {} executions by {} users in {}ms", runId,
+                   isStopped() ? " (stopped)" : "", result.getTotalExecutions(),
+                   config.getConcurrentUsers(), result.getTotalExecutionTimeMs());
+        return result;
+    }
+
+    private void runClosedLoop(SimulationResult result) throws InterruptedException {
+        int users = config.getConcurrentUsers();
+        long durationNanos = TimeUnit.SECONDS.toNanos(Math.max(0, config.getDurationSeconds()));
+        long rampUpNanos = TimeUnit.SECONDS.toNanos(Math.max(0, config.getRampUpSeconds()));
+        long rampDownNanos = TimeUnit.SECONDS.toNanos(Math.max(0, config.getRampDownSeconds()));
+        if (durationNanos > 0 && rampUpNanos + rampDownNanos > durationNanos) {
+            // Keep the requested shape but fit both ramps into the run
+            double scale = (double) durationNanos / (rampUpNanos + rampDownNanos);
+            rampUpNanos = (long) (rampUpNanos * scale);
+            rampDownNanos = (long) (rampDownNanos * scale);
+        }
+        TokenBucket pacing = durationNanos > 0 && config.getRequestsPerSecond() > 0
+            ? new TokenBucket(config.getRequestsPerSecond(), Math.max(1, config.getRequestsPerSecond() / 10))
+            : null;
+
+        long startNanos = System.nanoTime();
+        LoadRecorder recorder = new LoadRecorder(startNanos, pacing != null);
+        long sendIntervalNanos = pacing != null ? users * TimeUnit.SECONDS.toNanos(1) / config.getRequestsPerSecond() : 0;
+
+        List<Thread> threads = new ArrayList<>(users);
+        for (int user = 0; user < users; user++) {
+            long startAt = startNanos + rampUpNanos * user / users;
+            long stopAt = durationNanos > 0
+                ? startNanos + durationNanos - rampDownNanos * user / users
+                : startNanos + NO_DEADLINE;
+            Thread thread = new Thread(() -> runUser(startAt, stopAt, durationNanos > 0, pacing, sendIntervalNanos, recorder),
+                "load-" + runId + "-user-" + user);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            // The caller gave up waiting; do not leave users running behind it
+            stop();
+            throw e;
+        }
+
+        recorder.complete(result, System.nanoTime());
+        result.addPerformanceMetric("pacedRequestsPerSecond", pacing != null ? config.getRequestsPerSecond() : 0);
+    }
+
+    private void runOpenLoop(SimulationResult result) throws InterruptedException {
+        int workers = config.getConcurrentUsers();
+        long durationNanos = TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        AtomicInteger workerIds = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), task -> {
+                Thread thread = new Thread(task, "load-" + runId + "-worker-" + workerIds.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.prestartAllCoreThreads();
+        AtomicInteger outstanding = new AtomicInteger();
+        LongAccumulator peakBacklog = new LongAccumulator(Math::max, 0);
+        long dropped = 0;
+        int abandoned = 0;
+
+        long startNanos = System.nanoTime();
+        LoadRecorder recorder = new LoadRecorder(startNanos, true);
+        try {
+            for (long offset = arrivals.next(); offset < durationNanos; offset = arrivals.next()) {
+                long arrivalAt = startNanos + offset;
+                if (stopSignal.await(arrivalAt - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                if (outstanding.get() >= config.getMaxOutstandingRequests()) {
+                    dropped++;
+                    continue;
+                }
+                peakBacklog.accumulate(outstanding.incrementAndGet());
+                recorder.arrived(arrivalAt);
+                pool.execute(() -> serve(arrivalAt, recorder, outstanding));
+            }
+            // Let the backlog drain so its latency is measured, unless the run is stopped
+            pool.shutdown();
+            while (!pool.awaitTermination(DRAIN_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (isStopped()) {
+                    abandoned += pool.getQueue().drainTo(new ArrayList<>());
+                }
+            }
+        } catch (InterruptedException e) {
+            stop();
+            pool.shutdownNow();
+            throw e;
+        }
+
+        recorder.complete(result, System.nanoTime());
+        result.addPerformanceMetric("arrivalProfile", ArrivalSchedule.profile(config.getArrivalProfile()).name().toLowerCase(Locale.ROOT));
+        result.addPerformanceMetric("peakBacklog", peakBacklog.get());
+        result.addPerformanceMetric("droppedRequests", dropped);
+        result.addPerformanceMetric("abandonedRequests", abandoned);
+    }
+
+    private void serve(long arrivalAt, LoadRecorder recorder, AtomicInteger outstanding) {
+        peakActiveUsers.accumulate(activeUsers.incrementAndGet());
+        long sentAt = System.nanoTime();
+        boolean success = false;
+        try {
+            success = execution.get().isSuccess();
+        } catch (RuntimeException e) {
+            logger.error("Load run {} execution failed", runId, e);
+        } finally {
+            recorder.record(arrivalAt, sentAt, System.nanoTime(), success);
+            activeUsers.decrementAndGet();
+            outstanding.decrementAndGet();
+        }
+    }
+
+    private void runUser(long startAt, long stopAt, boolean timed, TokenBucket pacing,
+                         long sendIntervalNanos, LoadRecorder recorder) {
+        try {
+            if (stopSignal.await(startAt - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+            peakActiveUsers.accumulate(activeUsers.incrementAndGet());
+            try {
+                int completed = 0;
+                long intendedAt = startAt;
+                while (!isStopped()) {
+                    if (timed ? System.nanoTime() - stopAt >= 0 : completed >= config.getExecutionsPerUser()) {
+                        break;
+                    }
+                    if (pacing != null && !pacing.acquire(stopAt, stopSignal)) {
+                        break;
+                    }
+                    long sentAt = System.nanoTime();
+                    if (intendedAt - sentAt > 0) {
+                        // Ahead of schedule; restart it here rather than bank the time
+                        intendedAt = sentAt;
+                    }
+                    recorder.arrived(sentAt);
+                    TestResult outcome = execution.get();
+                    recorder.record(intendedAt, sentAt, System.nanoTime(), outcome.isSuccess());
+                    intendedAt += sendIntervalNanos;
+                    completed++;
+                }
+            } finally {
+                activeUsers.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Load run {} user thread failed", runId, e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.dmv.load;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket pacing callers to a shared rate
+ * Tokens refill continuously up to the burst capacity. A caller that finds the bucket empty
+ * reserves the next token anyway (the balance goes negative) and waits until it has refilled,
+ * so waiting callers are served in the order they arrived and never all wake at once.
+ */
+public final class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * @param ratePerSecond Sustained rate, must be positive
+     * @param burst Tokens that may be taken at once after an idle period (at least 1)
+     */
+    public TokenBucket(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive: " + ratePerSecond);
+        }
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        // Start with a single token so a run does not open with a full burst
+        this.tokens = 1;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Take one token, waiting for it if necessary
+     * @param deadlineNanos {@link System#nanoTime()} after which the caller no longer wants a token
+     * @param stopSignal Released to abandon the wait
+     * @return true once a token is held; false if it would arrive after the deadline or the wait was stopped
+     */
+    public boolean acquire(long deadlineNanos, CountDownLatch stopSignal) throws InterruptedException {
+        long waitNanos = reserve(deadlineNanos);
+        if (waitNanos < 0) {
+            return false;
+        }
+        return waitNanos == 0 || !stopSignal.await(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Nanoseconds until the reserved token is available, or -1 if that is past the deadline
+    private synchronized long reserve(long deadlineNanos) {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        long waitNanos = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+        if (now + waitNanos - deadlineNanos > 0) {
+            return -1;
+        }
+        tokens -= 1;
+        return waitNanos;
+    }
+}
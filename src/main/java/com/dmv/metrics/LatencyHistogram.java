@@ -0,0 +1,187 @@
+package com.dmv.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram
+ * Values are nanoseconds. Each power of two is split into 64 sub-buckets, which bounds the
+ * relative error of any reported percentile to under 1.6%. Recording is safe to call from many
+ * threads at once. Like {@link LongAdder}, counts go to one shared bucket array until two threads
+ * collide on a bucket; the losing thread's slot then gets a bucket array of its own, so hot
+ * buckets stop bouncing between cores. Reads merge the arrays.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;   // 128
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >> 1;   // 64
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF + SUB_BUCKET_COUNT;
+
+    private static final int MAX_STRIPES = 16;
+    private static final int STRIPES = Math.min(MAX_STRIPES,
+        Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    // Allocated per thread slot on the first contended update only
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalValue = new LongAdder();
+    private final LongAccumulator maxValue = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a single latency value
+     * @param valueNanos Latency in nanoseconds; negative values are recorded as zero
+     */
+    public void recordValue(long valueNanos) {
+        long value = Math.max(0, valueNanos);
+        increment(indexFor(value));
+        totalCount.increment();
+        totalValue.add(value);
+        maxValue.accumulate(value);
+    }
+
+    /**
+     * Add every recorded value of another histogram to this one
+     */
+    public void add(LatencyHistogram other) {
+        long[] otherCounts = other.mergedCounts();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = otherCounts[i];
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.totalCount.sum());
+        totalValue.add(other.totalValue.sum());
+        maxValue.accumulate(other.maxValue.get());
+    }
+
+    /**
+     * Get the value at or below which the given percentage of recorded values fall
+     * @param percentile Percentile between 0 and 100
+     * @return Highest value equivalent to the bucket containing the percentile, in nanoseconds
+     */
+    public long getValueAtPercentile(double percentile) {
+        return valueAtPercentile(mergedCounts(), percentile);
+    }
+
+    private long valueAtPercentile(long[] merged, double percentile) {
+        long total = totalCount.sum();
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += merged[i];
+            if (cumulative >= target) {
+                return Math.min(highestEquivalentValue(i), getMaxValue());
+            }
+        }
+        return getMaxValue();
+    }
+
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        long total = totalCount.sum();
+        return total > 0 ? (double) totalValue.sum() / total : 0.0;
+    }
+
+    /**
+     * Capture count, mean and the standard percentiles
+     */
+    public LatencySummary summarize() {
+        long[] merged = mergedCounts();
+        return new LatencySummary(
+            getTotalCount(),
+            getMean(),
+            valueAtPercentile(merged, 50.0),
+            valueAtPercentile(merged, 90.0),
+            valueAtPercentile(merged, 99.0),
+            valueAtPercentile(merged, 99.9),
+            getMaxValue()
+        );
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        for (int s = 0; s < STRIPES; s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe != null) {
+                for (int i = 0; i < BUCKET_COUNT; i++) {
+                    stripe.set(i, 0);
+                }
+            }
+        }
+        totalCount.reset();
+        totalValue.reset();
+        maxValue.reset();
+    }
+
+    private void increment(int index) {
+        int slot = stripeFor(Thread.currentThread());
+        AtomicLongArray stripe = stripes.get(slot);
+        if (stripe != null) {
+            stripe.incrementAndGet(index);
+            return;
+        }
+        long current = counts.get(index);
+        if (!counts.compareAndSet(index, current, current + 1)) {
+            // Another thread updated the same bucket at once; move this slot off the shared array
+            stripes.compareAndSet(slot, null, new AtomicLongArray(BUCKET_COUNT));
+            stripes.get(slot).incrementAndGet(index);
+        }
+    }
+
+    // Bucket counts of the shared array and every stripe
+    private long[] mergedCounts() {
+        long[] merged = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            merged[i] = counts.get(i);
+        }
+        for (int s = 0; s < STRIPES; s++) {
+            AtomicLongArray stripe = stripes.get(s);
+            if (stripe != null) {
+                for (int i = 0; i < BUCKET_COUNT; i++) {
+                    merged[i] += stripe.get(i);
+                }
+            }
+        }
+        return merged;
+    }
+
+    // Thread ids are sequential; spread them so neighbouring threads land on different stripes
+    private static int stripeFor(Thread thread) {
+        return (int) ((thread.getId() * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+    }
+
+    static int indexFor(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long subBucket = index - (long) shift * SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
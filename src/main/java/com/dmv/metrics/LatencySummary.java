@@ -0,0 +1,67 @@
+package com.dmv.metrics;
+
+/**
+ * Point-in-time latency distribution summary (all values in nanoseconds)
+ */
+public class LatencySummary {
+
+    private final long count;
+    private final double meanNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    public LatencySummary(long count, double meanNanos, long p50Nanos, long p90Nanos,
+                          long p99Nanos, long p999Nanos, long maxNanos) {
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySummary{" +
+                "count=" + count +
+                ", mean=" + String.format("%.1f", meanNanos) + "ns" +
+                ", p50=" + p50Nanos + "ns" +
+                ", p90=" + p90Nanos + "ns" +
+                ", p99=" + p99Nanos + "ns" +
+                ", p999=" + p999Nanos + "ns" +
+                ", max=" + maxNanos + "ns" +
+                '}';
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Low-overhead metric primitives such as latency histograms,
+ * shared by the cache layers and the load simulator.
+ */
+package com.dmv.metrics;
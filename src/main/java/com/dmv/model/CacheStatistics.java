@@ -23,10 +23,24 @@ public class CacheStatistics {
     private final Map<String, Long> hitsByLayer;
     private final Map<String, Long> missesByLayer;
     private final Map<String, Double> avgResponseTimeByLayer;
+    private final long heapUsedBytes;
+    private final long offHeapUsedBytes;
+    private final long offHeapMaxBytes;
+    private final long backgroundRefreshCount;
+    private final long staleServeCount;
 
     public CacheStatistics(long totalHitCount, long totalMissCount, double overallHitRatio,
                           long totalEvictionCount, long totalSize, long totalMaxSize,
                           List<CacheStats> layerStats) {
+        this(totalHitCount, totalMissCount, overallHitRatio, totalEvictionCount, totalSize, totalMaxSize,
+             layerStats, 0L, 0L, 0L, 0L, 0L);
+    }
+
+    public CacheStatistics(long totalHitCount, long totalMissCount, double overallHitRatio,
+                          long totalEvictionCount, long totalSize, long totalMaxSize,
+                          List<CacheStats> layerStats,
+                          long heapUsedBytes, long offHeapUsedBytes, long offHeapMaxBytes,
+                          long backgroundRefreshCount, long staleServeCount) {
         this.totalHitCount = totalHitCount;
         this.totalMissCount = totalMissCount;
         this.overallHitRatio = overallHitRatio;
@@ -35,6 +49,11 @@ public class CacheStatistics {
         this.totalMaxSize = totalMaxSize;
         this.layerStats = layerStats;
         this.timestamp = LocalDateTime.now();
+        this.heapUsedBytes = heapUsedBytes;
+        this.offHeapUsedBytes = offHeapUsedBytes;
+        this.offHeapMaxBytes = offHeapMaxBytes;
+        this.backgroundRefreshCount = backgroundRefreshCount;
+        this.staleServeCount = staleServeCount;
         
         // Build layer-specific maps from layerStats
         this.hitsByLayer = new HashMap<>();
@@ -44,7 +63,7 @@ public class CacheStatistics {
         for (CacheStats stats : layerStats) {
             hitsByLayer.put(stats.getCacheType(), stats.getHitCount());
             missesByLayer.put(stats.getCacheType(), stats.getMissCount());
-            avgResponseTimeByLayer.put(stats.getCacheType(), (double) stats.getAverageGetTime());
+            avgResponseTimeByLayer.put(stats.getCacheType(), stats.getAverageGetTimeMillis());
         }
     }
 
@@ -92,6 +111,38 @@ public class CacheStatistics {
     public Map<String, Double> getAvgResponseTimeByLayer() {
         return avgResponseTimeByLayer;
     }
+
+    /**
+     * JVM heap currently in use (bytes)
+     */
+    public long getHeapUsedBytes() {
+        return heapUsedBytes;
+    }
+
+    /**
+     * Direct memory held by the off-heap cache layer (bytes)
+     */
+    public long getOffHeapUsedBytes() {
+        return offHeapUsedBytes;
+    }
+
+    public long getOffHeapMaxBytes() {
+        return offHeapMaxBytes;
+    }
+
+    /**
+     * Entries reloaded in the background before they expired
+     */
+    public long getBackgroundRefreshCount() {
+        return backgroundRefreshCount;
+    }
+
+    /**
+     * Stale values served because a reload failed
+     */
+    public long getStaleServeCount() {
+        return staleServeCount;
+    }
     
     /**
      * Get hits for a specific cache layer
@@ -124,6 +175,10 @@ public class CacheStatistics {
                 ", totalSize=" + totalSize +
                 ", totalMaxSize=" + totalMaxSize +
                 ", layerCount=" + layerStats.size() +
+                ", heapUsedBytes=" + heapUsedBytes +
+                ", offHeapUsedBytes=" + offHeapUsedBytes +
+                ", backgroundRefreshCount=" + backgroundRefreshCount +
+                ", staleServeCount=" + staleServeCount +
                 ", timestamp=" + timestamp +
                 '}';
     }
@@ -0,0 +1,103 @@
+package com.dmv.model;
+
+import com.dmv.metrics.LatencySummary;
+
+/**
+ * Latency percentiles of a load run, in microseconds
+ */
+public class LatencyDistribution {
+
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private long count;
+    private double meanMicros;
+    private double p50Micros;
+    private double p90Micros;
+    private double p99Micros;
+    private double p999Micros;
+    private double maxMicros;
+
+    // Default constructor
+    public LatencyDistribution() {}
+
+    // Constructor
+    public LatencyDistribution(LatencySummary summary) {
+        this.count = summary.getCount();
+        this.meanMicros = summary.getMeanNanos() / NANOS_PER_MICRO;
+        this.p50Micros = summary.getP50Nanos() / NANOS_PER_MICRO;
+        this.p90Micros = summary.getP90Nanos() / NANOS_PER_MICRO;
+        this.p99Micros = summary.getP99Nanos() / NANOS_PER_MICRO;
+        this.p999Micros = summary.getP999Nanos() / NANOS_PER_MICRO;
+        this.maxMicros = summary.getMaxNanos() / NANOS_PER_MICRO;
+    }
+
+    // Getters and Setters
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public void setMeanMicros(double meanMicros) {
+        this.meanMicros = meanMicros;
+    }
+
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    public void setP50Micros(double p50Micros) {
+        this.p50Micros = p50Micros;
+    }
+
+    public double getP90Micros() {
+        return p90Micros;
+    }
+
+    public void setP90Micros(double p90Micros) {
+        this.p90Micros = p90Micros;
+    }
+
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public void setP99Micros(double p99Micros) {
+        this.p99Micros = p99Micros;
+    }
+
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    public void setP999Micros(double p999Micros) {
+        this.p999Micros = p999Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    public void setMaxMicros(double maxMicros) {
+        this.maxMicros = maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyDistribution{" +
+                "count=" + count +
+                ", mean=" + String.format("%.1f", meanMicros) + "us" +
+                ", p50=" + String.format("%.1f", p50Micros) + "us" +
+                ", p90=" + String.format("%.1f", p90Micros) + "us" +
+                ", p99=" + String.format("%.1f", p99Micros) + "us" +
+                ", p999=" + String.format("%.1f", p999Micros) + "us" +
+                ", max=" + String.format("%.1f", maxMicros) + "us" +
+                '}';
+    }
+}
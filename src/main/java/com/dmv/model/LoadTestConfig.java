@@ -8,6 +8,15 @@ public class LoadTestConfig {
     private int rampDownSeconds;
     private String testScenario;
     private int requestsPerSecond;
+    private String runId;
+    private String mode;
+    private String arrivalProfile;
+    private int stepRatePerSecond;
+    private int stepSeconds;
+    private int spikeRatePerSecond;
+    private int spikeStartSeconds;
+    private int spikeDurationSeconds;
+    private int maxOutstandingRequests;
 
     // Default constructor
     public LoadTestConfig() {
@@ -15,14 +24,15 @@ public class LoadTestConfig {
         this.durationSeconds = 60;
         this.rampUpSeconds = 10;
         this.rampDownSeconds = 10;
+        this.stepSeconds = 10;
+        this.maxOutstandingRequests = 10000;
     }
 
     // Constructor
     public LoadTestConfig(int concurrentUsers, int durationSeconds) {
+        this();
         this.concurrentUsers = concurrentUsers;
         this.durationSeconds = durationSeconds;
-        this.rampUpSeconds = 10;
-        this.rampDownSeconds = 10;
     }
 
     // Getters and Setters
@@ -74,6 +84,103 @@ public class LoadTestConfig {
         this.requestsPerSecond = requestsPerSecond;
     }
 
+    /**
+     * Caller-chosen id used to stop the run while it is in progress; generated when absent
+     */
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    /**
+     * {@code closed} (default): each user sends its next request once the previous one returns.
+     * {@code open}: requests arrive on the arrival profile's schedule whatever the response time,
+     * and concurrent users is the number of workers serving them.
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public boolean isOpenLoop() {
+        return "open".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Open-loop arrival profile: constant (default), poisson, step or spike; the base rate is
+     * requestsPerSecond
+     */
+    public String getArrivalProfile() {
+        return arrivalProfile;
+    }
+
+    public void setArrivalProfile(String arrivalProfile) {
+        this.arrivalProfile = arrivalProfile;
+    }
+
+    /**
+     * Rate added every stepSeconds by the step profile
+     */
+    public int getStepRatePerSecond() {
+        return stepRatePerSecond;
+    }
+
+    public void setStepRatePerSecond(int stepRatePerSecond) {
+        this.stepRatePerSecond = stepRatePerSecond;
+    }
+
+    public int getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public void setStepSeconds(int stepSeconds) {
+        this.stepSeconds = stepSeconds;
+    }
+
+    /**
+     * Rate of the spike profile between spikeStartSeconds and the end of spikeDurationSeconds
+     */
+    public int getSpikeRatePerSecond() {
+        return spikeRatePerSecond;
+    }
+
+    public void setSpikeRatePerSecond(int spikeRatePerSecond) {
+        this.spikeRatePerSecond = spikeRatePerSecond;
+    }
+
+    public int getSpikeStartSeconds() {
+        return spikeStartSeconds;
+    }
+
+    public void setSpikeStartSeconds(int spikeStartSeconds) {
+        this.spikeStartSeconds = spikeStartSeconds;
+    }
+
+    public int getSpikeDurationSeconds() {
+        return spikeDurationSeconds;
+    }
+
+    public void setSpikeDurationSeconds(int spikeDurationSeconds) {
+        this.spikeDurationSeconds = spikeDurationSeconds;
+    }
+
+    /**
+     * Open-loop backlog limit; arrivals beyond it are dropped and counted instead of queued
+     */
+    public int getMaxOutstandingRequests() {
+        return maxOutstandingRequests;
+    }
+
+    public void setMaxOutstandingRequests(int maxOutstandingRequests) {
+        this.maxOutstandingRequests = maxOutstandingRequests;
+    }
+
     public int getExecutionsPerUser() {
         return requestsPerSecond > 0 ? requestsPerSecond : 1;
     }
@@ -95,6 +202,9 @@ public class LoadTestConfig {
                 ", rampDownSeconds=" + rampDownSeconds +
                 ", testScenario='" + testScenario + '\'' +
                 ", requestsPerSecond=" + requestsPerSecond +
+                ", runId='" + runId + '\'' +
+                ", mode='" + mode + '\'' +
+                ", arrivalProfile='" + arrivalProfile + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.dmv.model;
+
+/**
+ * Executions completed during one second of a load run
+ */
+public class SimulationInterval {
+
+    private int second;
+    private int arrivals;
+    private int executions;
+    private int successfulExecutions;
+    private int backlog;
+    private double meanLatencyMicros;
+    private double maxLatencyMicros;
+
+    // Default constructor
+    public SimulationInterval() {}
+
+    // Constructor
+    public SimulationInterval(int second, int arrivals, int executions, int successfulExecutions, int backlog,
+                              double meanLatencyMicros, double maxLatencyMicros) {
+        this.second = second;
+        this.arrivals = arrivals;
+        this.executions = executions;
+        this.successfulExecutions = successfulExecutions;
+        this.backlog = backlog;
+        this.meanLatencyMicros = meanLatencyMicros;
+        this.maxLatencyMicros = maxLatencyMicros;
+    }
+
+    // Getters and Setters
+
+    /**
+     * Seconds since the run started; the interval covers [second, second + 1)
+     */
+    public int getSecond() {
+        return second;
+    }
+
+    public void setSecond(int second) {
+        this.second = second;
+    }
+
+    /**
+     * Requests sent in the interval; the offered load of an open-loop run
+     */
+    public int getArrivals() {
+        return arrivals;
+    }
+
+    public void setArrivals(int arrivals) {
+        this.arrivals = arrivals;
+    }
+
+    /**
+     * Executions completed in the interval, which is also its throughput per second
+     */
+    public int getExecutions() {
+        return executions;
+    }
+
+    public void setExecutions(int executions) {
+        this.executions = executions;
+    }
+
+    public int getSuccessfulExecutions() {
+        return successfulExecutions;
+    }
+
+    public void setSuccessfulExecutions(int successfulExecutions) {
+        this.successfulExecutions = successfulExecutions;
+    }
+
+    /**
+     * Requests sent but not yet completed at the end of the interval; a backlog that keeps
+     * growing means arrivals outpace what the node can serve
+     */
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+
+    public double getMeanLatencyMicros() {
+        return meanLatencyMicros;
+    }
+
+    public void setMeanLatencyMicros(double meanLatencyMicros) {
+        this.meanLatencyMicros = meanLatencyMicros;
+    }
+
+    public double getMaxLatencyMicros() {
+        return maxLatencyMicros;
+    }
+
+    public void setMaxLatencyMicros(double maxLatencyMicros) {
+        this.maxLatencyMicros = maxLatencyMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationInterval{" +
+                "second=" + second +
+                ", arrivals=" + arrivals +
+                ", executions=" + executions +
+                ", successfulExecutions=" + successfulExecutions +
+                ", backlog=" + backlog +
+                ", meanLatencyMicros=" + String.format("%.1f", meanLatencyMicros) +
+                ", maxLatencyMicros=" + String.format("%.1f", maxLatencyMicros) +
+                '}';
+    }
+}
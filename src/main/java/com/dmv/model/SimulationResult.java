@@ -1,12 +1,16 @@
 package com.dmv.model;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class SimulationResult {
     
     private LoadTestConfig config;
+    private String runId;
+    private boolean stopped;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private long totalExecutionTimeMs;
@@ -15,6 +19,9 @@ public class SimulationResult {
     private int failedExecutions;
     private double averageResponseTimeMs;
     private double throughputPerSecond;
+    private LatencyDistribution latency;
+    private LatencyDistribution correctedLatency;
+    private List<SimulationInterval> timeSeries = new ArrayList<>();
     private String errorMessage;
     private Map<String, Object> performanceMetrics = new HashMap<>();
 
@@ -30,6 +37,25 @@ public class SimulationResult {
         this.config = config;
     }
 
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    /**
+     * Whether the run was stopped before its configured end
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public void setStopped(boolean stopped) {
+        this.stopped = stopped;
+    }
+
     public LocalDateTime getStartTime() {
         return startTime;
     }
@@ -94,6 +120,40 @@ public class SimulationResult {
         this.throughputPerSecond = throughputPerSecond;
     }
 
+    /**
+     * Service time of each execution, from its actual send to completion
+     */
+    public LatencyDistribution getLatency() {
+        return latency;
+    }
+
+    public void setLatency(LatencyDistribution latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Response time from each execution's intended send time, correcting for coordinated
+     * omission; only present for runs that follow a send schedule
+     */
+    public LatencyDistribution getCorrectedLatency() {
+        return correctedLatency;
+    }
+
+    public void setCorrectedLatency(LatencyDistribution correctedLatency) {
+        this.correctedLatency = correctedLatency;
+    }
+
+    /**
+     * Throughput and latency for every second of the run
+     */
+    public List<SimulationInterval> getTimeSeries() {
+        return timeSeries;
+    }
+
+    public void setTimeSeries(List<SimulationInterval> timeSeries) {
+        this.timeSeries = timeSeries != null ? timeSeries : new ArrayList<>();
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -129,7 +189,9 @@ public class SimulationResult {
     @Override
     public String toString() {
         return "SimulationResult{" +
-                "startTime=" + startTime +
+                "runId='" + runId + '\'' +
+                ", stopped=" + stopped +
+                ", startTime=" + startTime +
                 ", endTime=" + endTime +
                 ", totalExecutionTimeMs=" + totalExecutionTimeMs +
                 ", totalExecutions=" + totalExecutions +
@@ -138,6 +200,7 @@ public class SimulationResult {
                 ", averageResponseTimeMs=" + String.format("%.2f", averageResponseTimeMs) +
                 ", throughputPerSecond=" + String.format("%.2f", throughputPerSecond) +
                 ", successRate=" + String.format("%.2f", getSuccessRate()) + "%" +
+                ", latency=" + latency +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.dmv.model.reference;
+
+import java.time.LocalDate;
+
+/**
+ * Typed, immutable row of the fee-schedules collection
+ * Missing fee components are 0.0; missing or unparseable validity dates are null (open-ended).
+ */
+public record FeeScheduleRecord(String type,
+                                String licenseClass,
+                                String ageGroup,
+                                double baseFee,
+                                double processingFee,
+                                double convenienceFee,
+                                double totalFee,
+                                double lateFee,
+                                double testFee,
+                                LocalDate validFrom,
+                                LocalDate validUntil) {
+
+    /**
+     * Whether the schedule is in force on a date (both bounds inclusive)
+     */
+    public boolean isEffectiveOn(LocalDate date) {
+        return (validFrom == null || !validFrom.isAfter(date)) && (validUntil == null || !validUntil.isBefore(date));
+    }
+}
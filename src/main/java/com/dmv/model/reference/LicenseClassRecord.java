@@ -0,0 +1,33 @@
+package com.dmv.model.reference;
+
+import java.util.List;
+
+/**
+ * Typed, immutable row of the license-classes collection
+ * The "fee" and "testRequirements" blocks are flattened into primitive fields (0 / false when absent).
+ */
+public record LicenseClassRecord(String classCode,
+                                 String name,
+                                 String description,
+                                 int minAge,
+                                 int maxAge,
+                                 int renewalPeriod,
+                                 boolean testRequired,
+                                 boolean drivingTestRequired,
+                                 List<String> restrictions,
+                                 double renewalFee,
+                                 double baseFee,
+                                 double seniorFee,
+                                 double veteranFee) {
+
+    /** maxAge value for classes without an upper age limit */
+    public static final int NO_MAX_AGE = -1;
+
+    public LicenseClassRecord {
+        restrictions = List.copyOf(restrictions);
+    }
+
+    public boolean hasMaxAge() {
+        return maxAge != NO_MAX_AGE;
+    }
+}
@@ -0,0 +1,22 @@
+package com.dmv.model.reference;
+
+import java.util.List;
+
+/**
+ * Typed, immutable row of the states collection
+ * The optional "dmv" block is flattened into primitive fields (false / 0.0 when absent).
+ */
+public record StateRecord(String code,
+                          String name,
+                          String region,
+                          boolean requiresVisionTest,
+                          double renewalFee,
+                          int maxRenewalYears,
+                          List<String> specialRequirements,
+                          boolean onlineRenewalAvailable,
+                          double lateFee) {
+
+    public StateRecord {
+        specialRequirements = List.copyOf(specialRequirements);
+    }
+}
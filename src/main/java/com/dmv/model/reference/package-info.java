@@ -0,0 +1,5 @@
+/**
+ * Typed, immutable records for the reference data collections (states, license classes,
+ * fee schedules), bound once from the JSON rows by the reference data repository.
+ */
+package com.dmv.model.reference;
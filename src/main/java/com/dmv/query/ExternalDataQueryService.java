@@ -0,0 +1,286 @@
+package com.dmv.query;
+
+import com.dmv.cache.CompactRecords;
+import com.dmv.query.QueryPlan.IndexProbe;
+import com.dmv.service.CacheInvalidatedEvent;
+import com.dmv.storage.CollectionChangedEvent;
+import com.dmv.storage.CollectionDiff;
+import com.dmv.storage.JsonFileStorageService;
+import com.dmv.storage.KeyPath;
+import com.dmv.storage.ReferenceDataSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs compound queries against external-data collections
+ * Each query is planned against the indexes the storage layer currently holds, executed
+ * through index probes or a filtered scan, projected, and cached by its normalized text under
+ * the storage generation of its collection, so a hit costs no file access. Cached results are
+ * dropped when their collection file changes or the caches are invalidated; when the change
+ * comes with a complete record diff, only results whose filter matches a changed record are
+ * dropped and the rest are carried over to the new version. A view pinned to one snapshot
+ * version answers from that version, with results cached per version number; a change to the
+ * collection drops them too, since a streamed collection changes without a new version.
+ */
+@Service
+public class ExternalDataQueryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalDataQueryService.class);
+
+    private final JsonFileStorageService jsonStorage;
+    private final Cache<String, CachedResult> results;
+    private final Cache<PinnedKey, CachedResult> pinnedResults;
+    // Null unless this is a view pinned to one version
+    private final ReferenceDataSnapshot snapshot;
+
+    @Autowired
+    public ExternalDataQueryService(JsonFileStorageService jsonStorage,
+                                    @Value("${dmv.query.cache.max-entries:1000}") long maxEntries,
+                                    @Value("${dmv.query.cache.ttl:10m}") Duration ttl) {
+        this.jsonStorage = jsonStorage;
+        this.results = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxEntries)
+            .build();
+        this.pinnedResults = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxEntries)
+            .build();
+        this.snapshot = null;
+        logger.info("Query service initialized (cache maxEntries: {}, ttl: {})", maxEntries, ttl);
+    }
+
+    private ExternalDataQueryService(ExternalDataQueryService shared, ReferenceDataSnapshot snapshot) {
+        this.jsonStorage = shared.jsonStorage;
+        this.results = shared.results;
+        this.pinnedResults = shared.pinnedResults;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * View answering every query from one pinned snapshot version, for a single rule session
+     * Must not outlive the snapshot.
+     */
+    public ExternalDataQueryService pinnedTo(ReferenceDataSnapshot snapshot) {
+        if (this.snapshot != null) {
+            throw new IllegalStateException("Query service view is already pinned");
+        }
+        return new ExternalDataQueryService(this, snapshot);
+    }
+
+    /**
+     * Matching rows, projected to the selected fields
+     * Index probes return rows grouped by probed value; a full scan returns them in file order.
+     * @return Read-only list of rows
+     */
+    public List<Map<String, Object>> query(Query query) {
+        if (snapshot != null) {
+            return pinnedQuery(query);
+        }
+        String key = query.normalized();
+        // The generation also moves on file changes that were never announced by an event
+        long generation = jsonStorage.getCollectionGeneration(query.getCollection());
+        CachedResult cached = results.getIfPresent(key);
+        if (cached != null && cached.generation() == generation) {
+            logger.debug("Query cache HIT: {} [CACHE_LAYER: QUERY]", key);
+            return cached.rows();
+        }
+
+        // Planning loads the collection if needed, which gives it a new generation
+        QueryPlan plan = plan(query);
+        generation = jsonStorage.getCollectionGeneration(query.getCollection());
+        List<Map<String, Object>> rows = project(execute(plan), query.getFields());
+        // A result that raced a reload cannot be named by either generation
+        if (jsonStorage.getCollectionGeneration(query.getCollection()) == generation) {
+            results.put(key, new CachedResult(query, generation, rows));
+        }
+        logger.debug("Query {} returned {} rows via {} [CACHE_LAYER: QUERY]", key, rows.size(), plan.getAccess());
+        return rows;
+    }
+
+    private List<Map<String, Object>> pinnedQuery(Query query) {
+        PinnedKey key = new PinnedKey(snapshot.getVersion(), query.normalized());
+        CachedResult cached = pinnedResults.getIfPresent(key);
+        if (cached != null) {
+            logger.debug("Pinned query cache HIT: {} at version {} [CACHE_LAYER: QUERY]", key.query(), key.version());
+            return cached.rows();
+        }
+        List<Map<String, Object>> rows = project(execute(plan(query)), query.getFields());
+        pinnedResults.put(key, new CachedResult(query, key.version(), rows));
+        return rows;
+    }
+
+    /**
+     * The plan {@link #query} would use right now
+     */
+    public QueryPlan explain(Query query) {
+        return plan(query);
+    }
+
+    /**
+     * Drop cached results of one collection, including those of pinned versions
+     */
+    public void invalidate(String collection) {
+        dropResults(results, collection);
+        dropResults(pinnedResults, collection);
+    }
+
+    /**
+     * Drop every cached result
+     */
+    public void invalidateAll() {
+        results.invalidateAll();
+        pinnedResults.invalidateAll();
+    }
+
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.isAll()) {
+            invalidateAll();
+        } else {
+            invalidate(event.getCollection());
+        }
+    }
+
+    @EventListener
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        CollectionDiff diff = event.getDiff();
+        dropResults(pinnedResults, event.getCollection());
+        if (!diff.isComplete()) {
+            dropResults(results, event.getCollection());
+            return;
+        }
+        List<Map<String, Object>> changedRows = diff.affectedRows();
+        long generation = jsonStorage.getCollectionGeneration(diff.getCollection());
+        int dropped = 0;
+        for (Map.Entry<String, CachedResult> entry : results.asMap().entrySet()) {
+            CachedResult cached = entry.getValue();
+            if (!cached.query().getCollection().equals(diff.getCollection())) {
+                continue;
+            }
+            if (matchesAny(cached.query().getPredicate(), changedRows)) {
+                results.asMap().remove(entry.getKey(), cached);
+                dropped++;
+            } else {
+                // No changed record could enter or leave this result, so it holds for the new version too
+                results.asMap().replace(entry.getKey(), cached, new CachedResult(cached.query(), generation, cached.rows()));
+            }
+        }
+        logger.debug("Collection {} changed ({}), dropped {} cached queries [CACHE_LAYER: QUERY]",
+                    diff.getCollection(), diff, dropped);
+    }
+
+    private static void dropResults(Cache<?, CachedResult> cache, String collection) {
+        cache.asMap().values().removeIf(result -> result.query().getCollection().equals(collection));
+    }
+
+    private static boolean matchesAny(QueryPredicate predicate, List<Map<String, Object>> rows) {
+        for (Map<String, Object> row : rows) {
+            if (predicate == null || predicate.test(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private QueryPlan plan(Query query) {
+        return QueryPlanner.plan(query, indexedKeyPaths(query.getCollection()));
+    }
+
+    // The three reads below go to the pinned version in a view and to the storage service otherwise
+
+    private Set<String> indexedKeyPaths(String collection) {
+        return snapshot != null ? snapshot.getIndexedKeyPaths(collection) : jsonStorage.getIndexedKeyPaths(collection);
+    }
+
+    private List<Map<String, Object>> rows(String collection) {
+        return snapshot != null ? snapshot.loadCollection(collection) : jsonStorage.loadCollection(collection);
+    }
+
+    private List<Map<String, Object>> rowsByKey(String collection, String keyPath, Object value) {
+        return snapshot != null
+            ? snapshot.findByKey(collection, keyPath, value)
+            : jsonStorage.findByKey(collection, keyPath, value);
+    }
+
+    private List<Map<String, Object>> execute(QueryPlan plan) {
+        String collection = plan.getQuery().getCollection();
+        List<Map<String, Object>> matches = new ArrayList<>();
+        switch (plan.getAccess()) {
+            case FULL_SCAN -> {
+                QueryPredicate filter = plan.getFilter();
+                for (Map<String, Object> row : rows(collection)) {
+                    if (filter == null || filter.test(row)) {
+                        matches.add(row);
+                    }
+                }
+            }
+            case INDEX_LOOKUP, INDEX_UNION -> {
+                List<IndexProbe> probes = plan.getProbes();
+                for (int i = 0; i < probes.size(); i++) {
+                    IndexProbe probe = probes.get(i);
+                    for (Object value : probe.values()) {
+                        for (Map<String, Object> row : rowsByKey(collection, probe.keyPath(), value)) {
+                            if ((probe.filter() == null || probe.filter().test(row))
+                                    && !matchedEarlier(probes, i, row)) {
+                                matches.add(row);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    // A union keeps a row only for the first branch that matches it, so duplicate rows in the file survive
+    private static boolean matchedEarlier(List<IndexProbe> probes, int branch, Map<String, Object> row) {
+        for (int i = 0; i < branch; i++) {
+            if (probes.get(i).matches(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Map<String, Object>> project(List<Map<String, Object>> rows, List<String> fields) {
+        if (fields.isEmpty()) {
+            return Collections.unmodifiableList(rows);
+        }
+        List<KeyPath> paths = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            paths.add(KeyPath.of(field));
+        }
+        List<Map<String, Object>> projected = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> fieldValues = new LinkedHashMap<>();
+            for (KeyPath path : paths) {
+                if (path.existsIn(row)) {
+                    fieldValues.put(path.toString(), path.valueIn(row));
+                }
+            }
+            projected.add(fieldValues);
+        }
+        return CompactRecords.compact(projected);
+    }
+
+    private record CachedResult(Query query, long generation, List<Map<String, Object>> rows) {
+    }
+
+    private record PinnedKey(long version, String query) {
+    }
+}
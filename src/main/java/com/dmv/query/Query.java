@@ -0,0 +1,189 @@
+package com.dmv.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compound query over one collection: an optional predicate and an optional field projection
+ * Immutable; {@link #where} and {@link #select} return new instances.
+ */
+public final class Query {
+
+    private final String collection;
+    private final QueryPredicate predicate;
+    private final List<String> fields;
+
+    private Query(String collection, QueryPredicate predicate, List<String> fields) {
+        this.collection = Objects.requireNonNull(collection, "collection");
+        this.predicate = predicate;
+        this.fields = List.copyOf(fields);
+    }
+
+    public static Query from(String collection) {
+        return new Query(collection, null, List.of());
+    }
+
+    public Query where(QueryPredicate predicate) {
+        return new Query(collection, predicate, fields);
+    }
+
+    /**
+     * Keep only these key paths in each result row (nested paths keep their dotted name)
+     */
+    public Query select(String... fields) {
+        return new Query(collection, predicate, List.of(fields));
+    }
+
+    public Query select(List<String> fields) {
+        return new Query(collection, predicate, fields);
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    /**
+     * The filter, or null to match every row
+     */
+    public QueryPredicate getPredicate() {
+        return predicate;
+    }
+
+    /**
+     * Projected key paths, empty for whole rows
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Canonical text of the query; equivalent queries normalize to the same string
+     */
+    public String normalized() {
+        StringBuilder text = new StringBuilder("FROM ").append(collection);
+        if (predicate != null) {
+            text.append(" WHERE ").append(predicate.normalized());
+        }
+        if (!fields.isEmpty()) {
+            text.append(" SELECT ").append(String.join(", ", fields));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Parse the JSON form used by the REST API, e.g.
+     * <pre>
+     * {"where": {"and": [{"eq": {"path": "type", "value": "renewal"}},
+     *                    {"range": {"path": "validFrom", "lte": "2024-06-01"}}]},
+     *  "select": ["licenseClass", "totalFee"]}
+     * </pre>
+     * Leaves are {@code eq}, {@code in} (with {@code values}), {@code range} (with any of
+     * {@code gt}, {@code gte}, {@code lt}, {@code lte}) and {@code contains}; {@code and} / {@code or}
+     * take a list of predicates.
+     * @throws IllegalArgumentException if the body is malformed
+     */
+    public static Query fromMap(String collection, Map<String, Object> body) {
+        Query query = from(collection);
+        if (body == null) {
+            return query;
+        }
+        Object where = body.get("where");
+        if (where != null) {
+            query = query.where(parsePredicate(where));
+        }
+        Object select = body.get("select");
+        if (select != null) {
+            if (!(select instanceof List)) {
+                throw new IllegalArgumentException("'select' must be a list of key paths");
+            }
+            List<String> fields = new ArrayList<>();
+            for (Object field : (List<?>) select) {
+                fields.add(requireText(field, "select"));
+            }
+            query = query.select(fields);
+        }
+        return query;
+    }
+
+    private static QueryPredicate parsePredicate(Object node) {
+        if (!(node instanceof Map) || ((Map<?, ?>) node).size() != 1) {
+            throw new IllegalArgumentException("A predicate must be an object with exactly one operator: " + node);
+        }
+        Map.Entry<?, ?> entry = ((Map<?, ?>) node).entrySet().iterator().next();
+        String operator = String.valueOf(entry.getKey());
+        Object operand = entry.getValue();
+        switch (operator) {
+            case "and":
+            case "or": {
+                if (!(operand instanceof List)) {
+                    throw new IllegalArgumentException("'" + operator + "' takes a list of predicates");
+                }
+                List<QueryPredicate> children = new ArrayList<>();
+                for (Object child : (List<?>) operand) {
+                    children.add(parsePredicate(child));
+                }
+                return operator.equals("and") ? QueryPredicate.and(children) : QueryPredicate.or(children);
+            }
+            case "eq":
+                return QueryPredicate.eq(path(operand, operator), arguments(operand, operator).get("value"));
+            case "in": {
+                Object values = arguments(operand, operator).get("values");
+                if (!(values instanceof Collection)) {
+                    throw new IllegalArgumentException("'in' takes a 'values' list");
+                }
+                return QueryPredicate.in(path(operand, operator), (Collection<?>) values);
+            }
+            case "range": {
+                Map<?, ?> arguments = arguments(operand, operator);
+                if ((arguments.containsKey("gt") && arguments.containsKey("gte"))
+                        || (arguments.containsKey("lt") && arguments.containsKey("lte"))) {
+                    throw new IllegalArgumentException("'range' takes one lower and one upper bound");
+                }
+                Object lower = arguments.containsKey("gt") ? arguments.get("gt") : arguments.get("gte");
+                Object upper = arguments.containsKey("lt") ? arguments.get("lt") : arguments.get("lte");
+                return QueryPredicate.range(path(operand, operator),
+                    lower, !arguments.containsKey("gt"), upper, !arguments.containsKey("lt"));
+            }
+            case "contains":
+                return QueryPredicate.contains(path(operand, operator), arguments(operand, operator).get("value"));
+            default:
+                throw new IllegalArgumentException("Unknown query operator: " + operator);
+        }
+    }
+
+    private static Map<?, ?> arguments(Object operand, String operator) {
+        if (!(operand instanceof Map)) {
+            throw new IllegalArgumentException("'" + operator + "' takes an object with a 'path'");
+        }
+        return (Map<?, ?>) operand;
+    }
+
+    private static String path(Object operand, String operator) {
+        return requireText(arguments(operand, operator).get("path"), operator + ".path");
+    }
+
+    private static String requireText(Object value, String field) {
+        if (!(value instanceof String) || ((String) value).isBlank()) {
+            throw new IllegalArgumentException("'" + field + "' must be a non-empty string");
+        }
+        return (String) value;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Query && normalized().equals(((Query) other).normalized());
+    }
+
+    @Override
+    public int hashCode() {
+        return normalized().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return normalized();
+    }
+}
@@ -0,0 +1,110 @@
+package com.dmv.query;
+
+import com.dmv.storage.KeyPath;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How a {@link Query} is answered: which index probes feed it and what is filtered afterwards
+ */
+public final class QueryPlan {
+
+    public enum Access {
+        /** Probe one index for one or more values, then filter the probed rows */
+        INDEX_LOOKUP,
+        /** OR of indexable branches: probe each branch's index and merge without duplicates */
+        INDEX_UNION,
+        /** Read every row and filter */
+        FULL_SCAN
+    }
+
+    /**
+     * Index probe for a set of values at one key path
+     * @param filter Predicate the probed rows must still satisfy, or null
+     */
+    public record IndexProbe(String keyPath, List<Object> values, QueryPredicate filter) {
+
+        /**
+         * Whether a row would be returned by this probe; used to drop rows an earlier union branch already returned
+         */
+        public boolean matches(Map<String, Object> row) {
+            return values.contains(KeyPath.of(keyPath).valueIn(row)) && (filter == null || filter.test(row));
+        }
+    }
+
+    private final Query query;
+    private final Access access;
+    private final List<IndexProbe> probes;
+    private final QueryPredicate filter;
+
+    QueryPlan(Query query, Access access, List<IndexProbe> probes, QueryPredicate filter) {
+        this.query = query;
+        this.access = access;
+        this.probes = List.copyOf(probes);
+        this.filter = filter;
+    }
+
+    public Query getQuery() {
+        return query;
+    }
+
+    public Access getAccess() {
+        return access;
+    }
+
+    /**
+     * One probe for INDEX_LOOKUP, one per OR branch for INDEX_UNION, none for FULL_SCAN
+     */
+    public List<IndexProbe> getProbes() {
+        return probes;
+    }
+
+    /**
+     * Predicate applied to scanned rows for FULL_SCAN, or null for none
+     */
+    public QueryPredicate getFilter() {
+        return filter;
+    }
+
+    /**
+     * Human-readable plan, one step per line
+     */
+    public String explain() {
+        StringBuilder text = new StringBuilder(query.normalized()).append('\n');
+        switch (access) {
+            case INDEX_LOOKUP -> appendProbe(text, "", probes.get(0));
+            case INDEX_UNION -> {
+                text.append("INDEX_UNION of ").append(probes.size()).append(" branches\n");
+                for (IndexProbe probe : probes) {
+                    appendProbe(text, "  ", probe);
+                }
+            }
+            case FULL_SCAN -> {
+                text.append("FULL_SCAN ").append(query.getCollection()).append('\n');
+                if (filter != null) {
+                    text.append("  FILTER ").append(filter.normalized()).append('\n');
+                }
+            }
+        }
+        if (!query.getFields().isEmpty()) {
+            text.append("PROJECT ").append(String.join(", ", query.getFields())).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static void appendProbe(StringBuilder text, String indent, IndexProbe probe) {
+        text.append(indent).append("INDEX_LOOKUP ").append(probe.keyPath())
+            .append(" (").append(probe.values().size()).append(probe.values().size() == 1 ? " value)" : " values)")
+            .append('\n');
+        if (probe.filter() != null) {
+            text.append(indent).append("  FILTER ")
+                .append(probe.filter().normalized()).append('\n');
+        }
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+}
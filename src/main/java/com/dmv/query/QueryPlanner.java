@@ -0,0 +1,98 @@
+package com.dmv.query;
+
+import com.dmv.query.QueryPlan.Access;
+import com.dmv.query.QueryPlan.IndexProbe;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Chooses between index probes and a full scan for a query, given the indexed key paths
+ * Equality and IN on an indexed path become index probes; in an AND the most selective
+ * indexable child (an equality, else the IN with the fewest values) drives the probe and
+ * the rest is filtered. An OR is a union of probes only if every branch is indexable.
+ */
+final class QueryPlanner {
+
+    private static final Comparator<QueryPredicate> BY_NORMALIZED = Comparator.comparing(QueryPredicate::normalized);
+
+    private QueryPlanner() {
+    }
+
+    static QueryPlan plan(Query query, Set<String> indexedKeyPaths) {
+        QueryPredicate predicate = query.getPredicate();
+        if (predicate == null) {
+            return new QueryPlan(query, Access.FULL_SCAN, List.of(), null);
+        }
+
+        IndexProbe probe = probeFor(predicate, indexedKeyPaths);
+        if (probe != null) {
+            return new QueryPlan(query, Access.INDEX_LOOKUP, List.of(probe), null);
+        }
+
+        if (predicate instanceof QueryPredicate.Or) {
+            // Branches in normalized order, so equivalent queries merge their rows the same way
+            List<QueryPredicate> branches = new ArrayList<>(((QueryPredicate.Or) predicate).predicates());
+            branches.sort(BY_NORMALIZED);
+            List<IndexProbe> probes = new ArrayList<>();
+            for (QueryPredicate branch : branches) {
+                IndexProbe branchProbe = probeFor(branch, indexedKeyPaths);
+                if (branchProbe == null) {
+                    probes = null;
+                    break;
+                }
+                probes.add(branchProbe);
+            }
+            if (probes != null) {
+                return new QueryPlan(query, Access.INDEX_UNION, probes, null);
+            }
+        }
+
+        return new QueryPlan(query, Access.FULL_SCAN, List.of(), predicate);
+    }
+
+    // Probe answering the predicate from one index, or null if it needs a scan
+    private static IndexProbe probeFor(QueryPredicate predicate, Set<String> indexedKeyPaths) {
+        IndexProbe leaf = leafProbe(predicate, indexedKeyPaths);
+        if (leaf != null || !(predicate instanceof QueryPredicate.And)) {
+            return leaf;
+        }
+
+        List<QueryPredicate> children = new ArrayList<>(((QueryPredicate.And) predicate).predicates());
+        children.sort(BY_NORMALIZED);
+        QueryPredicate driver = null;
+        IndexProbe best = null;
+        for (QueryPredicate child : children) {
+            IndexProbe candidate = leafProbe(child, indexedKeyPaths);
+            if (candidate != null && (best == null || candidate.values().size() < best.values().size())) {
+                driver = child;
+                best = candidate;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+
+        List<QueryPredicate> residual = new ArrayList<>(children);
+        residual.remove(driver);
+        return new IndexProbe(best.keyPath(), best.values(), QueryPredicate.and(residual));
+    }
+
+    private static IndexProbe leafProbe(QueryPredicate predicate, Set<String> indexedKeyPaths) {
+        // Null never goes to an index: storage matches null differently for top-level and nested paths
+        if (predicate instanceof QueryPredicate.Equals) {
+            QueryPredicate.Equals equals = (QueryPredicate.Equals) predicate;
+            if (equals.value() != null && indexedKeyPaths.contains(equals.path().toString())) {
+                return new IndexProbe(equals.path().toString(), List.of(equals.value()), null);
+            }
+        } else if (predicate instanceof QueryPredicate.In) {
+            QueryPredicate.In in = (QueryPredicate.In) predicate;
+            if (!in.values().contains(null) && indexedKeyPaths.contains(in.path().toString())) {
+                return new IndexProbe(in.path().toString(), List.copyOf(in.values()), null);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,226 @@
+package com.dmv.query;
+
+import com.dmv.storage.KeyPath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Filter over collection rows, built from equality, IN, range and contains leaves combined with AND / OR
+ * Every predicate has a normalized text form (children sorted and de-duplicated, nested
+ * AND / OR flattened) that is used as the result cache key and in explain output.
+ */
+public interface QueryPredicate {
+
+    boolean test(Map<String, Object> row);
+
+    String normalized();
+
+    static QueryPredicate eq(String path, Object value) {
+        return new Equals(KeyPath.of(path), value);
+    }
+
+    static QueryPredicate in(String path, Collection<?> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("IN needs at least one value: " + path);
+        }
+        return new In(KeyPath.of(path), new LinkedHashSet<>(values));
+    }
+
+    /**
+     * Range over numbers (compared as doubles) or strings (ISO dates compare correctly)
+     * @param lower Lower bound, or null for none
+     * @param upper Upper bound, or null for none
+     */
+    static QueryPredicate range(String path, Object lower, boolean lowerInclusive,
+                                Object upper, boolean upperInclusive) {
+        if (lower == null && upper == null) {
+            throw new IllegalArgumentException("Range needs a lower or an upper bound: " + path);
+        }
+        return new Range(KeyPath.of(path), lower, lowerInclusive, upper, upperInclusive);
+    }
+
+    /**
+     * List value containing an element, or string value containing a substring
+     */
+    static QueryPredicate contains(String path, Object value) {
+        return new Contains(KeyPath.of(path), value);
+    }
+
+    static QueryPredicate and(QueryPredicate... predicates) {
+        return and(Arrays.asList(predicates));
+    }
+
+    static QueryPredicate and(List<QueryPredicate> predicates) {
+        List<QueryPredicate> flattened = flatten(predicates, And.class);
+        return flattened.size() == 1 ? flattened.get(0) : new And(flattened);
+    }
+
+    static QueryPredicate or(QueryPredicate... predicates) {
+        return or(Arrays.asList(predicates));
+    }
+
+    static QueryPredicate or(List<QueryPredicate> predicates) {
+        List<QueryPredicate> flattened = flatten(predicates, Or.class);
+        return flattened.size() == 1 ? flattened.get(0) : new Or(flattened);
+    }
+
+    record Equals(KeyPath path, Object value) implements QueryPredicate {
+        @Override
+        public boolean test(Map<String, Object> row) {
+            Object actual = path.valueIn(row);
+            return Objects.equals(actual, value);
+        }
+
+        @Override
+        public String normalized() {
+            return path + " = " + literal(value);
+        }
+    }
+
+    record In(KeyPath path, Set<Object> values) implements QueryPredicate {
+        @Override
+        public boolean test(Map<String, Object> row) {
+            return values.contains(path.valueIn(row));
+        }
+
+        @Override
+        public String normalized() {
+            return path + " IN (" + values.stream().map(QueryPredicate::literal).sorted()
+                .collect(Collectors.joining(", ")) + ")";
+        }
+    }
+
+    record Range(KeyPath path, Object lower, boolean lowerInclusive,
+                 Object upper, boolean upperInclusive) implements QueryPredicate {
+        @Override
+        public boolean test(Map<String, Object> row) {
+            Object actual = path.valueIn(row);
+            if (actual == null) {
+                return false;
+            }
+            if (lower != null) {
+                Integer comparison = compare(actual, lower);
+                if (comparison == null || comparison < 0 || (comparison == 0 && !lowerInclusive)) {
+                    return false;
+                }
+            }
+            if (upper != null) {
+                Integer comparison = compare(actual, upper);
+                if (comparison == null || comparison > 0 || (comparison == 0 && !upperInclusive)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String normalized() {
+            return path + " IN " + (lower != null && lowerInclusive ? "[" : "(")
+                + (lower != null ? literal(lower) : "-inf") + ", "
+                + (upper != null ? literal(upper) : "+inf") + (upper != null && upperInclusive ? "]" : ")");
+        }
+
+        // Null when the two values are not comparable (mixed types)
+        private static Integer compare(Object actual, Object bound) {
+            if (actual instanceof Number && bound instanceof Number) {
+                return Double.compare(((Number) actual).doubleValue(), ((Number) bound).doubleValue());
+            }
+            if (actual instanceof String && bound instanceof String) {
+                return ((String) actual).compareTo((String) bound);
+            }
+            return null;
+        }
+    }
+
+    record Contains(KeyPath path, Object value) implements QueryPredicate {
+        @Override
+        public boolean test(Map<String, Object> row) {
+            Object actual = path.valueIn(row);
+            if (actual instanceof Collection) {
+                return ((Collection<?>) actual).contains(value);
+            }
+            return actual instanceof String && value instanceof String && ((String) actual).contains((String) value);
+        }
+
+        @Override
+        public String normalized() {
+            return path + " CONTAINS " + literal(value);
+        }
+    }
+
+    record And(List<QueryPredicate> predicates) implements QueryPredicate {
+        @Override
+        public boolean test(Map<String, Object> row) {
+            for (QueryPredicate predicate : predicates) {
+                if (!predicate.test(row)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String normalized() {
+            return join(predicates, " AND ");
+        }
+    }
+
+    record Or(List<QueryPredicate> predicates) implements QueryPredicate {
+        @Override
+        public boolean test(Map<String, Object> row) {
+            for (QueryPredicate predicate : predicates) {
+                if (predicate.test(row)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String normalized() {
+            return join(predicates, " OR ");
+        }
+    }
+
+    // Lifts children of the same combinator into the parent and drops duplicates
+    private static List<QueryPredicate> flatten(List<QueryPredicate> predicates, Class<?> combinator) {
+        if (predicates.isEmpty()) {
+            throw new IllegalArgumentException("AND / OR needs at least one predicate");
+        }
+        Map<String, QueryPredicate> unique = new LinkedHashMap<>();
+        for (QueryPredicate predicate : predicates) {
+            List<QueryPredicate> children = combinator == And.class && predicate instanceof And
+                ? ((And) predicate).predicates()
+                : combinator == Or.class && predicate instanceof Or ? ((Or) predicate).predicates() : List.of(predicate);
+            for (QueryPredicate child : children) {
+                unique.putIfAbsent(child.normalized(), child);
+            }
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private static String join(List<QueryPredicate> predicates, String operator) {
+        return predicates.stream().map(QueryPredicate::normalized).sorted()
+            .collect(Collectors.joining(operator, "(", ")"));
+    }
+
+    // Typed literal so that e.g. 16 (Integer) and 16.0 (Double), which never match each other, normalize differently
+    private static String literal(Object value) {
+        if (value instanceof String) {
+            return "'" + ((String) value).replace("'", "''") + "'";
+        }
+        if (value == null || value instanceof Integer || value instanceof Double || value instanceof Boolean) {
+            return String.valueOf(value);
+        }
+        return value.getClass().getSimpleName() + "(" + value + ")";
+    }
+}
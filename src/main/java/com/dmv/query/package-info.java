@@ -0,0 +1,5 @@
+/**
+ * Compound queries over external-data collections: predicates, an index-aware planner
+ * and a result-caching query service.
+ */
+package com.dmv.query;
@@ -0,0 +1,406 @@
+package com.dmv.repository;
+
+import com.dmv.model.reference.FeeScheduleRecord;
+import com.dmv.model.reference.LicenseClassRecord;
+import com.dmv.model.reference.StateRecord;
+import com.dmv.service.CacheInvalidatedEvent;
+import com.dmv.service.ExternalDataService;
+import com.dmv.storage.CollectionChangedEvent;
+import com.dmv.storage.ReferenceDataSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Typed access to the reference data collections
+ * Rows are bound into immutable records once per collection load and indexed by their natural
+ * key, so callers read primitive fields without casts or instanceof checks. A collection is
+ * rebound lazily after its file changes. A view pinned to one snapshot version binds that
+ * version's rows instead; views of the same version share the records of collections the version
+ * holds. A collection the version did not hold is loaded by each view on its own, so its records
+ * are bound per view.
+ */
+@Repository
+public class ReferenceDataRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataRepository.class);
+
+    static final String STATES = "states";
+    static final String LICENSE_CLASSES = "license-classes";
+    static final String FEE_SCHEDULES = "fee-schedules";
+    // Wildcard used by fee schedules that apply to every license class or age group
+    static final String ANY = "any";
+    // Versions pinned by in-flight sessions are few; older ones are only read by sessions that already hold them
+    private static final int PINNED_VERSIONS_KEPT = 4;
+
+    private final ExternalDataService externalDataService;
+    private final Bindings bindings;
+    // Records bound per pinned version; null in a pinned view
+    private final Cache<Long, Bindings> pinnedBindings;
+    // Pinned version and the records of collections it does not hold; both null unless pinned
+    private final ReferenceDataSnapshot snapshot;
+    private final Bindings viewBindings;
+
+    @Autowired
+    public ReferenceDataRepository(ExternalDataService externalDataService) {
+        this(externalDataService, new Bindings(), Caffeine.newBuilder().maximumSize(PINNED_VERSIONS_KEPT).build(),
+            null, null);
+    }
+
+    private ReferenceDataRepository(ExternalDataService externalDataService, Bindings bindings,
+                                    Cache<Long, Bindings> pinnedBindings, ReferenceDataSnapshot snapshot,
+                                    Bindings viewBindings) {
+        this.externalDataService = externalDataService;
+        this.bindings = bindings;
+        this.pinnedBindings = pinnedBindings;
+        this.snapshot = snapshot;
+        this.viewBindings = viewBindings;
+    }
+
+    /**
+     * View of one pinned snapshot version for a single rule session
+     * A version never changes, so the records of collections it holds are bound once and reused by
+     * every later view of it. Collections it does not hold are bound for this view only.
+     * @param snapshot The pinned version
+     * @param pinnedSource External data service reading that version
+     */
+    public ReferenceDataRepository pinnedTo(ReferenceDataSnapshot snapshot, ExternalDataService pinnedSource) {
+        if (pinnedBindings == null) {
+            throw new IllegalStateException("Repository view is already pinned");
+        }
+        Bindings versionBindings = pinnedBindings.get(snapshot.getVersion(), v -> new Bindings());
+        return new ReferenceDataRepository(pinnedSource, versionBindings, null, snapshot, new Bindings());
+    }
+
+    public Optional<StateRecord> findState(String code) {
+        return Optional.ofNullable(states().get(code));
+    }
+
+    public List<StateRecord> findAllStates() {
+        return List.copyOf(states().values());
+    }
+
+    public Optional<LicenseClassRecord> findLicenseClass(String classCode) {
+        return Optional.ofNullable(licenseClasses().get(classCode));
+    }
+
+    public List<LicenseClassRecord> findAllLicenseClasses() {
+        return List.copyOf(licenseClasses().values());
+    }
+
+    /**
+     * Fee schedules of one type (e.g. "renewal"), in file order
+     */
+    public List<FeeScheduleRecord> findFeeSchedulesByType(String type) {
+        return feeSchedules().byType.getOrDefault(type, Collections.emptyList());
+    }
+
+    /**
+     * Fee schedules of one type in force on a date, in file order
+     */
+    public List<FeeScheduleRecord> findFeeSchedulesByType(String type, LocalDate asOf) {
+        List<FeeScheduleRecord> effective = new ArrayList<>();
+        for (FeeScheduleRecord schedule : findFeeSchedulesByType(type)) {
+            if (schedule.isEffectiveOn(asOf)) {
+                effective.add(schedule);
+            }
+        }
+        return effective;
+    }
+
+    /**
+     * The fee schedule in force on a date, so historical requests are priced as they were then
+     * An exact license class and age group match wins over an "any" schedule.
+     */
+    public Optional<FeeScheduleRecord> findFeeSchedule(String type, String licenseClass, String ageGroup,
+                                                       LocalDate asOf) {
+        TemporalIndex<FeeScheduleRecord> effective = feeSchedules().effective;
+        Optional<FeeScheduleRecord> schedule = effective.asOf(feeScheduleKey(type, licenseClass, ageGroup), asOf);
+        if (schedule.isEmpty()) {
+            schedule = effective.asOf(feeScheduleKey(type, licenseClass, ANY), asOf);
+        }
+        if (schedule.isEmpty()) {
+            schedule = effective.asOf(feeScheduleKey(type, ANY, ageGroup), asOf);
+        }
+        if (schedule.isEmpty()) {
+            schedule = effective.asOf(feeScheduleKey(type, ANY, ANY), asOf);
+        }
+        return schedule;
+    }
+
+    public List<FeeScheduleRecord> findAllFeeSchedules() {
+        return feeSchedules().all;
+    }
+
+    /**
+     * Drop the bound records of a collection; they are rebound on next access
+     */
+    public void invalidate(String collection) {
+        bindings.invalidate(collection);
+        if (pinnedBindings != null) {
+            // Sessions already holding a pinned view keep its records; new views rebind
+            pinnedBindings.invalidateAll();
+        }
+    }
+
+    /**
+     * Drop the bound records of every collection
+     */
+    public void invalidateAll() {
+        invalidate(STATES);
+        invalidate(LICENSE_CLASSES);
+        invalidate(FEE_SCHEDULES);
+    }
+
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (event.isAll()) {
+            invalidateAll();
+        } else {
+            invalidate(event.getCollection());
+        }
+    }
+
+    @EventListener
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        // A rewrite that changed no record leaves the bound records valid
+        if (!event.getDiff().isEmpty()) {
+            invalidate(event.getCollection());
+        }
+    }
+
+    private Map<String, StateRecord> states() {
+        return bindingsFor(STATES).states(externalDataService);
+    }
+
+    private Map<String, LicenseClassRecord> licenseClasses() {
+        return bindingsFor(LICENSE_CLASSES).licenseClasses(externalDataService);
+    }
+
+    private FeeScheduleIndex feeSchedules() {
+        return bindingsFor(FEE_SCHEDULES).feeSchedules(externalDataService);
+    }
+
+    private Bindings bindingsFor(String collection) {
+        return snapshot == null || snapshot.isHeldByVersion(collection) ? bindings : viewBindings;
+    }
+
+    private static StateRecord bindState(Map<String, Object> row) {
+        Map<String, Object> dmv = child(row, "dmv");
+        return new StateRecord(
+            text(row, "code"),
+            text(row, "name"),
+            text(row, "region"),
+            flag(row, "requiresVisionTest"),
+            amount(row, "renewalFee"),
+            whole(row, "maxRenewalYears", 0),
+            texts(row, "specialRequirements"),
+            flag(dmv, "onlineRenewalAvailable"),
+            amount(dmv, "lateFee"));
+    }
+
+    private static LicenseClassRecord bindLicenseClass(Map<String, Object> row) {
+        Map<String, Object> fee = child(row, "fee");
+        return new LicenseClassRecord(
+            text(row, "class"),
+            text(row, "name"),
+            text(row, "description"),
+            whole(row, "minAge", 0),
+            whole(row, "maxAge", LicenseClassRecord.NO_MAX_AGE),
+            whole(row, "renewalPeriod", 0),
+            flag(row, "testRequired"),
+            flag(child(row, "testRequirements"), "driving"),
+            texts(row, "restrictions"),
+            amount(row, "renewalFee"),
+            amount(fee, "base"),
+            amount(fee, "senior"),
+            amount(fee, "veteran"));
+    }
+
+    private static FeeScheduleRecord bindFeeSchedule(Map<String, Object> row) {
+        return new FeeScheduleRecord(
+            text(row, "type"),
+            text(row, "licenseClass"),
+            text(row, "ageGroup"),
+            amount(row, "baseFee"),
+            amount(row, "processingFee"),
+            amount(row, "convenienceFee"),
+            amount(row, "totalFee"),
+            amount(row, "lateFee"),
+            amount(row, "testFee"),
+            date(row, "validFrom"),
+            date(row, "validUntil"));
+    }
+
+    // Field readers used only while binding; a missing or mistyped field gets the default
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> child(Map<String, Object> row, String field) {
+        Object value = row.get(field);
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+
+    private static String text(Map<String, Object> row, String field) {
+        Object value = row.get(field);
+        return value != null ? value.toString() : null;
+    }
+
+    private static boolean flag(Map<String, Object> row, String field) {
+        return Boolean.TRUE.equals(row.get(field));
+    }
+
+    private static double amount(Map<String, Object> row, String field) {
+        Object value = row.get(field);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    private static int whole(Map<String, Object> row, String field, int defaultValue) {
+        Object value = row.get(field);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    private static List<String> texts(Map<String, Object> row, String field) {
+        Object value = row.get(field);
+        if (!(value instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        for (Object element : (List<?>) value) {
+            if (element != null) {
+                result.add(element.toString());
+            }
+        }
+        return result;
+    }
+
+    private static LocalDate date(Map<String, Object> row, String field) {
+        String value = text(row, field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            logger.warn("Ignoring unparseable date in field {}: {}", field, value);
+            return null;
+        }
+    }
+
+    private static String feeScheduleKey(String type, String licenseClass, String ageGroup) {
+        return type + '|' + licenseClass + '|' + ageGroup;
+    }
+
+    /**
+     * Lazily bound records of the three collections, rebound after an invalidation
+     */
+    private static final class Bindings {
+        private volatile Map<String, StateRecord> statesByCode;
+        private volatile Map<String, LicenseClassRecord> licenseClassesByCode;
+        private volatile FeeScheduleIndex feeSchedules;
+        // Bumped on every invalidation so a bind racing with a file change never publishes stale records
+        private final AtomicLong invalidations = new AtomicLong();
+
+        void invalidate(String collection) {
+            invalidations.incrementAndGet();
+            switch (collection) {
+                case STATES -> statesByCode = null;
+                case LICENSE_CLASSES -> licenseClassesByCode = null;
+                case FEE_SCHEDULES -> feeSchedules = null;
+                default -> { }
+            }
+        }
+
+        Map<String, StateRecord> states(ExternalDataService source) {
+            Map<String, StateRecord> bound = statesByCode;
+            if (bound == null) {
+                long generation = invalidations.get();
+                Map<String, StateRecord> index = new HashMap<>();
+                for (Map<String, Object> row : source.findByCollection(STATES)) {
+                    StateRecord state = bindState(row);
+                    if (state.code() != null) {
+                        index.putIfAbsent(state.code(), state);
+                    }
+                }
+                bound = Collections.unmodifiableMap(index);
+                if (invalidations.get() == generation) {
+                    statesByCode = bound;
+                }
+                logger.debug("Bound {} state records", bound.size());
+            }
+            return bound;
+        }
+
+        Map<String, LicenseClassRecord> licenseClasses(ExternalDataService source) {
+            Map<String, LicenseClassRecord> bound = licenseClassesByCode;
+            if (bound == null) {
+                long generation = invalidations.get();
+                Map<String, LicenseClassRecord> index = new HashMap<>();
+                for (Map<String, Object> row : source.findByCollection(LICENSE_CLASSES)) {
+                    LicenseClassRecord licenseClass = bindLicenseClass(row);
+                    if (licenseClass.classCode() != null) {
+                        index.putIfAbsent(licenseClass.classCode(), licenseClass);
+                    }
+                }
+                bound = Collections.unmodifiableMap(index);
+                if (invalidations.get() == generation) {
+                    licenseClassesByCode = bound;
+                }
+                logger.debug("Bound {} license class records", bound.size());
+            }
+            return bound;
+        }
+
+        FeeScheduleIndex feeSchedules(ExternalDataService source) {
+            FeeScheduleIndex bound = feeSchedules;
+            if (bound == null) {
+                long generation = invalidations.get();
+                List<FeeScheduleRecord> all = new ArrayList<>();
+                for (Map<String, Object> row : source.findByCollection(FEE_SCHEDULES)) {
+                    all.add(bindFeeSchedule(row));
+                }
+                bound = new FeeScheduleIndex(all);
+                if (invalidations.get() == generation) {
+                    feeSchedules = bound;
+                }
+                logger.debug("Bound {} fee schedule records", all.size());
+            }
+            return bound;
+        }
+    }
+
+    private static final class FeeScheduleIndex {
+        private final List<FeeScheduleRecord> all;
+        private final Map<String, List<FeeScheduleRecord>> byType;
+        private final TemporalIndex<FeeScheduleRecord> effective;
+
+        FeeScheduleIndex(List<FeeScheduleRecord> schedules) {
+            this.all = List.copyOf(schedules);
+            Map<String, List<FeeScheduleRecord>> grouped = new HashMap<>();
+            for (FeeScheduleRecord schedule : all) {
+                if (schedule.type() != null) {
+                    grouped.computeIfAbsent(schedule.type(), t -> new ArrayList<>()).add(schedule);
+                }
+            }
+            grouped.replaceAll((type, matches) -> List.copyOf(matches));
+            this.byType = grouped;
+            this.effective = TemporalIndex.of(all,
+                schedule -> schedule.type() != null
+                    ? feeScheduleKey(schedule.type(), schedule.licenseClass(), schedule.ageGroup()) : null,
+                FeeScheduleRecord::validFrom, FeeScheduleRecord::validUntil);
+        }
+    }
+}
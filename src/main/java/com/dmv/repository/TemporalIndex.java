@@ -0,0 +1,108 @@
+package com.dmv.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Effective-dated records grouped by key, answering "which version was in force on a date"
+ * Each key's versions are sorted by start date with a running maximum of end dates, so an
+ * as-of lookup is a binary search followed by a walk back that stops as soon as no earlier
+ * version can still be in force. Without overlapping versions that walk is a single step.
+ * Both bounds are inclusive; a null start or end is open-ended.
+ */
+final class TemporalIndex<T> {
+
+    private final Map<String, Timeline<T>> timelines;
+
+    private TemporalIndex(Map<String, Timeline<T>> timelines) {
+        this.timelines = timelines;
+    }
+
+    /**
+     * @param key Grouping key of a record; records with a null key are not indexed
+     */
+    static <T> TemporalIndex<T> of(List<T> records, Function<T, String> key,
+                                   Function<T, LocalDate> validFrom, Function<T, LocalDate> validUntil) {
+        Map<String, List<T>> grouped = new HashMap<>();
+        for (T record : records) {
+            String recordKey = key.apply(record);
+            if (recordKey != null) {
+                grouped.computeIfAbsent(recordKey, k -> new ArrayList<>()).add(record);
+            }
+        }
+        Map<String, Timeline<T>> timelines = new HashMap<>();
+        grouped.forEach((recordKey, versions) -> timelines.put(recordKey, new Timeline<>(versions, validFrom, validUntil)));
+        return new TemporalIndex<>(timelines);
+    }
+
+    /**
+     * The version of a key in force on a date; if several overlap, the one that started last
+     * (and among equal starts, the one listed last)
+     */
+    Optional<T> asOf(String key, LocalDate date) {
+        Timeline<T> timeline = timelines.get(key);
+        return timeline != null ? Optional.ofNullable(timeline.asOf(date)) : Optional.empty();
+    }
+
+    private static final class Timeline<T> {
+        private final List<T> versions;
+        private final LocalDate[] starts;
+        private final LocalDate[] ends;
+        // ends[0..i] maximum: once it is before the date, no earlier version can cover it
+        private final LocalDate[] latestEnds;
+
+        Timeline(List<T> unsorted, Function<T, LocalDate> validFrom, Function<T, LocalDate> validUntil) {
+            List<T> sorted = new ArrayList<>(unsorted);
+            // Stable sort keeps file order among equal start dates
+            sorted.sort(Comparator.comparing(version -> startOf(validFrom.apply(version))));
+            this.versions = List.copyOf(sorted);
+            this.starts = new LocalDate[sorted.size()];
+            this.ends = new LocalDate[sorted.size()];
+            this.latestEnds = new LocalDate[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                starts[i] = startOf(validFrom.apply(sorted.get(i)));
+                ends[i] = endOf(validUntil.apply(sorted.get(i)));
+                latestEnds[i] = i == 0 || ends[i].isAfter(latestEnds[i - 1]) ? ends[i] : latestEnds[i - 1];
+            }
+        }
+
+        T asOf(LocalDate date) {
+            for (int i = lastStartingOnOrBefore(date); i >= 0 && !latestEnds[i].isBefore(date); i--) {
+                if (!ends[i].isBefore(date)) {
+                    return versions.get(i);
+                }
+            }
+            return null;
+        }
+
+        private int lastStartingOnOrBefore(LocalDate date) {
+            int low = 0;
+            int high = starts.length - 1;
+            int found = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle].isAfter(date)) {
+                    high = middle - 1;
+                } else {
+                    found = middle;
+                    low = middle + 1;
+                }
+            }
+            return found;
+        }
+
+        private static LocalDate startOf(LocalDate validFrom) {
+            return validFrom != null ? validFrom : LocalDate.MIN;
+        }
+
+        private static LocalDate endOf(LocalDate validUntil) {
+            return validUntil != null ? validUntil : LocalDate.MAX;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.dmv.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after the external data caches were invalidated on request rather than by a file change
+ * Anything derived from external data outside the cache tiers (typed reference records, query
+ * results) should drop what it holds for the collection, or everything when {@link #isAll()}.
+ */
+public class CacheInvalidatedEvent extends ApplicationEvent {
+
+    private final String collection;
+
+    /**
+     * Every collection was invalidated
+     */
+    public CacheInvalidatedEvent(Object source) {
+        this(source, null);
+    }
+
+    public CacheInvalidatedEvent(Object source, String collection) {
+        super(source);
+        this.collection = collection;
+    }
+
+    /**
+     * Invalidated collection, or null when every collection was invalidated
+     */
+    public String getCollection() {
+        return collection;
+    }
+
+    public boolean isAll() {
+        return collection == null;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidatedEvent{collection=" + (isAll() ? "*" : "'" + collection + "'") + '}';
+    }
+}
@@ -1,18 +1,50 @@
 package com.dmv.service;
 
+import com.dmv.model.reference.FeeScheduleRecord;
+import com.dmv.model.reference.LicenseClassRecord;
+import com.dmv.model.reference.StateRecord;
+import com.dmv.query.ExternalDataQueryService;
+import com.dmv.query.Query;
+import com.dmv.query.QueryPredicate;
+import com.dmv.repository.ReferenceDataRepository;
+import com.dmv.storage.ReferenceDataSnapshot;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Reference data lookups for rules
+ * Scalar lookups read typed records from {@link ReferenceDataRepository}; the row-returning
+ * lookups still go through {@link ExternalDataService}, and filtered row lookups are
+ * compound queries answered by {@link ExternalDataQueryService}. A rule session gets its own
+ * helper pinned to the session's snapshot version, so every lookup in it sees the same data.
+ */
 @Component
 public class ExternalDataHelper {
     
     private final ExternalDataService externalDataService;
+    private final ReferenceDataRepository referenceData;
+    private final ExternalDataQueryService queryService;
     
-    public ExternalDataHelper(ExternalDataService externalDataService) {
+    public ExternalDataHelper(ExternalDataService externalDataService, ReferenceDataRepository referenceData,
+                              ExternalDataQueryService queryService) {
         this.externalDataService = externalDataService;
+        this.referenceData = referenceData;
+        this.queryService = queryService;
+    }
+    
+    /**
+     * Helper whose lookups all read one pinned snapshot version, for a single rule session
+     * Must not outlive the snapshot.
+     * @param pinnedService External data service reading the same snapshot
+     */
+    public ExternalDataHelper pinnedTo(ReferenceDataSnapshot snapshot, ExternalDataService pinnedService) {
+        return new ExternalDataHelper(pinnedService,
+            referenceData.pinnedTo(snapshot, pinnedService),
+            queryService.pinnedTo(snapshot));
     }
     
     public Optional<Map<String, Object>> getStateByCode(String stateCode) {
@@ -26,60 +58,57 @@ public class ExternalDataHelper {
     }
     
     public boolean isOnlineRenewalAvailable(String stateCode) {
-        Optional<Map<String, Object>> state = getStateByCode(stateCode);
-        if (state.isPresent()) {
-            Map<String, Object> dmvInfo = (Map<String, Object>) state.get().get("dmv");
-            if (dmvInfo != null) {
-                return Boolean.TRUE.equals(dmvInfo.get("onlineRenewalAvailable"));
-            }
-        }
-        return false;
+        Optional<StateRecord> state = referenceData.findState(stateCode);
+        return state.isPresent() && state.get().onlineRenewalAvailable();
     }
     
     public double getLateFee(String stateCode) {
-        Optional<Map<String, Object>> state = getStateByCode(stateCode);
-        if (state.isPresent()) {
-            Map<String, Object> dmvInfo = (Map<String, Object>) state.get().get("dmv");
-            if (dmvInfo != null) {
-                Object fee = dmvInfo.get("lateFee");
-                if (fee instanceof Number) {
-                    return ((Number) fee).doubleValue();
-                }
-            }
-        }
-        return 0.0;
+        Optional<StateRecord> state = referenceData.findState(stateCode);
+        return state.isPresent() ? state.get().lateFee() : 0.0;
     }
     
     public boolean requiresDrivingTest(String classCode) {
-        Optional<Map<String, Object>> licenseClass = getLicenseClassByCode(classCode);
-        if (licenseClass.isPresent()) {
-            Map<String, Object> testRequirements = (Map<String, Object>) licenseClass.get().get("testRequirements");
-            if (testRequirements != null) {
-                return Boolean.TRUE.equals(testRequirements.get("driving"));
-            }
-        }
-        return false;
+        Optional<LicenseClassRecord> licenseClass = referenceData.findLicenseClass(classCode);
+        return licenseClass.isPresent() && licenseClass.get().drivingTestRequired();
     }
     
     public double getRenewalFee(String classCode) {
-        Optional<Map<String, Object>> licenseClass = getLicenseClassByCode(classCode);
-        if (licenseClass.isPresent()) {
-            Object fee = licenseClass.get().get("renewalFee");
-            if (fee instanceof Number) {
-                return ((Number) fee).doubleValue();
-            }
-        }
-        return 0.0;
+        Optional<LicenseClassRecord> licenseClass = referenceData.findLicenseClass(classCode);
+        return licenseClass.isPresent() ? licenseClass.get().renewalFee() : 0.0;
     }
     
     public int getMinimumAge(String classCode) {
-        Optional<Map<String, Object>> licenseClass = getLicenseClassByCode(classCode);
-        if (licenseClass.isPresent()) {
-            Object age = licenseClass.get().get("minAge");
-            if (age instanceof Number) {
-                return ((Number) age).intValue();
-            }
-        }
-        return 0;
+        Optional<LicenseClassRecord> licenseClass = referenceData.findLicenseClass(classCode);
+        return licenseClass.isPresent() ? licenseClass.get().minAge() : 0;
+    }
+    
+    /**
+     * Fee schedule in force on a date (e.g. the request's application date)
+     */
+    public Optional<FeeScheduleRecord> getFeeSchedule(String type, String licenseClass, String ageGroup,
+                                                      LocalDate asOf) {
+        return referenceData.findFeeSchedule(type, licenseClass, ageGroup, asOf);
+    }
+    
+    public Optional<FeeScheduleRecord> getFeeSchedule(String type, String licenseClass, String ageGroup) {
+        return getFeeSchedule(type, licenseClass, ageGroup, LocalDate.now());
+    }
+    
+    public double getTotalFee(String type, String licenseClass, String ageGroup, LocalDate asOf) {
+        Optional<FeeScheduleRecord> schedule = getFeeSchedule(type, licenseClass, ageGroup, asOf);
+        return schedule.isPresent() ? schedule.get().totalFee() : 0.0;
+    }
+    
+    public List<Map<String, Object>> getFeeSchedulesByType(String type) {
+        return queryService.query(Query.from("fee-schedules").where(QueryPredicate.eq("type", type)));
+    }
+    
+    /**
+     * Fee schedules of a type whose applicableTo list names the license class
+     */
+    public List<Map<String, Object>> getFeeSchedulesApplicableTo(String type, String licenseClass) {
+        return queryService.query(Query.from("fee-schedules").where(QueryPredicate.and(
+            QueryPredicate.eq("type", type),
+            QueryPredicate.contains("applicableTo", licenseClass))));
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,11 @@
 package com.dmv.service;
 
 import com.dmv.model.CacheStatistics;
+import com.dmv.storage.ReferenceDataSnapshot;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Service interface for accessing external data with multi-layer caching
@@ -19,6 +21,15 @@ public interface ExternalDataService {
      */
     List<Map<String, Object>> findByCollectionAndKey(String collection, String key, Object value);
     
+    /**
+     * Find entries for many values of one key in a single pass through the cache layers
+     * @param collection Collection name
+     * @param key Key to filter by (supports dot notation for nested properties)
+     * @param values Values to match
+     * @return Matching entries per value, in the values' iteration order; every value is present
+     */
+    Map<Object, List<Map<String, Object>>> findByCollectionAndKeys(String collection, String key, Set<?> values);
+    
     /**
      * Find entries in a collection where the specified key exists
      * @param collection Collection name
@@ -55,11 +66,18 @@ public interface ExternalDataService {
      * Get available collections
      * @return Set of available collection names
      */
-    java.util.Set<String> getAvailableCollections();
+    Set<String> getAvailableCollections();
     
     /**
      * Warm up cache for a specific collection
      * @param collection Collection name to warm up
      */
     void warmUpCache(String collection);
+    
+    /**
+     * View of this service bound to one pinned reference-data version, for a single rule session
+     * @param snapshot Pinned version; the caller keeps it open for as long as the view is used
+     * @return Service reading the pinned version, with its lookups counted in this service's statistics
+     */
+    ExternalDataService pinnedTo(ReferenceDataSnapshot snapshot);
 }
\ No newline at end of file
@@ -39,6 +39,15 @@ public interface JsonFactsConverterService {
      */
     String factsToJsonArray(List<Object> facts);
     
+    /**
+     * Deep-copy facts through their JSON form, so rules can modify the copies without touching
+     * the originals
+     * @param facts Facts to copy
+     * @return New list of copied facts, in the same order
+     * @throws IllegalArgumentException if a fact cannot be copied through JSON
+     */
+    List<Object> copyFacts(List<Object> facts);
+    
     /**
      * Get the ObjectMapper instance for direct use
      * @return Configured ObjectMapper
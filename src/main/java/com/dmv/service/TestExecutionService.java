@@ -3,6 +3,7 @@ package com.dmv.service;
 import com.dmv.model.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service interface for rule testing and simulation
@@ -30,6 +31,25 @@ public interface TestExecutionService {
      */
     SimulationResult simulateLoad(LoadTestConfig config);
     
+    /**
+     * Stop a running load simulation; its users finish their current execution and exit
+     * @param runId Run id of the simulation
+     * @return true if the run was in progress
+     */
+    boolean stopSimulation(String runId);
+    
+    /**
+     * Stop every running load simulation
+     * @return Number of runs asked to stop
+     */
+    int stopAllSimulations();
+    
+    /**
+     * Get the load simulations in progress
+     * @return Active user count by run id
+     */
+    Map<String, Integer> getActiveSimulations();
+    
     /**
      * Generate a comprehensive test report
      * @param results List of test results
@@ -1,20 +1,45 @@
 package com.dmv.service.impl;
 
+import com.dmv.cache.AdmissionPolicy;
+import com.dmv.cache.CacheKey;
 import com.dmv.cache.CacheLayer;
+import com.dmv.cache.CacheMetrics;
+import com.dmv.cache.CacheStats;
+import com.dmv.cache.CollectionKeyIndex;
+import com.dmv.cache.CompactRecords;
 import com.dmv.cache.MemoryCacheLayer;
+import com.dmv.cache.NegativeResultCache;
 import com.dmv.cache.NetworkCacheLayer;
+import com.dmv.cache.OffHeapCacheLayer;
+import com.dmv.cache.RefreshAheadCoordinator;
+import com.dmv.exception.ExternalDataLoadException;
 import com.dmv.model.CacheStatistics;
+import com.dmv.service.CacheInvalidatedEvent;
 import com.dmv.service.ExternalDataService;
+import com.dmv.storage.CollectionChangedEvent;
+import com.dmv.storage.CollectionDiff;
 import com.dmv.storage.JsonFileStorageService;
+import com.dmv.storage.ReferenceDataSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Implementation of ExternalDataService with multi-layer caching
  * Cache hierarchy: Memory Cache -> Network Cache -> JSON Files
+ * Full collections use the off-heap layer instead of the memory layer when it is enabled:
+ * Off-Heap Cache -> Network Cache -> JSON Files
+ * An explicit invalidation is announced with a {@link CacheInvalidatedEvent} so that data derived
+ * from these tiers is dropped along with them.
  */
 @Service
 public class ExternalDataServiceImpl implements ExternalDataService {
@@ -23,85 +48,172 @@ public class ExternalDataServiceImpl implements ExternalDataService {
     
     private final MemoryCacheLayer memoryCache;
     private final NetworkCacheLayer networkCache;
+    private final OffHeapCacheLayer offHeapCache;
     private final JsonFileStorageService jsonStorage;
+    private final CollectionKeyIndex keyIndex;
+    private final RefreshAheadCoordinator refreshCoordinator;
+    private final NegativeResultCache negativeCache;
+    private final AdmissionPolicy memoryAdmission;
+    private final AdmissionPolicy offHeapAdmission;
+    private final ApplicationEventPublisher eventPublisher;
+    // Lookups rule sessions answer from their pinned version, outside the shared layers
+    private final CacheMetrics pinnedMetrics = new CacheMetrics("pinnedSnapshot", "PINNED");
 
     public ExternalDataServiceImpl(MemoryCacheLayer memoryCache, 
                                   NetworkCacheLayer networkCache,
                                   JsonFileStorageService jsonStorage) {
+        this(memoryCache, networkCache, null, jsonStorage, new CollectionKeyIndex(), null, null,
+             AdmissionPolicy.ALWAYS, AdmissionPolicy.ALWAYS, null);
+    }
+
+    @Autowired
+    public ExternalDataServiceImpl(MemoryCacheLayer memoryCache,
+                                  NetworkCacheLayer networkCache,
+                                  OffHeapCacheLayer offHeapCache,
+                                  JsonFileStorageService jsonStorage,
+                                  CollectionKeyIndex keyIndex,
+                                  RefreshAheadCoordinator refreshCoordinator,
+                                  NegativeResultCache negativeCache,
+                                  @Qualifier("memoryAdmissionPolicy") AdmissionPolicy memoryAdmission,
+                                  @Qualifier("offHeapAdmissionPolicy") AdmissionPolicy offHeapAdmission,
+                                  ApplicationEventPublisher eventPublisher) {
         this.memoryCache = memoryCache;
         this.networkCache = networkCache;
+        this.offHeapCache = offHeapCache;
         this.jsonStorage = jsonStorage;
+        this.keyIndex = keyIndex;
+        this.refreshCoordinator = refreshCoordinator;
+        this.negativeCache = negativeCache;
+        this.memoryAdmission = memoryAdmission;
+        this.offHeapAdmission = offHeapAdmission;
+        this.eventPublisher = eventPublisher;
         
-        logger.info("External data service initialized with multi-layer caching");
+        logger.info("External data service initialized with multi-layer caching (off-heap collections: {}, admission: {}/{})",
+                   isOffHeapEnabled(), memoryAdmission.getName(), offHeapAdmission.getName());
     }
 
     @Override
     public List<Map<String, Object>> findByCollectionAndKey(String collection, String key, Object value) {
-        String cacheKey = buildCacheKey(collection, key, value);
+        CacheKey cacheKey = CacheKey.lookup(collection, key, value);
         
-        // Try memory cache first (fastest)
-        Optional<Object> memoryCacheResult = memoryCache.get(cacheKey);
-        if (memoryCacheResult.isPresent()) {
-            logger.debug("Data retrieved from memory cache for key: {}", cacheKey);
-            return castToListOfMaps(memoryCacheResult.get());
-        }
+        List<Map<String, Object>> result = lookupThroughLayers(cacheKey, memoryCache,
+            () -> jsonStorage.findByKey(collection, key, value));
         
-        // Try network cache second
-        Optional<Object> networkCacheResult = networkCache.get(cacheKey);
-        if (networkCacheResult.isPresent()) {
-            logger.debug("Data retrieved from network cache for key: {}", cacheKey);
-            List<Map<String, Object>> result = castToListOfMaps(networkCacheResult.get());
-            
-            // Populate memory cache
-            memoryCache.put(cacheKey, result);
-            return result;
-        }
-        
-        // Finally, load from JSON files (slowest)
-        logger.debug("Loading data from JSON storage for key: {}", cacheKey);
-        List<Map<String, Object>> result = jsonStorage.findByKey(collection, key, value);
-        
-        // Populate both cache layers
-        networkCache.put(cacheKey, result);
-        memoryCache.put(cacheKey, result);
-        
-        logger.debug("Loaded {} entries from collection '{}' with key '{}' = '{}'", 
+        logger.debug("Resolved {} entries from collection '{}' with key '{}' = '{}'", 
                     result.size(), collection, key, value);
         
         return result;
     }
 
+    /**
+     * Same tier order as the single-key lookup, but each tier is asked once for every key still
+     * unresolved: negative cache, memory tier in bulk, one batched network request, then one
+     * storage pass for the remaining values.
+     */
     @Override
-    public List<Map<String, Object>> findByCollectionAndKeyExists(String collection, String key) {
-        String cacheKey = buildCacheKey(collection, "EXISTS:" + key, null);
-        
-        // Try memory cache first
-        Optional<Object> memoryCacheResult = memoryCache.get(cacheKey);
-        if (memoryCacheResult.isPresent()) {
-            logger.debug("Data retrieved from memory cache for key exists: {}", cacheKey);
-            return castToListOfMaps(memoryCacheResult.get());
+    public Map<Object, List<Map<String, Object>>> findByCollectionAndKeys(String collection, String key, Set<?> values) {
+        Map<Object, List<Map<String, Object>>> results = new LinkedHashMap<>();
+        Map<String, Object> pending = new LinkedHashMap<>();
+        Map<String, CacheKey> cacheKeys = new HashMap<>();
+        for (Object value : values) {
+            results.put(value, null);
+            CacheKey cacheKey = CacheKey.lookup(collection, key, value);
+            if (negativeCache != null && negativeCache.isNegative(cacheKey)) {
+                results.put(value, new ArrayList<>());
+                continue;
+            }
+            String stringKey = cacheKey.toString();
+            memoryAdmission.recordAccess(stringKey);
+            pending.put(stringKey, value);
+            cacheKeys.put(stringKey, cacheKey);
         }
-        
-        // Try network cache second
-        Optional<Object> networkCacheResult = networkCache.get(cacheKey);
-        if (networkCacheResult.isPresent()) {
-            logger.debug("Data retrieved from network cache for key exists: {}", cacheKey);
-            List<Map<String, Object>> result = castToListOfMaps(networkCacheResult.get());
-            
-            // Populate memory cache
-            memoryCache.put(cacheKey, result);
-            return result;
+
+        Map<String, Object> memoryHits = pending.isEmpty() ? Map.of() : memoryCache.getAll(List.copyOf(pending.keySet()));
+        for (Map.Entry<String, Object> hit : memoryHits.entrySet()) {
+            Object value = pending.remove(hit.getKey());
+            results.put(value, castToListOfMaps(hit.getValue()));
+            refreshAheadIfDue(cacheKeys.get(hit.getKey()), memoryCache,
+                () -> jsonStorage.findByKey(collection, key, value));
         }
+
+        Map<String, Object> networkHits = pending.isEmpty() ? Map.of() : networkCache.getAll(List.copyOf(pending.keySet()));
+        Map<String, Object> promoted = new HashMap<>();
+        for (Map.Entry<String, Object> hit : networkHits.entrySet()) {
+            Object value = pending.remove(hit.getKey());
+            CacheKey cacheKey = cacheKeys.get(hit.getKey());
+            List<Map<String, Object>> result = castToListOfMaps(hit.getValue());
+            results.put(value, result);
+            if (keyIndex.getWrittenAt(cacheKey) < 0) {
+                keyIndex.register(cacheKey);
+            }
+            if (memoryAdmission.admit(hit.getKey())) {
+                promoted.put(hit.getKey(), result);
+            }
+            refreshAheadIfDue(cacheKey, memoryCache, () -> jsonStorage.findByKey(collection, key, value));
+        }
+        memoryCache.putAll(promoted);
+
+        if (!pending.isEmpty()) {
+            loadFromStorage(collection, key, pending, cacheKeys, results);
+        }
+        // Values sharing a cache key string (e.g. 1 and "1") were batched once; resolve the others singly
+        results.replaceAll((value, rows) -> rows != null ? rows : findByCollectionAndKey(collection, key, value));
+
+        logger.debug("Resolved {} values from collection '{}' with key '{}' ({} memory hits, {} network hits, {} loaded)",
+                    values.size(), collection, key, memoryHits.size(), networkHits.size(), pending.size());
+
+        return results;
+    }
+
+    private void loadFromStorage(String collection, String key, Map<String, Object> pending,
+                                 Map<String, CacheKey> cacheKeys, Map<Object, List<Map<String, Object>>> results) {
+        Map<Object, List<Map<String, Object>>> loaded;
+        try {
+            loaded = jsonStorage.findByKeys(collection, key, new ArrayList<>(pending.values()));
+        } catch (ExternalDataLoadException e) {
+            for (Map.Entry<String, Object> entry : pending.entrySet()) {
+                Optional<Object> stale = refreshCoordinator != null
+                    ? refreshCoordinator.staleValue(cacheKeys.get(entry.getKey())) : Optional.empty();
+                results.put(entry.getValue(), stale.isPresent() ? castToListOfMaps(stale.get()) : new ArrayList<>());
+            }
+            logger.error("Failed to load {} values for key '{}' from collection: {}", pending.size(), key, collection, e);
+            return;
+        }
+
+        Map<String, Object> toNetwork = new HashMap<>();
+        Map<String, Object> toMemory = new HashMap<>();
+        for (Map.Entry<String, Object> entry : pending.entrySet()) {
+            CacheKey cacheKey = cacheKeys.get(entry.getKey());
+            List<Map<String, Object>> result = CompactRecords.compact(
+                loaded.getOrDefault(entry.getValue(), new ArrayList<>()));
+            results.put(entry.getValue(), result);
+            if (result.isEmpty()) {
+                if (negativeCache != null) {
+                    negativeCache.recordNegative(cacheKey);
+                }
+                continue;
+            }
+            keyIndex.register(cacheKey);
+            toNetwork.put(entry.getKey(), result);
+            if (memoryAdmission.admit(entry.getKey())) {
+                toMemory.put(entry.getKey(), result);
+            }
+            if (refreshCoordinator != null) {
+                refreshCoordinator.rememberForStaleServe(cacheKey, result);
+            }
+        }
+        networkCache.putAll(toNetwork);
+        memoryCache.putAll(toMemory);
+    }
+
+    @Override
+    public List<Map<String, Object>> findByCollectionAndKeyExists(String collection, String key) {
+        CacheKey cacheKey = CacheKey.exists(collection, key);
         
-        // Load from JSON files
-        logger.debug("Loading data from JSON storage for key exists: {}", cacheKey);
-        List<Map<String, Object>> result = jsonStorage.findByKeyExists(collection, key);
-        
-        // Populate both cache layers
-        networkCache.put(cacheKey, result);
-        memoryCache.put(cacheKey, result);
+        List<Map<String, Object>> result = lookupThroughLayers(cacheKey, memoryCache,
+            () -> jsonStorage.findByKeyExists(collection, key));
         
-        logger.debug("Loaded {} entries from collection '{}' where key '{}' exists", 
+        logger.debug("Resolved {} entries from collection '{}' where key '{}' exists", 
                     result.size(), collection, key);
         
         return result;
@@ -109,83 +221,165 @@ public class ExternalDataServiceImpl implements ExternalDataService {
 
     @Override
     public List<Map<String, Object>> findByCollection(String collection) {
-        String cacheKey = "COLLECTION:" + collection;
-        
-        // Try memory cache first
-        Optional<Object> memoryCacheResult = memoryCache.get(cacheKey);
-        if (memoryCacheResult.isPresent()) {
-            logger.debug("Full collection retrieved from memory cache: {}", collection);
-            return castToListOfMaps(memoryCacheResult.get());
-        }
-        
-        // Try network cache second
-        Optional<Object> networkCacheResult = networkCache.get(cacheKey);
-        if (networkCacheResult.isPresent()) {
-            logger.debug("Full collection retrieved from network cache: {}", collection);
-            List<Map<String, Object>> result = castToListOfMaps(networkCacheResult.get());
-            
-            // Populate memory cache
-            memoryCache.put(cacheKey, result);
-            return result;
-        }
-        
-        // Load from JSON files
-        logger.debug("Loading full collection from JSON storage: {}", collection);
-        List<Map<String, Object>> result = jsonStorage.loadCollection(collection);
+        CacheKey cacheKey = CacheKey.collection(collection);
+        Supplier<List<Map<String, Object>>> loader = () -> jsonStorage.loadCollection(collection);
         
-        // Populate both cache layers
-        networkCache.put(cacheKey, result);
-        memoryCache.put(cacheKey, result);
+        List<Map<String, Object>> result = isOffHeapEnabled()
+            ? lookupThroughOffHeap(cacheKey, loader)
+            : lookupThroughLayers(cacheKey, memoryCache, loader);
         
-        logger.debug("Loaded {} entries from collection '{}'", result.size(), collection);
+        logger.debug("Resolved {} entries from collection '{}'", result.size(), collection);
         
         return result;
     }
 
     @Override
     public void invalidateCache(String collection) {
+        evictCollection(collection);
+        publish(new CacheInvalidatedEvent(this, collection));
+    }
+
+    private void evictCollection(String collection) {
         logger.info("Invalidating cache for collection: {}", collection);
         
-        // We need to invalidate all cache keys related to this collection
-        // For simplicity, we'll clear all caches when a collection is invalidated
-        // In a production system, you might want to track keys by collection
-        memoryCache.invalidateAll();
-        networkCache.invalidateAll();
+        // Only evict keys that were written for this collection so other collections stay hot
+        Set<String> keys = keyIndex.drain(collection);
+        if (!keys.isEmpty()) {
+            memoryCache.invalidateAll(keys);
+            networkCache.invalidateAll(keys);
+            if (offHeapCache != null) {
+                offHeapCache.invalidateAll(keys);
+            }
+            if (refreshCoordinator != null) {
+                refreshCoordinator.discard(keys);
+            }
+        }
+        if (negativeCache != null) {
+            negativeCache.invalidateCollection(collection);
+        }
         
-        logger.info("Cache invalidated for collection: {}", collection);
+        logger.info("Cache invalidated for collection: {} ({} keys)", collection, keys.size());
+    }
+
+    /**
+     * Drop cached entries of a collection whose file was reloaded from disk
+     * With a complete diff only the entries the changed records could appear in are dropped.
+     */
+    @EventListener
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        CollectionDiff diff = event.getDiff();
+        if (!diff.isComplete()) {
+            logger.info("Collection file changed, invalidating cache for: {} [CACHE_OPERATION: FILE_RELOAD]",
+                       event.getCollection());
+            evictCollection(event.getCollection());
+            return;
+        }
+        invalidateChanged(diff);
+    }
+
+    private void invalidateChanged(CollectionDiff diff) {
+        String collection = diff.getCollection();
+        Predicate<CacheKey> affected = key -> switch (key.getType()) {
+            case LOOKUP -> diff.affectsLookup(key.getKeyPath(), key.getValue());
+            case EXISTS -> diff.affectsKeyPath(key.getKeyPath());
+            case COLLECTION -> !diff.isEmpty();
+        };
+        Set<String> keys = keyIndex.drainMatching(collection, affected);
+        if (!keys.isEmpty()) {
+            memoryCache.invalidateAll(keys);
+            networkCache.invalidateAll(keys);
+            if (offHeapCache != null) {
+                offHeapCache.invalidateAll(keys);
+            }
+            if (refreshCoordinator != null) {
+                refreshCoordinator.discard(keys);
+            }
+        }
+        if (negativeCache != null) {
+            negativeCache.invalidateMatching(collection, affected);
+        }
+        logger.info("Collection file changed: {} ({}), invalidated {} keys [CACHE_OPERATION: FILE_RELOAD]",
+                   collection, diff, keys.size());
     }
 
     @Override
     public void invalidateAllCaches() {
         logger.info("Invalidating all caches");
         
+        keyIndex.clear();
         memoryCache.invalidateAll();
         networkCache.invalidateAll();
+        if (offHeapCache != null) {
+            offHeapCache.invalidateAll();
+        }
+        if (refreshCoordinator != null) {
+            refreshCoordinator.discardAll();
+        }
+        if (negativeCache != null) {
+            negativeCache.invalidateAll();
+        }
+        publish(new CacheInvalidatedEvent(this));
         
         logger.info("All caches invalidated");
     }
 
+    // The file watcher announces its own changes; this covers invalidations requested through the service
+    private void publish(CacheInvalidatedEvent event) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
     @Override
     public CacheStatistics getCacheStatistics() {
-        var memoryStats = memoryCache.getStats();
-        var networkStats = networkCache.getStats();
+        List<CacheStats> layerStats = new ArrayList<>();
+        layerStats.add(memoryCache.getStats());
+        if (offHeapCache != null) {
+            layerStats.add(offHeapCache.getStats());
+        }
+        layerStats.add(networkCache.getStats());
+        layerStats.add(pinnedMetrics.getStats(0, 0));
         
-        long totalHits = memoryStats.getHitCount() + networkStats.getHitCount();
-        long totalMisses = memoryStats.getMissCount() + networkStats.getMissCount();
+        long totalHits = 0;
+        long totalMisses = 0;
+        long totalEvictions = 0;
+        long totalSize = 0;
+        long totalMaxSize = 0;
+        for (CacheStats stats : layerStats) {
+            totalHits += stats.getHitCount();
+            totalMisses += stats.getMissCount();
+            totalEvictions += stats.getEvictionCount();
+            totalSize += stats.getSize();
+            totalMaxSize += stats.getMaxSize();
+        }
         double overallHitRatio = (totalHits + totalMisses) > 0 ? 
             (double) totalHits / (totalHits + totalMisses) : 0.0;
         
+        long heapUsedBytes = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long offHeapUsedBytes = offHeapCache != null ? offHeapCache.getUsedBytes() : 0;
+        long offHeapMaxBytes = offHeapCache != null ? offHeapCache.getMaxBytes() : 0;
+        
         return new CacheStatistics(
             totalHits,
             totalMisses,
             overallHitRatio,
-            memoryStats.getEvictionCount() + networkStats.getEvictionCount(),
-            memoryStats.getSize() + networkStats.getSize(),
-            memoryStats.getMaxSize() + networkStats.getMaxSize(),
-            Arrays.asList(memoryStats, networkStats)
+            totalEvictions,
+            totalSize,
+            totalMaxSize,
+            layerStats,
+            heapUsedBytes,
+            offHeapUsedBytes,
+            offHeapMaxBytes,
+            refreshCoordinator != null ? refreshCoordinator.getBackgroundRefreshCount() : 0,
+            refreshCoordinator != null ? refreshCoordinator.getStaleServeCount() : 0
         );
     }
 
+    @Override
+    public ExternalDataService pinnedTo(ReferenceDataSnapshot snapshot) {
+        return new PinnedExternalDataService(snapshot, this, pinnedMetrics);
+    }
+
     @Override
     public Set<String> getAvailableCollections() {
         return jsonStorage.getAvailableCollections();
@@ -231,11 +425,131 @@ public class ExternalDataServiceImpl implements ExternalDataService {
         networkCache.invalidateAll();
     }
 
-    private String buildCacheKey(String collection, String key, Object value) {
-        if (value == null) {
-            return collection + ":" + key;
+    private AdmissionPolicy admissionFor(CacheLayer<String, Object> layer) {
+        return layer == offHeapCache ? offHeapAdmission : memoryAdmission;
+    }
+
+    private boolean isOffHeapEnabled() {
+        return offHeapCache != null && offHeapCache.isEnabled();
+    }
+
+    /**
+     * Walk the cache hierarchy for a key: first layer -> network layer -> storage loader.
+     * Lower-layer hits are promoted upwards and every written key is tracked per collection.
+     * Hits close to expiry schedule a background reload; a failed load falls back to the last good value.
+     * Empty results go to the negative cache only, so unknown keys never occupy the regular layers.
+     * The first layer is only populated when its admission policy accepts the key.
+     * Loaded rows are converted to immutable compact records, so every caller shares read-only data.
+     */
+    private List<Map<String, Object>> lookupThroughLayers(CacheKey cacheKey,
+                                                         CacheLayer<String, Object> firstLayer,
+                                                         Supplier<List<Map<String, Object>>> loader) {
+        String key = cacheKey.toString();
+        
+        // Known misses are answered before any layer is consulted
+        if (negativeCache != null && negativeCache.isNegative(cacheKey)) {
+            return new ArrayList<>();
+        }
+        
+        AdmissionPolicy admission = admissionFor(firstLayer);
+        admission.recordAccess(key);
+        
+        // Try first layer (fastest)
+        Optional<Object> firstLayerResult = firstLayer.get(key);
+        if (firstLayerResult.isPresent()) {
+            logger.debug("Data retrieved from {} for key: {}", firstLayer.getName(), key);
+            refreshAheadIfDue(cacheKey, firstLayer, loader);
+            return castToListOfMaps(firstLayerResult.get());
+        }
+        
+        // Try network cache second
+        Optional<Object> networkCacheResult = networkCache.get(key);
+        if (networkCacheResult.isPresent()) {
+            logger.debug("Data retrieved from network cache for key: {}", key);
+            List<Map<String, Object>> result = castToListOfMaps(networkCacheResult.get());
+            
+            // Promote without resetting the entry's age, so refresh-ahead still sees it
+            if (keyIndex.getWrittenAt(cacheKey) < 0) {
+                keyIndex.register(cacheKey);
+            }
+            if (admission.admit(key)) {
+                firstLayer.put(key, result);
+            } else {
+                logger.debug("Promotion to {} not admitted for key: {}", firstLayer.getName(), key);
+            }
+            refreshAheadIfDue(cacheKey, firstLayer, loader);
+            return result;
+        }
+        
+        // Finally, load from JSON files (slowest)
+        logger.debug("Loading data from JSON storage for key: {}", key);
+        List<Map<String, Object>> result;
+        try {
+            result = CompactRecords.compact(loader.get());
+        } catch (ExternalDataLoadException e) {
+            Optional<Object> stale = refreshCoordinator != null
+                ? refreshCoordinator.staleValue(cacheKey) : Optional.empty();
+            if (stale.isPresent()) {
+                return castToListOfMaps(stale.get());
+            }
+            logger.error("Failed to load data for key: {}, returning no entries", key, e);
+            return new ArrayList<>();
+        }
+        
+        if (result.isEmpty() && negativeCache != null) {
+            negativeCache.recordNegative(cacheKey);
+            return result;
+        }
+        
+        // Populate the network layer, and the first layer if the key has earned it
+        store(cacheKey, firstLayer, result, admission.admit(key));
+        
+        return result;
+    }
+
+    /**
+     * Walk memory -> off-heap -> network -> storage for a whole collection.
+     * Every off-heap hit deserializes the collection again, so collections the memory admission
+     * policy accepts are also kept deserialized in memory; the rest stay off-heap only.
+     */
+    private List<Map<String, Object>> lookupThroughOffHeap(CacheKey cacheKey,
+                                                          Supplier<List<Map<String, Object>>> loader) {
+        String key = cacheKey.toString();
+        memoryAdmission.recordAccess(key);
+        Optional<Object> inMemory = memoryCache.get(key);
+        if (inMemory.isPresent()) {
+            logger.debug("Data retrieved from {} for key: {}", memoryCache.getName(), key);
+            refreshAheadIfDue(cacheKey, memoryCache, loader);
+            return castToListOfMaps(inMemory.get());
+        }
+        
+        List<Map<String, Object>> result = lookupThroughLayers(cacheKey, offHeapCache, loader);
+        if (!result.isEmpty() && memoryAdmission.admit(key)) {
+            // A plain copy, so the memory entry does not keep the off-heap buffer reachable
+            memoryCache.put(key, List.copyOf(result));
+        }
+        return result;
+    }
+
+    private void refreshAheadIfDue(CacheKey cacheKey,
+                                   CacheLayer<String, Object> firstLayer,
+                                   Supplier<List<Map<String, Object>>> loader) {
+        if (refreshCoordinator != null && refreshCoordinator.shouldRefresh(cacheKey)) {
+            refreshCoordinator.refreshInBackground(cacheKey, () -> store(cacheKey, firstLayer, CompactRecords.compact(loader.get()), true));
+        }
+    }
+
+    private void store(CacheKey cacheKey, CacheLayer<String, Object> firstLayer,
+                       List<Map<String, Object>> result, boolean includeFirstLayer) {
+        String key = cacheKey.toString();
+        keyIndex.register(cacheKey);
+        networkCache.put(key, result);
+        if (includeFirstLayer) {
+            firstLayer.put(key, result);
+        }
+        if (refreshCoordinator != null) {
+            refreshCoordinator.rememberForStaleServe(cacheKey, result);
         }
-        return collection + ":" + key + "=" + value.toString();
     }
 
     @SuppressWarnings("unchecked")
@@ -2,12 +2,14 @@ package com.dmv.service.impl;
 
 import com.dmv.model.LicenseRenewalRequest;
 import com.dmv.service.JsonFactsConverterService;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -17,10 +19,13 @@ public class JsonFactsConverterServiceImpl implements JsonFactsConverterService
     private static final Logger logger = LoggerFactory.getLogger(JsonFactsConverterServiceImpl.class);
     
     private final ObjectMapper objectMapper;
+    // Copies facts through their JSON form; derived read-only properties are skipped on the way back
+    private final ObjectMapper factCopier;
 
     public JsonFactsConverterServiceImpl() {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
+        this.factCopier = objectMapper.copy().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         logger.info("JsonFactsConverter service initialized");
     }
 
@@ -88,6 +93,21 @@ public class JsonFactsConverterServiceImpl implements JsonFactsConverterService
         }
     }
 
+    @Override
+    public List<Object> copyFacts(List<Object> facts) {
+        List<Object> copies = new ArrayList<>(facts.size());
+        for (Object fact : facts) {
+            try {
+                copies.add(factCopier.convertValue(fact, fact.getClass()));
+            } catch (IllegalArgumentException e) {
+                // Handing back the original would let concurrent runs modify the same instance
+                throw new IllegalArgumentException("Cannot copy " + fact.getClass().getSimpleName()
+                    + " fact: " + e.getMessage(), e);
+            }
+        }
+        return copies;
+    }
+
     @Override
     public ObjectMapper getObjectMapper() {
         return objectMapper;
@@ -0,0 +1,142 @@
+package com.dmv.service.impl;
+
+import com.dmv.cache.CacheMetrics;
+import com.dmv.exception.ExternalDataLoadException;
+import com.dmv.model.CacheStatistics;
+import com.dmv.service.ExternalDataService;
+import com.dmv.storage.ReferenceDataSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * External data service bound to one pinned snapshot version for a single rule session
+ * Lookups of resident collections read the pinned version directly so that every rule in the
+ * session sees the same data. They do not pass through the shared memory, off-heap, network or
+ * negative tiers: those are keyed by collection and value, not by version, and could answer
+ * from a newer version in the middle of a session. The pinned read is an index lookup on data
+ * already in memory, so it is recorded as a hit in its own metrics layer, which
+ * {@link ExternalDataService#getCacheStatistics()} reports next to the shared tiers.
+ * A collection the version cannot hold goes to the shared service instead: a streamed one, or
+ * one whose file cannot be parsed, for which the shared service serves its last good value.
+ * The first such answer is kept for the rest of the session. Cache management goes to the
+ * shared service.
+ */
+final class PinnedExternalDataService implements ExternalDataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PinnedExternalDataService.class);
+
+    private final ReferenceDataSnapshot snapshot;
+    private final ExternalDataService shared;
+    private final CacheMetrics metrics;
+    // Lookups answered by the shared service, repeated within this session
+    private final Map<SharedLookup, Object> sharedAnswers = new ConcurrentHashMap<>();
+    // Collections whose file failed to load in this session; they are not retried
+    private final Set<String> unloadable = ConcurrentHashMap.newKeySet();
+
+    PinnedExternalDataService(ReferenceDataSnapshot snapshot, ExternalDataService shared, CacheMetrics metrics) {
+        this.snapshot = snapshot;
+        this.shared = shared;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public List<Map<String, Object>> findByCollectionAndKey(String collection, String key, Object value) {
+        return lookup(new SharedLookup("key", collection, key, value),
+            () -> snapshot.findByKey(collection, key, value),
+            () -> shared.findByCollectionAndKey(collection, key, value));
+    }
+
+    @Override
+    public Map<Object, List<Map<String, Object>>> findByCollectionAndKeys(String collection, String key, Set<?> values) {
+        return lookup(new SharedLookup("keys", collection, key, new HashSet<>(values)),
+            () -> snapshot.findByKeys(collection, key, values),
+            () -> shared.findByCollectionAndKeys(collection, key, values));
+    }
+
+    @Override
+    public List<Map<String, Object>> findByCollectionAndKeyExists(String collection, String key) {
+        return lookup(new SharedLookup("exists", collection, key, null),
+            () -> snapshot.findByKeyExists(collection, key),
+            () -> shared.findByCollectionAndKeyExists(collection, key));
+    }
+
+    @Override
+    public List<Map<String, Object>> findByCollection(String collection) {
+        return lookup(new SharedLookup("all", collection, null, null),
+            () -> snapshot.loadCollection(collection),
+            () -> shared.findByCollection(collection));
+    }
+
+    @Override
+    public void invalidateCache(String collection) {
+        shared.invalidateCache(collection);
+    }
+
+    @Override
+    public void invalidateAllCaches() {
+        shared.invalidateAllCaches();
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics() {
+        return shared.getCacheStatistics();
+    }
+
+    @Override
+    public Set<String> getAvailableCollections() {
+        return shared.getAvailableCollections();
+    }
+
+    @Override
+    public void warmUpCache(String collection) {
+        shared.warmUpCache(collection);
+    }
+
+    /**
+     * @throws IllegalStateException Always; this service is already pinned
+     */
+    @Override
+    public ExternalDataService pinnedTo(ReferenceDataSnapshot other) {
+        throw new IllegalStateException("Already pinned to version " + snapshot.getVersion());
+    }
+
+    private <T> T lookup(SharedLookup lookup, Supplier<T> fromSnapshot, Supplier<T> fromShared) {
+        long startTime = System.nanoTime();
+        String collection = lookup.collection();
+        if (!unloadable.contains(collection)) {
+            try {
+                if (snapshot.isResident(collection)) {
+                    T result = fromSnapshot.get();
+                    metrics.recordHit(System.nanoTime() - startTime);
+                    return result;
+                }
+            } catch (ExternalDataLoadException e) {
+                // Same answer as a REST caller gets for the corrupt file: the shared service's last good value
+                unloadable.add(collection);
+                logger.warn("Collection {} failed to load for pinned version {}, using the shared service for this session",
+                           collection, snapshot.getVersion(), e);
+            }
+        }
+        return shared(lookup, fromShared, startTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T shared(SharedLookup lookup, Supplier<T> load, long startTime) {
+        Object remembered = sharedAnswers.get(lookup);
+        if (remembered != null) {
+            metrics.recordHit(System.nanoTime() - startTime);
+            return (T) remembered;
+        }
+        return (T) sharedAnswers.computeIfAbsent(lookup, l -> load.get());
+    }
+
+    private record SharedLookup(String operation, String collection, String key, Object value) {
+    }
+}
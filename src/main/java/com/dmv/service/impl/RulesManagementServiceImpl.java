@@ -1,13 +1,17 @@
 package com.dmv.service.impl;
 
 import com.dmv.model.*;
+import com.dmv.service.ExternalDataHelper;
 import com.dmv.service.RulesManagementService;
+import com.dmv.storage.JsonFileStorageService;
+import com.dmv.storage.ReferenceDataSnapshot;
 import org.kie.api.KieServices;
 import org.kie.api.builder.KieBuilder;
 import org.kie.api.builder.KieFileSystem;
 import org.kie.api.builder.KieModule;
 import org.kie.api.builder.Message;
 import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Global;
 import org.kie.api.definition.rule.Rule;
 import org.kie.api.event.rule.DefaultRuleRuntimeEventListener;
 import org.kie.api.event.rule.ObjectInsertedEvent;
@@ -37,13 +41,18 @@ public class RulesManagementServiceImpl implements RulesManagementService {
     private final KieServices kieServices;
     private final AtomicReference<KieContainer> kieContainerRef;
     private final com.dmv.service.ExternalDataService externalDataService;
+    private final JsonFileStorageService jsonStorage;
+    private final ExternalDataHelper dataHelper;
 
     @Autowired
     public RulesManagementServiceImpl(KieServices kieServices, KieContainer kieContainer,
-                                     com.dmv.service.ExternalDataService externalDataService) {
+                                     com.dmv.service.ExternalDataService externalDataService,
+                                     JsonFileStorageService jsonStorage, ExternalDataHelper dataHelper) {
         this.kieServices = kieServices;
         this.kieContainerRef = new AtomicReference<>(kieContainer);
         this.externalDataService = externalDataService;
+        this.jsonStorage = jsonStorage;
+        this.dataHelper = dataHelper;
     }
 
     @Override
@@ -181,12 +190,16 @@ public class RulesManagementServiceImpl implements RulesManagementService {
         RuleExecutionResult result = new RuleExecutionResult();
         long startTime = System.currentTimeMillis();
         
-        try {
+        // One reference-data version for the whole session, however many reloads happen meanwhile
+        try (ReferenceDataSnapshot snapshot = jsonStorage.pin()) {
             KieContainer container = kieContainerRef.get();
             KieSession kieSession = container.newKieSession();
             
-            // Register global variables
-            kieSession.setGlobal("externalDataService", externalDataService);
+            // Register global variables, both reading the pinned version
+            com.dmv.service.ExternalDataService pinnedService = externalDataService.pinnedTo(snapshot);
+            setGlobalIfDeclared(kieSession, "externalDataService", pinnedService);
+            setGlobalIfDeclared(kieSession, "dataHelper", dataHelper.pinnedTo(snapshot, pinnedService));
+            result.addMetric("referenceDataVersion", snapshot.getVersion());
             
             // Add event listener to track rule firings and fact modifications
             kieSession.addEventListener(new DefaultRuleRuntimeEventListener() {
@@ -257,4 +270,16 @@ public class RulesManagementServiceImpl implements RulesManagementService {
             kieFileSystem.write(ResourceFactory.newClassPathResource("rules/" + resource.getFilename()));
         }
     }
+
+    // Drools rejects a global no loaded rule declares, and a deployed rule set need not use both
+    private static void setGlobalIfDeclared(KieSession kieSession, String name, Object value) {
+        for (KiePackage kiePackage : kieSession.getKieBase().getKiePackages()) {
+            for (Global global : kiePackage.getGlobalVariables()) {
+                if (global.getName().equals(name)) {
+                    kieSession.setGlobal(name, value);
+                    return;
+                }
+            }
+        }
+    }
 }
\ No newline at end of file
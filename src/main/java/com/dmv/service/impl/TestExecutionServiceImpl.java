@@ -1,39 +1,68 @@
 package com.dmv.service.impl;
 
+import com.dmv.load.LoadSimulation;
 import com.dmv.model.*;
 import com.dmv.service.JsonFactsConverterService;
 import com.dmv.service.RulesManagementService;
 import com.dmv.service.TestExecutionService;
+import com.dmv.storage.KeyPath;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TestExecutionServiceImpl implements TestExecutionService {
 
     private static final Logger logger = LoggerFactory.getLogger(TestExecutionServiceImpl.class);
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
 
     private final RulesManagementService rulesManagementService;
     private final JsonFactsConverterService jsonFactsConverterService;
     private final ObjectMapper objectMapper;
     private final Map<String, TestScenario> savedScenarios = new ConcurrentHashMap<>();
+    private final Map<String, LoadSimulation> activeSimulations = new ConcurrentHashMap<>();
+    private final int maxConcurrentUsers;
+    private final ForkJoinPool batchPool;
 
     @Autowired
     public TestExecutionServiceImpl(RulesManagementService rulesManagementService, 
-                                  JsonFactsConverterService jsonFactsConverterService) {
+                                  JsonFactsConverterService jsonFactsConverterService,
+                                  @Value("${dmv.load-test.max-concurrent-users:1000}") int maxConcurrentUsers,
+                                  @Value("${dmv.batch-test.parallelism:0}") int batchParallelism) {
         this.rulesManagementService = rulesManagementService;
         this.jsonFactsConverterService = jsonFactsConverterService;
         this.objectMapper = jsonFactsConverterService.getObjectMapper();
+        this.maxConcurrentUsers = maxConcurrentUsers;
+        this.batchPool = new ForkJoinPool(
+            batchParallelism > 0 ? batchParallelism : Runtime.getRuntime().availableProcessors(), pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("batch-test-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
         
         // Initialize with some default test scenarios
         initializeDefaultScenarios();
@@ -46,7 +75,7 @@ public class TestExecutionServiceImpl implements TestExecutionService {
         logger.info("Executing test scenario: {}", scenario.getScenarioName());
         
         TestResult result = new TestResult(scenario.getScenarioName());
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         
         try {
             // Validate scenario first
@@ -96,7 +125,7 @@ public class TestExecutionServiceImpl implements TestExecutionService {
             result.setErrorMessage("Test execution error: " + e.getMessage());
             logger.error("Error executing test scenario: {}", scenario.getScenarioName(), e);
         } finally {
-            long executionTime = System.currentTimeMillis() - startTime;
+            long executionTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
             result.setExecutionDurationMs(executionTime);
         }
         
@@ -105,81 +134,227 @@ public class TestExecutionServiceImpl implements TestExecutionService {
 
     @Override
     public BatchTestResult executeBatchTests(List<TestScenario> scenarios) {
-        logger.info("Executing batch test with {} scenarios", scenarios.size());
+        logger.info("Executing batch test with {} scenarios on {} threads", scenarios.size(), batchPool.getParallelism());
         
         BatchTestResult batchResult = new BatchTestResult("Batch-" + LocalDateTime.now());
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         
-        for (TestScenario scenario : scenarios) {
-            TestResult result = executeTestScenario(scenario);
-            batchResult.addTestResult(result);
+        List<TimedResult> results = new ArrayList<>(scenarios.size());
+        if (batchPool.getParallelism() == 1 || scenarios.size() < 2) {
+            for (TestScenario scenario : scenarios) {
+                results.add(executeTimed(scenario));
+            }
+        } else {
+            List<TestScenario> isolated = isolate(scenarios);
+            List<Callable<TimedResult>> tasks = new ArrayList<>(scenarios.size());
+            for (TestScenario scenario : isolated) {
+                if (scenario != null) {
+                    tasks.add(() -> executeTimed(scenario));
+                }
+            }
+            try {
+                // invokeAll returns futures in task order, so results keep the input order
+                List<Future<TimedResult>> futures = batchPool.invokeAll(tasks);
+                int task = 0;
+                for (int i = 0; i < scenarios.size(); i++) {
+                    // Scenarios whose shared facts cannot be copied run on their own once the pool is done
+                    results.add(isolated.get(i) != null
+                        ? resultOf(futures.get(task++), scenarios.get(i))
+                        : executeTimed(scenarios.get(i)));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while executing batch tests", e);
+            }
         }
         
-        long totalTime = System.currentTimeMillis() - startTime;
+        long summedScenarioNanos = 0;
+        long cpuNanos = 0;
+        for (TimedResult result : results) {
+            batchResult.addTestResult(result.testResult());
+            summedScenarioNanos += result.wallNanos();
+            cpuNanos += result.cpuNanos();
+        }
+        long wallNanos = System.nanoTime() - startTime;
+        long totalTime = TimeUnit.NANOSECONDS.toMillis(wallNanos);
         batchResult.setTotalExecutionTimeMs(totalTime);
         
         // Add aggregated metrics
         batchResult.addAggregatedMetric("totalScenariosExecuted", scenarios.size());
         batchResult.addAggregatedMetric("totalExecutionTimeMs", totalTime);
         batchResult.addAggregatedMetric("averageTimePerScenario", 
-                                       scenarios.size() > 0 ? totalTime / scenarios.size() : 0);
+                                       scenarios.size() > 0 ? TimeUnit.NANOSECONDS.toMillis(summedScenarioNanos) / scenarios.size() : 0);
+        batchResult.addAggregatedMetric("parallelism", batchPool.getParallelism());
+        batchResult.addAggregatedMetric("wallTimeMs", wallNanos / 1e6);
+        // Scenario durations measured while running alongside each other, not a serial run
+        batchResult.addAggregatedMetric("summedScenarioTimeMs", summedScenarioNanos / 1e6);
+        if (THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()) {
+            batchResult.addAggregatedMetric("cpuTimeMs", cpuNanos / 1e6);
+        }
+        // Average number of scenarios in flight over the batch; contention inflates the summed time,
+        // so this is not the speed-up over a serial run
+        batchResult.addAggregatedMetric("concurrency", wallNanos > 0 ? (double) summedScenarioNanos / wallNanos : 1.0);
         
         logger.info("Batch test completed. Results: {}", batchResult.getStatistics());
         
         return batchResult;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        batchPool.shutdownNow();
+    }
+
+    // Timed on the thread that runs the scenario, so time spent queued for the pool is not counted
+    private TimedResult executeTimed(TestScenario scenario) {
+        long cpuStart = currentThreadCpuTime();
+        long start = System.nanoTime();
+        TestResult result = executeTestScenario(scenario);
+        return new TimedResult(result, System.nanoTime() - start, currentThreadCpuTime() - cpuStart);
+    }
+
+    private TimedResult resultOf(Future<TimedResult> future, TestScenario scenario) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // executeTestScenario handles exceptions itself; only errors get here
+            logger.error("Error executing test scenario: {}", scenario.getScenarioName(), e.getCause());
+            TestResult result = new TestResult(scenario.getScenarioName());
+            result.setSuccess(false);
+            result.setErrorMessage("Test execution error: " + e.getCause());
+            return new TimedResult(result, 0, 0);
+        }
+    }
+
+    /**
+     * Give every scenario that shares a fact instance with another scenario its own copies, as
+     * rules modify facts in place and concurrent runs would otherwise see each other's changes
+     * @return The scenarios in input order; null where the shared facts cannot be copied, so the
+     *         scenario must not run concurrently with the others
+     */
+    private List<TestScenario> isolate(List<TestScenario> scenarios) {
+        Map<Object, Integer> scenariosPerFact = new IdentityHashMap<>();
+        for (TestScenario scenario : scenarios) {
+            Set<Object> facts = Collections.newSetFromMap(new IdentityHashMap<>());
+            facts.addAll(inputFactsOf(scenario));
+            facts.forEach(fact -> scenariosPerFact.merge(fact, 1, Integer::sum));
+        }
+        
+        List<TestScenario> isolated = new ArrayList<>(scenarios.size());
+        for (TestScenario scenario : scenarios) {
+            boolean shared = inputFactsOf(scenario).stream().anyMatch(fact -> scenariosPerFact.get(fact) > 1);
+            isolated.add(shared ? copyOrNull(scenario) : scenario);
+        }
+        return isolated;
+    }
+
+    // Same scenario with its own copies of the input facts; outcomes and tags are read-only and shared
+    private TestScenario copyOf(TestScenario scenario) {
+        TestScenario copy = new TestScenario(scenario.getScenarioName(), scenario.getDescription());
+        copy.setCategory(scenario.getCategory());
+        copy.setTags(scenario.getTags());
+        copy.setExpectedOutcomes(scenario.getExpectedOutcomes());
+        copy.setInputFacts(jsonFactsConverterService.copyFacts(inputFactsOf(scenario)));
+        return copy;
+    }
+
+    private TestScenario copyOrNull(TestScenario scenario) {
+        try {
+            return copyOf(scenario);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Test scenario '{}' will run on its own: {}", scenario.getScenarioName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<Object> inputFactsOf(TestScenario scenario) {
+        return scenario.getInputFacts() != null ? scenario.getInputFacts() : List.of();
+    }
+
+    private static long currentThreadCpuTime() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+    }
+
+    private record TimedResult(TestResult testResult, long wallNanos, long cpuNanos) {
+    }
+
     @Override
     public SimulationResult simulateLoad(LoadTestConfig config) {
         logger.info("Starting load simulation with config: {}", config);
         
-        // This is a simplified implementation - could be enhanced with actual concurrent execution
-        SimulationResult result = new SimulationResult();
-        result.setConfig(config);
-        result.setStartTime(LocalDateTime.now());
-        
-        long startTime = System.currentTimeMillis();
+        String runId = config.getRunId() != null && !config.getRunId().isBlank()
+            ? config.getRunId() : UUID.randomUUID().toString();
+        SimulationResult rejected = new SimulationResult();
+        rejected.setConfig(config);
+        rejected.setRunId(runId);
+        if (config.getConcurrentUsers() < 1 || config.getConcurrentUsers() > maxConcurrentUsers) {
+            rejected.setErrorMessage("Concurrent users must be between 1 and " + maxConcurrentUsers);
+            return rejected;
+        }
         
+        LoadSimulation simulation;
         try {
-            List<TestResult> allResults = new ArrayList<>();
-            
-            // Simulate concurrent executions
-            for (int i = 0; i < config.getConcurrentUsers(); i++) {
-                for (int j = 0; j < config.getExecutionsPerUser(); j++) {
-                    TestScenario scenario = config.getTestScenarioObject();
-                    TestResult testResult = executeTestScenario(scenario);
-                    allResults.add(testResult);
-                }
+            // Rules modify facts in place, so every execution of every user gets its own copies
+            TestScenario template = resolveLoadScenario(config);
+            // Copied once up front, so facts that cannot be copied reject the run before it starts
+            if (template != null) {
+                copyOf(template);
             }
-            
-            // Calculate performance metrics
-            long totalTime = System.currentTimeMillis() - startTime;
-            double averageResponseTime = allResults.stream()
-                .mapToLong(TestResult::getExecutionDurationMs)
-                .average()
-                .orElse(0.0);
-            
-            long successfulExecutions = allResults.stream()
-                .mapToLong(r -> r.isSuccess() ? 1 : 0)
-                .sum();
-            
-            result.setEndTime(LocalDateTime.now());
-            result.setTotalExecutionTimeMs(totalTime);
-            result.setTotalExecutions(allResults.size());
-            result.setSuccessfulExecutions((int) successfulExecutions);
-            result.setFailedExecutions(allResults.size() - (int) successfulExecutions);
-            result.setAverageResponseTimeMs(averageResponseTime);
-            result.setThroughputPerSecond(allResults.size() / (totalTime / 1000.0));
-            
-            logger.info("Load simulation completed: {} executions in {}ms", 
-                       allResults.size(), totalTime);
-            
+            simulation = new LoadSimulation(runId, config, () -> executeTestScenario(copyOf(template)));
+        } catch (IllegalArgumentException e) {
+            rejected.setErrorMessage(e.getMessage());
+            return rejected;
+        }
+        if (activeSimulations.putIfAbsent(runId, simulation) != null) {
+            rejected.setErrorMessage("Load simulation already running: " + runId);
+            return rejected;
+        }
+        
+        try {
+            return simulation.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.setErrorMessage("Load simulation interrupted");
+            return rejected;
         } catch (Exception e) {
-            result.setErrorMessage("Load simulation failed: " + e.getMessage());
+            rejected.setErrorMessage("Load simulation failed: " + e.getMessage());
             logger.error("Error during load simulation", e);
+            return rejected;
+        } finally {
+            activeSimulations.remove(runId, simulation);
         }
-        
-        return result;
+    }
+
+    // A saved scenario of the configured name, otherwise the config's own scenario
+    private TestScenario resolveLoadScenario(LoadTestConfig config) {
+        TestScenario saved = config.getTestScenario() != null ? savedScenarios.get(config.getTestScenario()) : null;
+        return saved != null ? saved : config.getTestScenarioObject();
+    }
+
+    @Override
+    public boolean stopSimulation(String runId) {
+        LoadSimulation simulation = activeSimulations.get(runId);
+        if (simulation == null) {
+            return false;
+        }
+        logger.info("Stopping load simulation: {}", runId);
+        simulation.stop();
+        return true;
+    }
+
+    @Override
+    public int stopAllSimulations() {
+        List<LoadSimulation> running = new ArrayList<>(activeSimulations.values());
+        running.forEach(LoadSimulation::stop);
+        logger.info("Stopped {} load simulations", running.size());
+        return running.size();
+    }
+
+    @Override
+    public Map<String, Integer> getActiveSimulations() {
+        Map<String, Integer> activeUsers = new HashMap<>();
+        activeSimulations.forEach((runId, simulation) -> activeUsers.put(runId, simulation.getActiveUsers()));
+        return activeUsers;
     }
 
     @Override
@@ -317,10 +492,11 @@ public class TestExecutionServiceImpl implements TestExecutionService {
 
     private Object getNestedProperty(Object object, String propertyPath) {
         try {
-            String[] parts = propertyPath.split("\\.");
+            KeyPath path = KeyPath.of(propertyPath);
             Object current = object;
             
-            for (String part : parts) {
+            for (int i = 0; i < path.depth(); i++) {
+                String part = path.segment(i);
                 String methodName = "get" + part.substring(0, 1).toUpperCase() + part.substring(1);
                 Method method = current.getClass().getMethod(methodName);
                 current = method.invoke(current);
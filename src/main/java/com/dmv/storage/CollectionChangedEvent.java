@@ -0,0 +1,54 @@
+package com.dmv.storage;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after a collection file changed on disk and its new snapshot was swapped in
+ * Caches derived from a collection (external data tiers, rule decision caches) should
+ * drop what they hold for it, or, when the {@link CollectionDiff} is complete, only what the
+ * changed records touch.
+ */
+public class CollectionChangedEvent extends ApplicationEvent {
+
+    private final String collection;
+    private final int rowCount;
+    private final CollectionDiff diff;
+
+    public CollectionChangedEvent(Object source, String collection, int rowCount) {
+        this(source, CollectionDiff.unknown(collection, rowCount));
+    }
+
+    public CollectionChangedEvent(Object source, CollectionDiff diff) {
+        super(source);
+        this.collection = diff.getCollection();
+        this.rowCount = diff.getRowCount();
+        this.diff = diff;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    /**
+     * Rows in the new snapshot, or -1 if the collection was removed or could not be parsed
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public boolean isRemoved() {
+        return rowCount < 0;
+    }
+
+    /**
+     * Record-level changes; incomplete when the collection has no primary key or was not loaded before
+     */
+    public CollectionDiff getDiff() {
+        return diff;
+    }
+
+    @Override
+    public String toString() {
+        return "CollectionChangedEvent{collection='" + collection + "', rowCount=" + rowCount + ", diff=" + diff + '}';
+    }
+}
@@ -0,0 +1,206 @@
+package com.dmv.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Record-level difference between two versions of a collection, matched by primary key
+ * A diff is only complete when the collection has a configured primary key that is present and
+ * unique in both versions; otherwise every record must be assumed changed and consumers fall
+ * back to dropping everything they hold for the collection.
+ */
+public final class CollectionDiff {
+
+    private final String collection;
+    private final int rowCount;
+    private final boolean complete;
+    private final List<Map<String, Object>> added;
+    private final List<Map<String, Object>> removed;
+    private final List<Change> changed;
+    private final long diffNanos;
+    // Values the affected rows hold per key path, built on first use by an invalidation pass
+    private final Map<String, Set<Object>> affectedValues = new ConcurrentHashMap<>();
+
+    private CollectionDiff(String collection, int rowCount, boolean complete, List<Map<String, Object>> added,
+                           List<Map<String, Object>> removed, List<Change> changed, long diffNanos) {
+        this.collection = collection;
+        this.rowCount = rowCount;
+        this.complete = complete;
+        this.added = added;
+        this.removed = removed;
+        this.changed = changed;
+        this.diffNanos = diffNanos;
+    }
+
+    /**
+     * Diff whose records are unknown (no previous version, no primary key, or the collection was removed)
+     * @param rowCount Rows in the new version, or -1 if the collection was removed or could not be parsed
+     */
+    public static CollectionDiff unknown(String collection, int rowCount) {
+        return new CollectionDiff(collection, rowCount, false, List.of(), List.of(), List.of(), 0);
+    }
+
+    /**
+     * Match records of both versions by primary key
+     * @param primaryKey Key paths whose values together identify a record
+     */
+    public static CollectionDiff compute(String collection, List<KeyPath> primaryKey,
+                                  List<Map<String, Object>> before, List<Map<String, Object>> after) {
+        long startTime = System.nanoTime();
+        Map<List<Object>, Map<String, Object>> previous = byKey(primaryKey, before);
+        Map<List<Object>, Map<String, Object>> current = byKey(primaryKey, after);
+        if (previous == null || current == null) {
+            return unknown(collection, after.size());
+        }
+        List<Map<String, Object>> added = new ArrayList<>();
+        List<Change> changed = new ArrayList<>();
+        for (Map.Entry<List<Object>, Map<String, Object>> entry : current.entrySet()) {
+            Map<String, Object> old = previous.remove(entry.getKey());
+            if (old == null) {
+                added.add(entry.getValue());
+            } else if (!old.equals(entry.getValue())) {
+                changed.add(new Change(old, entry.getValue()));
+            }
+        }
+        // Whatever is left had no counterpart in the new version
+        List<Map<String, Object>> removed = new ArrayList<>(previous.values());
+        return new CollectionDiff(collection, after.size(), true, Collections.unmodifiableList(added),
+            Collections.unmodifiableList(removed), Collections.unmodifiableList(changed), System.nanoTime() - startTime);
+    }
+
+    // Null when a record lacks the key or two records share it
+    private static Map<List<Object>, Map<String, Object>> byKey(List<KeyPath> primaryKey, List<Map<String, Object>> rows) {
+        if (primaryKey.isEmpty()) {
+            return null;
+        }
+        Map<List<Object>, Map<String, Object>> keyed = new HashMap<>(rows.size() * 2);
+        for (Map<String, Object> row : rows) {
+            List<Object> key = new ArrayList<>(primaryKey.size());
+            for (KeyPath path : primaryKey) {
+                if (!path.existsIn(row)) {
+                    return null;
+                }
+                key.add(path.valueIn(row));
+            }
+            if (keyed.putIfAbsent(key, row) != null) {
+                return null;
+            }
+        }
+        return keyed;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    /**
+     * Rows in the new version, or -1 if the collection was removed or could not be parsed
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Whether the record sets are known; if not, every record must be treated as changed
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Whether the new version holds exactly the same records
+     */
+    public boolean isEmpty() {
+        return complete && added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    public List<Map<String, Object>> getAdded() {
+        return added;
+    }
+
+    public List<Map<String, Object>> getRemoved() {
+        return removed;
+    }
+
+    public List<Change> getChanged() {
+        return changed;
+    }
+
+    public long getDiffNanos() {
+        return diffNanos;
+    }
+
+    /**
+     * Every version of every affected record: added and removed rows, and both sides of each change
+     */
+    public List<Map<String, Object>> affectedRows() {
+        List<Map<String, Object>> rows = new ArrayList<>(added.size() + removed.size() + changed.size() * 2);
+        rows.addAll(added);
+        rows.addAll(removed);
+        for (Change change : changed) {
+            rows.add(change.before());
+            rows.add(change.after());
+        }
+        return rows;
+    }
+
+    /**
+     * Whether a lookup of a value under a key path could return a different result now
+     * Conservative: an incomplete diff and a null value always count as affected.
+     */
+    public boolean affectsLookup(String keyPath, Object value) {
+        if (!complete || value == null) {
+            return true;
+        }
+        return affectedValues.computeIfAbsent(keyPath, this::valuesAt).contains(value);
+    }
+
+    /**
+     * Whether the rows holding a key path could be different now
+     */
+    public boolean affectsKeyPath(String keyPath) {
+        if (!complete) {
+            return true;
+        }
+        KeyPath path = KeyPath.of(keyPath);
+        for (Map<String, Object> row : affectedRows()) {
+            if (path.existsIn(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Set<Object> valuesAt(String keyPath) {
+        KeyPath path = KeyPath.of(keyPath);
+        Set<Object> values = new HashSet<>();
+        for (Map<String, Object> row : affectedRows()) {
+            Object value = path.valueIn(row);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        if (!complete) {
+            return "CollectionDiff{collection='" + collection + "', rowCount=" + rowCount + ", unknown}";
+        }
+        return "CollectionDiff{collection='" + collection + "', added=" + added.size() + ", removed=" + removed.size()
+            + ", changed=" + changed.size() + ", diffMicros=" + diffNanos / 1000 + '}';
+    }
+
+    /**
+     * One record present in both versions with different content
+     */
+    public record Change(Map<String, Object> before, Map<String, Object> after) {
+    }
+}
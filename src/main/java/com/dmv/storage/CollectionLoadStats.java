@@ -0,0 +1,32 @@
+package com.dmv.storage;
+
+/**
+ * Throughput of the last full parse of one collection
+ * @param files Source files read (one, or every shard)
+ * @param chunks Units of work parsed in parallel (whole files and NDJSON line ranges)
+ * @param parallelism Worker threads of the load pool
+ */
+public record CollectionLoadStats(String collection, int files, int chunks, long bytes, int rows,
+                                  long elapsedNanos, int parallelism) {
+
+    public double megabytesPerSecond() {
+        return elapsedNanos > 0 ? bytes / (1024.0 * 1024.0) * 1e9 / elapsedNanos : 0;
+    }
+
+    public double rowsPerSecond() {
+        return elapsedNanos > 0 ? rows * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * Rows per second divided by the worker threads actually used, to compare pool sizes
+     */
+    public double rowsPerSecondPerCore() {
+        return rowsPerSecond() / Math.max(1, Math.min(chunks, parallelism));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows from %d files in %d chunks, %.1f MB/s, %.0f rows/s (%.0f per core, parallelism %d)",
+            rows, files, chunks, megabytesPerSecond(), rowsPerSecond(), rowsPerSecondPerCore(), parallelism);
+    }
+}
@@ -0,0 +1,108 @@
+package com.dmv.storage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Background thread that turns data directory events into collection reloads
+ * Bursts of events for the same file (editors and copy tools often write several times) are
+ * debounced; once a collection has been quiet for the debounce period it is reparsed, diffed
+ * against its previous snapshot, swapped in, and a {@link CollectionChangedEvent} carrying the
+ * diff published.
+ */
+@Component
+public class CollectionWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CollectionWatcher.class);
+
+    private final JsonFileStorageService jsonStorage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Duration debounce;
+    private volatile boolean running = false;
+    private Thread watcherThread;
+
+    public CollectionWatcher(JsonFileStorageService jsonStorage,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${dmv.external-data.watch.enabled:true}") boolean enabled,
+                             @Value("${dmv.external-data.watch.debounce:250ms}") Duration debounce) {
+        this.jsonStorage = jsonStorage;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.debounce = debounce;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Collection file watching disabled; changes are picked up on lookup");
+            return;
+        }
+        jsonStorage.setBackgroundWatching(true);
+        running = true;
+        watcherThread = new Thread(this::watchLoop, "collection-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        logger.info("Watching {} for collection changes (debounce: {})", jsonStorage.getDataDirectory(), debounce);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+        jsonStorage.setBackgroundWatching(false);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void watchLoop() {
+        // Collection -> time of its most recent event
+        Map<String, Long> pending = new HashMap<>();
+        while (running) {
+            try {
+                Set<String> changed = jsonStorage.awaitChangedCollections(debounce);
+                long now = System.nanoTime();
+                for (String collection : changed) {
+                    pending.put(collection, now);
+                }
+                reloadSettled(pending, now);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Collection watcher iteration failed", e);
+            }
+        }
+    }
+
+    private void reloadSettled(Map<String, Long> pending, long now) {
+        Iterator<Map.Entry<String, Long>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (now - entry.getValue() < debounce.toNanos()) {
+                continue;
+            }
+            iterator.remove();
+            String collection = entry.getKey();
+            CollectionDiff diff = jsonStorage.reloadCollectionWithDiff(collection);
+            eventPublisher.publishEvent(new CollectionChangedEvent(this, diff));
+            logger.info("Collection changed: {} ({} entries, {}) [CACHE_OPERATION: FILE_RELOAD]",
+                       collection, diff.getRowCount(), diff);
+        }
+    }
+}
@@ -0,0 +1,578 @@
+package com.dmv.storage;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Memory-mapped, dictionary-encoded columnar image of one JSON collection
+ * Every leaf key path (e.g. "fee.base") is a column of value ids, one per row; the ids point
+ * into a sorted dictionary of distinct encoded values. Each column also carries its row ids
+ * sorted by value, so an equality lookup is two binary searches over the mapped bytes and only
+ * the matching rows are decoded. The header records the source file's mtime and size, so a
+ * stale image is detected on open and recompiled.
+ */
+final class ColumnarSnapshot {
+
+    static final String FILE_EXTENSION = ".col";
+
+    private static final int MAGIC = 0x444D5643; // "DMVC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INT = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte JSON = 6;
+
+    // Query values no stored row can equal (e.g. a Long that Jackson would have read as an Integer)
+    private static final byte[] NO_MATCH = new byte[0];
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+    private final MappedByteBuffer buffer;
+    private final long sourceModified;
+    private final long sourceSize;
+    private final int rowCount;
+    private final int dictionarySize;
+    private final String[] columnNames;
+    private final String[][] columnPaths;
+    private final Map<String, Integer> columnIndex = new HashMap<>();
+    private final int dictionaryOffsetsPosition;
+    private final int dictionaryDataPosition;
+    private final int columnsPosition;
+    private final int[] sortedRowsPosition;
+
+    private ColumnarSnapshot(ObjectMapper objectMapper, MappedByteBuffer buffer) throws IOException {
+        this.objectMapper = objectMapper;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a columnar snapshot (or an unsupported version)");
+        }
+        this.sourceModified = buffer.getLong(8);
+        this.sourceSize = buffer.getLong(16);
+        this.rowCount = buffer.getInt(24);
+        int columnCount = buffer.getInt(28);
+        this.dictionarySize = buffer.getInt(32);
+        int dictionaryBytes = buffer.getInt(36);
+
+        int position = HEADER_BYTES;
+        this.columnNames = new String[columnCount];
+        this.columnPaths = new String[columnCount][];
+        for (int c = 0; c < columnCount; c++) {
+            byte[] name = new byte[buffer.getInt(position)];
+            buffer.get(position + 4, name);
+            columnNames[c] = new String(name, StandardCharsets.UTF_8);
+            columnPaths[c] = columnNames[c].split("\\.");
+            columnIndex.put(columnNames[c], c);
+            position += 4 + name.length;
+        }
+        this.dictionaryOffsetsPosition = position;
+        this.dictionaryDataPosition = dictionaryOffsetsPosition + 4 * (dictionarySize + 1);
+        this.columnsPosition = dictionaryDataPosition + dictionaryBytes;
+
+        position = columnsPosition + 4 * columnCount * rowCount;
+        this.sortedRowsPosition = new int[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            sortedRowsPosition[c] = position;
+            position += 4 + 4 * buffer.getInt(position);
+        }
+        if (position != buffer.capacity()) {
+            throw new IOException("Truncated columnar snapshot");
+        }
+    }
+
+    /**
+     * Map a compiled snapshot file read-only
+     * @throws IOException if the file is missing, truncated or not a columnar snapshot
+     */
+    static ColumnarSnapshot open(ObjectMapper objectMapper, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ColumnarSnapshot(objectMapper, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt columnar snapshot: " + file, e);
+        }
+    }
+
+    /**
+     * Compile a JSON array file into a snapshot file, streaming one row at a time
+     * The target is written through a temp file and moved into place atomically.
+     * @return false if the collection cannot be encoded (field names containing '.' or empty,
+     *         or an image larger than 2 GB); nothing is written in that case
+     */
+    static boolean compile(ObjectMapper objectMapper, Path source, Path target) throws IOException {
+        long sourceModified = Files.getLastModifiedTime(source).toMillis();
+        long sourceSize = Files.size(source);
+
+        Builder builder = new Builder(objectMapper);
+        try (JsonParser parser = objectMapper.getFactory().createParser(source.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array in " + source);
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                if (!builder.addRow(objectMapper.readValue(parser, ROW_TYPE))) {
+                    return false;
+                }
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new IOException("Expected only objects in the JSON array in " + source);
+            }
+        }
+        if (builder.encodedSize() > Integer.MAX_VALUE) {
+            return false;
+        }
+
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            builder.writeTo(temp, sourceModified, sourceSize);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    /**
+     * Whether this image was compiled from a source file with the given mtime and size
+     */
+    boolean isCompiledFrom(long modifiedMillis, long size) {
+        return sourceModified == modifiedMillis && sourceSize == size;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Dotted key paths of the leaf columns; each one has a sorted row index
+     */
+    Set<String> columnNames() {
+        return Set.of(columnNames);
+    }
+
+    /**
+     * Row ids whose value at keyPath equals value, answered from the sorted column index
+     * @return Matching row ids in file order, or null if the value's type cannot be answered
+     *         from the index (null, maps, lists) and the caller must scan decoded rows
+     */
+    int[] rowsMatching(String keyPath, Object value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] encoded = encodeQuery(value);
+        if (encoded == null) {
+            return null;
+        }
+        Integer column = columnIndex.get(KeyPath.of(keyPath).normalized());
+        int valueId = encoded == NO_MATCH || column == null ? -1 : findValueId(encoded);
+        if (valueId < 0) {
+            return new int[0];
+        }
+
+        int count = buffer.getInt(sortedRowsPosition[column]);
+        int start = firstSortedPosition(column, count, valueId);
+        int end = firstSortedPosition(column, count, valueId + 1);
+        int[] rows = new int[end - start];
+        for (int i = start; i < end; i++) {
+            rows[i - start] = sortedRowAt(column, i);
+        }
+        return rows;
+    }
+
+    /**
+     * Row ids in which keyPath exists, either as a leaf or as an object with leaves below it
+     */
+    int[] rowsContaining(String keyPath) {
+        String name = KeyPath.of(keyPath).normalized();
+        String prefix = name + ".";
+        List<Integer> columns = new ArrayList<>();
+        for (int c = 0; c < columnNames.length; c++) {
+            if (columnNames[c].equals(name) || columnNames[c].startsWith(prefix)) {
+                columns.add(c);
+            }
+        }
+        int[] matches = new int[rowCount];
+        int size = 0;
+        for (int row = 0; row < rowCount; row++) {
+            for (int column : columns) {
+                if (valueIdAt(column, row) >= 0) {
+                    matches[size++] = row;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(matches, size);
+    }
+
+    /**
+     * Decode one row back into nested maps
+     */
+    @SuppressWarnings("unchecked")
+    Map<String, Object> row(int rowId) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int c = 0; c < columnNames.length; c++) {
+            int valueId = valueIdAt(c, rowId);
+            if (valueId < 0) {
+                continue;
+            }
+            String[] path = columnPaths[c];
+            Map<String, Object> parent = row;
+            for (int i = 0; i < path.length - 1; i++) {
+                parent = (Map<String, Object>) parent.computeIfAbsent(path[i], k -> new LinkedHashMap<>());
+            }
+            parent.put(path[path.length - 1], decode(valueId));
+        }
+        return row;
+    }
+
+    private int valueIdAt(int column, int row) {
+        return buffer.getInt(columnsPosition + 4 * (column * rowCount + row));
+    }
+
+    private int sortedRowAt(int column, int position) {
+        return buffer.getInt(sortedRowsPosition[column] + 4 + 4 * position);
+    }
+
+    // Lower bound over the column's rows sorted by value id
+    private int firstSortedPosition(int column, int count, int valueId) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (valueIdAt(column, sortedRowAt(column, mid)) < valueId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int findValueId(byte[] encoded) {
+        int low = 0;
+        int high = dictionarySize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compareEntry(mid, encoded);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // Same ordering as Arrays.compareUnsigned, read straight from the mapping
+    private int compareEntry(int valueId, byte[] encoded) {
+        int start = entryStart(valueId);
+        int length = entryStart(valueId + 1) - start;
+        int common = Math.min(length, encoded.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Byte.compareUnsigned(buffer.get(start + i), encoded[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return length - encoded.length;
+    }
+
+    private int entryStart(int valueId) {
+        return dictionaryDataPosition + buffer.getInt(dictionaryOffsetsPosition + 4 * valueId);
+    }
+
+    private Object decode(int valueId) {
+        int start = entryStart(valueId);
+        int payloadLength = entryStart(valueId + 1) - start - 1;
+        switch (buffer.get(start)) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case INT:
+                long value = buffer.getLong(start + 1);
+                // Jackson reads int-range numbers as Integer and larger ones as Long
+                if (value == (int) value) {
+                    return Integer.valueOf((int) value);
+                }
+                return Long.valueOf(value);
+            case DOUBLE:
+                return Double.longBitsToDouble(buffer.getLong(start + 1));
+            case STRING:
+                return new String(payload(start, payloadLength), StandardCharsets.UTF_8);
+            default:
+                try {
+                    return objectMapper.readValue(payload(start, payloadLength), Object.class);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Corrupt value in columnar snapshot", e);
+                }
+        }
+    }
+
+    private byte[] payload(int start, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(start + 1, bytes);
+        return bytes;
+    }
+
+    private byte[] encodeQuery(Object value) {
+        if (value instanceof Long && (Long) value == ((Long) value).intValue()) {
+            return NO_MATCH;
+        }
+        if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64) {
+            return NO_MATCH;
+        }
+        if (value instanceof String || value instanceof Boolean || value instanceof Integer
+                || value instanceof Long || value instanceof Double || value instanceof BigInteger) {
+            try {
+                return encodeValue(value, objectMapper);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        // Stored rows only hold Jackson's default types, so other numbers can never be equal
+        return value instanceof Number ? NO_MATCH : null;
+    }
+
+    private static byte[] encodeValue(Object value, ObjectMapper objectMapper) throws IOException {
+        if (value == null) {
+            return new byte[] {NULL};
+        }
+        if (value instanceof Boolean) {
+            return new byte[] {(Boolean) value ? TRUE : FALSE};
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return withLong(INT, ((Number) value).longValue());
+        }
+        if (value instanceof Double) {
+            return withLong(DOUBLE, Double.doubleToLongBits((Double) value));
+        }
+        if (value instanceof String) {
+            return withPayload(STRING, ((String) value).getBytes(StandardCharsets.UTF_8));
+        }
+        // Lists, empty objects and big numbers are kept as JSON text
+        return withPayload(JSON, objectMapper.writeValueAsBytes(value));
+    }
+
+    private static byte[] withLong(byte type, long value) {
+        byte[] bytes = new byte[9];
+        bytes[0] = type;
+        for (int i = 0; i < 8; i++) {
+            bytes[1 + i] = (byte) (value >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+
+    private static byte[] withPayload(byte type, byte[] payload) {
+        byte[] bytes = new byte[payload.length + 1];
+        bytes[0] = type;
+        System.arraycopy(payload, 0, bytes, 1, payload.length);
+        return bytes;
+    }
+
+    /**
+     * Accumulates columns and the value dictionary while rows are streamed in
+     */
+    private static final class Builder {
+
+        private final ObjectMapper objectMapper;
+        private final Map<String, ColumnBuilder> columns = new LinkedHashMap<>();
+        private final Map<ByteArrayKey, Integer> dictionary = new HashMap<>();
+        private final List<byte[]> values = new ArrayList<>();
+        private long valueBytes;
+        private int rowCount;
+
+        Builder(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        boolean addRow(Map<String, Object> row) throws IOException {
+            if (!addFields(row, null)) {
+                return false;
+            }
+            rowCount++;
+            return true;
+        }
+
+        private boolean addFields(Map<?, ?> fields, String prefix) throws IOException {
+            for (Map.Entry<?, ?> field : fields.entrySet()) {
+                String name = String.valueOf(field.getKey());
+                if (name.isEmpty() || name.contains(".")) {
+                    return false;
+                }
+                String path = prefix == null ? name : prefix + "." + name;
+                Object value = field.getValue();
+                if (value instanceof Map && !((Map<?, ?>) value).isEmpty()) {
+                    if (!addFields((Map<?, ?>) value, path)) {
+                        return false;
+                    }
+                } else {
+                    columns.computeIfAbsent(path, p -> new ColumnBuilder()).set(rowCount, valueId(value));
+                }
+            }
+            return true;
+        }
+
+        private int valueId(Object value) throws IOException {
+            byte[] encoded = encodeValue(value, objectMapper);
+            Integer id = dictionary.get(new ByteArrayKey(encoded));
+            if (id == null) {
+                id = values.size();
+                dictionary.put(new ByteArrayKey(encoded), id);
+                values.add(encoded);
+                valueBytes += encoded.length;
+            }
+            return id;
+        }
+
+        long encodedSize() {
+            long size = HEADER_BYTES + 4L * (values.size() + 1) + valueBytes;
+            for (String name : columns.keySet()) {
+                size += 4 + name.getBytes(StandardCharsets.UTF_8).length;
+            }
+            // Value ids per row plus the sorted row ids per column
+            return size + columns.size() * (4L + 8L * rowCount);
+        }
+
+        void writeTo(Path file, long sourceModified, long sourceSize) throws IOException {
+            // Sort the dictionary so lookups can binary-search the mapped bytes
+            Integer[] order = new Integer[values.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(values.get(a), values.get(b)));
+            int[] sortedId = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedId[order[i]] = i;
+            }
+
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sourceModified);
+                out.writeLong(sourceSize);
+                out.writeInt(rowCount);
+                out.writeInt(columns.size());
+                out.writeInt(values.size());
+                out.writeInt((int) valueBytes);
+
+                for (String name : columns.keySet()) {
+                    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+
+                int offset = 0;
+                for (Integer id : order) {
+                    out.writeInt(offset);
+                    offset += values.get(id).length;
+                }
+                out.writeInt(offset);
+                for (Integer id : order) {
+                    out.write(values.get(id));
+                }
+
+                List<int[]> columnIds = new ArrayList<>(columns.size());
+                for (ColumnBuilder column : columns.values()) {
+                    int[] ids = column.finish(rowCount);
+                    for (int row = 0; row < rowCount; row++) {
+                        if (ids[row] >= 0) {
+                            ids[row] = sortedId[ids[row]];
+                        }
+                        out.writeInt(ids[row]);
+                    }
+                    columnIds.add(ids);
+                }
+
+                for (int[] ids : columnIds) {
+                    long[] keys = new long[rowCount];
+                    int count = 0;
+                    for (int row = 0; row < rowCount; row++) {
+                        if (ids[row] >= 0) {
+                            keys[count++] = ((long) ids[row] << 32) | row;
+                        }
+                    }
+                    Arrays.sort(keys, 0, count);
+                    out.writeInt(count);
+                    for (int i = 0; i < count; i++) {
+                        out.writeInt((int) keys[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class ColumnBuilder {
+        private int[] ids = new int[0];
+
+        void set(int row, int valueId) {
+            ensureCapacity(row + 1);
+            ids[row] = valueId;
+        }
+
+        int[] finish(int rowCount) {
+            ensureCapacity(rowCount);
+            return ids.length == rowCount ? ids : Arrays.copyOf(ids, rowCount);
+        }
+
+        // New slots start as -1 (key absent in that row)
+        private void ensureCapacity(int capacity) {
+            if (ids.length < capacity) {
+                int previous = ids.length;
+                ids = Arrays.copyOf(ids, Math.max(capacity, previous * 2));
+                Arrays.fill(ids, previous, ids.length, -1);
+            }
+        }
+    }
+
+    private static final class ByteArrayKey {
+        private final byte[] bytes;
+        private final int hash;
+
+        ByteArrayKey(byte[] bytes) {
+            this.bytes = bytes;
+            this.hash = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ByteArrayKey && Arrays.equals(bytes, ((ByteArrayKey) other).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.dmv.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Directory watch for the collection files and the collections known to have none
+ * Lookups drain already-queued events with {@link #drain()} unless a background watcher has
+ * taken over, in which case only {@link #await} consumes them. Every event bumps a change
+ * generation, so a load racing with a file change can tell its result may be stale.
+ */
+final class DataDirectoryWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataDirectoryWatcher.class);
+
+    private final WatchService watchService;
+    // Names reported as changed when the event queue overflows
+    private final Supplier<Set<String>> loadedCollections;
+    // Collections known to have no file; cleared when the directory watcher reports the file
+    private final Set<String> absentCollections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong changeGeneration = new AtomicLong();
+    private volatile boolean background = false;
+
+    DataDirectoryWatcher(Path dataPath, Supplier<Set<String>> loadedCollections) throws IOException {
+        this.loadedCollections = loadedCollections;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        dataPath.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY,
+                         StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    void setBackground(boolean background) {
+        this.background = background;
+    }
+
+    /**
+     * Non-blocking: apply the events already queued, unless a background watcher consumes them
+     * @return Collections the events touched
+     */
+    Set<String> drain() {
+        if (background) {
+            return Set.of();
+        }
+        Set<String> changed = new HashSet<>();
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            changed.addAll(apply(key));
+        }
+        return changed;
+    }
+
+    /**
+     * Wait for directory events and return the collections they touched
+     * @param timeout Maximum time to wait for the first event
+     * @return Changed collection names (every loaded collection after an event overflow), empty on timeout
+     */
+    Set<String> await(Duration timeout) throws InterruptedException {
+        Set<String> changed = new HashSet<>();
+        WatchKey key = watchService.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        while (key != null) {
+            changed.addAll(apply(key));
+            key = watchService.poll();
+        }
+        return changed;
+    }
+
+    boolean isAbsent(String collection) {
+        return absentCollections.contains(collection);
+    }
+
+    void markAbsent(String collection) {
+        absentCollections.add(collection);
+    }
+
+    long changeGeneration() {
+        return changeGeneration.get();
+    }
+
+    // Update absent markers for one watch key and return the collections its events touched
+    private Set<String> apply(WatchKey key) {
+        Set<String> changed = new HashSet<>();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            changeGeneration.incrementAndGet();
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                absentCollections.clear();
+                changed.addAll(loadedCollections.get());
+                continue;
+            }
+            String filename = event.context().toString();
+            String collection = ParallelCollectionLoader.collectionOf(filename);
+            if (collection == null) {
+                continue;
+            }
+            changed.add(collection);
+            if (event.kind() != StandardWatchEventKinds.ENTRY_DELETE && absentCollections.remove(collection)) {
+                logger.info("Collection file appeared: {}", filename);
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
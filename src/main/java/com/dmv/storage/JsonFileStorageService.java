@@ -1,38 +1,91 @@
 package com.dmv.storage;
 
+import com.dmv.cache.CompactRecords;
+import com.dmv.config.ExternalDataStorageProperties;
+import com.dmv.exception.ExternalDataLoadException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
 import java.util.*;
+import java.time.Duration;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Service for reading JSON collections from files
- * Supports collection name mapping from filenames and key-based filtering
+ * Supports collection name mapping from filenames and key-based filtering.
+ * Each collection is parsed once into an immutable snapshot with hash indexes on its key paths.
+ * Without a background watcher, pending directory events are drained on lookup and drop the
+ * affected snapshot; with {@link CollectionWatcher} running, changed collections are reparsed
+ * off the request path and swapped in atomically instead.
+ * Collections whose source files together exceed the streaming threshold are never held in
+ * memory: key lookups stream each file and materialize only the matching rows.
+ * When a columnar snapshot directory is configured, each collection is instead compiled once into
+ * a memory-mapped {@link ColumnarSnapshot} (recompiled when the JSON changes) and lookups decode
+ * only the matching rows from it.
+ * The loaded collections are published as immutable numbered versions by a {@link SnapshotPublisher}:
+ * every load, reload or drop swaps in a new version with one atomic reference update, and
+ * {@link #pin()} gives an evaluation a lock-free view of one version that later reloads do not
+ * disturb. Directory events come from a {@link DataDirectoryWatcher}; settings are bound from
+ * {@link ExternalDataStorageProperties}.
+ * Collections with a configured primary key are diffed record by record on reload, so
+ * consumers can invalidate only what the change touched.
+ * A collection may also be stored as newline-delimited JSON or split into numbered shard files
+ * ({@code name.part-N.json});
+ * those are parsed in parallel by {@link ParallelCollectionLoader} and never streamed.
  */
 @Service
 public class JsonFileStorageService {
     
     private static final Logger logger = LoggerFactory.getLogger(JsonFileStorageService.class);
+    // Distinct lookups remembered per memory-mapped collection
+    private static final int DECODED_LOOKUPS_KEPT = 1024;
     
     private final ObjectMapper objectMapper;
     private final String dataDirectory;
     private final Map<String, Long> fileModificationTimes = new ConcurrentHashMap<>();
-    private final WatchService watchService;
     private final Path dataPath;
+    private final SnapshotPublisher versions = new SnapshotPublisher();
+    private final DataDirectoryWatcher directoryWatcher;
+    private final Map<String, List<String>> indexedKeyPaths;
+    private final Map<String, List<KeyPath>> primaryKeys;
+    private final ParallelCollectionLoader loader;
+    private final Map<String, CollectionLoadStats> loadStats = new ConcurrentHashMap<>();
+    private final long streamingThresholdBytes;
+    private final StreamingCollectionScanner streamingScanner;
+    private final Path columnarPath;
 
-    public JsonFileStorageService(ObjectMapper objectMapper, 
-                                 @Value("${dmv.external-data.directory:src/main/resources/data}") String dataDirectory) throws IOException {
+    public JsonFileStorageService(ObjectMapper objectMapper, String dataDirectory) throws IOException {
+        this(objectMapper, ExternalDataStorageProperties.forDirectory(dataDirectory));
+    }
+
+    @Autowired
+    public JsonFileStorageService(ObjectMapper objectMapper, ExternalDataStorageProperties properties) throws IOException {
+        int loadParallelism = properties.getLoad().getParallelism();
+        String columnarDirectory = properties.getColumnarSnapshot().getDirectory();
         this.objectMapper = objectMapper;
-        this.dataDirectory = dataDirectory;
+        this.dataDirectory = properties.getDirectory();
+        this.indexedKeyPaths = parseIndexedKeys(properties.getIndexedKeys());
+        this.primaryKeys = parsePrimaryKeys(properties.getPrimaryKeys());
+        this.loader = new ParallelCollectionLoader(objectMapper,
+            loadParallelism > 0 ? loadParallelism : Runtime.getRuntime().availableProcessors());
+        this.streamingThresholdBytes = properties.getStreamingThresholdBytes();
+        this.streamingScanner = new StreamingCollectionScanner(objectMapper);
+        this.columnarPath = columnarDirectory == null || columnarDirectory.isBlank() ? null : Paths.get(columnarDirectory);
+        if (columnarPath != null) {
+            Files.createDirectories(columnarPath);
+        }
         this.dataPath = Paths.get(dataDirectory);
         
         // Create data directory if it doesn't exist
@@ -41,10 +94,7 @@ public class JsonFileStorageService {
             logger.info("Created data directory: {}", dataPath.toAbsolutePath());
         }
         
-        // Initialize file watcher
-        this.watchService = FileSystems.getDefault().newWatchService();
-        dataPath.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, 
-                         StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+        this.directoryWatcher = new DataDirectoryWatcher(dataPath, () -> versions.current().collections().keySet());
         
         logger.info("JSON file storage service initialized with directory: {}", dataPath.toAbsolutePath());
     }
@@ -52,36 +102,322 @@ public class JsonFileStorageService {
     /**
      * Load all data from a collection (JSON file)
      * @param collection Collection name (filename without .json extension)
-     * @return List of maps representing JSON objects
+     * @return Read-only list of rows, empty if the collection does not exist
+     * @throws ExternalDataLoadException if the collection file exists but cannot be read or parsed
      */
     public List<Map<String, Object>> loadCollection(String collection) {
-        String filename = collection + ".json";
-        Path filePath = dataPath.resolve(filename);
+        if (streamedFiles(collection) != null) {
+            // Too large to keep resident; the caller asked for every row, so parse without retaining it
+            List<Map<String, Object>> rows = readCollectionFile(collection);
+            return rows != null ? rows : new ArrayList<>();
+        }
+        LoadedCollection snapshot = snapshotFor(collection);
+        return snapshot != null ? snapshot.rows() : new ArrayList<>();
+    }
+
+    // Parsed (or mapped), indexed collection; null if the collection file does not exist
+    private LoadedCollection snapshotFor(String collection) {
+        processWatchEvents();
+        LoadedCollection snapshot = versions.get(collection);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        if (directoryWatcher.isAbsent(collection)) {
+            return null;
+        }
         
-        if (!Files.exists(filePath)) {
-            logger.debug("Collection file not found: {}", filePath);
-            return new ArrayList<>();
+        long generation = directoryWatcher.changeGeneration();
+        snapshot = loadSnapshot(collection);
+        if (snapshot == null) {
+            return null;
         }
         
+        versions.install(collection, snapshot);
+        if (directoryWatcher.changeGeneration() != generation) {
+            versions.withdraw(collection, snapshot);
+        }
+        return snapshot;
+    }
+
+    // LoadedCollection the pinned view falls back to for a collection its version does not hold;
+    // null when the collection is streamed or absent
+    LoadedCollection residentSnapshot(String collection) {
+        return streamedFiles(collection) == null ? snapshotFor(collection) : null;
+    }
+
+    /**
+     * Pin the current version of the loaded collections for one evaluation
+     * The returned view reads that version without locking for as long as it stays open;
+     * reloads meanwhile publish new versions alongside it. Close it to release the version.
+     * @return Pinned view of the current version
+     */
+    public ReferenceDataSnapshot pin() {
+        return new ReferenceDataSnapshot(this, versions.pin());
+    }
+
+    void release(SnapshotVersion version) {
+        versions.release(version);
+    }
+
+    /**
+     * Number of the currently published version; increases with every load, reload or drop
+     */
+    public long getSnapshotVersion() {
+        return versions.current().number();
+    }
+
+    /**
+     * Generation of a collection's data, for caches of results derived from it
+     * Changes whenever the collection is loaded, reloaded or dropped (a streamed collection is
+     * dropped on every change to its file) and is read without touching the file system. A
+     * result computed while the generation stayed the same is current for that generation.
+     * @param collection Collection name
+     * @return Number of the version that installed the collection, or a negative count of its
+     *         drops while it is not held in memory
+     */
+    public long getCollectionGeneration(String collection) {
+        processWatchEvents();
+        return versions.generation(collection);
+    }
+
+    /**
+     * Number of superseded versions still held by open pinned views
+     */
+    public int getRetainedVersionCount() {
+        return versions.retainedCount();
+    }
+
+    /**
+     * Stop the loader's worker threads
+     */
+    @PreDestroy
+    public void shutdown() {
+        loader.close();
+    }
+
+    // Files to stream for a collection above the threshold, or null if it is (or should be) snapshotted
+    private List<Path> streamedFiles(String collection) {
+        processWatchEvents();
+        if (versions.get(collection) != null || directoryWatcher.isAbsent(collection)) {
+            return null;
+        }
+        return streamingSources(collection);
+    }
+
+    // All source files of a collection (JSON, NDJSON or shards) when together they exceed the
+    // threshold; null otherwise. Mapped columnar snapshots keep large collections off the heap
+    // already, so they are not streamed.
+    private List<Path> streamingSources(String collection) {
+        if (streamingThresholdBytes <= 0 || columnarPath != null) {
+            return null;
+        }
         try {
-            // Check if file has been modified
-            long lastModified = Files.getLastModifiedTime(filePath).toMillis();
+            List<Path> sources = ParallelCollectionLoader.sourceFiles(dataPath, collection);
+            long totalBytes = 0;
+            for (Path source : sources) {
+                totalBytes += Files.size(source);
+            }
+            return totalBytes > streamingThresholdBytes ? sources : null;
+        } catch (IOException e) {
+            // Missing or unreadable; the regular load path reports it
+            return null;
+        }
+    }
+
+    private List<Map<String, Object>> streamCollection(String collection, List<Path> files,
+                                                       StreamingScan scan) {
+        try {
+            long lastModified = 0;
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Path file : files) {
+                lastModified = Math.max(lastModified, Files.getLastModifiedTime(file).toMillis());
+                rows.addAll(scan.run(file));
+            }
+            fileModificationTimes.put(collection, lastModified);
+            List<Map<String, Object>> matches = CompactRecords.compact(rows);
+            logger.debug("Streamed collection: {} ({} files, {} matching entries)", collection, files.size(), matches.size());
+            return matches;
+        } catch (NoSuchFileException e) {
+            directoryWatcher.markAbsent(collection);
+            return new ArrayList<>();
+        } catch (IOException e) {
+            logger.error("Error streaming collection: {}", collection, e);
+            throw new ExternalDataLoadException(collection, e);
+        }
+    }
+
+    private interface StreamingScan {
+        List<Map<String, Object>> run(Path filePath) throws IOException;
+    }
+
+    // Fresh snapshot of a collection from disk; null if the collection file does not exist
+    private LoadedCollection loadSnapshot(String collection) {
+        Path source = dataPath.resolve(collection + ".json");
+        // NDJSON and sharded collections are not compiled; they load as parsed snapshots
+        if (columnarPath != null && Files.exists(source)) {
+            ColumnarSnapshot columnar = openColumnar(collection, source);
+            if (columnar != null) {
+                return new MappedCollection(columnar);
+            }
+        }
+        List<Map<String, Object>> rows = readCollectionFile(collection);
+        return rows != null ? buildSnapshot(collection, rows) : null;
+    }
+
+    // Mapped image of a collection, compiled when missing or stale; null if the collection cannot be encoded
+    private ColumnarSnapshot openColumnar(String collection, Path source) {
+        Path target = columnarPath.resolve(collection + ColumnarSnapshot.FILE_EXTENSION);
+        try {
+            long lastModified = Files.getLastModifiedTime(source).toMillis();
+            long size = Files.size(source);
             fileModificationTimes.put(collection, lastModified);
             
-            List<Map<String, Object>> data = objectMapper.readValue(
-                filePath.toFile(), 
-                new TypeReference<List<Map<String, Object>>>() {}
-            );
+            if (Files.exists(target)) {
+                try {
+                    ColumnarSnapshot existing = ColumnarSnapshot.open(objectMapper, target);
+                    if (existing.isCompiledFrom(lastModified, size)) {
+                        logger.debug("Mapped columnar snapshot for collection: {} ({} entries)", collection, existing.rowCount());
+                        return existing;
+                    }
+                } catch (IOException e) {
+                    logger.warn("Discarding unreadable columnar snapshot: {}", target, e);
+                }
+            }
             
-            logger.debug("Loaded {} entries from collection: {}", data.size(), collection);
-            return data;
+            long startTime = System.nanoTime();
+            if (!ColumnarSnapshot.compile(objectMapper, source, target)) {
+                logger.info("Collection: {} cannot be stored columnar, keeping it as a parsed snapshot", collection);
+                return null;
+            }
+            ColumnarSnapshot compiled = ColumnarSnapshot.open(objectMapper, target);
+            logger.info("Compiled columnar snapshot for collection: {} ({} entries, {}ms)",
+                       collection, compiled.rowCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            return compiled;
+        } catch (IOException e) {
+            logger.error("Error loading collection: {}", collection, e);
+            throw new ExternalDataLoadException(collection, e);
+        }
+    }
+
+    private CollectionSnapshot buildSnapshot(String collection, List<Map<String, Object>> rows) {
+        CollectionSnapshot snapshot = new CollectionSnapshot(rows);
+        for (String keyPath : indexedKeyPaths.getOrDefault(collection, Collections.emptyList())) {
+            snapshot.indexFor(keyPath);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reparse a collection and atomically replace its snapshot
+     * Lookups keep using the previous snapshot until the new one is fully built and indexed.
+     * If the file cannot be parsed (e.g. it is mid-write) the previous snapshot is kept.
+     * @param collection Collection name
+     * @return Number of rows now loaded (0 for collections served by streaming), or -1 if the
+     *         collection no longer exists or could not be parsed
+     */
+    public int reloadCollection(String collection) {
+        return reloadCollectionWithDiff(collection).getRowCount();
+    }
+
+    /**
+     * Reparse a collection, diff it against the snapshot it replaces, and swap it in
+     * The diff is built off to the side before the new snapshot is published. It is only complete
+     * when the collection has a primary key and a previous snapshot was loaded to compare against.
+     * Directory events already queued for the collection are consumed by the reload, so they do
+     * not drop the snapshot it installs on the next lookup.
+     * @param collection Collection name
+     * @return Record-level changes; its row count is as returned by {@link #reloadCollection}
+     */
+    public CollectionDiff reloadCollectionWithDiff(String collection) {
+        Set<String> othersChanged = new HashSet<>(directoryWatcher.drain());
+        othersChanged.remove(collection);
+        if (!othersChanged.isEmpty()) {
+            versions.drop(othersChanged);
+        }
+        if (streamingSources(collection) != null) {
+            versions.drop(List.of(collection));
+            logger.info("Collection changed: {} (served by streaming scan, not reloaded)", collection);
+            return CollectionDiff.unknown(collection, 0);
+        }
+        try {
+            LoadedCollection previous = versions.get(collection);
+            LoadedCollection snapshot = loadSnapshot(collection);
+            if (snapshot == null) {
+                versions.drop(List.of(collection));
+                logger.info("Collection removed: {}", collection);
+                return CollectionDiff.unknown(collection, -1);
+            }
+            List<KeyPath> primaryKey = primaryKeys.getOrDefault(collection, Collections.emptyList());
+            CollectionDiff diff = previous != null && !primaryKey.isEmpty()
+                ? CollectionDiff.compute(collection, primaryKey, previous.rows(), snapshot.rows())
+                : CollectionDiff.unknown(collection, snapshot.size());
+            versions.install(collection, snapshot);
+            logger.info("Reloaded collection: {} ({} entries, {})", collection, snapshot.size(), diff);
+            return diff;
+        } catch (ExternalDataLoadException e) {
+            logger.warn("Keeping previous snapshot of collection: {} after failed reload", collection);
+            return CollectionDiff.unknown(collection, -1);
+        }
+    }
+
+    /**
+     * Hand directory events over to a background watcher
+     * Lookups stop draining the watch queue and snapshots are only replaced through {@link #reloadCollection}.
+     * Also for callers that reload explicitly and want no other change path.
+     */
+    public void setBackgroundWatching(boolean backgroundWatching) {
+        directoryWatcher.setBackground(backgroundWatching);
+    }
+
+    /**
+     * Wait for directory events and return the collections they touched
+     * @param timeout Maximum time to wait for the first event
+     * @return Changed collection names (every loaded collection after an event overflow), empty on timeout
+     */
+    Set<String> awaitChangedCollections(Duration timeout) throws InterruptedException {
+        return directoryWatcher.await(timeout);
+    }
+
+    private List<Map<String, Object>> readCollectionFile(String collection) {
+        try {
+            List<Path> sources = ParallelCollectionLoader.sourceFiles(dataPath, collection);
+            if (sources.isEmpty()) {
+                logger.debug("Collection file not found: {}", dataPath.resolve(collection + ".json"));
+                directoryWatcher.markAbsent(collection);
+                return null;
+            }
+            
+            // Check if file has been modified
+            fileModificationTimes.put(collection, latestModification(sources));
+            
+            List<Map<String, Object>> data = loader.load(collection, sources, stats -> {
+                loadStats.put(collection, stats);
+                logger.debug("Loaded collection: {} ({})", collection, stats);
+            });
+            return CompactRecords.compact(data);
             
         } catch (IOException e) {
             logger.error("Error loading collection: {}", collection, e);
-            return new ArrayList<>();
+            throw new ExternalDataLoadException(collection, e);
         }
     }
 
+    private static long latestModification(List<Path> sources) throws IOException {
+        long latest = 0;
+        for (Path source : sources) {
+            latest = Math.max(latest, Files.getLastModifiedTime(source).toMillis());
+        }
+        return latest;
+    }
+
+    /**
+     * Throughput of the last full parse of a collection
+     * @return Load statistics, empty if the collection was not parsed yet or is streamed or mapped
+     */
+    public Optional<CollectionLoadStats> getLoadStats(String collection) {
+        return Optional.ofNullable(loadStats.get(collection));
+    }
+
     /**
      * Find entries in a collection by key-value filter
      * @param collection Collection name
@@ -90,11 +426,46 @@ public class JsonFileStorageService {
      * @return List of matching entries
      */
     public List<Map<String, Object>> findByKey(String collection, String key, Object value) {
-        List<Map<String, Object>> allData = loadCollection(collection);
+        List<Path> streamed = streamedFiles(collection);
+        if (streamed != null) {
+            return streamCollection(collection, streamed, file -> streamingScanner.findByKey(file, key, value));
+        }
+        LoadedCollection snapshot = snapshotFor(collection);
+        if (snapshot == null) {
+            return new ArrayList<>();
+        }
         
-        return allData.stream()
-            .filter(entry -> matchesKeyValue(entry, key, value))
-            .collect(Collectors.toList());
+        return snapshot.findByKey(key, value);
+    }
+
+    /**
+     * Find entries for several values of one key with a single snapshot (or streaming) pass
+     * @param collection Collection name
+     * @param key Key to filter by
+     * @param values Values to match
+     * @return Matching entries per value, in the values' iteration order; every value is present
+     */
+    public Map<Object, List<Map<String, Object>>> findByKeys(String collection, String key, Collection<?> values) {
+        Map<Object, List<Map<String, Object>>> results = new LinkedHashMap<>();
+        List<Path> streamed = streamedFiles(collection);
+        if (streamed != null) {
+            Set<Object> nonNull = new HashSet<>(values);
+            nonNull.remove(null);
+            List<Map<String, Object>> rows = streamCollection(collection, streamed,
+                file -> streamingScanner.findByKeyIn(file, key, nonNull));
+            KeyPath path = KeyPath.of(key);
+            for (Object value : values) {
+                results.put(value, value == null
+                    ? findByKey(collection, key, null)
+                    : rows.stream().filter(row -> value.equals(path.valueIn(row))).collect(Collectors.toList()));
+            }
+            return results;
+        }
+        LoadedCollection snapshot = snapshotFor(collection);
+        for (Object value : values) {
+            results.put(value, snapshot != null ? snapshot.findByKey(key, value) : new ArrayList<>());
+        }
+        return results;
     }
 
     /**
@@ -104,25 +475,42 @@ public class JsonFileStorageService {
      * @return List of entries containing the key
      */
     public List<Map<String, Object>> findByKeyExists(String collection, String key) {
-        List<Map<String, Object>> allData = loadCollection(collection);
+        List<Path> streamed = streamedFiles(collection);
+        if (streamed != null) {
+            return streamCollection(collection, streamed, file -> streamingScanner.findByKeyExists(file, key));
+        }
+        LoadedCollection snapshot = snapshotFor(collection);
+        if (snapshot == null) {
+            return new ArrayList<>();
+        }
         
-        return allData.stream()
-            .filter(entry -> hasKey(entry, key))
-            .collect(Collectors.toList());
+        return snapshot.findByKeyExists(key);
     }
 
     /**
-     * Get all available collections (JSON files in the data directory)
-     * @return Set of collection names
+     * Key paths that can currently be answered from an index without scanning the collection
+     * Covers the configured indexed keys and any path indexed by an earlier lookup; a
+     * memory-mapped collection has an index for every leaf column, a streamed one has none.
+     * @param collection Collection name
+     * @return Indexed key paths, empty if the collection does not exist or is streamed
+     */
+    public Set<String> getIndexedKeyPaths(String collection) {
+        if (streamedFiles(collection) != null) {
+            return Collections.emptySet();
+        }
+        LoadedCollection snapshot = snapshotFor(collection);
+        return snapshot != null ? snapshot.indexedKeyPaths() : Collections.emptySet();
+    }
+
+    /**
+     * Get all available collections (JSON, NDJSON and shard files in the data directory)
+     * @return Set of collection names, shards listed once under their base name
      */
     public Set<String> getAvailableCollections() {
-        try {
-            return Files.list(dataPath)
-                .filter(path -> path.toString().endsWith(".json"))
-                .map(path -> {
-                    String filename = path.getFileName().toString();
-                    return filename.substring(0, filename.lastIndexOf('.'));
-                })
+        try (var files = Files.list(dataPath)) {
+            return files
+                .map(path -> ParallelCollectionLoader.collectionOf(path.getFileName().toString()))
+                .filter(Objects::nonNull)
                 .collect(Collectors.toSet());
         } catch (IOException e) {
             logger.error("Error listing collections", e);
@@ -136,15 +524,12 @@ public class JsonFileStorageService {
      * @return true if file has been modified
      */
     public boolean isCollectionModified(String collection) {
-        String filename = collection + ".json";
-        Path filePath = dataPath.resolve(filename);
-        
-        if (!Files.exists(filePath)) {
-            return false;
-        }
-        
         try {
-            long lastModified = Files.getLastModifiedTime(filePath).toMillis();
+            List<Path> sources = ParallelCollectionLoader.sourceFiles(dataPath, collection);
+            if (sources.isEmpty()) {
+                return false;
+            }
+            long lastModified = latestModification(sources);
             Long cachedTime = fileModificationTimes.get(collection);
             
             return cachedTime == null || lastModified > cachedTime;
@@ -160,12 +545,10 @@ public class JsonFileStorageService {
      * @return Last modification time in milliseconds, or 0 if file doesn't exist
      */
     public long getCollectionModificationTime(String collection) {
-        String filename = collection + ".json";
-        Path filePath = dataPath.resolve(filename);
-        
         try {
-            if (Files.exists(filePath)) {
-                return Files.getLastModifiedTime(filePath).toMillis();
+            List<Path> sources = ParallelCollectionLoader.sourceFiles(dataPath, collection);
+            if (!sources.isEmpty()) {
+                return latestModification(sources);
             }
         } catch (IOException e) {
             logger.error("Error getting modification time for collection: {}", collection, e);
@@ -174,65 +557,219 @@ public class JsonFileStorageService {
         return 0;
     }
 
-    private boolean matchesKeyValue(Map<String, Object> entry, String key, Object value) {
-        if (key.contains(".")) {
-            // Handle nested keys with dot notation
-            return matchesNestedKeyValue(entry, key, value);
-        } else {
-            // Simple key matching
-            Object entryValue = entry.get(key);
-            return Objects.equals(entryValue, value);
+    /**
+     * Check whether a collection is known to have no file, without touching the file system
+     * Pending directory watch events are drained first so a newly created file is seen immediately.
+     * @param collection Collection name
+     * @return true if the collection file was missing and has not been created since
+     */
+    public boolean isCollectionAbsent(String collection) {
+        processWatchEvents();
+        return directoryWatcher.isAbsent(collection);
+    }
+
+    // Non-blocking: only consumes events that have already been queued
+    private void processWatchEvents() {
+        Set<String> changed = directoryWatcher.drain();
+        if (!changed.isEmpty()) {
+            versions.drop(changed);
+        }
+    }
+
+    private static Map<String, List<KeyPath>> parsePrimaryKeys(List<String> primaryKeys) {
+        Map<String, List<KeyPath>> result = new HashMap<>();
+        parseIndexedKeys(primaryKeys).forEach((collection, keys) -> {
+            if (keys.size() > 1) {
+                throw new IllegalArgumentException("Primary key configured more than once for collection: " + collection);
+            }
+            List<KeyPath> paths = new ArrayList<>();
+            for (String path : keys.get(0).split("\\+")) {
+                paths.add(KeyPath.of(path.trim()));
+            }
+            result.put(collection, List.copyOf(paths));
+        });
+        return result;
+    }
+
+    private static Map<String, List<String>> parseIndexedKeys(List<String> indexedKeys) {
+        Map<String, List<String>> result = new HashMap<>();
+        for (String entry : indexedKeys) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0 || separator == entry.length() - 1) {
+                throw new IllegalArgumentException("Indexed key must be 'collection:keyPath': " + entry);
+            }
+            result.computeIfAbsent(entry.substring(0, separator).trim(), c -> new ArrayList<>())
+                .add(entry.substring(separator + 1).trim());
         }
+        return result;
     }
 
-    private boolean hasKey(Map<String, Object> entry, String key) {
-        if (key.contains(".")) {
-            // Handle nested keys with dot notation
-            return hasNestedKey(entry, key);
-        } else {
-            // Simple key existence check
-            return entry.containsKey(key);
+    private boolean matchesKeyValue(Map<String, Object> entry, KeyPath keyPath, Object value) {
+        Object entryValue = keyPath.valueIn(entry);
+        if (keyPath.isNested()) {
+            // A missing nested path never matches, not even a null value
+            return entryValue != null && Objects.equals(entryValue, value);
         }
+        return Objects.equals(entryValue, value);
     }
 
-    @SuppressWarnings("unchecked")
-    private boolean matchesNestedKeyValue(Map<String, Object> entry, String key, Object value) {
-        String[] keyParts = key.split("\\.");
-        Object current = entry;
-        
-        for (String part : keyParts) {
-            if (current instanceof Map) {
-                current = ((Map<String, Object>) current).get(part);
-            } else {
-                return false;
+    /**
+     * One loaded collection, either parsed onto the heap or mapped from a columnar snapshot
+     */
+    interface LoadedCollection {
+        List<Map<String, Object>> rows();
+
+        int size();
+
+        List<Map<String, Object>> findByKey(String keyPath, Object value);
+
+        List<Map<String, Object>> findByKeyExists(String keyPath);
+
+        Set<String> indexedKeyPaths();
+    }
+
+    /**
+     * Immutable parsed rows of one collection with lazily built hash indexes per key path
+     */
+    private final class CollectionSnapshot implements LoadedCollection {
+        private final List<Map<String, Object>> rows;
+        private final Map<String, Map<Object, List<Map<String, Object>>>> valueIndexes = new ConcurrentHashMap<>();
+        private final Map<String, List<Map<String, Object>>> existsIndex = new ConcurrentHashMap<>();
+
+        CollectionSnapshot(List<Map<String, Object>> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public List<Map<String, Object>> rows() {
+            return rows;
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+
+        @Override
+        public List<Map<String, Object>> findByKey(String keyPath, Object value) {
+            if (value == null) {
+                // Null matching has path-dependent semantics; keep the original scan for it
+                KeyPath path = KeyPath.of(keyPath);
+                return rows.stream()
+                    .filter(entry -> matchesKeyValue(entry, path, null))
+                    .collect(Collectors.toList());
             }
-            
-            if (current == null) {
-                return false;
+            return indexFor(keyPath).getOrDefault(value, Collections.emptyList());
+        }
+
+        @Override
+        public List<Map<String, Object>> findByKeyExists(String keyPath) {
+            return existsIndex.computeIfAbsent(keyPath, k -> Collections.unmodifiableList(
+                rows.stream()
+                    .filter(KeyPath.of(k)::existsIn)
+                    .collect(Collectors.toList())));
+        }
+
+        @Override
+        public Set<String> indexedKeyPaths() {
+            return Set.copyOf(valueIndexes.keySet());
+        }
+
+        Map<Object, List<Map<String, Object>>> indexFor(String keyPath) {
+            return valueIndexes.computeIfAbsent(keyPath, this::buildIndex);
+        }
+
+        private Map<Object, List<Map<String, Object>>> buildIndex(String keyPath) {
+            KeyPath path = KeyPath.of(keyPath);
+            Map<Object, List<Map<String, Object>>> index = new HashMap<>();
+            for (Map<String, Object> row : rows) {
+                Object value = path.valueIn(row);
+                if (value != null) {
+                    index.computeIfAbsent(value, v -> new ArrayList<>(1)).add(row);
+                }
             }
+            index.replaceAll((value, matches) -> Collections.unmodifiableList(matches));
+            return index;
         }
-        
-        return Objects.equals(current, value);
     }
 
-    @SuppressWarnings("unchecked")
-    private boolean hasNestedKey(Map<String, Object> entry, String key) {
-        String[] keyParts = key.split("\\.");
-        Object current = entry;
-        
-        for (String part : keyParts) {
-            if (current instanceof Map) {
-                Map<String, Object> map = (Map<String, Object>) current;
-                if (!map.containsKey(part)) {
-                    return false;
+    /**
+     * Collection served from a memory-mapped columnar snapshot; rows are decoded per lookup
+     * and never retained, so results are left to the cache layers above
+     */
+    private final class MappedCollection implements LoadedCollection {
+        private final ColumnarSnapshot columnar;
+        // Decoding builds fresh row maps, so repeated lookups against this immutable mapping are
+        // answered from here; soft values let a full-collection decode go under memory pressure
+        private final Cache<DecodedLookup, List<Map<String, Object>>> decoded = Caffeine.newBuilder()
+            .maximumSize(DECODED_LOOKUPS_KEPT)
+            .softValues()
+            .build();
+
+        MappedCollection(ColumnarSnapshot columnar) {
+            this.columnar = columnar;
+        }
+
+        @Override
+        public List<Map<String, Object>> rows() {
+            return decoded.get(new DecodedLookup("rows", null, null), lookup -> {
+                List<Map<String, Object>> rows = new ArrayList<>(columnar.rowCount());
+                for (int row = 0; row < columnar.rowCount(); row++) {
+                    rows.add(columnar.row(row));
                 }
-                current = map.get(part);
+                return Collections.unmodifiableList(CompactRecords.compact(rows));
+            });
+        }
+
+        @Override
+        public int size() {
+            return columnar.rowCount();
+        }
+
+        @Override
+        public List<Map<String, Object>> findByKey(String keyPath, Object value) {
+            DecodedLookup lookup = new DecodedLookup("key", keyPath, value);
+            List<Map<String, Object>> cached = decoded.getIfPresent(lookup);
+            if (cached != null) {
+                return cached;
+            }
+            // Not computed inside the cache: the scan fallback reads rows() from the same cache
+            int[] matches = columnar.rowsMatching(keyPath, value);
+            List<Map<String, Object>> result;
+            if (matches == null) {
+                KeyPath path = KeyPath.of(keyPath);
+                result = rows().stream()
+                    .filter(entry -> matchesKeyValue(entry, path, value))
+                    .collect(Collectors.toUnmodifiableList());
             } else {
-                return false;
+                result = decode(matches);
             }
+            decoded.put(lookup, result);
+            return result;
         }
-        
-        return true;
+
+        @Override
+        public List<Map<String, Object>> findByKeyExists(String keyPath) {
+            return decoded.get(new DecodedLookup("exists", keyPath, null),
+                lookup -> decode(columnar.rowsContaining(keyPath)));
+        }
+
+        @Override
+        public Set<String> indexedKeyPaths() {
+            return columnar.columnNames();
+        }
+
+        private List<Map<String, Object>> decode(int[] rowIds) {
+            List<Map<String, Object>> rows = new ArrayList<>(rowIds.length);
+            for (int row : rowIds) {
+                rows.add(columnar.row(row));
+            }
+            // Compacted input comes back as is, so seal it before the cache shares it
+            return Collections.unmodifiableList(CompactRecords.compact(rows));
+        }
+    }
+
+    private record DecodedLookup(String operation, String keyPath, Object value) {
     }
 
     /**
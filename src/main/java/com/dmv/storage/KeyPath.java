@@ -0,0 +1,127 @@
+package com.dmv.storage;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dotted key path (e.g. "dmv.lateFee") parsed once into its segments
+ * Instances are cached by path string, so filtering thousands of rows walks a prepared
+ * segment array instead of splitting the path again for every row.
+ */
+public final class KeyPath {
+
+    // Paths arrive from request parameters, so the cache is bounded; extra paths are just not cached
+    private static final int MAX_CACHED_PATHS = 1024;
+    private static final Map<String, KeyPath> CACHE = new ConcurrentHashMap<>();
+
+    private final String path;
+    private final String[] segments;
+    private final boolean nested;
+
+    private KeyPath(String path) {
+        this.path = path;
+        // Same segmentation as String.split: trailing empty segments are dropped
+        this.segments = path.split("\\.");
+        this.nested = path.indexOf('.') >= 0;
+    }
+
+    /**
+     * Compiled form of a path, shared across callers
+     */
+    public static KeyPath of(String path) {
+        KeyPath keyPath = CACHE.get(path);
+        if (keyPath == null) {
+            keyPath = new KeyPath(path);
+            if (CACHE.size() < MAX_CACHED_PATHS) {
+                KeyPath existing = CACHE.putIfAbsent(path, keyPath);
+                if (existing != null) {
+                    keyPath = existing;
+                }
+            }
+        }
+        return keyPath;
+    }
+
+    /**
+     * Whether the path contains a dot (and is therefore walked through nested maps)
+     */
+    public boolean isNested() {
+        return nested;
+    }
+
+    public int depth() {
+        return segments.length;
+    }
+
+    public String segment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * The segments joined back with dots, without empty trailing segments
+     */
+    public String normalized() {
+        return String.join(".", segments);
+    }
+
+    /**
+     * Value at this path, or null if a segment is missing or an intermediate value is not a map
+     */
+    public Object valueIn(Map<String, ?> row) {
+        if (!nested) {
+            return row.get(path);
+        }
+        Object current = row;
+        for (String segment : segments) {
+            if (!(current instanceof Map)) {
+                return null;
+            }
+            current = ((Map<?, ?>) current).get(segment);
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Whether every segment of this path is present (the last one may map to null)
+     */
+    public boolean existsIn(Map<String, ?> row) {
+        if (!nested) {
+            return row.containsKey(path);
+        }
+        Object current = row;
+        for (String segment : segments) {
+            if (!(current instanceof Map)) {
+                return false;
+            }
+            Map<?, ?> map = (Map<?, ?>) current;
+            if (!map.containsKey(segment)) {
+                return false;
+            }
+            current = map.get(segment);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof KeyPath && path.equals(((KeyPath) other).path);
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    String[] segments() {
+        return Arrays.copyOf(segments, segments.length);
+    }
+}
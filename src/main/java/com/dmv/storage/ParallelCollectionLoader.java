@@ -0,0 +1,261 @@
+package com.dmv.storage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses the source files of a collection on a fork-join pool
+ * A collection is read from {@code name.json} (one JSON array), {@code name.ndjson} (one JSON
+ * object per line), or, when neither exists, from shard files {@code name.part-000.json},
+ * {@code name.part-001.ndjson}, ... in shard number order. Only the explicit {@code .part-N}
+ * suffix marks a shard, so a collection such as {@code fee-2024.json} stays a collection of its
+ * own. Every shard is parsed as its own task and
+ * large NDJSON files are further split into line-aligned byte ranges; the parsed chunks are
+ * concatenated in file and line order, so the result matches a sequential read.
+ */
+final class ParallelCollectionLoader implements AutoCloseable {
+
+    static final String JSON = ".json";
+    static final String NDJSON = ".ndjson";
+    static final String SHARD_SUFFIX = ".part-";
+
+    private static final Pattern SHARD = Pattern.compile("(.+)\\.part-(\\d+)\\.(json|ndjson)");
+    private static final TypeReference<List<Map<String, Object>>> ROWS = new TypeReference<>() {};
+    private static final TypeReference<Map<String, Object>> ROW = new TypeReference<>() {};
+    // Smaller NDJSON ranges cost more in task overhead than they gain in parallelism
+    private static final long MIN_RANGE_BYTES = 1024 * 1024;
+    private static final int BOUNDARY_PROBE_BYTES = 8192;
+
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool pool;
+
+    ParallelCollectionLoader(ObjectMapper objectMapper, int parallelism) {
+        this.objectMapper = objectMapper;
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("collection-loader-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Stop the worker threads; a load still running is interrupted
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Files holding a collection, in load order
+     * @return Source files, empty if the collection does not exist
+     */
+    static List<Path> sourceFiles(Path dataPath, String collection) throws IOException {
+        Path array = dataPath.resolve(collection + JSON);
+        if (Files.exists(array)) {
+            return List.of(array);
+        }
+        Path lines = dataPath.resolve(collection + NDJSON);
+        if (Files.exists(lines)) {
+            return List.of(lines);
+        }
+        List<Path> shards = new ArrayList<>();
+        String prefix = collection + SHARD_SUFFIX;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dataPath,
+                path -> path.getFileName().toString().startsWith(prefix))) {
+            for (Path path : stream) {
+                Matcher shard = SHARD.matcher(path.getFileName().toString());
+                if (shard.matches() && shard.group(1).equals(collection)) {
+                    shards.add(path);
+                }
+            }
+        }
+        shards.sort(Comparator.comparingLong(ParallelCollectionLoader::shardNumber)
+            .thenComparing(path -> path.getFileName().toString()));
+        return shards;
+    }
+
+    /**
+     * Collection a data directory file belongs to: the shard's base name for shard files,
+     * otherwise the name without extension; null for files that hold no collection
+     */
+    static String collectionOf(String filename) {
+        Matcher shard = SHARD.matcher(filename);
+        if (shard.matches()) {
+            return shard.group(1);
+        }
+        if (filename.endsWith(JSON)) {
+            return filename.substring(0, filename.length() - JSON.length());
+        }
+        if (filename.endsWith(NDJSON)) {
+            return filename.substring(0, filename.length() - NDJSON.length());
+        }
+        return null;
+    }
+
+    /**
+     * Parse all source files of a collection
+     * @param stats Receives the throughput of this load
+     * @return Rows in file and line order
+     */
+    List<Map<String, Object>> load(String collection, List<Path> files, Consumer<CollectionLoadStats> stats) throws IOException {
+        long startTime = System.nanoTime();
+        List<Chunk> chunks = new ArrayList<>();
+        long bytes = 0;
+        for (Path file : files) {
+            long size = Files.size(file);
+            bytes += size;
+            if (file.getFileName().toString().endsWith(NDJSON)) {
+                chunks.addAll(lineRanges(file, size));
+            } else {
+                chunks.add(new Chunk(file, 0, size, false));
+            }
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (List<Map<String, Object>> parsed : parseAll(chunks)) {
+            rows.addAll(parsed);
+        }
+        stats.accept(new CollectionLoadStats(collection, files.size(), chunks.size(), bytes, rows.size(),
+            System.nanoTime() - startTime, pool.getParallelism()));
+        return rows;
+    }
+
+    private List<List<Map<String, Object>>> parseAll(List<Chunk> chunks) throws IOException {
+        if (chunks.size() == 1) {
+            // Nothing to split; skip the hand-off to the pool
+            return List.of(parse(chunks.get(0)));
+        }
+        List<Callable<List<Map<String, Object>>>> tasks = new ArrayList<>(chunks.size());
+        for (Chunk chunk : chunks) {
+            tasks.add(() -> parse(chunk));
+        }
+        List<List<Map<String, Object>>> parsed = new ArrayList<>(chunks.size());
+        try {
+            for (Future<List<Map<String, Object>>> result : pool.invokeAll(tasks)) {
+                parsed.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading collection");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(e.getCause());
+        }
+        return parsed;
+    }
+
+    private List<Map<String, Object>> parse(Chunk chunk) throws IOException {
+        if (!chunk.lines()) {
+            return objectMapper.readValue(chunk.file().toFile(), ROWS);
+        }
+        byte[] buffer = read(chunk.file(), chunk.start(), chunk.end());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        int lineStart = 0;
+        while (lineStart < buffer.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < buffer.length && buffer[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd;
+            while (contentEnd > lineStart && Character.isWhitespace(buffer[contentEnd - 1])) {
+                contentEnd--;
+            }
+            if (contentEnd > lineStart) {
+                try {
+                    rows.add(objectMapper.readValue(buffer, lineStart, contentEnd - lineStart, ROW));
+                } catch (IOException e) {
+                    throw new IOException("Invalid NDJSON record at byte " + (chunk.start() + lineStart)
+                        + " of " + chunk.file().getFileName(), e);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return rows;
+    }
+
+    // Split an NDJSON file into ranges that each start at the beginning of a line
+    private List<Chunk> lineRanges(Path file, long size) throws IOException {
+        long target = Math.max(MIN_RANGE_BYTES, size / (pool.getParallelism() * 2L));
+        List<Chunk> ranges = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long start = 0;
+            while (start < size) {
+                long end = start + target >= size ? size : nextLineStart(channel, start + target, size);
+                ranges.add(new Chunk(file, start, end, true));
+                start = end;
+            }
+        }
+        return ranges;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE_BYTES);
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static byte[] read(Path file, long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE - 8) {
+            throw new IOException("NDJSON line range too large in " + file.getFileName());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    break;
+                }
+            }
+        }
+        return buffer.array();
+    }
+
+    private static long shardNumber(Path shard) {
+        Matcher matcher = SHARD.matcher(shard.getFileName().toString());
+        // Shard numbers beyond long range sort last and then by name
+        return matcher.matches() && matcher.group(2).length() < 19 ? Long.parseLong(matcher.group(2)) : Long.MAX_VALUE;
+    }
+
+    private record Chunk(Path file, long start, long end, boolean lines) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.dmv.storage;
+
+import com.dmv.storage.JsonFileStorageService.LoadedCollection;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only view of one pinned version of the loaded reference data
+ * Lookups read the pinned version's immutable collections without locking, so a whole rule
+ * evaluation sees the same data even while collections are reloaded. A collection the version
+ * did not hold yet is loaded once on first use and kept for the rest of this view. Collections
+ * above the streaming threshold are never held in a version and are scanned from the file as is;
+ * callers that look them up repeatedly check {@link #isResident} and go through a cache instead.
+ * Close the view to release the version.
+ */
+public final class ReferenceDataSnapshot implements AutoCloseable {
+
+    private final JsonFileStorageService storage;
+    private final SnapshotVersion version;
+    private final Map<String, Optional<LoadedCollection>> loadedLater = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    ReferenceDataSnapshot(JsonFileStorageService storage, SnapshotVersion version) {
+        this.storage = storage;
+        this.version = version;
+    }
+
+    /**
+     * Number of the pinned version
+     */
+    public long getVersion() {
+        return version.number();
+    }
+
+    /**
+     * Whether the pinned version itself holds the collection, so every view of the version reads the same rows
+     * @return false if the collection is loaded by this view only, streamed, or absent
+     */
+    public boolean isHeldByVersion(String collection) {
+        return version.collections().containsKey(collection);
+    }
+
+    /**
+     * Whether the pinned view holds the collection in memory, loading it now if the version lacks it
+     * @return false if the collection is streamed from its file or does not exist
+     */
+    public boolean isResident(String collection) {
+        return collection(collection) != null;
+    }
+
+    public List<Map<String, Object>> loadCollection(String collection) {
+        LoadedCollection loaded = collection(collection);
+        return loaded != null ? loaded.rows() : storage.loadCollection(collection);
+    }
+
+    public List<Map<String, Object>> findByKey(String collection, String key, Object value) {
+        LoadedCollection loaded = collection(collection);
+        return loaded != null ? loaded.findByKey(key, value) : storage.findByKey(collection, key, value);
+    }
+
+    /**
+     * @return Matching entries per value, in the values' iteration order; every value is present
+     */
+    public Map<Object, List<Map<String, Object>>> findByKeys(String collection, String key, Collection<?> values) {
+        LoadedCollection loaded = collection(collection);
+        if (loaded == null) {
+            return storage.findByKeys(collection, key, values);
+        }
+        Map<Object, List<Map<String, Object>>> results = new LinkedHashMap<>();
+        for (Object value : values) {
+            results.put(value, loaded.findByKey(key, value));
+        }
+        return results;
+    }
+
+    public List<Map<String, Object>> findByKeyExists(String collection, String key) {
+        LoadedCollection loaded = collection(collection);
+        return loaded != null ? loaded.findByKeyExists(key) : storage.findByKeyExists(collection, key);
+    }
+
+    /**
+     * Key paths the pinned version can answer from an index; none for a streamed collection
+     */
+    public Set<String> getIndexedKeyPaths(String collection) {
+        LoadedCollection loaded = collection(collection);
+        return loaded != null ? loaded.indexedKeyPaths() : Set.of();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            storage.release(version);
+        }
+    }
+
+    // Null means the collection is streamed or absent and is read through the storage service
+    private LoadedCollection collection(String collection) {
+        if (closed) {
+            throw new IllegalStateException("Snapshot version " + version.number() + " has been released");
+        }
+        LoadedCollection pinned = version.collections().get(collection);
+        if (pinned != null) {
+            return pinned;
+        }
+        return loadedLater.computeIfAbsent(collection, name -> Optional.ofNullable(storage.residentSnapshot(name)))
+            .orElse(null);
+    }
+}
@@ -0,0 +1,115 @@
+package com.dmv.storage;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Publishes the loaded collections as a sequence of immutable {@link SnapshotVersion}s
+ * Every change builds the next collection map off to the side and swaps it in with one
+ * compare-and-set, so readers never lock. Superseded versions that a pinned view still reads
+ * are retained until released, and drops are counted so a collection not held in memory still
+ * has a generation that moves when it changes.
+ */
+final class SnapshotPublisher {
+
+    private final AtomicReference<SnapshotVersion> currentVersion = new AtomicReference<>(new SnapshotVersion(0, Map.of()));
+    // Superseded versions that some pinned view still reads
+    private final Set<SnapshotVersion> retainedVersions = ConcurrentHashMap.newKeySet();
+    // Times each collection was dropped, so the generation of a collection not held still moves on a change
+    private final Map<String, Long> drops = new ConcurrentHashMap<>();
+
+    SnapshotVersion current() {
+        return currentVersion.get();
+    }
+
+    /**
+     * Snapshot of a collection in the current version, or null if it is not held
+     */
+    JsonFileStorageService.LoadedCollection get(String collection) {
+        return currentVersion.get().collections().get(collection);
+    }
+
+    void install(String collection, JsonFileStorageService.LoadedCollection snapshot) {
+        publish(collections -> {
+            Map<String, JsonFileStorageService.LoadedCollection> next = new HashMap<>(collections);
+            next.put(collection, snapshot);
+            return next;
+        });
+    }
+
+    /**
+     * Take back a snapshot that raced with a file change, unless it has been replaced already
+     */
+    void withdraw(String collection, JsonFileStorageService.LoadedCollection installed) {
+        publish(collections -> {
+            if (collections.get(collection) != installed) {
+                return collections;
+            }
+            Map<String, JsonFileStorageService.LoadedCollection> next = new HashMap<>(collections);
+            next.remove(collection);
+            return next;
+        });
+    }
+
+    void drop(Collection<String> dropped) {
+        publish(collections -> {
+            if (Collections.disjoint(collections.keySet(), dropped)) {
+                return collections;
+            }
+            Map<String, JsonFileStorageService.LoadedCollection> next = new HashMap<>(collections);
+            next.keySet().removeAll(dropped);
+            return next;
+        });
+        for (String collection : dropped) {
+            drops.merge(collection, 1L, Long::sum);
+        }
+    }
+
+    SnapshotVersion pin() {
+        while (true) {
+            SnapshotVersion version = currentVersion.get();
+            // A version superseded between the read and the pin is already on its way out
+            if (version.pin()) {
+                return version;
+            }
+        }
+    }
+
+    void release(SnapshotVersion version) {
+        version.release(retainedVersions);
+    }
+
+    /**
+     * @return Number of the version that installed the collection, or a negative count of its
+     *         drops while it is not held
+     */
+    long generation(String collection) {
+        Long installedBy = currentVersion.get().generation(collection);
+        return installedBy != null ? installedBy : -1 - drops.getOrDefault(collection, 0L);
+    }
+
+    int retainedCount() {
+        return retainedVersions.size();
+    }
+
+    private void publish(UnaryOperator<Map<String, JsonFileStorageService.LoadedCollection>> change) {
+        while (true) {
+            SnapshotVersion previous = currentVersion.get();
+            Map<String, JsonFileStorageService.LoadedCollection> collections = change.apply(previous.collections());
+            if (collections == previous.collections()) {
+                return;
+            }
+            SnapshotVersion next = previous.next(Collections.unmodifiableMap(collections));
+            if (currentVersion.compareAndSet(previous, next)) {
+                previous.supersede(retainedVersions);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.dmv.storage;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One immutable published set of loaded collections
+ * Readers pin a version and read its map without locking; every change to the loaded
+ * collections publishes a new version instead of mutating this one. A version that has been
+ * superseded while still pinned is retained until its last pin is released. Each collection
+ * carries the number of the version that installed it, so an unchanged collection keeps its
+ * generation across versions.
+ */
+final class SnapshotVersion {
+
+    private final long number;
+    private final Map<String, JsonFileStorageService.LoadedCollection> collections;
+    private final Map<String, Long> generations;
+    // Guarded by this; only touched when pinning, releasing or superseding, never on a read
+    private int pins;
+    private boolean superseded;
+
+    SnapshotVersion(long number, Map<String, JsonFileStorageService.LoadedCollection> collections) {
+        this(number, collections, Map.of());
+    }
+
+    private SnapshotVersion(long number, Map<String, JsonFileStorageService.LoadedCollection> collections,
+                            Map<String, Long> generations) {
+        this.number = number;
+        this.collections = collections;
+        this.generations = generations;
+    }
+
+    /**
+     * The version after this one; collections whose instance is unchanged keep their generation
+     */
+    SnapshotVersion next(Map<String, JsonFileStorageService.LoadedCollection> nextCollections) {
+        long nextNumber = number + 1;
+        Map<String, Long> nextGenerations = new HashMap<>();
+        nextCollections.forEach((name, loaded) -> nextGenerations.put(name,
+            collections.get(name) == loaded ? generations.get(name) : nextNumber));
+        return new SnapshotVersion(nextNumber, nextCollections, Collections.unmodifiableMap(nextGenerations));
+    }
+
+    long number() {
+        return number;
+    }
+
+    Map<String, JsonFileStorageService.LoadedCollection> collections() {
+        return collections;
+    }
+
+    /**
+     * Number of the version that installed the collection, or null if this version does not hold it
+     */
+    Long generation(String collection) {
+        return generations.get(collection);
+    }
+
+    /**
+     * @return false if the version was superseded first, in which case the caller pins the current one
+     */
+    synchronized boolean pin() {
+        if (superseded) {
+            return false;
+        }
+        pins++;
+        return true;
+    }
+
+    /**
+     * Drop one pin; the last pin of a superseded version removes it from the retained set
+     */
+    synchronized void release(Set<SnapshotVersion> retained) {
+        if (--pins == 0 && superseded) {
+            retained.remove(this);
+        }
+    }
+
+    /**
+     * Mark the version replaced; it joins the retained set while any pin is still held
+     */
+    synchronized void supersede(Set<SnapshotVersion> retained) {
+        superseded = true;
+        if (pins > 0) {
+            retained.add(this);
+        }
+    }
+
+    synchronized int pins() {
+        return pins;
+    }
+}
@@ -0,0 +1,178 @@
+package com.dmv.storage;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Filters a JSON array or NDJSON file one top-level object at a time without building a row list
+ * Each object's tokens are captured in a {@link TokenBuffer} while the predicate's key path
+ * is tracked; only objects that match are turned into maps. Heap use is bounded by the
+ * largest single row, not by the file.
+ */
+class StreamingCollectionScanner {
+
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {};
+    private static final Object NON_SCALAR = new Object();
+
+    private final ObjectMapper objectMapper;
+
+    StreamingCollectionScanner(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Rows whose value at keyPath equals value (same semantics as the in-memory findByKey)
+     */
+    List<Map<String, Object>> findByKey(Path file, String keyPath, Object value) throws IOException {
+        KeyPath path = KeyPath.of(keyPath);
+        return scan(file, path, (found, foundValue) -> {
+            if (value == null) {
+                // A missing or null simple key matches null; a nested path never does
+                return !path.isNested() && (!found || foundValue == null);
+            }
+            return found && foundValue != NON_SCALAR && Objects.equals(foundValue, value);
+        });
+    }
+
+    /**
+     * Rows whose value at keyPath is one of the (non-null) values, found in a single pass
+     */
+    List<Map<String, Object>> findByKeyIn(Path file, String keyPath, Set<?> values) throws IOException {
+        return scan(file, KeyPath.of(keyPath),
+            (found, foundValue) -> found && foundValue != null && foundValue != NON_SCALAR && values.contains(foundValue));
+    }
+
+    /**
+     * Rows in which keyPath exists (same semantics as the in-memory findByKeyExists)
+     */
+    List<Map<String, Object>> findByKeyExists(Path file, String keyPath) throws IOException {
+        return scan(file, KeyPath.of(keyPath), (found, foundValue) -> found);
+    }
+
+    private interface RowPredicate {
+        boolean test(boolean found, Object foundValue);
+    }
+
+    private List<Map<String, Object>> scan(Path file, KeyPath keyPath, RowPredicate predicate) throws IOException {
+        String[] path = keyPath.segments();
+        List<Map<String, Object>> matches = new ArrayList<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(file.toFile())) {
+            // NDJSON is a sequence of root-level objects, which the parser reads like array elements
+            boolean lines = file.getFileName().toString().endsWith(ParallelCollectionLoader.NDJSON);
+            if (!lines && parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array in " + file);
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                TokenBuffer row = new TokenBuffer(parser);
+                row.copyCurrentEvent(parser);
+                RowMatch match = scanRow(parser, row, path);
+                if (predicate.test(match.found, match.value)) {
+                    try (JsonParser rowParser = row.asParser(objectMapper)) {
+                        matches.add(objectMapper.readValue(rowParser, ROW_TYPE));
+                    }
+                }
+            }
+            if (token != (lines ? null : JsonToken.END_ARRAY)) {
+                throw new IOException(lines
+                    ? "Expected one JSON object per line in " + file
+                    : "Expected only objects in the JSON array in " + file);
+            }
+        }
+        return matches;
+    }
+
+    // Copies one object into the buffer, recording the (last) value found at the key path
+    private RowMatch scanRow(JsonParser parser, TokenBuffer row, String[] path) throws IOException {
+        RowMatch match = new RowMatch();
+        // Field name most recently seen at each object depth along the path
+        String[] fieldAtDepth = new String[path.length + 1];
+        int depth = 1;
+        while (depth > 0) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                // Arrays are opaque to key paths; copy them through without tracking
+                if (isAtPath(fieldAtDepth, path, depth)) {
+                    match.record(NON_SCALAR);
+                }
+                row.copyCurrentStructure(parser);
+                continue;
+            }
+            row.copyCurrentEvent(parser);
+            switch (token) {
+                case FIELD_NAME:
+                    if (depth <= path.length) {
+                        fieldAtDepth[depth - 1] = parser.getCurrentName();
+                    }
+                    break;
+                case START_OBJECT:
+                    if (isAtPath(fieldAtDepth, path, depth)) {
+                        match.record(NON_SCALAR);
+                    }
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    depth--;
+                    break;
+                default:
+                    if (isAtPath(fieldAtDepth, path, depth)) {
+                        match.record(scalarValue(parser, token));
+                    }
+            }
+        }
+        return match;
+    }
+
+    // Arrays are skipped wholesale, so every tracked depth is an object and matching field names suffices
+    private boolean isAtPath(String[] fieldAtDepth, String[] path, int depth) {
+        if (depth != path.length) {
+            return false;
+        }
+        for (int i = 0; i < path.length; i++) {
+            if (!path[i].equals(fieldAtDepth[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Object scalarValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                return NON_SCALAR;
+        }
+    }
+
+    private static final class RowMatch {
+        private boolean found;
+        private Object value;
+
+        void record(Object value) {
+            this.found = true;
+            this.value = value;
+        }
+    }
+}
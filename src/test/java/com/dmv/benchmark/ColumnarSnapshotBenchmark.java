@@ -0,0 +1,166 @@
+package com.dmv.benchmark;
+
+import com.dmv.config.ExternalDataStorageProperties;
+import com.dmv.storage.JsonFileStorageService;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON snapshots versus memory-mapped columnar snapshots in JsonFileStorageService
+ * <ul>
+ *   <li>jsonLoad / columnarCompile / columnarOpen - cold start: parse and index the JSON,
+ *       compile it into a columnar image, or map an image that is already up to date</li>
+ *   <li>jsonLookup / columnarLookup - a single key lookup once the collection is loaded</li>
+ * </ul>
+ * Run {@link #main(String[])} from the test classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ColumnarSnapshotBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private Path dataDir;
+    private Path columnarDir;
+    private JsonFileStorageService jsonStorage;
+    private JsonFileStorageService columnarStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        dataDir = Files.createTempDirectory("columnar-benchmark");
+        columnarDir = dataDir.resolve("columnar");
+        writeCollection(dataDir.resolve("states.json"), size);
+
+        jsonStorage = newJsonStorage();
+        jsonStorage.loadCollection("states");
+        columnarStorage = newColumnarStorage();
+        columnarStorage.findByKey("states", "code", "S0");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var paths = Files.walk(dataDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> jsonLookup() {
+        return jsonStorage.findByKey("states", "code", randomCode());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> columnarLookup() {
+        return columnarStorage.findByKey("states", "code", randomCode());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public List<Map<String, Object>> jsonLoad() throws IOException {
+        return newJsonStorage().findByKey("states", "code", "S0");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public List<Map<String, Object>> columnarOpen() throws IOException {
+        return newColumnarStorage().findByKey("states", "code", "S0");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public List<Map<String, Object>> columnarCompile() throws IOException {
+        // Touching the source makes the existing image stale, so this open recompiles it
+        Files.setLastModifiedTime(dataDir.resolve("states.json"),
+            FileTime.fromMillis(System.currentTimeMillis()));
+        return newColumnarStorage().findByKey("states", "code", "S0");
+    }
+
+    private JsonFileStorageService newJsonStorage() throws IOException {
+        ExternalDataStorageProperties properties = ExternalDataStorageProperties.forDirectory(dataDir.toString());
+        properties.setIndexedKeys(List.of("states:code"));
+        properties.setStreamingThresholdBytes(0);
+        return new JsonFileStorageService(objectMapper, properties);
+    }
+
+    private JsonFileStorageService newColumnarStorage() throws IOException {
+        ExternalDataStorageProperties properties = ExternalDataStorageProperties.forDirectory(dataDir.toString());
+        properties.setStreamingThresholdBytes(0);
+        properties.getColumnarSnapshot().setDirectory(columnarDir.toString());
+        return new JsonFileStorageService(objectMapper, properties);
+    }
+
+    private void writeCollection(Path file, int rows) throws IOException {
+        // Streamed out so the 1M row file does not need to exist as a list first
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(file.toFile(),
+                JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (int i = 0; i < rows; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("code", "S" + i);
+                generator.writeStringField("name", "State " + i);
+                generator.writeStringField("region", "R" + i % 5);
+                generator.writeNumberField("renewalFee", 25.0 + i % 20);
+                generator.writeObjectFieldStart("dmv");
+                generator.writeBooleanField("onlineRenewalAvailable", i % 2 == 0);
+                generator.writeNumberField("lateFee", 10.0);
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private String randomCode() {
+        return "S" + ThreadLocalRandom.current().nextInt(size);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ColumnarSnapshotBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,112 @@
+package com.dmv.benchmark;
+
+import com.dmv.storage.KeyPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scanning rows with a nested key-path predicate
+ * <ul>
+ *   <li>splitScan - the previous storage code: split the path for every row, then walk</li>
+ *   <li>compiledScan - current code: one cached {@link KeyPath}, walked per row</li>
+ * </ul>
+ * Run {@link #main(String[])} from the test classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyPathBenchmark {
+
+    @Param({"dmv.lateFee", "dmv.office.region"})
+    public String path;
+
+    private final List<Map<String, Object>> rows = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < 10_000; i++) {
+            Map<String, Object> office = new HashMap<>();
+            office.put("region", "R" + i % 7);
+            Map<String, Object> dmv = new HashMap<>();
+            dmv.put("lateFee", (double) (i % 20));
+            dmv.put("office", office);
+            Map<String, Object> row = new HashMap<>();
+            row.put("code", "S" + i);
+            row.put("dmv", dmv);
+            rows.add(row);
+        }
+    }
+
+    @Benchmark
+    public int splitScan() {
+        Object target = path.endsWith("lateFee") ? 5.0 : "R3";
+        int matches = 0;
+        for (Map<String, Object> row : rows) {
+            Object value = splitWalk(row, path);
+            if (value != null && Objects.equals(value, target)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int compiledScan() {
+        Object target = path.endsWith("lateFee") ? 5.0 : "R3";
+        KeyPath keyPath = KeyPath.of(path);
+        int matches = 0;
+        for (Map<String, Object> row : rows) {
+            Object value = keyPath.valueIn(row);
+            if (value != null && Objects.equals(value, target)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    // Verbatim shape of the former JsonFileStorageService.valueAt
+    @SuppressWarnings("unchecked")
+    private static Object splitWalk(Map<String, Object> entry, String key) {
+        Object current = entry;
+        for (String part : key.split("\\.")) {
+            if (current instanceof Map) {
+                current = ((Map<String, Object>) current).get(part);
+            } else {
+                return null;
+            }
+            if (current == null) {
+                return null;
+            }
+        }
+        return current;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(KeyPathBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,125 @@
+package com.dmv.benchmark;
+
+import com.dmv.config.ExternalDataStorageProperties;
+import com.dmv.storage.JsonFileStorageService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of a single key lookup in JsonFileStorageService as the collection grows
+ * <ul>
+ *   <li>indexedLookup - current path: hash probe on the cached, indexed snapshot</li>
+ *   <li>scanLookup - stream filter over the parsed rows (the old in-memory part)</li>
+ *   <li>reparseAndScanLookup - the old end-to-end cost: read and parse the file, then scan</li>
+ * </ul>
+ * Run {@link #main(String[])} from the test classpath after {@code mvn test-compile}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageLookupBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    private Path dataDir;
+    private ObjectMapper objectMapper;
+    private JsonFileStorageService storage;
+    private List<Map<String, Object>> parsedRows;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        dataDir = Files.createTempDirectory("storage-benchmark");
+        List<Map<String, Object>> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("code", "S" + i);
+            row.put("name", "State " + i);
+            row.put("renewalFee", 25.0 + i % 20);
+            row.put("dmv", Map.of("onlineRenewalAvailable", i % 2 == 0, "lateFee", 10.0));
+            rows.add(row);
+        }
+        objectMapper.writeValue(dataDir.resolve("states.json").toFile(), rows);
+
+        ExternalDataStorageProperties properties = ExternalDataStorageProperties.forDirectory(dataDir.toString());
+        properties.setIndexedKeys(List.of("states:code"));
+        storage = new JsonFileStorageService(objectMapper, properties);
+        storage.loadCollection("states");
+        parsedRows = objectMapper.readValue(dataDir.resolve("states.json").toFile(),
+                                            new TypeReference<List<Map<String, Object>>>() {});
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var paths = Files.walk(dataDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> indexedLookup() {
+        return storage.findByKey("states", "code", randomCode());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> scanLookup() {
+        String code = randomCode();
+        return parsedRows.stream()
+            .filter(row -> Objects.equals(row.get("code"), code))
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> reparseAndScanLookup() throws IOException {
+        String code = randomCode();
+        List<Map<String, Object>> rows = objectMapper.readValue(dataDir.resolve("states.json").toFile(),
+                                                                new TypeReference<List<Map<String, Object>>>() {});
+        return rows.stream()
+            .filter(row -> Objects.equals(row.get("code"), code))
+            .collect(Collectors.toList());
+    }
+
+    private String randomCode() {
+        return "S" + ThreadLocalRandom.current().nextInt(size);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(StorageLookupBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
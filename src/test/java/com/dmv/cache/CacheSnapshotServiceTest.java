@@ -0,0 +1,146 @@
+package com.dmv.cache;
+
+import com.dmv.storage.JsonFileStorageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheSnapshotServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ObjectMapper objectMapper;
+    private JsonFileStorageService jsonStorage;
+    private Path snapshotFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        Path dataDir = Files.createDirectories(tempDir.resolve("data"));
+        Files.write(dataDir.resolve("states.json"), "[{\"code\":\"CA\"},{\"code\":\"NY\"}]".getBytes());
+        Files.write(dataDir.resolve("license-classes.json"), "[{\"class\":\"CLASS_C\"}]".getBytes());
+        jsonStorage = new JsonFileStorageService(objectMapper, dataDir.toString());
+        snapshotFile = tempDir.resolve("snapshot.json.gz");
+    }
+
+    @Test
+    void testSnapshotRoundTripRestoresHotEntries() throws IOException {
+        // Given - a warm cache
+        MemoryCacheLayer memory = newMemoryLayer();
+        OffHeapCacheLayer offHeap = new OffHeapCacheLayer(objectMapper, true, 1 << 20);
+        CollectionKeyIndex index = new CollectionKeyIndex();
+        CacheKey lookup = CacheKey.lookup("states", "code", "CA");
+        CacheKey collection = CacheKey.collection("license-classes");
+        memory.put(lookup.toString(), List.of(Map.of("code", "CA")));
+        index.register(lookup);
+        offHeap.put(collection.toString(), List.of(Map.of("class", "CLASS_C")));
+        index.register(collection);
+
+        // When
+        int written = newService(memory, offHeap, index).snapshot();
+        MemoryCacheLayer restartedMemory = newMemoryLayer();
+        OffHeapCacheLayer restartedOffHeap = new OffHeapCacheLayer(objectMapper, true, 1 << 20);
+        CollectionKeyIndex restartedIndex = new CollectionKeyIndex();
+        CacheSnapshotService restarted = newService(restartedMemory, restartedOffHeap, restartedIndex);
+        assertFalse(restarted.isRestoreComplete());
+        restarted.restore();
+
+        // Then
+        assertEquals(2, written);
+        assertTrue(restarted.isRestoreComplete());
+        assertEquals(2, restarted.getRestoredEntries());
+        assertEquals(Optional.of(List.of(Map.of("code", "CA"))), restartedMemory.peek(lookup.toString()));
+        assertEquals(List.of(Map.of("class", "CLASS_C")), restartedOffHeap.peek(collection.toString()).orElseThrow());
+        assertEquals(index.getWrittenAt(lookup), restartedIndex.getWrittenAt(lookup));
+    }
+
+    @Test
+    void testEntriesForModifiedCollectionAreSkipped() throws IOException {
+        // Given
+        MemoryCacheLayer memory = newMemoryLayer();
+        CollectionKeyIndex index = new CollectionKeyIndex();
+        CacheKey lookup = CacheKey.lookup("states", "code", "CA");
+        memory.put(lookup.toString(), List.of(Map.of("code", "CA")));
+        index.register(lookup);
+        newService(memory, null, index).snapshot();
+
+        // When - the collection file changes before the restart
+        Path statesFile = tempDir.resolve("data").resolve("states.json");
+        Files.setLastModifiedTime(statesFile,
+            FileTime.fromMillis(Files.getLastModifiedTime(statesFile).toMillis() + 60_000));
+        MemoryCacheLayer restartedMemory = newMemoryLayer();
+        CacheSnapshotService restarted = newService(restartedMemory, null, new CollectionKeyIndex());
+        restarted.restore();
+
+        // Then
+        assertTrue(restarted.isRestoreComplete());
+        assertEquals(0, restarted.getRestoredEntries());
+        assertEquals(1, restarted.getSkippedEntries());
+        assertTrue(restartedMemory.peek(lookup.toString()).isEmpty());
+    }
+
+    @Test
+    void testCollectionChangedDuringRestoreIsTakenOutAgain() throws IOException {
+        // Given - two states lookups in the snapshot
+        MemoryCacheLayer memory = newMemoryLayer();
+        CollectionKeyIndex index = new CollectionKeyIndex();
+        CacheKey california = CacheKey.lookup("states", "code", "CA");
+        CacheKey newYork = CacheKey.lookup("states", "code", "NY");
+        memory.put(california.toString(), List.of(Map.of("code", "CA")));
+        index.register(california);
+        memory.put(newYork.toString(), List.of(Map.of("code", "NY")));
+        index.register(newYork);
+        newService(memory, null, index).snapshot();
+
+        // When - the file watcher invalidates states right after the first entry is put back
+        JsonFileStorageService changingStorage = mock(JsonFileStorageService.class);
+        when(changingStorage.getCollectionModificationTime("states"))
+            .thenReturn(jsonStorage.getCollectionModificationTime("states"));
+        when(changingStorage.getCollectionGeneration("states")).thenReturn(-1L, -2L);
+        MemoryCacheLayer restartedMemory = newMemoryLayer();
+        CacheSnapshotService restarted = new CacheSnapshotService(restartedMemory, null, new CollectionKeyIndex(),
+            changingStorage, objectMapper, true, snapshotFile.toString(), Duration.ofMinutes(5), Duration.ofMinutes(30));
+        restarted.restore();
+
+        // Then - neither the restored entry nor the one after it survives
+        assertEquals(0, restarted.getRestoredEntries());
+        assertEquals(2, restarted.getSkippedEntries());
+        assertTrue(restartedMemory.peek(california.toString()).isEmpty());
+        assertTrue(restartedMemory.peek(newYork.toString()).isEmpty());
+    }
+
+    @Test
+    void testMissingSnapshotStillCompletesRestore() {
+        // When
+        CacheSnapshotService service = newService(newMemoryLayer(), null, new CollectionKeyIndex());
+        service.restore();
+
+        // Then
+        assertTrue(service.isRestoreComplete());
+        assertEquals(0, service.getRestoredEntries());
+    }
+
+    private MemoryCacheLayer newMemoryLayer() {
+        return new MemoryCacheLayer(new CaffeineCacheManager("memoryCache"));
+    }
+
+    private CacheSnapshotService newService(MemoryCacheLayer memory, OffHeapCacheLayer offHeap, CollectionKeyIndex index) {
+        return new CacheSnapshotService(memory, offHeap, index, jsonStorage, objectMapper,
+                                        true, snapshotFile.toString(), Duration.ofMinutes(5), Duration.ofMinutes(30));
+    }
+}
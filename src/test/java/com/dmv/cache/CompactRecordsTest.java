@@ -0,0 +1,84 @@
+package com.dmv.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactRecordsTest {
+
+    private static final String STATES_JSON = """
+        [
+          {"code": "CA", "name": "California", "renewalFee": 35.0, "website": null,
+           "dmv": {"onlineRenewalAvailable": true, "lateFee": 10.0}, "restrictions": ["B", "C"]},
+          {"code": "NY", "name": "New York", "renewalFee": 35.0, "website": null,
+           "dmv": {"onlineRenewalAvailable": false, "lateFee": 10.0}, "restrictions": []}
+        ]
+        """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testCompactRowsReadLikeTheOriginalMaps() throws Exception {
+        // Given
+        List<Map<String, Object>> rows = readStates();
+
+        // When
+        List<Map<String, Object>> compact = CompactRecords.compact(rows);
+
+        // Then
+        assertEquals(rows, compact);
+        assertEquals(rows.hashCode(), compact.hashCode());
+        Map<String, Object> california = compact.get(0);
+        assertEquals("CA", california.get("code"));
+        assertTrue(california.containsKey("website"));
+        assertNull(california.get("website"));
+        assertFalse(california.containsKey("missing"));
+        assertEquals(true, ((Map<?, ?>) california.get("dmv")).get("onlineRenewalAvailable"));
+        assertEquals(List.copyOf(rows.get(0).keySet()), List.copyOf(california.keySet()));
+        assertEquals(compact, objectMapper.readValue(objectMapper.writeValueAsBytes(compact),
+                                                     new TypeReference<List<Map<String, Object>>>() {}));
+    }
+
+    @Test
+    void testCompactRowsAreReadOnlyAllTheWayDown() throws Exception {
+        // Given
+        List<Map<String, Object>> compact = CompactRecords.compact(readStates());
+        Map<String, Object> california = compact.get(0);
+
+        // Then
+        assertThrows(UnsupportedOperationException.class, () -> compact.add(Map.of()));
+        assertThrows(UnsupportedOperationException.class, () -> california.put("code", "XX"));
+        assertThrows(UnsupportedOperationException.class, () -> california.remove("code"));
+        assertThrows(UnsupportedOperationException.class, () -> california.entrySet().iterator().next().setValue("XX"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> dmv = (Map<String, Object>) california.get("dmv");
+        assertThrows(UnsupportedOperationException.class, () -> dmv.put("lateFee", 0.0));
+        @SuppressWarnings("unchecked")
+        List<Object> restrictions = (List<Object>) california.get("restrictions");
+        assertThrows(UnsupportedOperationException.class, () -> restrictions.add("D"));
+    }
+
+    @Test
+    void testRowsOfTheSameShapeShareOneDictionaryAndValues() throws Exception {
+        // When
+        List<Map<String, Object>> compact = CompactRecords.compact(readStates());
+        CompactRecord california = (CompactRecord) compact.get(0);
+        CompactRecord newYork = (CompactRecord) compact.get(1);
+
+        // Then
+        assertSame(california.getDictionary(), newYork.getDictionary());
+        assertSame(((CompactRecord) california.get("dmv")).getDictionary(),
+                   ((CompactRecord) newYork.get("dmv")).getDictionary());
+        assertSame(california.get("renewalFee"), newYork.get("renewalFee"));
+        assertSame(compact, CompactRecords.compact(compact));
+    }
+
+    private List<Map<String, Object>> readStates() throws Exception {
+        return objectMapper.readValue(STATES_JSON, new TypeReference<List<Map<String, Object>>>() {});
+    }
+}
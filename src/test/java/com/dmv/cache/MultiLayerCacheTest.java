@@ -159,15 +159,86 @@ class MultiLayerCacheTest {
     void testCacheInvalidationAcrossLayers() {
         // Given
         String collection = "states";
+        when(memoryCache.get(anyString())).thenReturn(java.util.Optional.empty());
+        when(networkCache.get(anyString())).thenReturn(java.util.Optional.empty());
+        when(jsonStorage.findByKey(collection, "code", "CA")).thenReturn(List.of(Map.of("code", "CA")));
+        externalDataService.findByCollectionAndKey(collection, "code", "CA");
 
         // When
         externalDataService.invalidateCache(collection);
 
         // Then
-        verify(memoryCache, times(1)).invalidateAll();
-        verify(networkCache, times(1)).invalidateAll();
+        verify(memoryCache, times(1)).invalidateAll(java.util.Set.of("states:code=CA"));
+        verify(networkCache, times(1)).invalidateAll(java.util.Set.of("states:code=CA"));
+        verify(memoryCache, never()).invalidateAll();
+        verify(networkCache, never()).invalidateAll();
+        
+        logger.info("✓ Cache invalidation test passed - collection keys invalidated in all layers");
+    }
+
+    @Test
+    void testInvalidatingOneCollectionKeepsOtherCollectionsHot() {
+        // Given - a real memory layer so cached entries actually survive or disappear
+        MemoryCacheLayer realMemoryCache = new MemoryCacheLayer(
+            new org.springframework.cache.caffeine.CaffeineCacheManager("memoryCache"));
+        ExternalDataService service = new ExternalDataServiceImpl(realMemoryCache, networkCache, null,
+                                                                  jsonStorage, new CollectionKeyIndex(), null, null,
+                                                                  AdmissionPolicy.ALWAYS, AdmissionPolicy.ALWAYS, null);
+        when(networkCache.get(anyString())).thenReturn(java.util.Optional.empty());
+        when(jsonStorage.findByKey("states", "code", "CA")).thenReturn(List.of(Map.of("code", "CA")));
+        when(jsonStorage.findByKey("license-classes", "class", "CLASS_C")).thenReturn(List.of(Map.of("class", "CLASS_C")));
+        when(jsonStorage.findByKey("fee-schedules", "type", "renewal")).thenReturn(List.of(Map.of("type", "renewal")));
+
+        service.findByCollectionAndKey("states", "code", "CA");
+        service.findByCollectionAndKey("license-classes", "class", "CLASS_C");
+        service.findByCollectionAndKey("fee-schedules", "type", "renewal");
+
+        // When
+        service.invalidateCache("fee-schedules");
+        service.findByCollectionAndKey("states", "code", "CA");
+        service.findByCollectionAndKey("license-classes", "class", "CLASS_C");
+        service.findByCollectionAndKey("fee-schedules", "type", "renewal");
+
+        // Then - states and license-classes are served from memory, only fee-schedules reloads
+        verify(jsonStorage, times(1)).findByKey("states", "code", "CA");
+        verify(jsonStorage, times(1)).findByKey("license-classes", "class", "CLASS_C");
+        verify(jsonStorage, times(2)).findByKey("fee-schedules", "type", "renewal");
+        assertEquals(2, realMemoryCache.getStats().getHitCount());
+        
+        logger.info("✓ Targeted invalidation test passed - other collections stayed hot");
+    }
+
+    @Test
+    void testUnknownKeyIsNegativelyCachedOutsideRegularLayers() {
+        // Given
+        ExternalDataService service = new ExternalDataServiceImpl(memoryCache, networkCache, null, jsonStorage,
+                                                                  new CollectionKeyIndex(), null,
+                                                                  new NegativeResultCache(java.time.Duration.ofMinutes(1), 100),
+                                                                  AdmissionPolicy.ALWAYS, AdmissionPolicy.ALWAYS, null);
+        when(memoryCache.get(anyString())).thenReturn(java.util.Optional.empty());
+        when(networkCache.get(anyString())).thenReturn(java.util.Optional.empty());
+        when(jsonStorage.findByKey("states", "code", "ZZ")).thenReturn(List.of());
+
+        // When
+        List<Map<String, Object>> first = service.findByCollectionAndKey("states", "code", "ZZ");
+        List<Map<String, Object>> second = service.findByCollectionAndKey("states", "code", "ZZ");
+
+        // Then - storage and the slow network layer are consulted once, nothing is stored in the layers
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+        verify(jsonStorage, times(1)).findByKey("states", "code", "ZZ");
+        verify(networkCache, times(1)).get(anyString());
+        verify(networkCache, never()).put(anyString(), any());
+        verify(memoryCache, never()).put(anyString(), any());
+
+        // When the collection is invalidated the key is looked up again
+        service.invalidateCache("states");
+        service.findByCollectionAndKey("states", "code", "ZZ");
+
+        // Then
+        verify(jsonStorage, times(2)).findByKey("states", "code", "ZZ");
         
-        logger.info("✓ Cache invalidation test passed - all layers invalidated");
+        logger.info("✓ Negative caching test passed - unknown key served without hitting storage");
     }
 
     @Test
@@ -0,0 +1,134 @@
+package com.dmv.cache;
+
+import com.dmv.cache.remote.CircuitBreaker;
+import com.dmv.cache.remote.RemoteCacheClient;
+import com.dmv.cache.remote.RemoteCacheException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NetworkCacheLayerTest {
+
+    private RemoteCacheClient remoteClient;
+    private NetworkCacheLayer networkCacheLayer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        remoteClient = mock(RemoteCacheClient.class);
+        ObjectProvider<RemoteCacheClient> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(remoteClient);
+        networkCacheLayer = new NetworkCacheLayer(new CaffeineCacheManager("networkCache"), provider, null,
+            Duration.ZERO, Duration.ZERO);
+    }
+
+    @Test
+    void testFailedInvalidationReadsAsMissUntilReplayed() {
+        // Given - a cached value whose delete fails while the circuit is open
+        when(remoteClient.get("RECORD:states:CA")).thenReturn(Optional.of(json("\"stale\"")));
+        doThrow(new RemoteCacheException("Circuit open")).when(remoteClient).deleteAll(any());
+        when(remoteClient.getCircuitState()).thenReturn(CircuitBreaker.State.OPEN);
+
+        // When
+        networkCacheLayer.invalidateAll(List.of("RECORD:states:CA"));
+
+        // Then - the stale value is not served and the delete is still owed
+        assertTrue(networkCacheLayer.get("RECORD:states:CA").isEmpty());
+        assertEquals(1, networkCacheLayer.getPendingInvalidations());
+        verify(remoteClient, never()).get(anyString());
+
+        // When - the circuit closes and the remote delete succeeds
+        doNothing().when(remoteClient).deleteAll(any());
+        when(remoteClient.getCircuitState()).thenReturn(CircuitBreaker.State.CLOSED);
+        networkCacheLayer.get("RECORD:states:CA");
+
+        // Then
+        verify(remoteClient).deleteAll(Set.of("RECORD:states:CA"));
+        assertEquals(0, networkCacheLayer.getPendingInvalidations());
+    }
+
+    @Test
+    void testFailedClearIsReplayedBeforeTheNextRead() {
+        // Given
+        doThrow(new RemoteCacheException("Timed out")).doNothing().when(remoteClient).clear();
+        when(remoteClient.getCircuitState()).thenReturn(CircuitBreaker.State.CLOSED);
+        when(remoteClient.getAll(any())).thenReturn(Map.of("RECORD:states:NY", json("\"fresh\"")));
+
+        // When
+        networkCacheLayer.invalidateAll();
+        int pendingAfterFailure = networkCacheLayer.getPendingInvalidations();
+        Map<String, Object> found = networkCacheLayer.getAll(List.of("RECORD:states:NY"));
+
+        // Then
+        assertEquals(-1, pendingAfterFailure);
+        verify(remoteClient, times(2)).clear();
+        assertEquals(0, networkCacheLayer.getPendingInvalidations());
+        assertEquals("fresh", found.get("RECORD:states:NY"));
+    }
+
+    @Test
+    void testPutSupersedesAPendingDelete() throws Exception {
+        // Given
+        doThrow(new RemoteCacheException("Circuit open")).when(remoteClient).delete("RECORD:states:TX");
+        when(remoteClient.getCircuitState()).thenReturn(CircuitBreaker.State.OPEN);
+        networkCacheLayer.invalidate("RECORD:states:TX");
+
+        when(remoteClient.putAsync(anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        networkCacheLayer.put("RECORD:states:TX", "Texas");
+
+        // Then
+        verify(remoteClient).putAsync("RECORD:states:TX", new ObjectMapper().writeValueAsBytes("Texas"));
+        assertEquals(0, networkCacheLayer.getPendingInvalidations());
+    }
+
+    @Test
+    void testPutDoesNotWaitForTheReplyButInvalidationDoes() throws Exception {
+        // Given - a put whose reply has not arrived
+        CompletableFuture<Void> reply = new CompletableFuture<>();
+        when(remoteClient.putAsync(anyString(), any())).thenReturn(reply);
+        networkCacheLayer.put("RECORD:states:CA", "California");
+
+        // When
+        CompletableFuture<Void> invalidation = CompletableFuture.runAsync(() -> networkCacheLayer.invalidate("RECORD:states:CA"));
+
+        // Then - the delete is held back until the put is acknowledged
+        Thread.sleep(100);
+        assertFalse(invalidation.isDone());
+        verify(remoteClient, never()).delete(anyString());
+        reply.complete(null);
+        invalidation.get(2, TimeUnit.SECONDS);
+        verify(remoteClient).delete("RECORD:states:CA");
+    }
+
+    @Test
+    void testPutAllSendsOneBatch() {
+        // When
+        networkCacheLayer.putAll(Map.of("RECORD:states:CA", "California", "RECORD:states:NY", "New York"));
+
+        // Then
+        verify(remoteClient).putAll(argThat(batch -> batch.keySet().equals(Set.of("RECORD:states:CA", "RECORD:states:NY"))));
+        verify(remoteClient, never()).put(anyString(), any());
+        verify(remoteClient, never()).putAsync(anyString(), any());
+    }
+
+    private static byte[] json(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
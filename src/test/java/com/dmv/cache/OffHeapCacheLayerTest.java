@@ -0,0 +1,108 @@
+package com.dmv.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapCacheLayerTest {
+
+    private OffHeapCacheLayer offHeapCacheLayer;
+
+    @BeforeEach
+    void setUp() {
+        offHeapCacheLayer = new OffHeapCacheLayer(new ObjectMapper(), true, 4096);
+    }
+
+    @Test
+    void testPutAndGetRoundTrip() {
+        // Given
+        List<Map<String, Object>> states = List.of(
+            Map.of("code", "CA", "name", "California"),
+            Map.of("code", "NY", "name", "New York")
+        );
+
+        // When
+        offHeapCacheLayer.put("COLLECTION:states", states);
+        Optional<Object> result = offHeapCacheLayer.get("COLLECTION:states");
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(states, result.get());
+        assertTrue(offHeapCacheLayer.getUsedBytes() > 0);
+    }
+
+    @Test
+    void testValueIsDeserializedLazily() {
+        // Given
+        offHeapCacheLayer.put("COLLECTION:states", List.of(Map.of("code", "CA")));
+
+        // When
+        OffHeapCacheLayer.LazyRowList rows = (OffHeapCacheLayer.LazyRowList) offHeapCacheLayer.get("COLLECTION:states").get();
+
+        // Then
+        assertFalse(rows.isMaterialized());
+        assertEquals("CA", rows.get(0).get("code"));
+        assertTrue(rows.isMaterialized());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryEvictedWhenFull() throws Exception {
+        // Given - capacity for two and a half entries
+        int entryBytes = new ObjectMapper().writeValueAsBytes(createRows("a")).length;
+        offHeapCacheLayer = new OffHeapCacheLayer(new ObjectMapper(), true, entryBytes * 5L / 2);
+        offHeapCacheLayer.put("COLLECTION:a", createRows("a"));
+        offHeapCacheLayer.put("COLLECTION:b", createRows("b"));
+        offHeapCacheLayer.get("COLLECTION:a");
+
+        // When
+        offHeapCacheLayer.put("COLLECTION:c", createRows("c"));
+
+        // Then
+        assertTrue(offHeapCacheLayer.get("COLLECTION:a").isPresent());
+        assertFalse(offHeapCacheLayer.get("COLLECTION:b").isPresent());
+        assertTrue(offHeapCacheLayer.get("COLLECTION:c").isPresent());
+        assertTrue(offHeapCacheLayer.getUsedBytes() <= offHeapCacheLayer.getMaxBytes());
+        assertEquals(1, offHeapCacheLayer.getStats().getEvictionCount());
+    }
+
+    @Test
+    void testInvalidateReleasesBytes() {
+        // Given
+        offHeapCacheLayer.put("COLLECTION:states", createRows("s"));
+
+        // When
+        offHeapCacheLayer.invalidate("COLLECTION:states");
+
+        // Then
+        assertFalse(offHeapCacheLayer.get("COLLECTION:states").isPresent());
+        assertEquals(0, offHeapCacheLayer.getUsedBytes());
+    }
+
+    @Test
+    void testDisabledLayerStoresNothing() {
+        // Given
+        OffHeapCacheLayer disabled = new OffHeapCacheLayer(new ObjectMapper(), false, 4096);
+
+        // When
+        disabled.put("COLLECTION:states", createRows("s"));
+
+        // Then
+        assertFalse(disabled.get("COLLECTION:states").isPresent());
+        assertEquals(0, disabled.getUsedBytes());
+    }
+
+    private List<Map<String, Object>> createRows(String prefix) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            rows.add(Map.of("code", prefix + i, "name", "Entry " + prefix + i));
+        }
+        return rows;
+    }
+}
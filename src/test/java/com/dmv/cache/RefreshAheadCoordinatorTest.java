@@ -0,0 +1,102 @@
+package com.dmv.cache;
+
+import com.dmv.config.CacheRefreshProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshAheadCoordinatorTest {
+
+    private CacheRefreshProperties properties;
+    private CollectionKeyIndex keyIndex;
+    private RefreshAheadCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CacheRefreshProperties();
+        properties.getDefaults().setRefreshAhead(true);
+        properties.getDefaults().setRefreshAheadRatio(0.0);
+        properties.getDefaults().setServeStaleOnError(true);
+        keyIndex = new CollectionKeyIndex();
+        coordinator = new RefreshAheadCoordinator(properties, keyIndex, Duration.ofMinutes(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        coordinator.shutdown();
+    }
+
+    @Test
+    void testShouldRefreshOnlyTrackedKeysPastThreshold() {
+        // Given
+        CacheKey tracked = CacheKey.collection("states");
+        CacheKey untracked = CacheKey.collection("license-classes");
+        keyIndex.register(tracked);
+
+        // Then
+        assertTrue(coordinator.shouldRefresh(tracked));
+        assertFalse(coordinator.shouldRefresh(untracked));
+
+        // When the threshold is far in the future
+        properties.getDefaults().setRefreshAheadRatio(0.8);
+
+        // Then
+        assertFalse(coordinator.shouldRefresh(tracked));
+    }
+
+    @Test
+    void testConcurrentRefreshesForSameKeyAreDeduplicated() throws InterruptedException {
+        // Given
+        CacheKey key = CacheKey.collection("states");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        // When
+        boolean first = coordinator.refreshInBackground(key, () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        });
+        boolean second = coordinator.refreshInBackground(key, () -> fail("duplicate refresh should not run"));
+        release.countDown();
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testStaleValueServedOnlyWhenPolicyAllows() {
+        // Given
+        CacheKey key = CacheKey.lookup("states", "code", "CA");
+        List<Map<String, Object>> value = List.of(Map.of("code", "CA"));
+        coordinator.rememberForStaleServe(key, value);
+
+        // When
+        Optional<Object> stale = coordinator.staleValue(key);
+
+        // Then
+        assertEquals(Optional.of(value), stale);
+        assertEquals(1, coordinator.getStaleServeCount());
+
+        // When stale serving is switched off for the collection
+        CacheRefreshProperties.Policy strict = new CacheRefreshProperties.Policy();
+        properties.getCollections().put("states", strict);
+
+        // Then
+        assertTrue(coordinator.staleValue(key).isEmpty());
+    }
+}
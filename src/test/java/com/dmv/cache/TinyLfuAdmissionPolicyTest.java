@@ -0,0 +1,125 @@
+package com.dmv.cache;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuAdmissionPolicyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TinyLfuAdmissionPolicyTest.class);
+
+    private static final int MEMORY_CAPACITY = 200;
+    private static final int HOT_KEYS = 1000;
+    private static final int HOURS = 24;
+    private static final int LOOKUPS_PER_HOUR = 20000;
+    private static final int SWEEP_KEYS_PER_HOUR = 5000;
+
+    @Test
+    void testOneOffKeyIsRejectedUntilSeenAgain() {
+        // Given
+        TinyLfuAdmissionPolicy policy = new TinyLfuAdmissionPolicy(100, 2);
+
+        // When
+        policy.recordAccess("states:EXISTS:dmv.website");
+
+        // Then
+        assertFalse(policy.admit("states:EXISTS:dmv.website"));
+
+        // When
+        policy.recordAccess("states:EXISTS:dmv.website");
+
+        // Then
+        assertTrue(policy.admit("states:EXISTS:dmv.website"));
+        assertEquals(1, policy.getAdmittedCount());
+        assertEquals(1, policy.getRejectedCount());
+    }
+
+    @Test
+    void testFrequencyAgesOut() {
+        // Given
+        TinyLfuAdmissionPolicy policy = new TinyLfuAdmissionPolicy(16, 2);
+        for (int i = 0; i < 8; i++) {
+            policy.recordAccess("states:code=CA");
+        }
+        int before = policy.estimateFrequency("states:code=CA");
+
+        // When - enough other traffic to trigger several aging passes
+        for (int i = 0; i < 2000; i++) {
+            policy.recordAccess("scan-" + i);
+        }
+
+        // Then
+        assertTrue(before >= 8);
+        assertTrue(policy.estimateFrequency("states:code=CA") < before);
+    }
+
+    @Test
+    void testHourlyTraceReplayImprovesMemoryHitRatio() {
+        // Given - a day of skewed lookups, each hour overlapping a one-off sweep of unique keys
+        List<String> trace = buildTrace(new Random(42));
+
+        // When
+        double alwaysHitRatio = replay(trace, AdmissionPolicy.ALWAYS);
+        double tinyLfuHitRatio = replay(trace, new TinyLfuAdmissionPolicy(MEMORY_CAPACITY, 2));
+
+        // Then
+        logger.info("Trace replay memory hit ratio - always: {}, tinylfu: {}",
+                   String.format("%.3f", alwaysHitRatio), String.format("%.3f", tinyLfuHitRatio));
+        assertTrue(tinyLfuHitRatio > alwaysHitRatio + 0.03,
+                   "expected TinyLFU (" + tinyLfuHitRatio + ") to beat always-admit (" + alwaysHitRatio + ")");
+    }
+
+    private List<String> buildTrace(Random random) {
+        // Zipf-like popularity over the hot key space
+        double[] cumulative = new double[HOT_KEYS];
+        double sum = 0;
+        for (int i = 0; i < HOT_KEYS; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+
+        List<String> trace = new ArrayList<>();
+        int sweepKey = 0;
+        int sweepEvery = LOOKUPS_PER_HOUR / SWEEP_KEYS_PER_HOUR;
+        for (int hour = 0; hour < HOURS; hour++) {
+            for (int i = 0; i < LOOKUPS_PER_HOUR; i++) {
+                double target = random.nextDouble() * sum;
+                int index = java.util.Arrays.binarySearch(cumulative, target);
+                trace.add("states:code=" + (index >= 0 ? index : -index - 1));
+                // The hourly sweep (e.g. a findByCollectionAndKeyExists batch job) runs alongside normal traffic
+                if (i % sweepEvery == 0) {
+                    trace.add("license-classes:EXISTS:sweep-" + sweepKey++);
+                }
+            }
+        }
+        return trace;
+    }
+
+    // Memory tier modelled as a bounded LRU; a miss is served by the network tier and offered for promotion
+    private double replay(List<String> trace, AdmissionPolicy policy) {
+        Map<String, Boolean> memory = new LinkedHashMap<>(MEMORY_CAPACITY, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > MEMORY_CAPACITY;
+            }
+        };
+        long hits = 0;
+        for (String key : trace) {
+            policy.recordAccess(key);
+            if (memory.get(key) != null) {
+                hits++;
+            } else if (policy.admit(key)) {
+                memory.put(key, Boolean.TRUE);
+            }
+        }
+        return (double) hits / trace.size();
+    }
+}
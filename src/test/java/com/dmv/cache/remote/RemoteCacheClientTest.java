@@ -0,0 +1,165 @@
+package com.dmv.cache.remote;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteCacheClientTest {
+
+    private EmbeddedCacheServer server;
+    private RemoteCacheClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new EmbeddedCacheServer(0, 1000, Duration.ofMinutes(5));
+        client = new RemoteCacheClient(server.getHost(), server.getPort(), 2,
+                                       Duration.ofMillis(250), Duration.ofSeconds(2),
+                                       new CircuitBreaker(3, Duration.ofSeconds(30)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void testPutGetDeleteRoundTrip() {
+        // When
+        client.put("states:code=CA", bytes("[{\"code\":\"CA\"}]"));
+        client.put("states:code=NY", bytes("[{\"code\":\"NY\"}]"));
+        client.put("states:code=TX", bytes("[{\"code\":\"TX\"}]"));
+
+        // Then
+        assertEquals("[{\"code\":\"CA\"}]", string(client.get("states:code=CA")));
+        assertTrue(client.get("states:code=ZZ").isEmpty());
+
+        // When
+        client.delete("states:code=CA");
+        client.deleteAll(Set.of("states:code=NY", "states:code=TX"));
+
+        // Then
+        assertTrue(client.get("states:code=CA").isEmpty());
+        assertTrue(client.get("states:code=NY").isEmpty());
+        assertTrue(client.get("states:code=TX").isEmpty());
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState());
+    }
+
+    @Test
+    void testGetAllFetchesABatchInOneRequest() {
+        // Given
+        client.put("states:code=CA", bytes("[{\"code\":\"CA\"}]"));
+        client.put("states:code=TX", bytes("[]"));
+
+        // When
+        Map<String, byte[]> found = client.getAll(List.of("states:code=CA", "states:code=ZZ", "states:code=TX"));
+
+        // Then
+        assertEquals(Set.of("states:code=CA", "states:code=TX"), found.keySet());
+        assertEquals("[{\"code\":\"CA\"}]", new String(found.get("states:code=CA"), StandardCharsets.UTF_8));
+        assertEquals("[]", new String(found.get("states:code=TX"), StandardCharsets.UTF_8));
+        assertTrue(client.getAll(List.of()).isEmpty());
+    }
+
+    @Test
+    void testPutAllAndPutAsyncStoreWithoutPerKeyRoundTrips() throws Exception {
+        // Given
+        Map<String, byte[]> batch = new HashMap<>();
+        for (int i = 0; i < 50; i++) {
+            batch.put("states:code=" + i, bytes("[" + i + "]"));
+        }
+
+        // When
+        client.putAll(batch);
+        client.putAsync("states:code=CA", bytes("[{\"code\":\"CA\"}]")).get(2, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(50, client.getAll(batch.keySet()).size());
+        assertEquals("[7]", string(client.get("states:code=7")));
+        assertEquals("[{\"code\":\"CA\"}]", string(client.get("states:code=CA")));
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState());
+    }
+
+    @Test
+    void testConcurrentPipelinedRequestsGetTheirOwnResponses() throws Exception {
+        // Given - far more callers than pooled connections
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                String key = "key-" + i;
+                results.add(callers.submit(() -> {
+                    client.put(key, bytes(key));
+                    return key.equals(string(client.get(key)));
+                }));
+            }
+
+            // Then
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+            assertEquals(500, server.size());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCircuitOpensWhenServerIsDownAndFailsFast() {
+        // Given
+        server.close();
+
+        // When - enough failures to trip the breaker
+        for (int i = 0; i < 3; i++) {
+            assertThrows(RemoteCacheException.class, () -> client.get("states:code=CA"));
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+        long start = System.nanoTime();
+        RemoteCacheException failure = assertThrows(RemoteCacheException.class, () -> client.get("states:code=CA"));
+        assertTrue(failure.getMessage().contains("circuit is open"));
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(50).toNanos());
+    }
+
+    @Test
+    void testHalfOpenCircuitClosesAfterSuccessfulTrial() throws InterruptedException {
+        // Given
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMillis(20));
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+
+        // When
+        Thread.sleep(30);
+
+        // Then - exactly one trial is let through
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(Optional<byte[]> value) {
+        return value.map(v -> new String(v, StandardCharsets.UTF_8)).orElse(null);
+    }
+}
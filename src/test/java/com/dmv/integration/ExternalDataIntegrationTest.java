@@ -20,7 +20,8 @@ import static org.junit.jupiter.api.Assertions.*;
 @TestPropertySource(properties = {
     "spring.datasource.url=jdbc:h2:mem:testdb",
     "spring.jpa.hibernate.ddl-auto=create-drop",
-    "dmv.external-data.directory=src/main/resources/data"
+    "dmv.external-data.directory=src/main/resources/data",
+    "dmv.cache.snapshot.enabled=false"
 })
 class ExternalDataIntegrationTest {
 
@@ -94,7 +95,7 @@ class ExternalDataIntegrationTest {
         var stats = externalDataService.getCacheStatistics();
         assertNotNull(stats);
         assertNotNull(stats.getLayerStats());
-        assertEquals(2, stats.getLayerStats().size()); // Memory and Network cache layers
+        assertEquals(4, stats.getLayerStats().size()); // Memory, Off-Heap, Network and pinned snapshot layers
     }
 
     @Test
@@ -0,0 +1,93 @@
+package com.dmv.load;
+
+import com.dmv.model.LoadTestConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrivalScheduleTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testConstantArrivalsAreEvenlySpaced() {
+        // Given
+        ArrivalSchedule schedule = new ArrivalSchedule(config("constant", 100), new SplittableRandom(1));
+
+        // When / Then
+        assertEquals(0, schedule.next());
+        assertEquals(10_000_000, schedule.next());
+        assertEquals(20_000_000, schedule.next());
+    }
+
+    @Test
+    void testPoissonArrivalsAverageTheRate() {
+        // Given
+        ArrivalSchedule schedule = new ArrivalSchedule(config("Poisson", 1000), new SplittableRandom(42));
+
+        // When
+        int inFirstTenSeconds = countBefore(schedule, 10 * SECOND);
+
+        // Then - 10,000 expected, standard deviation 100
+        assertEquals(10_000, inFirstTenSeconds, 400);
+    }
+
+    @Test
+    void testStepProfileRaisesRateEveryStep() {
+        // Given - 100/s, plus 100/s every 2 seconds
+        LoadTestConfig config = config("step", 100);
+        config.setStepRatePerSecond(100);
+        config.setStepSeconds(2);
+        ArrivalSchedule schedule = new ArrivalSchedule(config, new SplittableRandom(1));
+
+        // When
+        int arrivals = countBefore(schedule, 6 * SECOND);
+
+        // Then - 2s at 100, 2s at 200, 2s at 300
+        assertEquals(1200, arrivals, 3);
+        assertEquals(300, schedule.rateAt(5.5 * SECOND));
+    }
+
+    @Test
+    void testSpikeProfileStartsSpikeOnTime() {
+        // Given - 1/s with 1000/s between 2.5s and 3s
+        LoadTestConfig config = config("spike", 1);
+        config.setSpikeRatePerSecond(1000);
+        config.setSpikeStartSeconds(2);
+        config.setSpikeDurationSeconds(1);
+        ArrivalSchedule schedule = new ArrivalSchedule(config, new SplittableRandom(1));
+
+        // When
+        int arrivals = countBefore(schedule, 4 * SECOND);
+
+        // Then - arrivals at 0s and 1s, 1000 in the spike, one at 3s
+        assertEquals(1003, arrivals, 2);
+    }
+
+    @Test
+    void testUnknownProfileIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ArrivalSchedule(config("sawtooth", 10), new SplittableRandom(1)));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ArrivalSchedule(config("constant", 0), new SplittableRandom(1)));
+    }
+
+    private static LoadTestConfig config(String profile, int rate) {
+        LoadTestConfig config = new LoadTestConfig(1, 10);
+        config.setMode("open");
+        config.setArrivalProfile(profile);
+        config.setRequestsPerSecond(rate);
+        return config;
+    }
+
+    private static int countBefore(ArrivalSchedule schedule, long endNanos) {
+        int count = 0;
+        while (schedule.next() < endNanos) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,66 @@
+package com.dmv.load;
+
+import com.dmv.model.SimulationInterval;
+import com.dmv.model.SimulationResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadRecorderTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testScheduledRunCountsTimeSpentWaitingToSend() {
+        // Given - sends due every 10ms; one 500ms stall holds back the 49 sends behind it
+        LoadRecorder recorder = new LoadRecorder(0, true);
+        recorder.record(0, 0, 500 * MS, true);
+        long now = 500 * MS;
+        for (int i = 1; i < 50; i++) {
+            recorder.record(i * 10 * MS, now, now + MS, true);
+            now += MS;
+        }
+        for (int i = 50; i < 1000; i++) {
+            recorder.record(i * 10 * MS, i * 10 * MS, i * 10 * MS + MS, true);
+        }
+        SimulationResult result = new SimulationResult();
+
+        // When
+        recorder.complete(result, 10_000 * MS);
+
+        // Then - service time hides the stall behind one sample, response time does not
+        assertEquals(1000, result.getTotalExecutions());
+        assertEquals(1000, result.getLatency().getP99Micros(), 20);
+        assertEquals(500_000, result.getLatency().getMaxMicros(), 1);
+        assertTrue(result.getCorrectedLatency().getP99Micros() > 400_000);
+        assertTrue(result.getCorrectedLatency().getP90Micros() < 2000);
+    }
+
+    @Test
+    void testTimeSeriesHasOneEntryPerSecond() {
+        // Given - completions in seconds 0 and 2 of a three-second run
+        LoadRecorder recorder = new LoadRecorder(0, false);
+        recorder.record(0, 100 * MS, 102 * MS, true);
+        recorder.record(0, 200 * MS, 206 * MS, false);
+        recorder.record(0, 2100 * MS, 2101 * MS, true);
+        SimulationResult result = new SimulationResult();
+
+        // When
+        recorder.complete(result, 3000 * MS);
+
+        // Then
+        List<SimulationInterval> series = result.getTimeSeries();
+        assertEquals(3, series.size());
+        assertEquals(2, series.get(0).getExecutions());
+        assertEquals(1, series.get(0).getSuccessfulExecutions());
+        assertEquals(4000, series.get(0).getMeanLatencyMicros(), 1);
+        assertEquals(6000, series.get(0).getMaxLatencyMicros(), 1);
+        assertEquals(0, series.get(1).getExecutions());
+        assertEquals(1, series.get(2).getExecutions());
+        assertNull(result.getCorrectedLatency());
+        assertEquals(1.0, result.getThroughputPerSecond(), 0.001);
+    }
+}
@@ -0,0 +1,135 @@
+package com.dmv.load;
+
+import com.dmv.model.LoadTestConfig;
+import com.dmv.model.SimulationResult;
+import com.dmv.model.TestResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadSimulationTest {
+
+    @Test
+    void testUsersRunConcurrently() throws InterruptedException {
+        // Given - 4 users without a duration, 5 executions each
+        LoadTestConfig config = new LoadTestConfig(4, 0);
+        config.setRampUpSeconds(0);
+        config.setRequestsPerSecond(5);
+        config.setDurationSeconds(0);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Supplier<TestResult> execution = () -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(20);
+            inFlight.decrementAndGet();
+            TestResult result = new TestResult("load");
+            result.setSuccess(true);
+            return result;
+        };
+
+        // When
+        SimulationResult result = new LoadSimulation("run-1", config, execution).run();
+
+        // Then
+        assertEquals(20, result.getTotalExecutions());
+        assertEquals(20, result.getSuccessfulExecutions());
+        assertFalse(result.isStopped());
+        assertTrue(maxInFlight.get() > 1);
+        assertEquals(4L, result.getPerformanceMetrics().get("peakActiveUsers"));
+        assertTrue(result.getAverageResponseTimeMs() >= 20);
+    }
+
+    @Test
+    void testStopEndsTimedRunEarly() throws InterruptedException {
+        // Given - a one-minute run
+        LoadTestConfig config = new LoadTestConfig(2, 60);
+        config.setRampUpSeconds(0);
+        config.setRampDownSeconds(0);
+        CountDownLatch firstExecution = new CountDownLatch(1);
+        LoadSimulation simulation = new LoadSimulation("run-2", config, () -> {
+            firstExecution.countDown();
+            sleep(5);
+            return new TestResult("load");
+        });
+        AtomicReference<SimulationResult> result = new AtomicReference<>();
+        Thread runner = new Thread(() -> {
+            try {
+                result.set(simulation.run());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        runner.start();
+
+        // When
+        assertTrue(firstExecution.await(5, TimeUnit.SECONDS));
+        simulation.stop();
+        runner.join(5000);
+
+        // Then
+        assertFalse(runner.isAlive());
+        assertTrue(result.get().isStopped());
+        assertTrue(result.get().getTotalExecutionTimeMs() < 5000);
+        assertEquals(result.get().getTotalExecutions(), result.get().getFailedExecutions());
+        assertEquals(0, simulation.getActiveUsers());
+    }
+
+    @Test
+    void testOpenLoopBuildsBacklogWhenArrivalsOutpaceWorkers() throws InterruptedException {
+        // Given - 100 arrivals/s for one second against one worker that serves 50 a second
+        LoadTestConfig config = new LoadTestConfig(1, 1);
+        config.setMode("open");
+        config.setRequestsPerSecond(100);
+        Supplier<TestResult> execution = () -> {
+            sleep(20);
+            TestResult result = new TestResult("load");
+            result.setSuccess(true);
+            return result;
+        };
+
+        // When
+        SimulationResult result = new LoadSimulation("run-3", config, execution).run();
+
+        // Then - every arrival is served, but queueing shows only in the corrected latency
+        assertEquals(100, result.getTotalExecutions());
+        assertEquals(100, result.getTimeSeries().get(0).getArrivals());
+        assertTrue(result.getTimeSeries().get(0).getBacklog() > 20);
+        assertTrue((long) result.getPerformanceMetrics().get("peakBacklog") > 20);
+        assertTrue(result.getLatency().getP99Micros() < 200_000);
+        assertTrue(result.getCorrectedLatency().getP99Micros() > 500_000);
+        assertEquals(1L, result.getPerformanceMetrics().get("peakActiveUsers"));
+    }
+
+    @Test
+    void testTokenBucketPacesToRate() throws InterruptedException {
+        // Given
+        TokenBucket bucket = new TokenBucket(200, 1);
+        CountDownLatch neverStopped = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        // When
+        long start = System.nanoTime();
+        for (int i = 0; i < 41; i++) {
+            assertTrue(bucket.acquire(deadline, neverStopped));
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then - the first token is free, the other 40 arrive 5ms apart
+        assertTrue(elapsedMs >= 190, "elapsed " + elapsedMs + "ms");
+        assertFalse(bucket.acquire(System.nanoTime(), neverStopped));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
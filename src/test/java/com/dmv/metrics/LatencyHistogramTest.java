@@ -0,0 +1,103 @@
+package com.dmv.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesWithinRelativeError() {
+        // Given - 1..100000 ns uniformly
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.recordValue(i);
+        }
+
+        // Then
+        assertEquals(100_000, histogram.getTotalCount());
+        assertEquals(100_000, histogram.getMaxValue());
+        assertWithinOnePointSixPercent(50_000, histogram.getValueAtPercentile(50.0));
+        assertWithinOnePointSixPercent(99_000, histogram.getValueAtPercentile(99.0));
+        assertWithinOnePointSixPercent(99_900, histogram.getValueAtPercentile(99.9));
+        assertEquals(50_000.5, histogram.getMean(), 0.001);
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(3);
+        histogram.recordValue(7);
+        histogram.recordValue(100);
+
+        assertEquals(3, histogram.getValueAtPercentile(1.0));
+        assertEquals(7, histogram.getValueAtPercentile(50.0));
+        assertEquals(100, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    void testBucketBoundariesAreContiguous() {
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.indexFor(value);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestEquivalentValue(index - 1) < value);
+            }
+        }
+        assertTrue(LatencyHistogram.indexFor(Long.MAX_VALUE) >= 0);
+    }
+
+    @Test
+    void testAddAndReset() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.recordValue(1_000);
+        second.recordValue(5_000_000);
+
+        first.add(second);
+        assertEquals(2, first.getTotalCount());
+        assertEquals(5_000_000, first.getMaxValue());
+
+        first.reset();
+        assertEquals(0, first.getTotalCount());
+        assertEquals(0, first.getValueAtPercentile(99.0));
+    }
+
+    @Test
+    void testConcurrentRecordingIntoHotBucketsLosesNothing() throws InterruptedException {
+        // Given - eight threads hammering the same two buckets
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.recordValue(i % 10 == 0 ? 5_000_000 : 1_000);
+                }
+            }));
+        }
+
+        // When
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(histogram);
+
+        // Then - every count survives, whichever array it landed in
+        assertEquals(400_000, histogram.getTotalCount());
+        assertWithinOnePointSixPercent(1_000, histogram.getValueAtPercentile(90.0));
+        assertWithinOnePointSixPercent(5_000_000, histogram.getValueAtPercentile(90.1));
+        assertEquals(histogram.summarize().getP99Nanos(), merged.summarize().getP99Nanos());
+        histogram.reset();
+        assertEquals(0, histogram.getValueAtPercentile(100.0));
+    }
+
+    private void assertWithinOnePointSixPercent(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected * 0.016,
+                   "expected ~" + expected + " but was " + actual);
+    }
+}
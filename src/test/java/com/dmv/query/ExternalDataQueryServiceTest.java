@@ -0,0 +1,195 @@
+package com.dmv.query;
+
+import com.dmv.config.ExternalDataStorageProperties;
+import com.dmv.service.CacheInvalidatedEvent;
+import com.dmv.storage.CollectionChangedEvent;
+import com.dmv.storage.CollectionDiff;
+import com.dmv.storage.JsonFileStorageService;
+import com.dmv.storage.ReferenceDataSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.dmv.query.QueryPredicate.and;
+import static com.dmv.query.QueryPredicate.contains;
+import static com.dmv.query.QueryPredicate.eq;
+import static com.dmv.query.QueryPredicate.or;
+import static com.dmv.query.QueryPredicate.range;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalDataQueryServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JsonFileStorageService storage;
+    private ExternalDataQueryService queryService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        writeFeeSchedules("""
+            [
+              {"type": "renewal", "licenseClass": "C", "totalFee": 35.0, "validFrom": "2024-01-01", "applicableTo": ["C", "M"]},
+              {"type": "renewal", "licenseClass": "CDL", "totalFee": 85.0, "validFrom": "2024-07-01", "applicableTo": ["CDL"]},
+              {"type": "original", "licenseClass": "C", "totalFee": 50.0, "validFrom": "2024-01-01", "applicableTo": ["C"]},
+              {"type": "original", "licenseClass": "C", "totalFee": 50.0, "validFrom": "2024-01-01", "applicableTo": ["C"]},
+              {"type": "duplicate", "totalFee": 20.0, "extra": {"rush": true}}
+            ]
+            """);
+        ExternalDataStorageProperties properties = ExternalDataStorageProperties.forDirectory(tempDir.toString());
+        properties.setIndexedKeys(List.of("fee-schedules:type", "fee-schedules:licenseClass"));
+        properties.setPrimaryKeys(List.of("fee-schedules:type+licenseClass+totalFee"));
+        properties.setStreamingThresholdBytes(0);
+        storage = new JsonFileStorageService(new ObjectMapper(), properties);
+        // Changes arrive only through the explicit reloads below, never from late directory events
+        storage.setBackgroundWatching(true);
+        queryService = new ExternalDataQueryService(storage, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void testIndexedAndScannedPlansReturnTheSameRows() {
+        // Given
+        Query indexed = Query.from("fee-schedules").where(and(eq("type", "renewal"), contains("applicableTo", "M")));
+        Query scanned = Query.from("fee-schedules").where(and(contains("applicableTo", "M"),
+            range("totalFee", 0, true, 100, true)));
+
+        // When
+        List<Map<String, Object>> viaIndex = queryService.query(indexed);
+        List<Map<String, Object>> viaScan = queryService.query(scanned);
+
+        // Then
+        assertEquals(QueryPlan.Access.INDEX_LOOKUP, queryService.explain(indexed).getAccess());
+        assertEquals(QueryPlan.Access.FULL_SCAN, queryService.explain(scanned).getAccess());
+        assertEquals(1, viaIndex.size());
+        assertEquals("C", viaIndex.get(0).get("licenseClass"));
+        assertEquals(viaIndex, viaScan);
+    }
+
+    @Test
+    void testUnionKeepsDuplicateRowsButNotOverlap() {
+        // When
+        List<Map<String, Object>> rows = queryService.query(Query.from("fee-schedules")
+            .where(or(eq("type", "original"), eq("licenseClass", "C"))));
+
+        // Then - two identical "original" rows plus the renewal row for class C, each once
+        assertEquals(3, rows.size());
+        assertEquals(2, rows.stream().filter(row -> "original".equals(row.get("type"))).count());
+    }
+
+    @Test
+    void testProjectionAndRange() {
+        // When
+        List<Map<String, Object>> rows = queryService.query(Query.from("fee-schedules")
+            .where(range("validFrom", "2024-06-01", true, null, false))
+            .select("licenseClass", "totalFee", "extra.rush"));
+        List<Map<String, Object>> nested = queryService.query(Query.from("fee-schedules")
+            .where(eq("extra.rush", true))
+            .select("type", "extra.rush"));
+
+        // Then
+        assertEquals(List.of(Map.of("licenseClass", "CDL", "totalFee", 85.0)), rows);
+        assertEquals(List.of(Map.of("type", "duplicate", "extra.rush", true)), nested);
+    }
+
+    @Test
+    void testCachedResultsAreDroppedWhenTheCollectionChanges() throws IOException {
+        // Given
+        Query query = Query.from("fee-schedules").where(eq("type", "renewal"));
+        List<Map<String, Object>> first = queryService.query(query);
+        assertSame(first, queryService.query(query));
+
+        // When
+        writeFeeSchedules("[{\"type\": \"renewal\", \"licenseClass\": \"M\"}]");
+        storage.reloadCollection("fee-schedules");
+        queryService.onCollectionChanged(new CollectionChangedEvent(this, "fee-schedules", 1));
+
+        // Then
+        List<Map<String, Object>> reloaded = queryService.query(query);
+        assertEquals(1, reloaded.size());
+        assertEquals("M", reloaded.get(0).get("licenseClass"));
+    }
+
+    @Test
+    void testExplicitInvalidationDropsCachedResults() {
+        // Given
+        Query query = Query.from("fee-schedules").where(eq("type", "renewal"));
+        List<Map<String, Object>> first = queryService.query(query);
+        assertSame(first, queryService.query(query));
+
+        // When
+        queryService.onCacheInvalidated(new CacheInvalidatedEvent(this, "fee-schedules"));
+        List<Map<String, Object>> afterCollection = queryService.query(query);
+        queryService.onCacheInvalidated(new CacheInvalidatedEvent(this));
+
+        // Then
+        assertNotSame(first, afterCollection);
+        assertNotSame(afterCollection, queryService.query(query));
+        assertEquals(first, afterCollection);
+    }
+
+    @Test
+    void testResultsUntouchedByADiffSurviveTheChange() throws IOException {
+        // Given - storage keyed without the duplicate "original" rows
+        writeFeeSchedules("""
+            [
+              {"type": "renewal", "licenseClass": "C", "totalFee": 35.0},
+              {"type": "original", "licenseClass": "C", "totalFee": 50.0}
+            ]
+            """);
+        storage.reloadCollection("fee-schedules");
+        Query renewals = Query.from("fee-schedules").where(eq("type", "renewal"));
+        Query originals = Query.from("fee-schedules").where(eq("type", "original"));
+        List<Map<String, Object>> cachedRenewals = queryService.query(renewals);
+        queryService.query(originals);
+
+        // When - only the "original" record changes
+        writeFeeSchedules("""
+            [
+              {"type": "renewal", "licenseClass": "C", "totalFee": 35.0},
+              {"type": "original", "licenseClass": "C", "totalFee": 55.0}
+            ]
+            """);
+        CollectionDiff diff = storage.reloadCollectionWithDiff("fee-schedules");
+        queryService.onCollectionChanged(new CollectionChangedEvent(this, diff));
+
+        // Then
+        assertEquals(1, diff.getAdded().size());
+        assertEquals(1, diff.getRemoved().size());
+        assertSame(cachedRenewals, queryService.query(renewals));
+        assertEquals(55.0, queryService.query(originals).get(0).get("totalFee"));
+    }
+
+    @Test
+    void testPinnedViewAnswersFromItsVersionAcrossAReload() throws IOException {
+        // Given
+        Query query = Query.from("fee-schedules").where(eq("type", "renewal")).select("licenseClass");
+        storage.loadCollection("fee-schedules");
+        try (ReferenceDataSnapshot snapshot = storage.pin()) {
+            ExternalDataQueryService pinned = queryService.pinnedTo(snapshot);
+            List<Map<String, Object>> before = pinned.query(query);
+            assertSame(before, pinned.query(query));
+
+            // When
+            writeFeeSchedules("[{\"type\": \"renewal\", \"licenseClass\": \"M\"}]");
+            storage.reloadCollection("fee-schedules");
+            queryService.onCollectionChanged(new CollectionChangedEvent(this, "fee-schedules", 1));
+
+            // Then - the view keeps its version, the shared service sees the reload
+            assertEquals(List.of(Map.of("licenseClass", "C"), Map.of("licenseClass", "CDL")), before);
+            assertEquals(before, queryService.pinnedTo(snapshot).query(query));
+            assertEquals(List.of(Map.of("licenseClass", "M")), queryService.query(query));
+        }
+    }
+
+    private void writeFeeSchedules(String json) throws IOException {
+        Files.writeString(tempDir.resolve("fee-schedules.json"), json);
+    }
+}
@@ -0,0 +1,94 @@
+package com.dmv.query;
+
+import com.dmv.query.QueryPlan.Access;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.dmv.query.QueryPredicate.and;
+import static com.dmv.query.QueryPredicate.contains;
+import static com.dmv.query.QueryPredicate.eq;
+import static com.dmv.query.QueryPredicate.in;
+import static com.dmv.query.QueryPredicate.or;
+import static com.dmv.query.QueryPredicate.range;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlannerTest {
+
+    private static final Set<String> INDEXED = Set.of("type", "licenseClass");
+
+    @Test
+    void testEquivalentQueriesNormalizeTheSame() {
+        // Given
+        Query first = Query.from("fee-schedules")
+            .where(and(eq("type", "renewal"), and(contains("applicableTo", "C"), eq("type", "renewal"))));
+        Query second = Query.from("fee-schedules")
+            .where(and(contains("applicableTo", "C"), eq("type", "renewal")));
+
+        // Then
+        assertEquals(first.normalized(), second.normalized());
+        assertEquals("FROM fee-schedules WHERE (applicableTo CONTAINS 'C' AND type = 'renewal')", first.normalized());
+        assertNotEquals(Query.from("x").where(eq("age", 16)).normalized(),
+            Query.from("x").where(eq("age", 16.0)).normalized());
+    }
+
+    @Test
+    void testAndUsesMostSelectiveIndexedPredicate() {
+        // Given
+        Query query = Query.from("fee-schedules").where(and(
+            in("type", List.of("renewal", "original")),
+            eq("licenseClass", "C"),
+            range("totalFee", 10, true, null, false)));
+
+        // When
+        QueryPlan plan = QueryPlanner.plan(query, INDEXED);
+
+        // Then
+        assertEquals(Access.INDEX_LOOKUP, plan.getAccess());
+        QueryPlan.IndexProbe probe = plan.getProbes().get(0);
+        assertEquals("licenseClass", probe.keyPath());
+        assertEquals(List.of("C"), probe.values());
+        assertEquals("(totalFee IN [10, +inf) AND type IN ('original', 'renewal'))", probe.filter().normalized());
+        assertTrue(plan.explain().contains("INDEX_LOOKUP licenseClass (1 value)"));
+    }
+
+    @Test
+    void testOrIsAUnionOnlyWhenEveryBranchIsIndexed() {
+        // When
+        QueryPlan union = QueryPlanner.plan(Query.from("fee-schedules")
+            .where(or(eq("type", "renewal"), eq("licenseClass", "M"))), INDEXED);
+        QueryPlan scan = QueryPlanner.plan(Query.from("fee-schedules")
+            .where(or(eq("type", "renewal"), contains("applicableTo", "M"))), INDEXED);
+        QueryPlan nullValue = QueryPlanner.plan(Query.from("fee-schedules").where(eq("type", null)), INDEXED);
+
+        // Then
+        assertEquals(Access.INDEX_UNION, union.getAccess());
+        assertEquals(2, union.getProbes().size());
+        assertEquals(Access.FULL_SCAN, scan.getAccess());
+        assertTrue(scan.explain().contains("FILTER"));
+        assertEquals(Access.FULL_SCAN, nullValue.getAccess());
+    }
+
+    @Test
+    void testParseJsonQuery() {
+        // Given
+        Map<String, Object> body = Map.of(
+            "where", Map.of("and", List.of(
+                Map.of("eq", Map.of("path", "type", "value", "renewal")),
+                Map.of("range", Map.of("path", "validFrom", "lte", "2024-06-01")))),
+            "select", List.of("licenseClass", "totalFee"));
+
+        // When
+        Query query = Query.fromMap("fee-schedules", body);
+
+        // Then
+        assertEquals("FROM fee-schedules WHERE (type = 'renewal' AND validFrom IN (-inf, '2024-06-01'])"
+            + " SELECT licenseClass, totalFee", query.normalized());
+        assertThrows(IllegalArgumentException.class,
+            () -> Query.fromMap("x", Map.of("where", Map.of("like", Map.of("path", "a")))));
+        assertThrows(IllegalArgumentException.class,
+            () -> Query.fromMap("x", Map.of("where", Map.of("in", Map.of("path", "a", "values", List.of())))));
+    }
+}
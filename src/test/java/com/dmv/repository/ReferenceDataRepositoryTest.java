@@ -0,0 +1,211 @@
+package com.dmv.repository;
+
+import com.dmv.model.reference.FeeScheduleRecord;
+import com.dmv.model.reference.LicenseClassRecord;
+import com.dmv.model.reference.StateRecord;
+import com.dmv.service.ExternalDataService;
+import com.dmv.storage.CollectionChangedEvent;
+import com.dmv.storage.ReferenceDataSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataRepositoryTest {
+
+    @Mock
+    private ExternalDataService externalDataService;
+
+    private ReferenceDataRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ReferenceDataRepository(externalDataService);
+    }
+
+    @Test
+    void testStatesAreBoundOnceIntoTypedRecords() {
+        // Given
+        Map<String, Object> california = new HashMap<>();
+        california.put("code", "CA");
+        california.put("name", "California");
+        california.put("renewalFee", 35.0);
+        california.put("maxRenewalYears", 5);
+        california.put("specialRequirements", List.of("vision_test"));
+        california.put("dmv", Map.of("onlineRenewalAvailable", true, "lateFee", 15));
+        when(externalDataService.findByCollection("states")).thenReturn(List.of(california, Map.of("code", "TX")));
+
+        // When
+        StateRecord state = repository.findState("CA").orElseThrow();
+        StateRecord texas = repository.findState("TX").orElseThrow();
+
+        // Then
+        assertEquals("California", state.name());
+        assertEquals(35.0, state.renewalFee());
+        assertEquals(5, state.maxRenewalYears());
+        assertEquals(List.of("vision_test"), state.specialRequirements());
+        assertTrue(state.onlineRenewalAvailable());
+        assertEquals(15.0, state.lateFee());
+        assertFalse(texas.onlineRenewalAvailable());
+        assertEquals(0.0, texas.lateFee());
+        assertTrue(repository.findState("XX").isEmpty());
+        verify(externalDataService, times(1)).findByCollection("states");
+    }
+
+    @Test
+    void testLicenseClassesFlattenNestedFeesAndTestRequirements() {
+        // Given
+        Map<String, Object> classC = new HashMap<>();
+        classC.put("class", "CLASS_C");
+        classC.put("minAge", 16);
+        classC.put("maxAge", null);
+        classC.put("testRequirements", Map.of("driving", true));
+        classC.put("fee", Map.of("base", 35.0, "senior", 25.0, "veteran", 30.0));
+        when(externalDataService.findByCollection("license-classes")).thenReturn(List.of(classC));
+
+        // When
+        LicenseClassRecord licenseClass = repository.findLicenseClass("CLASS_C").orElseThrow();
+
+        // Then
+        assertEquals(16, licenseClass.minAge());
+        assertFalse(licenseClass.hasMaxAge());
+        assertTrue(licenseClass.drivingTestRequired());
+        assertEquals(35.0, licenseClass.baseFee());
+        assertEquals(25.0, licenseClass.seniorFee());
+        assertEquals(0.0, licenseClass.renewalFee());
+    }
+
+    @Test
+    void testFeeSchedulesAreGroupedByType() {
+        // Given
+        when(externalDataService.findByCollection("fee-schedules")).thenReturn(List.of(
+            Map.of("type", "renewal", "ageGroup", "standard", "totalFee", 42.5, "validFrom", "2024-01-01"),
+            Map.of("type", "replacement", "totalFee", 35.5, "validFrom", "not-a-date"),
+            Map.of("type", "renewal", "ageGroup", "senior", "totalFee", 32.5)));
+
+        // When
+        List<FeeScheduleRecord> renewals = repository.findFeeSchedulesByType("renewal");
+
+        // Then
+        assertEquals(2, renewals.size());
+        assertEquals("standard", renewals.get(0).ageGroup());
+        assertEquals(42.5, renewals.get(0).totalFee());
+        assertEquals(LocalDate.of(2024, 1, 1), renewals.get(0).validFrom());
+        assertNull(repository.findFeeSchedulesByType("replacement").get(0).validFrom());
+        assertTrue(repository.findFeeSchedulesByType("unknown").isEmpty());
+        assertEquals(3, repository.findAllFeeSchedules().size());
+    }
+
+    @Test
+    void testFeeScheduleAsOfDateFallsBackToAnySchedules() {
+        // Given
+        when(externalDataService.findByCollection("fee-schedules")).thenReturn(List.of(
+            Map.of("type", "renewal", "licenseClass", "CLASS_C", "ageGroup", "standard", "totalFee", 42.5,
+                "validFrom", "2024-01-01", "validUntil", "2024-12-31"),
+            Map.of("type", "renewal", "licenseClass", "CLASS_C", "ageGroup", "standard", "totalFee", 45.0,
+                "validFrom", "2025-01-01"),
+            Map.of("type", "replacement", "licenseClass", "any", "ageGroup", "any", "totalFee", 35.5,
+                "validFrom", "2024-01-01", "validUntil", "2024-12-31")));
+
+        // When
+        FeeScheduleRecord historical = repository.findFeeSchedule("renewal", "CLASS_C", "standard",
+            LocalDate.of(2024, 6, 1)).orElseThrow();
+        FeeScheduleRecord current = repository.findFeeSchedule("renewal", "CLASS_C", "standard",
+            LocalDate.of(2026, 6, 1)).orElseThrow();
+
+        // Then
+        assertEquals(42.5, historical.totalFee());
+        assertEquals(45.0, current.totalFee());
+        assertTrue(repository.findFeeSchedule("renewal", "CLASS_C", "standard", LocalDate.of(2023, 6, 1)).isEmpty());
+        assertEquals(35.5, repository.findFeeSchedule("replacement", "CLASS_M", "senior",
+            LocalDate.of(2024, 6, 1)).orElseThrow().totalFee());
+        assertTrue(repository.findFeeSchedule("replacement", "CLASS_M", "senior", LocalDate.of(2025, 6, 1)).isEmpty());
+        assertEquals(1, repository.findFeeSchedulesByType("renewal", LocalDate.of(2024, 6, 1)).size());
+    }
+
+    @Test
+    void testCollectionChangedEventRebindsOnlyThatCollection() {
+        // Given
+        when(externalDataService.findByCollection("states"))
+            .thenReturn(List.of(Map.of("code", "CA", "renewalFee", 35.0)))
+            .thenReturn(List.of(Map.of("code", "CA", "renewalFee", 40.0)));
+        when(externalDataService.findByCollection("license-classes"))
+            .thenReturn(List.of(Map.of("class", "CLASS_C")));
+        repository.findState("CA");
+        repository.findLicenseClass("CLASS_C");
+
+        // When
+        repository.onCollectionChanged(new CollectionChangedEvent(this, "states", 1));
+
+        // Then
+        assertEquals(40.0, repository.findState("CA").orElseThrow().renewalFee());
+        repository.findLicenseClass("CLASS_C");
+        verify(externalDataService, times(2)).findByCollection("states");
+        verify(externalDataService, times(1)).findByCollection("license-classes");
+    }
+
+    @Test
+    void testPinnedViewsBindTheirVersionOnceAndIgnoreTheSharedRecords() {
+        // Given - the shared records and version 7 disagree
+        ExternalDataService firstSession = mock(ExternalDataService.class);
+        ExternalDataService secondSession = mock(ExternalDataService.class);
+        ReferenceDataSnapshot version7 = pinnedVersion(7, true);
+        when(externalDataService.findByCollection("states"))
+            .thenReturn(List.of(Map.of("code", "CA", "renewalFee", 40.0)));
+        when(firstSession.findByCollection("states"))
+            .thenReturn(List.of(Map.of("code", "CA", "renewalFee", 35.0)));
+
+        // When
+        double shared = repository.findState("CA").orElseThrow().renewalFee();
+        double first = repository.pinnedTo(version7, firstSession).findState("CA").orElseThrow().renewalFee();
+        double second = repository.pinnedTo(version7, secondSession).findState("CA").orElseThrow().renewalFee();
+
+        // Then - the second session of version 7 reuses the records bound by the first
+        assertEquals(40.0, shared);
+        assertEquals(35.0, first);
+        assertEquals(35.0, second);
+        verifyNoInteractions(secondSession);
+        ReferenceDataSnapshot version8 = mock(ReferenceDataSnapshot.class);
+        assertThrows(IllegalStateException.class,
+            () -> repository.pinnedTo(version7, firstSession).pinnedTo(version8, firstSession));
+    }
+
+    @Test
+    void testCollectionsLoadedAfterTheVersionAreBoundPerView() {
+        // Given - version 7 lacked states, so each session loaded its own copy of the file
+        ExternalDataService firstSession = mock(ExternalDataService.class);
+        ExternalDataService secondSession = mock(ExternalDataService.class);
+        when(firstSession.findByCollection("states"))
+            .thenReturn(List.of(Map.of("code", "CA", "renewalFee", 35.0)));
+        when(secondSession.findByCollection("states"))
+            .thenReturn(List.of(Map.of("code", "CA", "renewalFee", 40.0)));
+
+        // When
+        double first = repository.pinnedTo(pinnedVersion(7, false), firstSession)
+            .findState("CA").orElseThrow().renewalFee();
+        double second = repository.pinnedTo(pinnedVersion(7, false), secondSession)
+            .findState("CA").orElseThrow().renewalFee();
+
+        // Then - each session sees the rows its own source returned
+        assertEquals(35.0, first);
+        assertEquals(40.0, second);
+        verify(secondSession).findByCollection("states");
+    }
+
+    private static ReferenceDataSnapshot pinnedVersion(long number, boolean holdsStates) {
+        ReferenceDataSnapshot snapshot = mock(ReferenceDataSnapshot.class);
+        when(snapshot.getVersion()).thenReturn(number);
+        when(snapshot.isHeldByVersion("states")).thenReturn(holdsStates);
+        return snapshot;
+    }
+}
@@ -0,0 +1,54 @@
+package com.dmv.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemporalIndexTest {
+
+    private record Version(String key, String label, LocalDate from, LocalDate until) {
+    }
+
+    @Test
+    void testAsOfPicksTheVersionInForce() {
+        // Given - listed out of order, with a gap in July and an open-ended 2025 version
+        TemporalIndex<Version> index = TemporalIndex.of(List.of(
+                new Version("renewal", "2025", LocalDate.of(2025, 1, 1), null),
+                new Version("renewal", "h1", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 6, 30)),
+                new Version("renewal", "h2", LocalDate.of(2024, 8, 1), LocalDate.of(2024, 12, 31)),
+                new Version("other", "legacy", null, LocalDate.of(2023, 12, 31))),
+            Version::key, Version::from, Version::until);
+
+        // Then
+        assertEquals("h1", label(index, "renewal", LocalDate.of(2024, 1, 1)));
+        assertEquals("h1", label(index, "renewal", LocalDate.of(2024, 6, 30)));
+        assertNull(label(index, "renewal", LocalDate.of(2024, 7, 15)));
+        assertEquals("h2", label(index, "renewal", LocalDate.of(2024, 12, 31)));
+        assertEquals("2025", label(index, "renewal", LocalDate.of(2030, 1, 1)));
+        assertNull(label(index, "renewal", LocalDate.of(2023, 12, 31)));
+        assertEquals("legacy", label(index, "other", LocalDate.of(1999, 1, 1)));
+        assertNull(label(index, "unknown", LocalDate.of(2024, 1, 1)));
+    }
+
+    @Test
+    void testOverlappingVersionsPreferTheLatestStart() {
+        // Given - a long-running schedule with a short promotional override inside it
+        TemporalIndex<Version> index = TemporalIndex.of(List.of(
+                new Version("renewal", "base", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)),
+                new Version("renewal", "promo", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)),
+                new Version("renewal", "correction", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 10))),
+            Version::key, Version::from, Version::until);
+
+        // Then
+        assertEquals("correction", label(index, "renewal", LocalDate.of(2024, 3, 5)));
+        assertEquals("promo", label(index, "renewal", LocalDate.of(2024, 3, 20)));
+        assertEquals("base", label(index, "renewal", LocalDate.of(2024, 5, 1)));
+    }
+
+    private static String label(TemporalIndex<Version> index, String key, LocalDate date) {
+        return index.asOf(key, date).map(Version::label).orElse(null);
+    }
+}
@@ -1,17 +1,30 @@
 package com.dmv.service;
 
+import com.dmv.cache.AdmissionPolicy;
+import com.dmv.cache.CacheKey;
+import com.dmv.cache.CollectionKeyIndex;
 import com.dmv.cache.MemoryCacheLayer;
 import com.dmv.cache.NetworkCacheLayer;
+import com.dmv.cache.OffHeapCacheLayer;
+import com.dmv.exception.ExternalDataLoadException;
 import com.dmv.model.CacheStatistics;
+import com.dmv.repository.ReferenceDataRepository;
 import com.dmv.service.impl.ExternalDataServiceImpl;
+import com.dmv.storage.CollectionChangedEvent;
+import com.dmv.storage.CollectionDiff;
 import com.dmv.storage.JsonFileStorageService;
+import com.dmv.storage.KeyPath;
+import com.dmv.storage.ReferenceDataSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -140,12 +153,126 @@ class ExternalDataServiceTest {
 
     @Test
     void testInvalidateCache() {
+        // Given - one cached lookup in each of two collections
+        when(memoryCache.get(anyString())).thenReturn(Optional.empty());
+        when(networkCache.get(anyString())).thenReturn(Optional.empty());
+        when(jsonStorage.findByKey("states", "code", "CA")).thenReturn(createSampleStateData());
+        when(jsonStorage.loadCollection("fee-schedules")).thenReturn(createSampleFeeData());
+        externalDataService.findByCollectionAndKey("states", "code", "CA");
+        externalDataService.findByCollection("fee-schedules");
+
         // When
         externalDataService.invalidateCache("states");
 
+        // Then - only the states key is evicted
+        verify(memoryCache).invalidateAll(Set.of("states:code=CA"));
+        verify(networkCache).invalidateAll(Set.of("states:code=CA"));
+        verify(memoryCache, never()).invalidateAll();
+        verify(networkCache, never()).invalidateAll();
+    }
+
+    @Test
+    void testAdmittedCollectionsAreServedFromMemoryInFrontOfOffHeap() {
+        // Given - the collection is only off-heap so far
+        OffHeapCacheLayer offHeapCache = new OffHeapCacheLayer(new ObjectMapper(), true, 1 << 20);
+        ExternalDataService service = new ExternalDataServiceImpl(memoryCache, networkCache, offHeapCache, jsonStorage,
+            new CollectionKeyIndex(), null, null, AdmissionPolicy.ALWAYS, AdmissionPolicy.ALWAYS, null);
+        String key = CacheKey.collection("states").toString();
+        offHeapCache.put(key, createSampleStateData());
+        when(memoryCache.get(key)).thenReturn(Optional.empty());
+
+        // When
+        List<Map<String, Object>> first = service.findByCollection("states");
+
+        // Then - the deserialized rows were promoted to memory
+        ArgumentCaptor<Object> promoted = ArgumentCaptor.forClass(Object.class);
+        verify(memoryCache).put(eq(key), promoted.capture());
+        assertEquals(first, promoted.getValue());
+        assertEquals(1, offHeapCache.getStats().getHitCount());
+
+        // When the collection is read again
+        when(memoryCache.get(key)).thenReturn(Optional.of(promoted.getValue()));
+        List<Map<String, Object>> second = service.findByCollection("states");
+
+        // Then - memory answered without deserializing the off-heap copy again
+        assertSame(promoted.getValue(), second);
+        assertEquals(1, offHeapCache.getStats().getHitCount());
+        verify(networkCache, never()).get(anyString());
+    }
+
+    @Test
+    void testExplicitInvalidationMakesTheReferenceRepositoryRebind() {
+        // Given - a repository over the service, told about invalidations as the application context would
+        AtomicReference<ReferenceDataRepository> repository = new AtomicReference<>();
+        ExternalDataService service = new ExternalDataServiceImpl(memoryCache, networkCache, null, jsonStorage,
+            new CollectionKeyIndex(), null, null, AdmissionPolicy.ALWAYS, AdmissionPolicy.ALWAYS,
+            event -> repository.get().onCacheInvalidated((CacheInvalidatedEvent) event));
+        repository.set(new ReferenceDataRepository(service));
+        when(memoryCache.get(anyString())).thenReturn(Optional.empty());
+        when(networkCache.get(anyString())).thenReturn(Optional.empty());
+        when(jsonStorage.loadCollection("states"))
+            .thenReturn(List.of(Map.of("code", "CA", "renewalFee", 35.0)))
+            .thenReturn(List.of(Map.of("code", "CA", "renewalFee", 40.0)));
+        assertEquals(35.0, repository.get().findState("CA").orElseThrow().renewalFee());
+        assertEquals(35.0, repository.get().findState("CA").orElseThrow().renewalFee());
+
+        // When
+        service.invalidateCache("states");
+
+        // Then - the bound records were dropped and rebound from the new rows
+        assertEquals(40.0, repository.get().findState("CA").orElseThrow().renewalFee());
+        verify(jsonStorage, times(2)).loadCollection("states");
+
+        // When every cache is invalidated
+        service.invalidateAllCaches();
+
         // Then
-        verify(memoryCache).invalidateAll();
-        verify(networkCache).invalidateAll();
+        repository.get().findState("CA");
+        verify(jsonStorage, times(3)).loadCollection("states");
+    }
+
+    @Test
+    void testCollectionChangedEventInvalidatesOnlyThatCollection() {
+        // Given
+        when(memoryCache.get(anyString())).thenReturn(Optional.empty());
+        when(networkCache.get(anyString())).thenReturn(Optional.empty());
+        when(jsonStorage.findByKey("states", "code", "CA")).thenReturn(createSampleStateData());
+        when(jsonStorage.loadCollection("fee-schedules")).thenReturn(createSampleFeeData());
+        externalDataService.findByCollectionAndKey("states", "code", "CA");
+        externalDataService.findByCollection("fee-schedules");
+
+        // When
+        ((ExternalDataServiceImpl) externalDataService).onCollectionChanged(
+            new CollectionChangedEvent(this, "fee-schedules", 1));
+
+        // Then
+        verify(memoryCache).invalidateAll(Set.of("COLLECTION:fee-schedules"));
+        verify(networkCache).invalidateAll(Set.of("COLLECTION:fee-schedules"));
+        verify(memoryCache, never()).invalidateAll(Set.of("states:code=CA"));
+    }
+
+    @Test
+    void testCollectionDiffInvalidatesOnlyAffectedKeys() {
+        // Given
+        Map<String, Object> newYork = Map.of("code", "NY", "name", "New York");
+        when(memoryCache.get(anyString())).thenReturn(Optional.empty());
+        when(networkCache.get(anyString())).thenReturn(Optional.empty());
+        when(jsonStorage.findByKey("states", "code", "CA")).thenReturn(createSampleStateData());
+        when(jsonStorage.findByKey("states", "code", "NY")).thenReturn(List.of(newYork));
+        externalDataService.findByCollectionAndKey("states", "code", "CA");
+        externalDataService.findByCollectionAndKey("states", "code", "NY");
+        CollectionDiff diff = CollectionDiff.compute("states", List.of(KeyPath.of("code")),
+            List.of(createSampleStateData().get(0), newYork),
+            List.of(createSampleStateData().get(0), Map.of("code", "NY", "name", "New York State")));
+
+        // When
+        ((ExternalDataServiceImpl) externalDataService).onCollectionChanged(new CollectionChangedEvent(this, diff));
+
+        // Then - only the lookup that can see the changed record is dropped
+        assertEquals(1, diff.getChanged().size());
+        verify(memoryCache).invalidateAll(Set.of("states:code=NY"));
+        verify(networkCache).invalidateAll(Set.of("states:code=NY"));
+        verify(memoryCache, never()).invalidateAll(Set.of("states:code=CA"));
     }
 
     @Test
@@ -175,7 +302,53 @@ class ExternalDataServiceTest {
         assertEquals(30, stats.getTotalHitCount()); // 10 + 20
         assertEquals(15, stats.getTotalMissCount()); // 5 + 10
         assertEquals(7, stats.getTotalEvictionCount()); // 2 + 5
-        assertEquals(2, stats.getLayerStats().size());
+        assertEquals(3, stats.getLayerStats().size()); // memory, network, pinned snapshot
+    }
+
+    @Test
+    void testPinnedLookupsAreCountedInCacheStatistics() {
+        // Given
+        ReferenceDataSnapshot snapshot = mock(ReferenceDataSnapshot.class);
+        when(snapshot.isResident("states")).thenReturn(true);
+        when(snapshot.findByKey("states", "code", "CA")).thenReturn(createSampleStateData());
+        when(memoryCache.getStats()).thenReturn(new com.dmv.cache.CacheStats("memoryCache", 0, 0, 0, 0, 0));
+        when(networkCache.getStats()).thenReturn(new com.dmv.cache.CacheStats("networkCache", 0, 0, 0, 0, 0));
+
+        // When
+        ExternalDataService pinned = externalDataService.pinnedTo(snapshot);
+        pinned.findByCollectionAndKey("states", "code", "CA");
+        pinned.findByCollectionAndKey("states", "code", "CA");
+
+        // Then
+        CacheStatistics stats = externalDataService.getCacheStatistics();
+        com.dmv.cache.CacheStats pinnedStats = stats.getLayerStats().stream()
+            .filter(layer -> layer.getCacheName().equals("pinnedSnapshot"))
+            .findFirst().orElseThrow();
+        assertEquals(2, pinnedStats.getHitCount());
+        assertEquals(2, stats.getTotalHitCount());
+        verify(memoryCache, never()).get(anyString());
+    }
+
+    @Test
+    void testPinnedLookupOfUnloadableCollectionFallsBackToSharedService() {
+        // Given
+        List<Map<String, Object>> stale = createSampleFeeData();
+        ReferenceDataSnapshot snapshot = mock(ReferenceDataSnapshot.class);
+        when(snapshot.isResident("fees"))
+            .thenThrow(new ExternalDataLoadException("fees", new RuntimeException("Unexpected end of input")));
+        when(memoryCache.get(anyString())).thenReturn(Optional.of(stale));
+
+        // When
+        ExternalDataService pinned = externalDataService.pinnedTo(snapshot);
+        List<Map<String, Object>> first = pinned.findByCollectionAndKey("fees", "type", "renewal");
+        List<Map<String, Object>> second = pinned.findByCollectionAndKey("fees", "type", "renewal");
+
+        // Then
+        assertEquals(stale, first);
+        assertSame(first, second);
+        verify(snapshot, times(1)).isResident("fees");
+        verify(memoryCache, times(1)).get(anyString());
+        assertThrows(IllegalStateException.class, () -> pinned.pinnedTo(snapshot));
     }
 
     @Test
@@ -211,6 +384,40 @@ class ExternalDataServiceTest {
         verify(memoryCache).put(anyString(), eq(data));
     }
 
+    @Test
+    void testFindByCollectionAndKeysResolvesEachTierInBulk() {
+        // Given - CA in memory, NY in the network tier, TX in storage, ZZ nowhere
+        String ca = CacheKey.lookup("states", "code", "CA").toString();
+        String ny = CacheKey.lookup("states", "code", "NY").toString();
+        List<Map<String, Object>> caRows = List.of(Map.of("code", "CA"));
+        List<Map<String, Object>> nyRows = List.of(Map.of("code", "NY"));
+        Map<Object, List<Map<String, Object>>> stored = new LinkedHashMap<>();
+        stored.put("TX", List.of(Map.of("code", "TX")));
+        stored.put("ZZ", List.of());
+        when(memoryCache.getAll(anyCollection())).thenReturn(Map.of(ca, caRows));
+        when(networkCache.getAll(anyCollection())).thenReturn(Map.of(ny, nyRows));
+        when(jsonStorage.findByKeys(eq("states"), eq("code"), anyCollection())).thenReturn(stored);
+
+        // When
+        Map<Object, List<Map<String, Object>>> result = externalDataService.findByCollectionAndKeys(
+            "states", "code", new LinkedHashSet<>(List.of("CA", "NY", "TX", "ZZ")));
+
+        // Then
+        assertEquals(List.of("CA", "NY", "TX", "ZZ"), new ArrayList<>(result.keySet()));
+        assertEquals(caRows, result.get("CA"));
+        assertEquals(nyRows, result.get("NY"));
+        assertEquals("TX", result.get("TX").get(0).get("code"));
+        assertTrue(result.get("ZZ").isEmpty());
+        verify(memoryCache, times(1)).getAll(argThat(keys -> keys.size() == 4));
+        verify(networkCache, times(1)).getAll(argThat(keys -> keys.size() == 3 && !keys.contains(ca)));
+        verify(jsonStorage, times(1)).findByKeys(eq("states"), eq("code"),
+            argThat(values -> values.size() == 2 && values.containsAll(List.of("TX", "ZZ"))));
+        verify(memoryCache, never()).get(anyString());
+        verify(networkCache, never()).get(anyString());
+        verify(jsonStorage, never()).findByKey(anyString(), anyString(), any());
+        verify(networkCache).putAll(argThat(values -> values.size() == 1));
+    }
+
     private List<Map<String, Object>> createSampleStateData() {
         Map<String, Object> state = new HashMap<>();
         state.put("code", "CA");
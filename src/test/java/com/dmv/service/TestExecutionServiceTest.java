@@ -2,12 +2,23 @@ package com.dmv.service;
 
 import com.dmv.model.*;
 import com.dmv.model.builder.LicenseRenewalRequestBuilder;
+import com.dmv.service.impl.JsonFactsConverterServiceImpl;
+import com.dmv.service.impl.TestExecutionServiceImpl;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 class TestExecutionServiceTest {
 
@@ -154,4 +165,163 @@ class TestExecutionServiceTest {
         assertEquals(60, config.getDurationSeconds());
         assertEquals(10, config.getRampUpSeconds());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParallelBatchKeepsOrderAndIsolatesSharedFacts() {
+        // Given - eight scenarios sharing one fact instance, 50ms of rule execution each, 4 threads
+        RulesManagementService rulesManagementService = mock(RulesManagementService.class);
+        Set<Object> factsSeen = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        when(rulesManagementService.executeRules(anyList())).thenAnswer(invocation -> {
+            List<Object> facts = invocation.getArgument(0);
+            factsSeen.addAll(facts);
+            Thread.sleep(50);
+            RuleExecutionResult result = new RuleExecutionResult();
+            result.setSuccess(true);
+            return result;
+        });
+        TestExecutionServiceImpl service = new TestExecutionServiceImpl(
+            rulesManagementService, new JsonFactsConverterServiceImpl(), 1000, 4);
+        LicenseRenewalRequest sharedFact = LicenseRenewalRequestBuilder.createValidAdultRenewal();
+        List<TestScenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            TestScenario scenario = new TestScenario("scenario-" + i, "Shares its fact");
+            scenario.addInputFact(sharedFact);
+            scenarios.add(scenario);
+        }
+
+        try {
+            // When
+            BatchTestResult result = service.executeBatchTests(scenarios);
+
+            // Then
+            for (int i = 0; i < 8; i++) {
+                assertEquals("scenario-" + i, result.getTestResults().get(i).getScenarioName());
+                assertTrue(result.getTestResults().get(i).getExecutionDurationMs() >= 50);
+            }
+            assertEquals(8, factsSeen.size());
+            assertFalse(factsSeen.contains(sharedFact));
+            assertEquals(4, result.getAggregatedMetrics().get("parallelism"));
+            assertTrue((double) result.getAggregatedMetrics().get("summedScenarioTimeMs") >= 400);
+            assertTrue((double) result.getAggregatedMetrics().get("concurrency") > 1.5);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testLoadSimulationGivesEveryExecutionItsOwnFacts() {
+        // Given - four users each running a saved scenario five times; rules rewrite the fact
+        RulesManagementService rulesManagementService = mock(RulesManagementService.class);
+        Set<Object> factsSeen = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        AtomicInteger clobbered = new AtomicInteger();
+        when(rulesManagementService.executeRules(anyList())).thenAnswer(invocation -> {
+            LicenseRenewalRequest fact = (LicenseRenewalRequest) invocation.<List<Object>>getArgument(0).get(0);
+            factsSeen.add(fact);
+            String mine = Thread.currentThread().getName();
+            fact.setApplicantId(mine);
+            Thread.sleep(5);
+            if (!mine.equals(fact.getApplicantId())) {
+                clobbered.incrementAndGet();
+            }
+            RuleExecutionResult result = new RuleExecutionResult();
+            result.setSuccess(true);
+            return result;
+        });
+        TestExecutionServiceImpl service = new TestExecutionServiceImpl(
+            rulesManagementService, new JsonFactsConverterServiceImpl(), 1000, 1);
+        LicenseRenewalRequest savedFact = LicenseRenewalRequestBuilder.createValidAdultRenewal();
+        String savedApplicant = savedFact.getApplicantId();
+        TestScenario scenario = new TestScenario("shared-load", "Rules rewrite the applicant");
+        scenario.addInputFact(savedFact);
+        service.saveTestScenario(scenario, "shared-load");
+        LoadTestConfig config = new LoadTestConfig(4, 0);
+        config.setRampUpSeconds(0);
+        config.setRequestsPerSecond(5);
+        config.setTestScenario("shared-load");
+
+        try {
+            // When
+            SimulationResult result = service.simulateLoad(config);
+
+            // Then
+            assertEquals(20, result.getTotalExecutions());
+            assertEquals(20, result.getSuccessfulExecutions());
+            assertEquals(20, factsSeen.size());
+            assertFalse(factsSeen.contains(savedFact));
+            assertEquals(0, clobbered.get());
+            assertEquals(savedApplicant, savedFact.getApplicantId());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testScenariosWithUncopyableSharedFactsRunOnTheirOwn() {
+        // Given - two scenarios share a fact that cannot be copied, two share one that can
+        RulesManagementService rulesManagementService = mock(RulesManagementService.class);
+        Set<Object> factsSeen = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        when(rulesManagementService.executeRules(anyList())).thenAnswer(invocation -> {
+            factsSeen.addAll(invocation.<List<Object>>getArgument(0));
+            RuleExecutionResult result = new RuleExecutionResult();
+            result.setSuccess(true);
+            return result;
+        });
+        TestExecutionServiceImpl service = new TestExecutionServiceImpl(
+            rulesManagementService, new JsonFactsConverterServiceImpl(), 1000, 4);
+        UncopyableFact uncopyable = new UncopyableFact();
+        LicenseRenewalRequest copyable = LicenseRenewalRequestBuilder.createValidAdultRenewal();
+        List<TestScenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            TestScenario scenario = new TestScenario("scenario-" + i, "Shares its fact");
+            scenario.addInputFact(i % 2 == 0 ? uncopyable : copyable);
+            scenarios.add(scenario);
+        }
+
+        try {
+            // When
+            BatchTestResult result = service.executeBatchTests(scenarios);
+
+            // Then - every scenario ran, in order; only the copyable fact was copied
+            for (int i = 0; i < 4; i++) {
+                assertEquals("scenario-" + i, result.getTestResults().get(i).getScenarioName());
+                assertTrue(result.getTestResults().get(i).isSuccess());
+            }
+            assertTrue(factsSeen.contains(uncopyable));
+            assertFalse(factsSeen.contains(copyable));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testLoadSimulationWithUncopyableFactsIsRejected() {
+        // Given
+        RulesManagementService rulesManagementService = mock(RulesManagementService.class);
+        TestExecutionServiceImpl service = new TestExecutionServiceImpl(
+            rulesManagementService, new JsonFactsConverterServiceImpl(), 1000, 1);
+        TestScenario scenario = new TestScenario("uncopyable-load", "Its fact cannot be copied");
+        scenario.addInputFact(new UncopyableFact());
+        service.saveTestScenario(scenario, "uncopyable-load");
+        LoadTestConfig config = new LoadTestConfig(2, 0);
+        config.setTestScenario("uncopyable-load");
+
+        try {
+            // When
+            SimulationResult result = service.simulateLoad(config);
+
+            // Then
+            assertTrue(result.getErrorMessage().startsWith("Cannot copy UncopyableFact fact"));
+            assertEquals(0, result.getTotalExecutions());
+            verifyNoInteractions(rulesManagementService);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    // Serializing it fails, so it cannot be copied through JSON
+    public static class UncopyableFact {
+        public String getValue() {
+            throw new IllegalStateException("Not serializable");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.dmv.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectionWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JsonFileStorageService jsonStorage;
+    private CollectionWatcher watcher;
+    private final List<CollectionChangedEvent> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.write(tempDir.resolve("states.json"), "[{\"code\":\"CA\",\"name\":\"California\"}]".getBytes());
+        Files.write(tempDir.resolve("license-classes.json"), "[{\"class\":\"CLASS_C\"}]".getBytes());
+        jsonStorage = new JsonFileStorageService(new ObjectMapper(), tempDir.toString());
+        watcher = new CollectionWatcher(jsonStorage, event -> events.add((CollectionChangedEvent) event),
+                                        true, Duration.ofMillis(100));
+        watcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.stop();
+    }
+
+    @Test
+    void testBurstOfWritesReloadsOnlyTheChangedCollectionOnce() throws Exception {
+        // Given
+        List<Map<String, Object>> states = jsonStorage.loadCollection("states");
+        List<Map<String, Object>> licenseClasses = jsonStorage.loadCollection("license-classes");
+
+        // When - several quick writes to the same file
+        for (int i = 1; i <= 5; i++) {
+            Files.write(tempDir.resolve("states.json"),
+                        ("[{\"code\":\"CA\",\"name\":\"California v" + i + "\"}]").getBytes());
+            Thread.sleep(10);
+        }
+
+        // Then
+        awaitEvents(1);
+        Thread.sleep(300);
+        assertEquals(1, events.size());
+        assertEquals("states", events.get(0).getCollection());
+        assertEquals(1, events.get(0).getRowCount());
+        assertNotSame(states, jsonStorage.loadCollection("states"));
+        assertEquals("California v5", jsonStorage.findByKey("states", "code", "CA").get(0).get("name"));
+        assertSame(licenseClasses, jsonStorage.loadCollection("license-classes"));
+    }
+
+    @Test
+    void testPreviousSnapshotServedUntilReloadCompletes() throws Exception {
+        // Given
+        List<Map<String, Object>> states = jsonStorage.loadCollection("states");
+
+        // When
+        Files.write(tempDir.resolve("states.json"), "[{\"code\":\"NY\"}]".getBytes());
+
+        // Then - still the old snapshot inside the debounce window, never an empty result
+        assertSame(states, jsonStorage.loadCollection("states"));
+        awaitEvents(1);
+        assertEquals("NY", jsonStorage.loadCollection("states").get(0).get("code"));
+    }
+
+    @Test
+    void testDeletedCollectionPublishesRemoval() throws Exception {
+        // Given
+        jsonStorage.loadCollection("license-classes");
+
+        // When
+        Files.delete(tempDir.resolve("license-classes.json"));
+
+        // Then
+        awaitEvents(1);
+        assertTrue(events.get(0).isRemoved());
+        assertTrue(jsonStorage.loadCollection("license-classes").isEmpty());
+    }
+
+    private void awaitEvents(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(events.size() >= count, "expected " + count + " change events but saw " + events);
+    }
+}
@@ -1,5 +1,6 @@
 package com.dmv.storage;
 
+import com.dmv.config.ExternalDataStorageProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -70,6 +72,20 @@ class JsonFileStorageServiceTest {
         assertEquals("California", result.get(0).get("name"));
     }
 
+    @Test
+    void testFindByKeysProbesEveryValue() {
+        // When
+        Map<Object, List<Map<String, Object>>> result = jsonFileStorageService.findByKeys("states", "code",
+            List.of("NY", "CA", "XX"));
+
+        // Then
+        assertEquals(List.of("NY", "CA", "XX"), List.copyOf(result.keySet()));
+        assertEquals("New York", result.get("NY").get(0).get("name"));
+        assertEquals("California", result.get("CA").get(0).get("name"));
+        assertTrue(result.get("XX").isEmpty());
+        assertTrue(jsonFileStorageService.findByKeys("nonexistent", "code", List.of("CA")).get("CA").isEmpty());
+    }
+
     @Test
     void testFindByKeyNoMatch() {
         // When
@@ -121,6 +137,291 @@ class JsonFileStorageServiceTest {
         assertEquals(2, result.size()); // Both license classes have fee.senior
     }
 
+    @Test
+    void testAbsentCollectionMarkerClearedWhenFileIsCreated() throws IOException, InterruptedException {
+        // Given
+        jsonFileStorageService.loadCollection("fee-schedules");
+        assertTrue(jsonFileStorageService.isCollectionAbsent("fee-schedules"));
+
+        // When
+        Files.write(tempDir.resolve("fee-schedules.json"), "[{\"type\":\"renewal\"}]".getBytes());
+
+        // Then - the watch event is picked up on a later lookup
+        long deadline = System.currentTimeMillis() + 5000;
+        while (jsonFileStorageService.isCollectionAbsent("fee-schedules") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(jsonFileStorageService.isCollectionAbsent("fee-schedules"));
+        assertEquals(1, jsonFileStorageService.loadCollection("fee-schedules").size());
+    }
+
+    @Test
+    void testLookupsReuseIndexedSnapshotUntilFileChanges() throws IOException, InterruptedException {
+        // Given
+        List<Map<String, Object>> first = jsonFileStorageService.findByKey("states", "code", "CA");
+
+        // When
+        List<Map<String, Object>> second = jsonFileStorageService.findByKey("states", "code", "CA");
+
+        // Then - served from the same parsed snapshot, without re-reading the file
+        assertEquals(1, first.size());
+        assertSame(first, second);
+        assertSame(jsonFileStorageService.loadCollection("states"), jsonFileStorageService.loadCollection("states"));
+        assertThrows(UnsupportedOperationException.class, () -> first.get(0).put("code", "XX"));
+
+        // When the file changes
+        Files.write(tempDir.resolve("states.json"), "[{\"code\":\"CA\",\"name\":\"California Modified\"}]".getBytes());
+
+        // Then - the watch event drops the snapshot and the next lookup sees the new content
+        long deadline = System.currentTimeMillis() + 5000;
+        List<Map<String, Object>> reloaded = jsonFileStorageService.findByKey("states", "code", "CA");
+        while (!"California Modified".equals(reloaded.get(0).get("name")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            reloaded = jsonFileStorageService.findByKey("states", "code", "CA");
+        }
+        assertEquals("California Modified", reloaded.get(0).get("name"));
+    }
+
+    @Test
+    void testPinnedSnapshotKeepsItsVersionAcrossReloads() throws IOException {
+        // Given
+        jsonFileStorageService.loadCollection("states");
+        ReferenceDataSnapshot pinned = jsonFileStorageService.pin();
+        long pinnedVersion = pinned.getVersion();
+
+        // When
+        Files.write(tempDir.resolve("states.json"), "[{\"code\":\"CA\",\"name\":\"California Modified\"}]".getBytes());
+        jsonFileStorageService.reloadCollection("states");
+
+        // Then - the pinned view still reads the old rows while new lookups see the reload
+        assertEquals("California", pinned.findByKey("states", "code", "CA").get(0).get("name"));
+        assertEquals(1, pinned.findByKey("states", "code", "NY").size());
+        assertEquals("California Modified",
+            jsonFileStorageService.findByKey("states", "code", "CA").get(0).get("name"));
+        assertTrue(jsonFileStorageService.getSnapshotVersion() > pinnedVersion);
+        assertEquals(1, jsonFileStorageService.getRetainedVersionCount());
+
+        // When the evaluation ends
+        pinned.close();
+
+        // Then - nothing holds the old version any more
+        assertEquals(0, jsonFileStorageService.getRetainedVersionCount());
+        assertThrows(IllegalStateException.class, () -> pinned.findByKey("states", "code", "CA"));
+    }
+
+    @Test
+    void testPinnedSnapshotLoadsMissingCollectionsOnce() throws IOException {
+        // Given
+        try (ReferenceDataSnapshot pinned = jsonFileStorageService.pin()) {
+            List<Map<String, Object>> first = pinned.loadCollection("states");
+
+            // When
+            Files.write(tempDir.resolve("states.json"), "[{\"code\":\"CA\",\"name\":\"California Modified\"}]".getBytes());
+            jsonFileStorageService.reloadCollection("states");
+
+            // Then - the collection loaded during the session stays as first seen
+            assertSame(first, pinned.loadCollection("states"));
+            assertTrue(pinned.findByKey("nonexistent", "code", "CA").isEmpty());
+        }
+        assertEquals(0, jsonFileStorageService.getRetainedVersionCount());
+    }
+
+    @Test
+    void testReloadDiffsRecordsByPrimaryKey() throws IOException {
+        // Given
+        ExternalDataStorageProperties properties = ExternalDataStorageProperties.forDirectory(tempDir.toString());
+        properties.setPrimaryKeys(List.of("states:code"));
+        JsonFileStorageService keyed = new JsonFileStorageService(objectMapper, properties);
+        keyed.loadCollection("states");
+        Files.write(tempDir.resolve("states.json"), """
+            [
+              {"code": "CA", "name": "California", "region": "West", "requiresVisionTest": true, "renewalFee": 40.0},
+              {"code": "TX", "name": "Texas"}
+            ]
+            """.getBytes());
+
+        // When
+        CollectionDiff diff = keyed.reloadCollectionWithDiff("states");
+
+        // Then
+        assertTrue(diff.isComplete());
+        assertEquals(2, diff.getRowCount());
+        assertEquals("TX", diff.getAdded().get(0).get("code"));
+        assertEquals("NY", diff.getRemoved().get(0).get("code"));
+        assertEquals(35.0, diff.getChanged().get(0).before().get("renewalFee"));
+        assertEquals(40.0, diff.getChanged().get(0).after().get("renewalFee"));
+        assertTrue(diff.affectsLookup("region", "Northeast"));
+        assertFalse(diff.affectsLookup("region", "South"));
+        assertFalse(diff.affectsKeyPath("specialRequirements"));
+
+        // Then - without a primary key the records cannot be matched
+        assertFalse(jsonFileStorageService.reloadCollectionWithDiff("states").isComplete());
+    }
+
+    @Test
+    void testShardedCollectionLoadsAsOne() throws IOException {
+        // Given
+        Files.writeString(tempDir.resolve("violations.part-000.ndjson"),
+            "{\"code\": \"V1\", \"points\": 2}\n{\"code\": \"V2\", \"points\": 4}\n");
+        Files.writeString(tempDir.resolve("violations.part-001.json"), "[{\"code\": \"V3\", \"points\": 4}]");
+
+        // When
+        List<Map<String, Object>> rows = jsonFileStorageService.loadCollection("violations");
+
+        // Then
+        assertEquals(List.of("V1", "V2", "V3"), rows.stream().map(row -> row.get("code")).toList());
+        assertEquals(2, jsonFileStorageService.findByKey("violations", "points", 4).size());
+        assertTrue(jsonFileStorageService.getAvailableCollections().contains("violations"));
+        assertFalse(jsonFileStorageService.getAvailableCollections().contains("violations.part-000"));
+        CollectionLoadStats stats = jsonFileStorageService.getLoadStats("violations").orElseThrow();
+        assertEquals(2, stats.files());
+        assertEquals(3, stats.rows());
+        assertTrue(jsonFileStorageService.getCollectionModificationTime("violations") > 0);
+    }
+
+    @Test
+    void testShardsAboveThresholdTogetherAreStreamed() throws IOException {
+        // Given - every shard is below the threshold, but not the collection as a whole
+        Path lines = Files.writeString(tempDir.resolve("violations.part-000.ndjson"),
+            "{\"code\": \"V1\", \"points\": 2}\n{\"code\": \"V2\", \"points\": 4}\n");
+        Path array = Files.writeString(tempDir.resolve("violations.part-001.json"), "[{\"code\": \"V3\", \"points\": 4}]");
+        long threshold = Math.max(Files.size(lines), Files.size(array));
+        JsonFileStorageService streaming = newStorage(threshold, null);
+
+        // When
+        List<Map<String, Object>> fourPoints = streaming.findByKey("violations", "points", 4);
+
+        // Then - both shards were scanned in order and nothing was kept resident
+        assertEquals(List.of("V2", "V3"), fourPoints.stream().map(row -> row.get("code")).toList());
+        assertEquals(3, streaming.findByKeyExists("violations", "code").size());
+        assertTrue(streaming.getIndexedKeyPaths("violations").isEmpty());
+        try (ReferenceDataSnapshot pinned = streaming.pin()) {
+            assertFalse(pinned.isResident("violations"));
+        }
+    }
+
+    @Test
+    void testStreamingScanMatchesSnapshotLookupsAboveThreshold() throws IOException {
+        // Given - a one-byte threshold sends every collection through the streaming scan
+        createMixedShapeFile();
+        JsonFileStorageService streaming =
+            newStorage(1, null);
+
+        // Then - streamed results match the in-memory snapshot for every query shape
+        assertSameLookupResults(streaming);
+        assertEquals(List.of(1), streaming.findByKey("mixed", "code", "CA").stream().map(r -> r.get("id")).toList());
+        assertTrue(streaming.findByKey("nonexistent", "code", "CA").isEmpty());
+    }
+
+    @Test
+    void testColumnarSnapshotMatchesParsedLookups() throws IOException {
+        // Given
+        createMixedShapeFile();
+        Path columnarDir = tempDir.resolve("columnar");
+        JsonFileStorageService mapped =
+            newStorage(0, columnarDir);
+
+        // Then - lookups answered from the mapped image match the parsed snapshot
+        assertSameLookupResults(mapped);
+        assertTrue(Files.exists(columnarDir.resolve("mixed.col")));
+        assertEquals(List.of(2), mapped.findByKey("mixed", "fee.base", 10.5).stream().map(r -> r.get("id")).toList());
+        assertTrue(mapped.findByKey("mixed", "fee.base", 10L).isEmpty());
+        assertTrue(mapped.findByKey("nonexistent", "code", "CA").isEmpty());
+    }
+
+    @Test
+    void testCollectionGenerationMovesOnlyWhenTheCollectionChanges() throws IOException {
+        // Given
+        long unloaded = jsonFileStorageService.getCollectionGeneration("states");
+        jsonFileStorageService.loadCollection("states");
+        long loaded = jsonFileStorageService.getCollectionGeneration("states");
+
+        // When another collection loads
+        jsonFileStorageService.loadCollection("license-classes");
+
+        // Then
+        assertNotEquals(unloaded, loaded);
+        assertEquals(loaded, jsonFileStorageService.getCollectionGeneration("states"));
+
+        // When the collection is reloaded, then dropped
+        Files.write(tempDir.resolve("states.json"), "[{\"code\":\"CA\"}]".getBytes());
+        jsonFileStorageService.reloadCollection("states");
+        long reloaded = jsonFileStorageService.getCollectionGeneration("states");
+        Files.delete(tempDir.resolve("states.json"));
+        jsonFileStorageService.reloadCollection("states");
+        long dropped = jsonFileStorageService.getCollectionGeneration("states");
+
+        // Then - every step is a new generation, including the drop back to not held
+        assertEquals(4, Set.of(unloaded, loaded, reloaded, dropped).size());
+    }
+
+    @Test
+    void testMappedLookupsAreDecodedOncePerVersion() throws IOException {
+        // Given
+        Path columnarDir = tempDir.resolve("columnar");
+        JsonFileStorageService mapped =
+            newStorage(0, columnarDir);
+        List<Map<String, Object>> first = mapped.findByKey("states", "code", "CA");
+
+        // When
+        try (ReferenceDataSnapshot pinned = mapped.pin()) {
+
+            // Then - the service and the pinned view share the decoded rows of the mapping
+            assertSame(first, mapped.findByKey("states", "code", "CA"));
+            assertSame(first, pinned.findByKey("states", "code", "CA"));
+            assertSame(pinned.loadCollection("states"), mapped.loadCollection("states"));
+            assertTrue(pinned.isResident("states"));
+        }
+
+        // When the source changes, the new mapping decodes afresh
+        Files.write(tempDir.resolve("states.json"), "[{\"code\":\"CA\",\"name\":\"California Modified\"}]".getBytes());
+        mapped.reloadCollection("states");
+        assertEquals("California Modified", mapped.findByKey("states", "code", "CA").get(0).get("name"));
+    }
+
+    @Test
+    void testStreamedCollectionIsNotResidentInAPinnedView() throws IOException {
+        // Given - a one-byte threshold streams every collection
+        JsonFileStorageService streaming =
+            newStorage(1, null);
+
+        // When
+        try (ReferenceDataSnapshot pinnedStreaming = streaming.pin();
+             ReferenceDataSnapshot pinned = jsonFileStorageService.pin()) {
+
+            // Then
+            assertFalse(pinnedStreaming.isResident("states"));
+            assertFalse(pinnedStreaming.isResident("nonexistent"));
+            assertTrue(pinned.isResident("states"));
+        }
+    }
+
+    @Test
+    void testColumnarSnapshotIsReusedUntilSourceChanges() throws IOException, InterruptedException {
+        // Given
+        Path columnarDir = tempDir.resolve("columnar");
+        newStorage(0, columnarDir).loadCollection("states");
+        Path image = columnarDir.resolve("states.col");
+        long compiledAt = Files.getLastModifiedTime(image).toMillis();
+        Thread.sleep(20);
+
+        // When - a new service maps the existing image instead of recompiling it
+        JsonFileStorageService restarted =
+            newStorage(0, columnarDir);
+
+        // Then
+        assertEquals("California", restarted.findByKey("states", "code", "CA").get(0).get("name"));
+        assertEquals(compiledAt, Files.getLastModifiedTime(image).toMillis());
+
+        // When the source changes
+        Files.write(tempDir.resolve("states.json"), "[{\"code\":\"CA\",\"name\":\"California Modified\"}]".getBytes());
+        assertEquals(1, restarted.reloadCollection("states"));
+
+        // Then - the image is recompiled from the new JSON
+        assertEquals("California Modified", restarted.findByKey("states", "code", "CA").get(0).get("name"));
+        assertTrue(restarted.findByKey("states", "code", "NY").isEmpty());
+    }
+
     @Test
     void testGetAvailableCollections() {
         // When
@@ -170,6 +471,45 @@ class JsonFileStorageServiceTest {
         assertEquals(tempDir.toString(), dataDir);
     }
 
+    // Every lookup shape must give the same answer as the default parsed-snapshot service
+    private JsonFileStorageService newStorage(long streamingThresholdBytes, Path columnarDir) throws IOException {
+        ExternalDataStorageProperties properties = ExternalDataStorageProperties.forDirectory(tempDir.toString());
+        properties.setStreamingThresholdBytes(streamingThresholdBytes);
+        if (columnarDir != null) {
+            properties.getColumnarSnapshot().setDirectory(columnarDir.toString());
+        }
+        return new JsonFileStorageService(objectMapper, properties);
+    }
+
+    private void assertSameLookupResults(JsonFileStorageService other) {
+        for (String collection : List.of("states", "license-classes", "mixed")) {
+            for (String key : List.of("code", "fee.base", "fee.senior", "fee", "missing.path")) {
+                assertEquals(jsonFileStorageService.findByKeyExists(collection, key),
+                    other.findByKeyExists(collection, key), collection + " exists " + key);
+                List<Object> values = Arrays.asList("CA", "NY", 10, 10.5, 35.0, null);
+                Map<Object, List<Map<String, Object>>> bulk = other.findByKeys(collection, key, values);
+                for (Object value : values) {
+                    assertEquals(jsonFileStorageService.findByKey(collection, key, value),
+                        other.findByKey(collection, key, value), collection + " " + key + "=" + value);
+                    assertEquals(jsonFileStorageService.findByKey(collection, key, value),
+                        bulk.get(value), collection + " bulk " + key + "=" + value);
+                }
+            }
+            assertEquals(jsonFileStorageService.loadCollection(collection), other.loadCollection(collection));
+        }
+    }
+
+    private void createMixedShapeFile() throws IOException {
+        Files.write(tempDir.resolve("mixed.json"), """
+            [
+              {"id": 1, "tags": [{"code": "CA"}], "code": "CA", "fee": {"base": 10}},
+              {"id": 2, "code": null, "fee": {"base": 10.5, "extra": {"base": 10}}},
+              {"id": 3, "fee": [1, 2], "note": {"code": "CA"}, "empty": {}},
+              {"id": 4, "code": "NY", "fee": {"base": null}, "big": 12345678901234567890}
+            ]
+            """.getBytes());
+    }
+
     private void createTestStateFile() throws IOException {
         String statesJson = """
             [
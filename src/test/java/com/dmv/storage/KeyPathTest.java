@@ -0,0 +1,59 @@
+package com.dmv.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyPathTest {
+
+    @Test
+    void testPathsAreParsedOnceAndShared() {
+        // When
+        KeyPath first = KeyPath.of("dmv.lateFee");
+        KeyPath second = KeyPath.of("dmv.lateFee");
+
+        // Then
+        assertSame(first, second);
+        assertTrue(first.isNested());
+        assertEquals(2, first.depth());
+        assertEquals("lateFee", first.segment(1));
+        assertFalse(KeyPath.of("code").isNested());
+    }
+
+    @Test
+    void testWalkMatchesMapSemantics() {
+        // Given
+        Map<String, Object> dmv = new HashMap<>();
+        dmv.put("lateFee", 15.0);
+        dmv.put("office", null);
+        Map<String, Object> row = new HashMap<>();
+        row.put("code", "CA");
+        row.put("dmv", dmv);
+        row.put("tags", List.of("a"));
+
+        // Then
+        assertEquals("CA", KeyPath.of("code").valueIn(row));
+        assertEquals(15.0, KeyPath.of("dmv.lateFee").valueIn(row));
+        assertNull(KeyPath.of("dmv.missing").valueIn(row));
+        assertNull(KeyPath.of("tags.first").valueIn(row));
+        assertNull(KeyPath.of("code.length").valueIn(row));
+
+        assertTrue(KeyPath.of("dmv.office").existsIn(row));
+        assertFalse(KeyPath.of("dmv.missing").existsIn(row));
+        assertFalse(KeyPath.of("tags.first").existsIn(row));
+        assertTrue(KeyPath.of("dmv").existsIn(row));
+    }
+
+    @Test
+    void testSegmentationFollowsStringSplit() {
+        // Then - trailing empty segments are dropped, inner ones kept
+        assertEquals("dmv", KeyPath.of("dmv.").normalized());
+        assertTrue(KeyPath.of("dmv.").isNested());
+        assertEquals(3, KeyPath.of("a..b").depth());
+        assertEquals("", KeyPath.of(".a").segment(0));
+    }
+}
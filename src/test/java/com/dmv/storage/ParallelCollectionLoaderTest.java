@@ -0,0 +1,89 @@
+package com.dmv.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelCollectionLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testShardsAreFoundInShardNumberOrder() throws IOException {
+        // Given
+        Files.writeString(tempDir.resolve("violations.part-010.ndjson"), "{\"id\": 3}\n");
+        Files.writeString(tempDir.resolve("violations.part-002.json"), "[{\"id\": 2}]");
+        Files.writeString(tempDir.resolve("violations.part-000.ndjson"), "{\"id\": 1}\n");
+        Files.writeString(tempDir.resolve("violations-archive.json"), "[]");
+        Files.writeString(tempDir.resolve("violations-2024.json"), "[]");
+
+        // When
+        List<Path> shards = ParallelCollectionLoader.sourceFiles(tempDir, "violations");
+
+        // Then - a dash and digits alone do not make a shard
+        assertEquals(List.of("violations.part-000.ndjson", "violations.part-002.json", "violations.part-010.ndjson"),
+            shards.stream().map(path -> path.getFileName().toString()).toList());
+        assertEquals("violations", ParallelCollectionLoader.collectionOf("violations.part-010.ndjson"));
+        assertEquals("violations-archive", ParallelCollectionLoader.collectionOf("violations-archive.json"));
+        assertEquals("fee-2024", ParallelCollectionLoader.collectionOf("fee-2024.json"));
+        assertEquals(List.of("violations-2024.json"),
+            ParallelCollectionLoader.sourceFiles(tempDir, "violations-2024").stream().map(path -> path.getFileName().toString()).toList());
+        assertNull(ParallelCollectionLoader.collectionOf("notes.txt"));
+        assertTrue(ParallelCollectionLoader.sourceFiles(tempDir, "missing").isEmpty());
+    }
+
+    @Test
+    void testLineRangesParseInFileOrder() throws IOException {
+        // Given - well over the minimum range size, so the file is split across workers
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 40_000; i++) {
+            lines.append("{\"id\": ").append(i).append(", \"note\": \"").append("x".repeat(40)).append("\"}\r\n");
+            if (i % 1000 == 0) {
+                lines.append("\n");
+            }
+        }
+        Path file = tempDir.resolve("violations.ndjson");
+        Files.writeString(file, lines);
+        ParallelCollectionLoader loader = new ParallelCollectionLoader(new ObjectMapper(), 4);
+        AtomicReference<CollectionLoadStats> stats = new AtomicReference<>();
+
+        // When
+        List<Map<String, Object>> rows = loader.load("violations", List.of(file), stats::set);
+
+        // Then
+        List<Object> ids = new ArrayList<>();
+        rows.forEach(row -> ids.add(row.get("id")));
+        for (int i = 0; i < 40_000; i++) {
+            assertEquals(i, ids.get(i));
+        }
+        assertEquals(40_000, ids.size());
+        assertTrue(stats.get().chunks() > 1);
+        assertEquals(Files.size(file), stats.get().bytes());
+        assertEquals(4, stats.get().parallelism());
+    }
+
+    @Test
+    void testInvalidLineNamesTheFile() throws IOException {
+        // Given
+        Path file = tempDir.resolve("broken.ndjson");
+        Files.writeString(file, "{\"id\": 1}\n{\"id\": \n");
+        ParallelCollectionLoader loader = new ParallelCollectionLoader(new ObjectMapper(), 2);
+
+        // When
+        IOException error = assertThrows(IOException.class, () -> loader.load("broken", List.of(file), stats -> { }));
+
+        // Then
+        assertTrue(error.getMessage().contains("broken.ndjson"));
+    }
+}